@@ -0,0 +1,28 @@
+package cz.cvut.kbss.termit.aspect;
+
+import cz.cvut.kbss.termit.persistence.invalidation.InvalidationBus;
+import cz.cvut.kbss.termit.persistence.invalidation.InvalidationType;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Records data modifications made by DAOs, so that other TermIt instances can evict their caches.
+ */
+@Aspect
+public class CacheInvalidationAspect {
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Pointcut("@annotation(cz.cvut.kbss.termit.asset.provenance.ModifiesData) && target(cz.cvut.kbss.termit.persistence.dao.BaseDao)")
+    public void dataModificationOperation() {
+    }
+
+    @AfterReturning("dataModificationOperation()")
+    public void dataModified(JoinPoint joinPoint) {
+        invalidationBus.record(InvalidationType.DATA, joinPoint.getTarget().getClass().getName());
+    }
+}
@@ -1,12 +1,18 @@
 package cz.cvut.kbss.termit.aspect;
 
 import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.After;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 
+import java.net.URI;
+
 @Aspect
 public class VocabularyContentModificationAspect {
 
@@ -17,8 +23,36 @@ public class VocabularyContentModificationAspect {
     public void vocabularyContentModificationOperation() {
     }
 
+    @Pointcut("@annotation(cz.cvut.kbss.termit.asset.provenance.ModifiesData) && target(cz.cvut.kbss.termit.persistence.dao.VocabularyDao)")
+    public void vocabularyModificationOperation() {
+    }
+
     @After("vocabularyContentModificationOperation()")
-    public void vocabularyContentModified() {
-        eventPublisher.publishEvent(new VocabularyContentModified(this));
+    public void vocabularyContentModified(JoinPoint joinPoint) {
+        eventPublisher.publishEvent(new VocabularyContentModified(this, resolveVocabulary(joinPoint.getArgs())));
+    }
+
+    @After("vocabularyModificationOperation()")
+    public void vocabularyModified(JoinPoint joinPoint) {
+        eventPublisher.publishEvent(new VocabularyModified(this, resolveVocabulary(joinPoint.getArgs())));
+    }
+
+    /**
+     * Resolves identifier of the vocabulary affected by an operation with the specified arguments.
+     * <p>
+     * Explicitly passed vocabulary takes precedence over the vocabulary of a term, because the latter need not be set
+     * (e.g., when a term is being persisted).
+     */
+    private static URI resolveVocabulary(Object[] args) {
+        URI result = null;
+        for (Object arg : args) {
+            if (arg instanceof Vocabulary) {
+                return ((Vocabulary) arg).getUri();
+            }
+            if (result == null && arg instanceof AbstractTerm) {
+                result = ((AbstractTerm) arg).getVocabulary();
+            }
+        }
+        return result;
     }
 }
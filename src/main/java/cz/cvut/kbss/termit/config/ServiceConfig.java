@@ -12,6 +12,7 @@
 package cz.cvut.kbss.termit.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.cvut.kbss.termit.aspect.CacheInvalidationAspect;
 import cz.cvut.kbss.termit.aspect.ChangeTrackingAspect;
 import cz.cvut.kbss.termit.aspect.VocabularyContentModificationAspect;
 import org.apache.http.client.HttpClient;
@@ -88,4 +89,10 @@ public class ServiceConfig {
         // Need to create the aspect as a bean, so that it can be injected into
         return Aspects.aspectOf(VocabularyContentModificationAspect.class);
     }
+
+    @Bean
+    CacheInvalidationAspect cacheInvalidationAspect() {
+        // Need to create the aspect as a bean, so that it can be injected into
+        return Aspects.aspectOf(CacheInvalidationAspect.class);
+    }
 }
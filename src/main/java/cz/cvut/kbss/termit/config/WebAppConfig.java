@@ -24,6 +24,8 @@ import cz.cvut.kbss.jopa.model.MultilingualString;
 import cz.cvut.kbss.jopa.sessions.UnitOfWorkImpl;
 import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.jsonld.jackson.JsonLdModule;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.rest.servlet.DiagnosticsContextFilter;
 import cz.cvut.kbss.termit.util.AdjustedUriTemplateProxyServlet;
 import cz.cvut.kbss.termit.util.ConfigParam;
@@ -31,6 +33,9 @@ import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.json.ManageableIgnoreMixin;
 import cz.cvut.kbss.termit.util.json.MultilingualStringDeserializer;
 import cz.cvut.kbss.termit.util.json.MultilingualStringSerializer;
+import cz.cvut.kbss.termit.util.json.TermDtoSerializer;
+import cz.cvut.kbss.termit.util.json.TermInfoSerializer;
+import cz.cvut.kbss.termit.util.json.TermListJsonLdMessageConverter;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -84,6 +89,11 @@ public class WebAppConfig implements WebMvcConfigurer {
         multilingualStringModule.addSerializer(MultilingualString.class, new MultilingualStringSerializer());
         multilingualStringModule.addDeserializer(MultilingualString.class, new MultilingualStringDeserializer());
         objectMapper.registerModule(multilingualStringModule);
+        // Term listings are large, avoid reflection-based serialization of their items
+        final SimpleModule termListingModule = new SimpleModule();
+        termListingModule.addSerializer(TermDto.class, new TermDtoSerializer());
+        termListingModule.addSerializer(TermInfo.class, new TermInfoSerializer());
+        objectMapper.registerModule(termListingModule);
         // Ignore UoW references injected into entities
         objectMapper.addMixIn(UnitOfWorkImpl.class, ManageableIgnoreMixin.class);
         // JSR 310 (Java 8 DateTime API)
@@ -151,6 +161,8 @@ public class WebAppConfig implements WebMvcConfigurer {
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
         final StringHttpMessageConverter stringConverter = new StringHttpMessageConverter(StandardCharsets.UTF_8);
         converters.add(stringConverter);
+        // Term listings are written with a shared context, other JSON-LD is handled by the generic converter
+        converters.add(new TermListJsonLdMessageConverter());
         converters.add(createJsonLdMessageConverter());
         converters.add(createDefaultMessageConverter());
         converters.add(new ResourceHttpMessageConverter());
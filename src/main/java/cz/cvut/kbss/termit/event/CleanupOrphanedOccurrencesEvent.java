@@ -0,0 +1,13 @@
+package cz.cvut.kbss.termit.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Indicates that all orphaned term occurrences in the repository should be removed.
+ */
+public class CleanupOrphanedOccurrencesEvent extends ApplicationEvent {
+
+    public CleanupOrphanedOccurrencesEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,13 @@
+package cz.cvut.kbss.termit.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Indicates that delta-encoded vocabulary snapshots should be compacted into full checkpoints.
+ */
+public class CompactSnapshotsEvent extends ApplicationEvent {
+
+    public CompactSnapshotsEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,30 @@
+package cz.cvut.kbss.termit.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Objects;
+
+/**
+ * Indicates that data managed by a DAO were modified by another TermIt instance sharing the repository.
+ * <p>
+ * Published when the corresponding invalidation is replayed, so that caches and indexes maintained incrementally by the
+ * DAO can be invalidated.
+ */
+public class DataModifiedEvent extends ApplicationEvent {
+
+    private final String daoClass;
+
+    public DataModifiedEvent(Object source, String daoClass) {
+        super(source);
+        this.daoClass = Objects.requireNonNull(daoClass);
+    }
+
+    /**
+     * Gets the name of the class of the DAO which modified the data.
+     *
+     * @return Fully qualified class name
+     */
+    public String getDaoClass() {
+        return daoClass;
+    }
+}
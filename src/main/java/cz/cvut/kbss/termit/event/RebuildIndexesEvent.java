@@ -0,0 +1,13 @@
+package cz.cvut.kbss.termit.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Indicates that application indexes should be rebuilt from the repository data.
+ */
+public class RebuildIndexesEvent extends ApplicationEvent {
+
+    public RebuildIndexesEvent(Object source) {
+        super(source);
+    }
+}
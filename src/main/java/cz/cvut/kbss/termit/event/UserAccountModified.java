@@ -0,0 +1,30 @@
+package cz.cvut.kbss.termit.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * Represents an event of modification (or removal) of a user account.
+ * <p>
+ * This includes changes of account status (lock, disable) and of user role.
+ */
+public class UserAccountModified extends ApplicationEvent {
+
+    private final URI userUri;
+
+    public UserAccountModified(Object source, URI userUri) {
+        super(source);
+        this.userUri = Objects.requireNonNull(userUri);
+    }
+
+    /**
+     * Gets identifier of the modified user account.
+     *
+     * @return User account identifier
+     */
+    public URI getUserUri() {
+        return userUri;
+    }
+}
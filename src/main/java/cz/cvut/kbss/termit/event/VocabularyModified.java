@@ -0,0 +1,30 @@
+package cz.cvut.kbss.termit.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.net.URI;
+
+/**
+ * Represents an event of modification of a vocabulary itself, i.e., its creation, update of its metadata or its
+ * removal.
+ * <p>
+ * Changes of the content of a vocabulary (its terms) are represented by {@link VocabularyContentModified}.
+ */
+public class VocabularyModified extends ApplicationEvent {
+
+    private final URI vocabularyIri;
+
+    public VocabularyModified(Object source, URI vocabularyIri) {
+        super(source);
+        this.vocabularyIri = vocabularyIri;
+    }
+
+    /**
+     * Gets identifier of the modified vocabulary.
+     *
+     * @return Vocabulary identifier, {@code null} if it is not known
+     */
+    public URI getVocabularyIri() {
+        return vocabularyIri;
+    }
+}
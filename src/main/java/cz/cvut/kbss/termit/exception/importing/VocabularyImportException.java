@@ -31,6 +31,11 @@ public class VocabularyImportException extends TermItException {
         this.messageId = null;
     }
 
+    public VocabularyImportException(String message, Throwable cause) {
+        super(message, cause);
+        this.messageId = null;
+    }
+
     public VocabularyImportException(String message, String messageId) {
         super(message);
         this.messageId = messageId;
@@ -0,0 +1,62 @@
+package cz.cvut.kbss.termit.persistence.dao;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.index.fts.FullTextIndex;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.Objects;
+
+/**
+ * Full text search using the embedded {@link FullTextIndex} instead of querying the repository.
+ * <p>
+ * Used when the repository does not provide its own text index and the embedded index is enabled.
+ */
+@Repository
+@Profile("!lucene")
+@ConditionalOnProperty(prefix = "termit.search.index", name = "enabled", havingValue = "true")
+public class IndexedSearchDao extends SearchDao {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexedSearchDao.class);
+
+    private final FullTextIndex index;
+
+    @Autowired
+    public IndexedSearchDao(EntityManager em, Configuration config, VocabularyContextMapper contextMapper,
+                            FullTextIndex index) {
+        super(em, config, contextMapper);
+        this.index = index;
+    }
+
+    @Override
+    public Page<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
+        if (searchString.isBlank()) {
+            return Page.empty(pageSpec);
+        }
+        LOG.trace("Running indexed full text search for search string \"{}\", page {}.", searchString, pageSpec);
+        return index.search(searchString, false, pageSpec);
+    }
+
+    @Override
+    public Page<FullTextSearchResult> fullTextSearchIncludingSnapshots(String searchString, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
+        if (searchString.isBlank()) {
+            return Page.empty(pageSpec);
+        }
+        LOG.trace("Running indexed full text search (including snapshots) for search string \"{}\", page {}.",
+                  searchString, pageSpec);
+        return index.search(searchString, true, pageSpec);
+    }
+}
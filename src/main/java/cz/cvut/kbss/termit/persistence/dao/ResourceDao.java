@@ -25,12 +25,15 @@ import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.util.SparqlResultToResourceMapper;
+import cz.cvut.kbss.termit.persistence.version.VersionCounters;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
@@ -39,11 +42,17 @@ public class ResourceDao extends BaseAssetDao<Resource> implements SupportsLastM
 
     private static final URI LABEL_PROPERTY = URI.create(DC.Terms.TITLE);
 
-    private volatile long lastModified;
+    /**
+     * Key of the version counter used as last modification timestamp of resources
+     */
+    static final String VERSION_COUNTER = "resources";
 
-    public ResourceDao(EntityManager em, Configuration config, DescriptorFactory descriptorFactory) {
+    private final VersionCounters versionCounters;
+
+    public ResourceDao(EntityManager em, Configuration config, DescriptorFactory descriptorFactory,
+                       VersionCounters versionCounters) {
         super(Resource.class, em, config.getPersistence(), descriptorFactory);
-        refreshLastModified();
+        this.versionCounters = versionCounters;
     }
 
     @Override
@@ -134,17 +143,30 @@ public class ResourceDao extends BaseAssetDao<Resource> implements SupportsLastM
     @Override
     public List<Resource> findAll() {
         try {
-            return em.createNativeQuery("SELECT ?x WHERE {" +
-                    "?x a ?type ;" +
-                    "?hasLabel ?label ." +
-                    "FILTER NOT EXISTS { ?y ?hasFile ?x . } " +
-                    "FILTER NOT EXISTS { ?x a ?vocabulary . } " +
-                    "} ORDER BY LCASE(?label)", Resource.class)
-                     .setParameter("type", typeUri)
-                     .setParameter("hasLabel", labelProperty())
-                     .setParameter("hasFile", URI.create(Vocabulary.s_p_ma_soubor))
-                     .setParameter("vocabulary", URI.create(Vocabulary.s_c_slovnik))
-                     .getResultList();
+            final List<?> statements = em.createNativeQuery("SELECT ?x ?s ?p ?o WHERE {" +
+                                                                    "?x a ?type ." +
+                                                                    "FILTER EXISTS { ?x ?hasLabel ?label . } " +
+                                                                    "FILTER NOT EXISTS { ?y ?hasFile ?x . } " +
+                                                                    "FILTER NOT EXISTS { ?x a ?vocabulary . } " +
+                                                                    "{ ?x ?p ?o . BIND (?x AS ?s) } " +
+                                                                    "UNION { ?x ?hasFile ?s . ?s ?p ?o . } " +
+                                                                    "UNION { ?o ?describesDocument ?x . " +
+                                                                    "BIND (?x AS ?s) " +
+                                                                    "BIND (?hasDocumentVocabulary AS ?p) } " +
+                                                                    "}")
+                                          .setParameter("type", typeUri)
+                                          .setParameter("hasLabel", labelProperty())
+                                          .setParameter("hasFile", URI.create(Vocabulary.s_p_ma_soubor))
+                                          .setParameter("vocabulary", URI.create(Vocabulary.s_c_slovnik))
+                                          .setParameter("describesDocument",
+                                                        URI.create(Vocabulary.s_p_popisuje_dokument))
+                                          .setParameter("hasDocumentVocabulary",
+                                                        URI.create(Vocabulary.s_p_ma_dokumentovy_slovnik))
+                                          .getResultList();
+            final List<Resource> result = new SparqlResultToResourceMapper(config.getLanguage()).map(statements);
+            result.sort(Comparator.comparing(r -> r.getLabel() != null ? r.getLabel().toLowerCase() : null,
+                                             Comparator.nullsLast(Comparator.naturalOrder())));
+            return result;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -152,12 +174,12 @@ public class ResourceDao extends BaseAssetDao<Resource> implements SupportsLastM
 
     @Override
     public long getLastModified() {
-        return lastModified;
+        return versionCounters.getOrInitialize(VERSION_COUNTER);
     }
 
     @Override
     public void refreshLastModified() {
-        this.lastModified = System.currentTimeMillis();
+        versionCounters.increment(VERSION_COUNTER);
     }
 
     @EventListener
@@ -19,29 +19,43 @@ import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.util.TopKCollector;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
 import java.net.URI;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 @Repository
 @Profile("!lucene")
+@ConditionalOnProperty(prefix = "termit.search.index", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class SearchDao {
 
     private static final String FTS_QUERY_FILE = "fulltextsearch.rq";
 
     private static final Logger LOG = LoggerFactory.getLogger(SearchDao.class);
 
+    /**
+     * Results with higher score first, results with equal (or no) score ordered by label.
+     */
+    private static final Comparator<FullTextSearchResult> RESULT_ORDER =
+            Comparator.comparing(FullTextSearchResult::getScore, Comparator.nullsLast(Comparator.reverseOrder()))
+                      .thenComparing(FullTextSearchResult::getLabel, Comparator.nullsLast(Comparator.naturalOrder()));
+
     private final Configuration.Persistence config;
 
     private final VocabularyContextMapper contextMapper;
@@ -75,14 +89,29 @@ public class SearchDao {
      * @see #fullTextSearchIncludingSnapshots(String)
      */
     public List<FullTextSearchResult> fullTextSearch(String searchString) {
+        return fullTextSearch(searchString, Constants.DEFAULT_PAGE_SPEC).getContent();
+    }
+
+    /**
+     * Finds the best-ranking terms and vocabularies that match the specified search string.
+     * <p>
+     * Results are ordered by score (descending) and label. Only the requested page of results is kept in memory,
+     * the total number of matching results is available in the returned page.
+     * <p>
+     * Note that this version of the search excludes asset snapshots from the results.
+     *
+     * @param searchString The string to search by
+     * @param pageSpec     Specification of the page of results to return
+     * @return Page of matching results
+     */
+    public Page<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
         Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
         if (searchString.isBlank()) {
-            return Collections.emptyList();
+            return Page.empty(pageSpec);
         }
-        LOG.trace("Running full text search for search string \"{}\".", searchString);
-        return setCommonQueryParams(em.createNativeQuery(ftsQuery, "FullTextSearchResult"), searchString)
-                .setParameter("snapshot", URI.create(Vocabulary.s_c_verze_objektu))
-                .getResultList();
+        LOG.trace("Running full text search for search string \"{}\", page {}.", searchString, pageSpec);
+        return collectTopResults(createFullTextSearchQuery(searchString, false), pageSpec);
     }
 
     /**
@@ -95,16 +124,54 @@ public class SearchDao {
      *
      * @param searchString The string to search by
      * @return List of matching results
-     * @see #fullTextSearchIncludingSnapshots(String)
+     * @see #fullTextSearch(String)
      */
     public List<FullTextSearchResult> fullTextSearchIncludingSnapshots(String searchString) {
+        return fullTextSearchIncludingSnapshots(searchString, Constants.DEFAULT_PAGE_SPEC).getContent();
+    }
+
+    /**
+     * Finds the best-ranking terms and vocabularies that match the specified search string, including asset
+     * snapshots.
+     *
+     * @param searchString The string to search by
+     * @param pageSpec     Specification of the page of results to return
+     * @return Page of matching results
+     * @see #fullTextSearch(String, Pageable)
+     */
+    public Page<FullTextSearchResult> fullTextSearchIncludingSnapshots(String searchString, Pageable pageSpec) {
         Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
         if (searchString.isBlank()) {
-            return Collections.emptyList();
+            return Page.empty(pageSpec);
+        }
+        LOG.trace("Running full text search (including snapshots) for search string \"{}\", page {}.", searchString,
+                  pageSpec);
+        return collectTopResults(createFullTextSearchQuery(searchString, true), pageSpec);
+    }
+
+    /**
+     * Creates the full text search query, with all parameters set.
+     *
+     * @param searchString     The string to search by
+     * @param includeSnapshots Whether the query should include asset snapshots
+     * @return Query ready for execution
+     */
+    protected Query createFullTextSearchQuery(String searchString, boolean includeSnapshots) {
+        if (includeSnapshots) {
+            return setCommonQueryParams(em.createNativeQuery(queryIncludingSnapshots(), "FullTextSearchResult"),
+                                        searchString);
+        }
+        return setCommonQueryParams(em.createNativeQuery(ftsQuery, "FullTextSearchResult"), searchString)
+                .setParameter("snapshot", URI.create(Vocabulary.s_c_verze_objektu));
+    }
+
+    private static Page<FullTextSearchResult> collectTopResults(Query query, Pageable pageSpec) {
+        final TopKCollector<FullTextSearchResult> collector = new TopKCollector<>(RESULT_ORDER, pageSpec);
+        try (final Stream<?> results = query.getResultStream()) {
+            results.forEach(r -> collector.accept((FullTextSearchResult) r));
         }
-        LOG.trace("Running full text search (including snapshots) for search string \"{}\".", searchString);
-        return setCommonQueryParams(em.createNativeQuery(queryIncludingSnapshots(), "FullTextSearchResult"),
-                                    searchString).getResultList();
+        return collector.toPage();
     }
 
     protected Query setCommonQueryParams(Query q, String searchString) {
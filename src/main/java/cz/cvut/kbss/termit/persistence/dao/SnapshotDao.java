@@ -4,6 +4,7 @@ import cz.cvut.kbss.jopa.exceptions.NoResultException;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.termit.dto.Snapshot;
 import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.persistence.snapshot.AssetSnapshotLoader;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.springframework.stereotype.Repository;
 
@@ -40,6 +41,8 @@ public class SnapshotDao {
                                                                        "?versionOf ?asset ; " +
                                                                        "?hasCreated ?created . " +
                                                                        "FILTER (?type in (?supportedTypes)) " +
+                                                                       AssetSnapshotLoader.incompleteSnapshotFilter(
+                                                                               "?id") +
                                                                        "BIND (?id as ?s)" +
                                                                        "}", "Snapshot")
                                             .setParameter("id", uri)
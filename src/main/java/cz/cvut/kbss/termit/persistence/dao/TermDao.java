@@ -17,7 +17,7 @@ package cz.cvut.kbss.termit.persistence.dao;
 import cz.cvut.kbss.jopa.exceptions.NoResultException;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
-import cz.cvut.kbss.jopa.model.query.TypedQuery;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.asset.provenance.ModifiesData;
 import cz.cvut.kbss.termit.dto.Snapshot;
@@ -28,13 +28,24 @@ import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.AbstractTerm;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
-import cz.cvut.kbss.termit.model.util.HasIdentifier;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
-import cz.cvut.kbss.termit.persistence.dao.util.Cache;
+import cz.cvut.kbss.termit.persistence.dao.util.ReadOnlyQueryExecutor;
+import cz.cvut.kbss.termit.persistence.dao.util.SparqlResultToTermDtoMapper;
+import cz.cvut.kbss.termit.persistence.dao.util.SparqlResultToTermInfoMapper;
+import cz.cvut.kbss.termit.persistence.dao.util.SparqlResultToTermMapper;
+import cz.cvut.kbss.termit.persistence.index.hierarchy.TermHierarchyIndex;
+import cz.cvut.kbss.termit.persistence.index.label.TermLabelIndex;
+import cz.cvut.kbss.termit.persistence.index.order.TermOrderIndex;
+import cz.cvut.kbss.termit.persistence.index.vocabulary.TermVocabularyIndex;
+import cz.cvut.kbss.termit.persistence.index.vocabulary.VocabularyImportGraph;
 import cz.cvut.kbss.termit.persistence.snapshot.AssetSnapshotLoader;
+import cz.cvut.kbss.termit.persistence.snapshot.DeltaSnapshotStore;
+import cz.cvut.kbss.termit.persistence.snapshot.SnapshotCache;
+import cz.cvut.kbss.termit.persistence.version.VocabularyContentVersions;
 import cz.cvut.kbss.termit.service.snapshot.SnapshotProvider;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.TransactionUtils;
 import cz.cvut.kbss.termit.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
@@ -50,19 +61,66 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
 
     private static final URI LABEL_PROP = URI.create(SKOS.PREF_LABEL);
 
-    private final Cache<URI, Set<TermInfo>> subTermsCache;
+    private static final URI IN_VOCABULARY_PROP = URI.create(
+            cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku);
 
-    private final Comparator<TermInfo> termInfoComparator;
+    /**
+     * Properties loaded for term DTOs and their parents
+     */
+    private static final List<URI> TERM_DTO_PROPERTIES = List.of(
+            URI.create(RDF.TYPE), LABEL_PROP, URI.create(SKOS.DEFINITION), URI.create(SKOS.IN_SCHEME),
+            URI.create(SKOS.BROADER), URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_draft));
+
+    /**
+     * Properties loaded for terms referenced by full terms via SKOS related and matching properties
+     */
+    private static final List<URI> TERM_INFO_PROPERTIES = List.of(URI.create(RDF.TYPE), LABEL_PROP);
+
+    /**
+     * Properties whose inverse is loaded together with a term (subterms and symmetric SKOS relationships)
+     */
+    private static final List<URI> INVERSE_PROPERTIES = List.of(
+            URI.create(SKOS.BROADER), URI.create(SKOS.RELATED), URI.create(SKOS.RELATED_MATCH),
+            URI.create(SKOS.EXACT_MATCH));
 
     private final VocabularyContextMapper contextMapper;
 
+    private final TermLabelIndex labelIndex;
+
+    private final TermOrderIndex orderIndex;
+
+    private final VocabularyImportGraph importGraph;
+
+    private final DeltaSnapshotStore deltaStore;
+
+    private final SnapshotCache snapshotCache;
+
+    private final VocabularyContentVersions contentVersions;
+
+    private final ReadOnlyQueryExecutor readOnlyQuery;
+
+    private final TermVocabularyIndex vocabularyIndex;
+
+    private final TermHierarchyIndex hierarchyIndex;
+
     @Autowired
     public TermDao(EntityManager em, Configuration config, DescriptorFactory descriptorFactory,
-                   Cache<URI, Set<TermInfo>> subTermsCache, VocabularyContextMapper contextMapper) {
+                   VocabularyContextMapper contextMapper,
+                   TermLabelIndex labelIndex, TermOrderIndex orderIndex, VocabularyImportGraph importGraph,
+                   DeltaSnapshotStore deltaStore, SnapshotCache snapshotCache,
+                   VocabularyContentVersions contentVersions, ReadOnlyQueryExecutor readOnlyQuery,
+                   TermVocabularyIndex vocabularyIndex, TermHierarchyIndex hierarchyIndex) {
         super(Term.class, em, config.getPersistence(), descriptorFactory);
-        this.subTermsCache = subTermsCache;
-        this.termInfoComparator = Comparator.comparing(t -> t.getLabel().get(config.getPersistence().getLanguage()));
         this.contextMapper = contextMapper;
+        this.labelIndex = labelIndex;
+        this.orderIndex = orderIndex;
+        this.importGraph = importGraph;
+        this.deltaStore = deltaStore;
+        this.snapshotCache = snapshotCache;
+        this.contentVersions = contentVersions;
+        this.readOnlyQuery = readOnlyQuery;
+        this.vocabularyIndex = vocabularyIndex;
+        this.hierarchyIndex = hierarchyIndex;
     }
 
     @Override
@@ -73,34 +131,61 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     @Override
     public Optional<Term> find(URI id) {
         Objects.requireNonNull(id);
-        try {
-            final Descriptor loadingDescriptor = descriptorFactory.termDescriptor(resolveTermVocabulary(id));
-            final Optional<Term> result = Optional.ofNullable(em.find(type, id, loadingDescriptor));
-            result.ifPresent(this::postLoad);
-            return result;
-        } catch (RuntimeException e) {
-            throw new PersistenceException(e);
-        }
+        return snapshotCache.getAsset(id, () -> {
+            try {
+                final URI vocabulary = resolveTermVocabulary(id);
+                final Descriptor loadingDescriptor = descriptorFactory.termDescriptor(vocabulary);
+                // Terms from snapshots which are still being created are not found
+                final URI context = contextMapper.getVocabularyContext(vocabulary);
+                final Optional<Term> result = Optional.ofNullable(
+                        deltaStore.read(vocabulary, snapshotEm -> snapshotEm.find(type, id, loadingDescriptor)))
+                        .filter(t -> !t.isSnapshot() || snapshotLoader().isComplete(context));
+                result.ifPresent(t -> postLoad(t, vocabulary));
+                return result;
+            } catch (RuntimeException e) {
+                throw new PersistenceException(e);
+            }
+        }, Term::isSnapshot);
     }
 
+    /**
+     * Resolves identifier of the vocabulary containing the specified term.
+     * <p>
+     * The vocabulary is looked up in the {@link TermVocabularyIndex}, the repository is queried only if the term is not
+     * in the index.
+     */
     private URI resolveTermVocabulary(URI termUri) {
+        final Optional<URI> indexed = vocabularyIndex.find(termUri);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
         try {
-            return em.createNativeQuery("SELECT DISTINCT ?v WHERE { ?t ?inVocabulary ?v . }", URI.class)
-                     .setParameter("inVocabulary",
-                                   URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                     .setParameter("t", termUri)
-                     .getSingleResult();
+            final long modificationCount = vocabularyIndex.getModificationCount();
+            final URI vocabulary = em.createNativeQuery("SELECT DISTINCT ?v WHERE { ?t ?inVocabulary ?v . }",
+                                                        URI.class)
+                                     .setParameter("inVocabulary", IN_VOCABULARY_PROP)
+                                     .setParameter("t", termUri)
+                                     .getSingleResult();
+            vocabularyIndex.put(termUri, vocabulary, modificationCount);
+            return vocabulary;
         } catch (NoResultException e) {
             throw NotFoundException.create(Term.class, termUri);
         }
     }
 
-    private void postLoad(Term r) {
-        final Descriptor descriptor = descriptorFactory.termInfoDescriptor(findAllVocabularies().toArray(new URI[]{}));
-        r.setSubTerms(getSubTerms(r, descriptor));
-        r.setInverseRelated(loadInverseRelatedTerms(r, descriptor));
-        r.setInverseRelatedMatch(loadInverseRelatedMatchTerms(r, descriptor));
-        r.setInverseExactMatchTerms(loadInverseExactMatchTerms(r, descriptor));
+    private void postLoad(Term r, URI vocabulary) {
+        loadInverseRelationships(Collections.singletonList(r), relatedContexts(vocabulary));
+    }
+
+    /**
+     * Gets contexts from which terms related to terms of the specified vocabulary are loaded.
+     * <p>
+     * Terms from a vocabulary snapshot stored as a delta are related only to terms from the snapshots created together
+     * with it, which can be read from the materialized snapshots.
+     */
+    private Set<URI> relatedContexts(URI vocabulary) {
+        return deltaStore.isDeltaSnapshot(vocabulary) ? deltaStore.getSnapshotContexts(vocabulary) :
+               contexts(findAllVocabularies());
     }
 
     @Override
@@ -123,66 +208,95 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     }
 
     /**
-     * Loads terms whose relatedness to the specified term is inferred due to the symmetry of SKOS related.
-     *
-     * @param term              Term to load related terms for
-     * @param loadingDescriptor Descriptor for the loaded related terms
-     */
-    private Set<TermInfo> loadInverseRelatedTerms(Term term, Descriptor loadingDescriptor) {
-        return loadInverseTermInfo(term, SKOS.RELATED,
-                                   Utils.joinCollections(term.getRelated(), term.getRelatedMatch()), loadingDescriptor);
-    }
-
-    /**
-     * Loads information about terms that have the specified term as object of assertion of the specified property.
+     * Loads subterms and terms whose relationships to the specified terms are inferred due to the symmetry of SKOS
+     * related, relatedMatch and exactMatch.
+     * <p>
+     * All the relationships of all the specified terms are loaded by a single query.
      *
-     * @param term       Assertion object
-     * @param property   Property
-     * @param exclude    Terms to exclude from the result
-     * @param descriptor Descriptor for the loaded terms. Used to determine contexts to load the relationships and terms
-     *                   from
-     * @return Set of matching terms
+     * @param terms    Terms to load the relationships for
+     * @param contexts Contexts from which the related terms are loaded
      */
-    private Set<TermInfo> loadInverseTermInfo(HasIdentifier term, String property, Collection<TermInfo> exclude,
-                                              Descriptor descriptor) {
-        final List<TermInfo> result = em.createNativeQuery("SELECT ?inverse WHERE {" +
-                                                                   "GRAPH ?g { " +
-                                                                   "?inverse ?property ?term . } " +
-                                                                   "?inverse a ?type ." +
-                                                                   "FILTER (?inverse NOT IN (?exclude))" +
-                                                                   "FILTER (?g IN (?contexts))" +
-                                                                   "} ORDER BY ?inverse", TermInfo.class)
-                                        .setParameter("property", URI.create(property))
-                                        .setParameter("term", term)
-                                        .setParameter("type", typeUri)
-                                        .setParameter("exclude", exclude)
-                                        .setParameter("contexts", descriptor.getContexts())
-                                        .setDescriptor(descriptor)
-                                        .getResultList();
-        result.sort(termInfoComparator);
+    private void loadInverseRelationships(Collection<Term> terms, Collection<URI> contexts) {
+        if (terms.isEmpty()) {
+            return;
+        }
+        final Map<URI, Map<URI, List<TermInfo>>> inverse = loadInverseTermInfo(
+                terms.stream().map(Term::getUri).collect(Collectors.toList()), INVERSE_PROPERTIES, contexts);
+        terms.forEach(t -> {
+            final Map<URI, List<TermInfo>> termInverse = inverse.getOrDefault(t.getUri(), Collections.emptyMap());
+            t.setSubTerms(isInHierarchyIndex(t) ? getIndexedSubTerms(t) :
+                          inverseTermInfo(termInverse, SKOS.BROADER, Collections.emptySet()));
+            t.setInverseRelated(inverseTermInfo(termInverse, SKOS.RELATED,
+                                                Utils.joinCollections(t.getRelated(), t.getRelatedMatch())));
+            t.setInverseRelatedMatch(inverseTermInfo(termInverse, SKOS.RELATED_MATCH,
+                                                     Utils.emptyIfNull(t.getRelatedMatch())));
+            t.setInverseExactMatchTerms(inverseTermInfo(termInverse, SKOS.EXACT_MATCH,
+                                                        Utils.emptyIfNull(t.getExactMatchTerms())));
+        });
+    }
+
+    private Set<TermInfo> inverseTermInfo(Map<URI, List<TermInfo>> inverse, String property,
+                                          Collection<TermInfo> exclude) {
+        final List<TermInfo> result = inverse.getOrDefault(URI.create(property), Collections.emptyList()).stream()
+                                             .filter(ti -> !exclude.contains(ti))
+                                             .collect(Collectors.toList());
+        orderIndex.sortByLabel(result, TermInfo::getLabel);
         return new LinkedHashSet<>(result);
     }
 
     /**
-     * Loads terms whose relatedness to the specified term is inferred due to the symmetry of SKOS relatedMatch.
-     *
-     * @param term              Term to load related terms for
-     * @param loadingDescriptor Descriptor for the loaded terms
-     */
-    private Set<TermInfo> loadInverseRelatedMatchTerms(Term term, Descriptor loadingDescriptor) {
-        return loadInverseTermInfo(term, SKOS.RELATED_MATCH, Utils.emptyIfNull(term.getRelatedMatch()),
-                                   loadingDescriptor);
-    }
-
-    /**
-     * Loads terms whose exact match to the specified term is inferred due to the symmetry of SKOS exactMatch.
+     * Loads information about terms that have any of the specified terms as object of assertion of any of the
+     * specified properties.
+     * <p>
+     * The terms are loaded by a read-only query, so they are not managed by the persistence context.
      *
-     * @param term              Term to load related terms for
-     * @param loadingDescriptor Descriptor for the loaded terms
+     * @param terms      Assertion objects
+     * @param properties Properties
+     * @param contexts   Contexts to load the relationships and terms from
+     * @return Map of assertion objects to matching terms grouped by property
      */
-    private Set<TermInfo> loadInverseExactMatchTerms(Term term, Descriptor loadingDescriptor) {
-        return loadInverseTermInfo(term, SKOS.EXACT_MATCH, Utils.emptyIfNull(term.getExactMatchTerms()),
-                                   loadingDescriptor);
+    private Map<URI, Map<URI, List<TermInfo>>> loadInverseTermInfo(Collection<URI> terms,
+                                                                  Collection<URI> properties,
+                                                                  Collection<URI> contexts) {
+        final List<Object[]> rows = readOnlyQuery.createQuery("SELECT ?term ?property ?inverse ?label ?vocabulary " +
+                                                                      "?inverseType WHERE {" +
+                                                                      "GRAPH ?g { " +
+                                                                      "?inverse ?property ?term . } " +
+                                                                      "FILTER (?term IN (?terms))" +
+                                                                      "FILTER (?property IN (?properties))" +
+                                                                      "?inverse a ?type ." +
+                                                                      "GRAPH ?labelContext { " +
+                                                                      "?inverse ?hasLabel ?label . } " +
+                                                                      "OPTIONAL { GRAPH ?labelContext { " +
+                                                                      "?inverse a ?inverseType . " +
+                                                                      "FILTER (?inverseType != ?type) } } " +
+                                                                      "OPTIONAL { " +
+                                                                      "?inverse ?inVocabulary ?vocabulary . }" +
+                                                                      "FILTER (?g IN (?contexts))" +
+                                                                      "FILTER (?labelContext IN (?contexts))" +
+                                                                      "}")
+                                                 .setParameter("terms", terms)
+                                                 .setParameter("properties", properties)
+                                                 .setParameter("type", typeUri)
+                                                 .setParameter("hasLabel", LABEL_PROP)
+                                                 .setParameter("inVocabulary", IN_VOCABULARY_PROP)
+                                                 .setParameter("contexts", contexts)
+                                                 .inContexts(contexts)
+                                                 .getResultList(result -> result.stream().map(Object[].class::cast)
+                                                                                .collect(Collectors.toList()));
+        final Map<URI, Map<URI, List<Object[]>>> grouped = new HashMap<>();
+        rows.forEach(row -> grouped.computeIfAbsent((URI) row[0], k -> new HashMap<>())
+                                   .computeIfAbsent((URI) row[1], k -> new ArrayList<>())
+                                   .add(Arrays.copyOfRange(row, 2, row.length)));
+        final Map<URI, Map<URI, List<TermInfo>>> result = new HashMap<>(grouped.size());
+        grouped.forEach((term, byProperty) -> {
+            final Map<URI, List<TermInfo>> termResult = new HashMap<>(byProperty.size());
+            byProperty.forEach((property, propertyRows) -> termResult.put(property,
+                                                                          new SparqlResultToTermInfoMapper().map(
+                                                                                  propertyRows)));
+            result.put(term, termResult);
+        });
+        return result;
     }
 
     @Override
@@ -206,7 +320,11 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
             entity.setGlossary(vocabulary.getGlossary().getUri());
             entity.setVocabulary(null); // This is inferred
             em.persist(entity, descriptorFactory.termDescriptorForSave(vocabulary.getUri()));
-            evictCachedSubTerms(Collections.emptySet(), entity.getParentTerms());
+            contentVersions.vocabulariesChanged(referencedVocabularies(entity));
+            labelIndex.termUpdated(vocabulary.getUri(), entity);
+            hierarchyIndex.termUpdated(vocabulary.getUri(), entity);
+            vocabularyIndex.termPersisted(entity.getUri(), vocabulary.getUri());
+            orderIndex.vocabularyChanged(vocabulary.getUri());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -224,7 +342,12 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
               .evict(TermDto.class, entity.getUri(), contextMapper.getVocabularyContext(entity.getVocabulary()));
             final Term original = em.find(Term.class, entity.getUri(), descriptorFactory.termDescriptor(entity));
             entity.setDefinitionSource(original.getDefinitionSource());
-            evictCachedSubTerms(original.getParentTerms(), entity.getParentTerms());
+            final Set<URI> referencedVocabularies = referencedVocabularies(original);
+            referencedVocabularies.addAll(referencedVocabularies(entity));
+            contentVersions.vocabulariesChanged(referencedVocabularies);
+            labelIndex.termUpdated(entity.getVocabulary(), entity);
+            hierarchyIndex.termUpdated(entity.getVocabulary(), entity);
+            orderIndex.vocabularyChanged(entity.getVocabulary());
             return em.merge(entity, descriptorFactory.termDescriptorForSave(entity));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -257,6 +380,10 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
           .setParameter("inScheme", URI.create(SKOS.IN_SCHEME))
           .setParameter("newDraft", draft)
           .setParameter("g", contextMapper.getVocabularyContext(term.getVocabulary())).executeUpdate();
+        // Status is shown also by terms referencing this one
+        final Set<URI> vocabularies = referencedVocabularies(term);
+        vocabularies.add(term.getVocabulary());
+        contentVersions.vocabulariesChanged(vocabularies);
     }
 
     /**
@@ -269,51 +396,84 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         setTermDraftStatusTo(term, false);
     }
 
-    private void evictCachedSubTerms(Set<? extends AbstractTerm> originalParents,
-                                     Set<? extends AbstractTerm> newParents) {
-        final Set<AbstractTerm> originalCopy = new HashSet<>(Utils.emptyIfNull(originalParents));
-        final Set<AbstractTerm> newCopy = new HashSet<>(Utils.emptyIfNull(newParents));
-        originalCopy.removeAll(newCopy);
-        newCopy.removeAll(originalCopy);
-        originalCopy.forEach(t -> subTermsCache.evict(t.getUri()));
-        newCopy.forEach(t -> subTermsCache.evict(t.getUri()));
+    /**
+     * Gets identifiers of vocabularies containing terms which reference the specified term or are referenced by it.
+     * <p>
+     * Representations of such terms contain basic info about the specified term, so their content version has to
+     * change together with it. This includes vocabularies not related by imports (e.g., exact matches).
+     */
+    private static Set<URI> referencedVocabularies(Term term) {
+        final Set<URI> result = new HashSet<>();
+        Utils.emptyIfNull(term.getParentTerms()).forEach(t -> result.add(t.getVocabulary()));
+        Utils.emptyIfNull(term.getSubTerms()).forEach(t -> result.add(t.getVocabulary()));
+        Utils.emptyIfNull(term.getRelated()).forEach(t -> result.add(t.getVocabulary()));
+        Utils.emptyIfNull(term.getInverseRelated()).forEach(t -> result.add(t.getVocabulary()));
+        Utils.emptyIfNull(term.getRelatedMatch()).forEach(t -> result.add(t.getVocabulary()));
+        Utils.emptyIfNull(term.getInverseRelatedMatch()).forEach(t -> result.add(t.getVocabulary()));
+        Utils.emptyIfNull(term.getExactMatchTerms()).forEach(t -> result.add(t.getVocabulary()));
+        Utils.emptyIfNull(term.getInverseExactMatchTerms()).forEach(t -> result.add(t.getVocabulary()));
+        result.remove(null);
+        return result;
     }
 
     public List<TermDto> findAll(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
         try {
-            return executeQueryAndLoadSubTerms(em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                            "GRAPH ?context { " +
-                                                                            "?term a ?type ;" +
-                                                                            "?hasLabel ?label ;" +
-                                                                            "FILTER (lang(?label) = ?labelLang) ." +
-                                                                            "}" +
-                                                                            "?term ?inVocabulary ?vocabulary ." +
-                                                                            " } ORDER BY " + orderSentence("?label"),
-                                                                    TermDto.class)
-                                                 .setParameter("context", context(vocabulary))
-                                                 .setParameter("type", typeUri)
-                                                 .setParameter("vocabulary", vocabulary)
-                                                 .setParameter("hasLabel", LABEL_PROP)
-                                                 .setParameter("inVocabulary",
-                                                               URI.create(
-                                                                       cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                                 .setParameter("labelLang", config.getLanguage())
-                                                 .setDescriptor(
-                                                         descriptorFactory.termDtoDescriptor(vocabulary.getUri())));
+            return loadTermsWithSubTerms(findTermIris(vocabulary), Collections.singleton(context(vocabulary)));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    /**
+     * Finds identifiers of terms from the specified vocabulary which have a label in the configured language.
+     */
+    private List<URI> findTermIris(Vocabulary vocabulary) {
+        return deltaStore.read(vocabulary.getUri(), vocabularyEm -> vocabularyEm
+                .createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                           "GRAPH ?context { " +
+                                           "?term a ?type ;" +
+                                           "?hasLabel ?label ;" +
+                                           "FILTER (lang(?label) = ?labelLang) ." +
+                                           "}" +
+                                           "?term ?inVocabulary ?vocabulary ." +
+                                           " }", URI.class)
+                .setParameter("context", context(vocabulary))
+                .setParameter("type", typeUri)
+                .setParameter("vocabulary", vocabulary.getUri())
+                .setParameter("hasLabel", LABEL_PROP)
+                .setParameter("inVocabulary", IN_VOCABULARY_PROP)
+                .setParameter("labelLang", config.getLanguage())
+                .getResultList());
+    }
+
     private URI context(Vocabulary vocabulary) {
         return contextMapper.getVocabularyContext(vocabulary);
     }
 
+    private Set<URI> contexts(Collection<URI> vocabularies) {
+        return vocabularies.stream().map(contextMapper::getVocabularyContext).collect(Collectors.toSet());
+    }
+
+    /**
+     * Gets identifiers of the specified vocabulary and all the vocabularies it (transitively) imports.
+     */
+    private Set<URI> importClosure(Vocabulary vocabulary) {
+        if (deltaStore.isDeltaSnapshot(vocabulary.getUri())) {
+            return deltaStore.getSnapshotContexts(vocabulary.getUri());
+        }
+        final Set<URI> result = new HashSet<>(importGraph.getTransitiveImports(vocabulary.getUri()));
+        result.add(vocabulary.getUri());
+        return result;
+    }
+
     /**
      * Gets all terms on the specified vocabulary.
      * <p>
      * No differences are made between root terms and terms with parents.
+     * <p>
+     * The terms are loaded by a read-only query, so they are not managed by the persistence context. Their definition
+     * source is not loaded.
      *
      * @param vocabulary Vocabulary whose terms should be returned
      * @return Matching terms, ordered by label
@@ -321,61 +481,151 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     public List<Term> findAllFull(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
         try {
-            // Load terms one by one. This works around the issue of terms being loaded in the persistence context
-            // as Term and TermInfo, which results in IndividualAlreadyManagedExceptions from JOPA
-            // The workaround relies on clearing the EntityManager after loading each term
-            // The price for this solution is that this method performs very poorly for larger vocabularies (hundreds of terms)
-            final List<URI> termIris = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                    "GRAPH ?context { " +
-                                                                    "?term a ?type ;" +
-                                                                    "?hasLabel ?label ;" +
-                                                                    "FILTER (lang(?label) = ?labelLang) ." +
-                                                                    "}" +
-                                                                    "?term ?inVocabulary ?vocabulary ." +
-                                                                    " } ORDER BY " + orderSentence("?label"), URI.class)
-                                         .setParameter("type", typeUri)
-                                         .setParameter("context", context(vocabulary))
-                                         .setParameter("vocabulary", vocabulary.getUri())
-                                         .setParameter("hasLabel", LABEL_PROP)
-                                         .setParameter("inVocabulary",
-                                                       URI.create(
-                                                               cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                         .setParameter("labelLang", config.getLanguage())
-                                         .setDescriptor(descriptorFactory.termDescriptor(vocabulary)).getResultList();
-            return termIris.stream().map(ti -> {
-                final Term t = find(ti).get();
-                em.clear();
-                return t;
-            }).collect(Collectors.toList());
+            final List<URI> termIris = findTermIris(vocabulary);
+            if (termIris.isEmpty()) {
+                return new ArrayList<>();
+            }
+            final Set<URI> relatedContexts = relatedContexts(vocabulary.getUri());
+            final Set<URI> contexts = new HashSet<>(relatedContexts);
+            contexts.add(context(vocabulary));
+            final String parents = "(<" + SKOS.BROADER + ">|<" + SKOS.BROAD_MATCH + ">)*";
+            final List<Term> result = readOnlyQuery.createQuery("SELECT ?term ?s ?p ?o WHERE {" +
+                                                                        "?term a ?type ." +
+                                                                        "FILTER (?term IN (?terms))" +
+                                                                        "{" +
+                                                                        "?term " + parents + " ?s ." +
+                                                                        "{ GRAPH ?g { ?s ?p ?o . } " +
+                                                                        "FILTER (?g IN (?contexts)) }" +
+                                                                        "UNION { ?s ?p ?o . " +
+                                                                        "FILTER (?p = ?inVocabulary) }" +
+                                                                        "} UNION {" +
+                                                                        "?term " + parents + " ?x ." +
+                                                                        "?x <" + SKOS.RELATED + ">|<" +
+                                                                        SKOS.RELATED_MATCH + ">|<" +
+                                                                        SKOS.EXACT_MATCH + "> ?s ." +
+                                                                        "{ GRAPH ?g { ?s ?p ?o . } " +
+                                                                        "FILTER (?g IN (?contexts)) " +
+                                                                        "FILTER (?p IN (?termInfoProperties)) }" +
+                                                                        "UNION { ?s ?p ?o . " +
+                                                                        "FILTER (?p = ?inVocabulary) }" +
+                                                                        "}}")
+                                                   .setParameter("type", typeUri)
+                                                   .setParameter("terms", termIris)
+                                                   .setParameter("contexts", contexts)
+                                                   .setParameter("inVocabulary", IN_VOCABULARY_PROP)
+                                                   .setParameter("termInfoProperties", TERM_INFO_PROPERTIES)
+                                                   .inContexts(contexts)
+                                                   .getResultList(new SparqlResultToTermMapper(config.getLanguage()));
+            loadInverseRelationships(result, relatedContexts);
+            return orderIndex.sortByLabel(result, Term::getLabel);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
-    private <T extends AbstractTerm> List<T> executeQueryAndLoadSubTerms(TypedQuery<T> query) {
-        // Clear the persistence context after executing the query and before loading subterms for each of the results
-        // This should prevent frequent IndividualAlreadyManagerExceptions thrown by the UoW
-        // These exceptions are caused by the UoW containing the individuals typically as TermDtos (results of the query)
-        // and JOPA then attempting to load them as TermInfo because they are children of some other term already managed
-        // This strategy is obviously not very efficient in terms of performance but until JOPA supports read-only
-        // transactions, this is probably the only way to prevent the aforementioned exceptions from appearing
-        final Descriptor descriptor = descriptorFactory.termInfoDescriptor(findAllVocabularies().toArray(new URI[]{}));
-        final List<T> result = query.getResultList();
-        em.clear();
-        result.forEach(t -> t.setSubTerms(getSubTerms(t, descriptor)));
-        return result;
+    /**
+     * Loads term DTOs with the specified identifiers, together with their subterms.
+     *
+     * @param termIris Identifiers of the terms to load
+     * @param contexts Contexts from which the terms are loaded
+     * @return Loaded terms, ordered by label
+     */
+    private List<TermDto> loadTermsWithSubTerms(Collection<URI> termIris, Collection<URI> contexts) {
+        final List<TermDto> result = loadTermDtos(termIris, contexts);
+        loadSubTerms(result);
+        return orderIndex.sortByLabel(result, AbstractTerm::getLabel);
+    }
+
+    /**
+     * Loads term DTOs with the specified identifiers, including their (transitive) parent terms.
+     * <p>
+     * The terms are loaded by a read-only query, so they are not managed by the persistence context. This prevents
+     * conflicts with other representations of the same terms (typically {@link TermInfo}s of subterms) in the
+     * persistence context.
+     *
+     * @param termIris Identifiers of the terms to load
+     * @param contexts Contexts from which the terms (and their parents) are loaded
+     * @return Loaded terms, in no particular order. Terms not found in the specified contexts are skipped
+     */
+    private List<TermDto> loadTermDtos(Collection<URI> termIris, Collection<URI> contexts) {
+        if (termIris.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return readOnlyQuery.createQuery("SELECT ?term ?s ?p ?o WHERE {" +
+                                                 "GRAPH ?context { ?term a ?type . }" +
+                                                 "FILTER (?term IN (?terms))" +
+                                                 "FILTER (?context IN (?contexts))" +
+                                                 "?term <" + SKOS.BROADER + ">* ?s ." +
+                                                 "{ GRAPH ?g { ?s ?p ?o . } " +
+                                                 "FILTER (?g IN (?contexts)) " +
+                                                 "FILTER (?p IN (?properties)) }" +
+                                                 "UNION { ?s ?p ?o . FILTER (?p = ?inVocabulary) }" +
+                                                 "}")
+                            .setParameter("type", typeUri)
+                            .setParameter("terms", termIris)
+                            .setParameter("contexts", contexts)
+                            .setParameter("properties", TERM_DTO_PROPERTIES)
+                            .setParameter("inVocabulary", IN_VOCABULARY_PROP)
+                            .inContexts(contexts)
+                            .getResultList(new SparqlResultToTermDtoMapper(config.getLanguage()));
+    }
+
+    /**
+     * Loads sub-term info for the specified parent terms.
+     * <p>
+     * Subterms are resolved using the {@link TermHierarchyIndex} where possible. Subterms of the remaining terms are
+     * loaded by a single query.
+     *
+     * @param parents Parent terms
+     */
+    private void loadSubTerms(Collection<? extends AbstractTerm> parents) {
+        final List<AbstractTerm> notIndexed = new ArrayList<>();
+        parents.forEach(t -> {
+            if (isInHierarchyIndex(t)) {
+                t.setSubTerms(getIndexedSubTerms(t));
+            } else {
+                notIndexed.add(t);
+            }
+        });
+        if (notIndexed.isEmpty()) {
+            return;
+        }
+        final Set<URI> contexts = notIndexed.stream().map(AbstractTerm::getVocabulary).filter(Objects::nonNull)
+                                            .distinct().flatMap(v -> relatedContexts(v).stream())
+                                            .collect(Collectors.toSet());
+        final Map<URI, Map<URI, List<TermInfo>>> inverse = loadInverseTermInfo(
+                notIndexed.stream().map(AbstractTerm::getUri).collect(Collectors.toSet()),
+                Collections.singletonList(URI.create(SKOS.BROADER)), contexts);
+        notIndexed.forEach(t -> t.setSubTerms(
+                inverseTermInfo(inverse.getOrDefault(t.getUri(), Collections.emptyMap()), SKOS.BROADER,
+                                Collections.emptySet())));
+    }
+
+    /**
+     * Checks whether subterms of the specified term can be resolved using the {@link TermHierarchyIndex}.
+     * <p>
+     * The index contains neither snapshots nor changes not committed yet.
+     */
+    private static boolean isInHierarchyIndex(AbstractTerm term) {
+        return term.getVocabulary() != null && !term.isSnapshot() && !TransactionUtils.isReadWriteTransactionActive();
     }
 
     /**
-     * Gets sub-term info for the specified parent term.
+     * Gets sub-term info for the specified parent term from the {@link TermHierarchyIndex}.
+     * <p>
+     * Subterms of a term can be only in its vocabulary or in vocabularies (transitively) importing it, so only
+     * hierarchies of these vocabularies are loaded into the index.
      *
-     * @param parent            Parent term
-     * @param loadingDescriptor Descriptor for loading the terms
+     * @param parent Parent term
+     * @return Subterms ordered by label
      */
-    private Set<TermInfo> getSubTerms(HasIdentifier parent, Descriptor loadingDescriptor) {
-        return subTermsCache.getOrCompute(parent.getUri(),
-                                          (k) -> loadInverseTermInfo(parent, SKOS.BROADER, Collections.emptySet(),
-                                                                     loadingDescriptor));
+    private Set<TermInfo> getIndexedSubTerms(AbstractTerm parent) {
+        final Set<URI> vocabularies = new HashSet<>(
+                importGraph.getTransitivelyImportingVocabularies(parent.getVocabulary()));
+        vocabularies.add(parent.getVocabulary());
+        final List<TermInfo> result = new ArrayList<>(hierarchyIndex.getSubTerms(parent.getUri(), vocabularies));
+        orderIndex.sortByLabel(result, TermInfo::getLabel);
+        return new LinkedHashSet<>(result);
     }
 
     /**
@@ -388,26 +638,31 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
      */
     public List<TermDto> findAllIncludingImported(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
-        TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                 "?term a ?type ;" +
-                                                                 "?hasLabel ?label ;" +
-                                                                 "?inVocabulary ?parent ." +
-                                                                 "?vocabulary ?imports* ?parent ." +
-                                                                 "FILTER (lang(?label) = ?labelLang) ." +
-                                                                 "} ORDER BY " + orderSentence("?label"), TermDto.class)
-                                      .setParameter("type", typeUri)
-                                      .setParameter("hasLabel", LABEL_PROP)
-                                      .setParameter("inVocabulary",
-                                                    URI.create(
-                                                            cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                      .setParameter("imports",
-                                                    URI.create(
-                                                            cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
-                                      .setParameter("vocabulary", vocabulary)
-                                      .setParameter("labelLang", config.getLanguage())
-                                      .setDescriptor(descriptorFactory.termDtoDescriptorWithImportedVocabularies(
-                                              vocabulary.getUri()));
-        return executeQueryAndLoadSubTerms(query);
+        final Set<URI> vocabularies = importClosure(vocabulary);
+        final Set<URI> contexts = contexts(vocabularies);
+        try {
+            final List<URI> termIris = deltaStore.read(vocabulary.getUri(), vocabularyEm -> vocabularyEm
+                    .createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                               "GRAPH ?g { " +
+                                               "?term a ?type ;" +
+                                               "?hasLabel ?label ." +
+                                               "FILTER (lang(?label) = ?labelLang) ." +
+                                               "}" +
+                                               "?term ?inVocabulary ?parent ." +
+                                               "FILTER (?g IN (?contexts))" +
+                                               "FILTER (?parent IN (?vocabularies))" +
+                                               "}", URI.class)
+                    .setParameter("type", typeUri)
+                    .setParameter("hasLabel", LABEL_PROP)
+                    .setParameter("inVocabulary", IN_VOCABULARY_PROP)
+                    .setParameter("contexts", contexts)
+                    .setParameter("vocabularies", vocabularies)
+                    .setParameter("labelLang", config.getLanguage())
+                    .getResultList());
+            return loadTermsWithSubTerms(termIris, contexts);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
     }
 
     /**
@@ -422,25 +677,10 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     public List<TermDto> findAllRoots(Vocabulary vocabulary, Pageable pageSpec, Collection<URI> includeTerms) {
         Objects.requireNonNull(vocabulary);
         Objects.requireNonNull(pageSpec);
-        TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                 "GRAPH ?context { " +
-                                                                 "?term a ?type ;" +
-                                                                 "?hasLabel ?label ." +
-                                                                 "?vocabulary ?hasGlossary/?hasTerm ?term ." +
-                                                                 "FILTER (lang(?label) = ?labelLang) ." +
-                                                                 "FILTER (?term NOT IN (?included))" +
-                                                                 "}} ORDER BY " + orderSentence("?label"),
-                                                         TermDto.class);
-        query = setCommonFindAllRootsQueryParams(query, false);
         try {
-            final List<TermDto> result = executeQueryAndLoadSubTerms(
-                    query.setParameter("context", context(vocabulary))
-                         .setParameter("vocabulary", vocabulary.getUri())
-                         .setParameter("labelLang", config.getLanguage())
-                         .setParameter("included", includeTerms)
-                         .setMaxResults(pageSpec.getPageSize())
-                         .setFirstResult((int) pageSpec.getOffset())
-                         .setDescriptor(descriptorFactory.termDtoDescriptor(vocabulary.getUri())));
+            final List<URI> page = orderIndex.findRoots(Collections.singleton(vocabulary.getUri()), pageSpec,
+                                                        includeTerms);
+            final List<TermDto> result = loadRootTerms(page, Collections.singleton(context(vocabulary)));
             result.addAll(loadIncludedTerms(includeTerms));
             return result;
         } catch (RuntimeException e) {
@@ -448,30 +688,24 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         }
     }
 
-    private String orderSentence(String var) {
-        if (Objects.equals(config.getLanguage(), "cs")) {
-            return
-                    r(r(r(r(r(r(r(r(r(r(r(r(r(r("lcase(" + var + ")",
-                                                "'á'", "'azz'"),
-                                              "'č'", "'czz'"),
-                                            "'ď'", "'dzz'"),
-                                          "'é'", "'ezz'"),
-                                        "'ě'", "'ezz'"),
-                                      "'í'", "'izz'"),
-                                    "'ň'", "'nzz'"),
-                                  "'ó'", "'ozz'"),
-                                "'ř'", "'rzz'"),
-                              "'š'", "'szz'"),
-                            "'ť'", "'tzz'"),
-                          "'ú'", "'uzz'"),
-                        "'ý'", "'yzz'"),
-                      "'ž'", "'zzz'");
+    /**
+     * Loads the specified root terms and their subterms.
+     *
+     * @param page     Identifiers of the terms to load
+     * @param contexts Contexts from which the terms are loaded
+     * @return Loaded terms, in the order of the specified identifiers
+     */
+    private List<TermDto> loadRootTerms(List<URI> page, Collection<URI> contexts) {
+        if (page.isEmpty()) {
+            return new ArrayList<>();
         }
-        return "lcase(" + var + ")";
-    }
-
-    private static String r(String string, String from, String to) {
-        return "replace(" + string + ", " + from + ", " + to + ")";
+        final List<TermDto> loaded = loadTermDtos(page, contexts);
+        final Map<URI, TermDto> byUri = new HashMap<>(loaded.size() * 2);
+        loaded.forEach(t -> byUri.put(t.getUri(), t));
+        final List<TermDto> result = page.stream().map(byUri::get).filter(Objects::nonNull)
+                                         .collect(Collectors.toList());
+        loadSubTerms(result);
+        return result;
     }
 
     /**
@@ -484,25 +718,9 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
      */
     public List<TermDto> findAllRoots(Pageable pageSpec, Collection<URI> includeTerms) {
         Objects.requireNonNull(pageSpec);
-        TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                 "?term a ?type ; " +
-                                                                 "?hasLabel ?label . " +
-                                                                 "?vocabulary ?hasGlossary/?hasTerm ?term . " +
-                                                                 "FILTER (lang(?label) = ?labelLang) . " +
-                                                                 "FILTER (?term NOT IN (?included)) . " +
-                                                                 "FILTER NOT EXISTS {?term a ?snapshot .} " +
-                                                                 "} ORDER BY " + orderSentence("?label"),
-                                                         TermDto.class);
-        query = setCommonFindAllRootsQueryParams(query, false);
         try {
-            final List<TermDto> result = executeQueryAndLoadSubTerms(
-                    query.setParameter("labelLang", config.getLanguage())
-                         .setParameter("included", includeTerms)
-                         .setParameter("snapshot", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu))
-                         .setMaxResults(pageSpec.getPageSize())
-                         .setFirstResult((int) pageSpec.getOffset())
-                         .setDescriptor(
-                                 descriptorFactory.termDtoDescriptor(findAllVocabularies().toArray(new URI[]{}))));
+            final List<URI> page = orderIndex.findRoots(findAllNonSnapshotVocabularies(), pageSpec, includeTerms);
+            final List<TermDto> result = loadRootTerms(page, contexts(findAllVocabularies()));
             result.addAll(loadIncludedTerms(includeTerms));
             return result;
         } catch (RuntimeException e) {
@@ -514,54 +732,47 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         return contextMapper.getVocabularyContexts().keySet();
     }
 
-    private <T> TypedQuery<T> setCommonFindAllRootsQueryParams(TypedQuery<T> query, boolean includeImports) {
-        final TypedQuery<T> tq = query.setParameter("type", typeUri)
-                                      .setParameter("hasLabel", LABEL_PROP)
-                                      .setParameter("hasGlossary",
-                                                    URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar))
-                                      .setParameter("hasTerm", URI.create(SKOS.HAS_TOP_CONCEPT));
-        if (includeImports) {
-            tq.setParameter("imports", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik));
-        }
-        return tq;
+    private List<URI> findAllNonSnapshotVocabularies() {
+        return em.createNativeQuery("SELECT DISTINCT ?vocabulary WHERE { " +
+                                            "?vocabulary a ?type . " +
+                                            "FILTER NOT EXISTS { ?vocabulary a ?snapshot . } " +
+                                            "}", URI.class)
+                 .setParameter("type", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_slovnik))
+                 .setParameter("snapshot", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_slovniku))
+                 .getResultList();
     }
 
     private List<TermDto> loadIncludedTerms(Collection<URI> includeTerms) {
-        // Clear the persistence context after executing the query and before loading included terms
-        // This should prevent frequent IndividualAlreadyManagerExceptions thrown by the UoW
-        // These exceptions are caused by the UoW containing the individuals typically as TermDtos (results of the query)
-        // and JOPA then attempting to load them as TermInfo because they are children of some other term already managed
-        // This strategy is obviously not very efficient in terms of performance but until JOPA supports read-only
-        // transactions, this is probably the only way to prevent the aforementioned exceptions from appearing
-        em.clear();
-        final List<TermDto> result = includeTerms.stream().map(u -> em.find(TermDto.class, u,
-                                                                            descriptorFactory.termDtoDescriptor(
-                                                                                    resolveTermVocabulary(u))))
-                                                 .filter(Objects::nonNull)
-                                                 .collect(Collectors.toList());
-        em.clear();
-        result.forEach(this::loadParentSubTerms);
+        if (includeTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final Set<URI> contexts = includeTerms.stream().map(this::resolveTermVocabulary)
+                                              .map(contextMapper::getVocabularyContext)
+                                              .collect(Collectors.toSet());
+        final List<TermDto> result = loadTermDtos(includeTerms, contexts);
+        loadParentSubTerms(result);
         return result;
     }
 
     /**
-     * Recursively loads subterms for the specified term and its parents (if they exist).
+     * Loads subterms for the specified terms and their parents (recursively, if they exist).
      * <p>
-     * This implementation ensures that the term hierarchy can be traversed both ways for the specified term. This has
+     * This implementation ensures that the term hierarchy can be traversed both ways for the specified terms. This has
      * to be done to allow the tree-select component on the frontend to work properly and display the terms.
      *
-     * @param parent The term to load subterms for
+     * @param terms The terms to load subterms for
      */
-    private void loadParentSubTerms(TermDto parent) {
-        final Descriptor descriptor = descriptorFactory.termInfoDescriptor(findAllVocabularies().toArray(new URI[]{}));
-        recursivelyLoadParentSubTerms(parent, descriptor);
-    }
-
-    private void recursivelyLoadParentSubTerms(TermDto parent, Descriptor subTermDescriptor) {
-        parent.setSubTerms(getSubTerms(parent, subTermDescriptor));
-        if (parent.hasParentTerms()) {
-            parent.getParentTerms().forEach(pt -> recursivelyLoadParentSubTerms(pt, subTermDescriptor));
+    private void loadParentSubTerms(Collection<TermDto> terms) {
+        final List<TermDto> withParents = new ArrayList<>();
+        final Deque<TermDto> toVisit = new ArrayDeque<>(terms);
+        while (!toVisit.isEmpty()) {
+            final TermDto t = toVisit.pop();
+            withParents.add(t);
+            if (t.hasParentTerms()) {
+                toVisit.addAll(t.getParentTerms());
+            }
         }
+        loadSubTerms(withParents);
     }
 
     /**
@@ -579,25 +790,10 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
                                                       Collection<URI> includeTerms) {
         Objects.requireNonNull(vocabulary);
         Objects.requireNonNull(pageSpec);
-        TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                 "?term a ?type ;" +
-                                                                 "?hasLabel ?label ." +
-                                                                 "?vocabulary ?imports* ?parent ." +
-                                                                 "?parent ?hasGlossary/?hasTerm ?term ." +
-                                                                 "FILTER (lang(?label) = ?labelLang) ." +
-                                                                 "FILTER (?term NOT IN (?included))" +
-                                                                 "} ORDER BY " + orderSentence("?label"),
-                                                         TermDto.class);
-        query = setCommonFindAllRootsQueryParams(query, true);
         try {
-            final List<TermDto> result = executeQueryAndLoadSubTerms(
-                    query.setParameter("vocabulary", vocabulary.getUri())
-                         .setParameter("labelLang", config.getLanguage())
-                         .setParameter("included", includeTerms)
-                         .setFirstResult((int) pageSpec.getOffset())
-                         .setMaxResults(pageSpec.getPageSize())
-                         .setDescriptor(
-                                 descriptorFactory.termDtoDescriptorWithImportedVocabularies(vocabulary.getUri())));
+            final List<URI> page = orderIndex.findRoots(importClosure(vocabulary), pageSpec,
+                                                        includeTerms);
+            final List<TermDto> result = loadRootTerms(page, contexts(importClosure(vocabulary)));
             result.addAll(loadIncludedTerms(includeTerms));
             return result;
         } catch (RuntimeException e) {
@@ -608,7 +804,8 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     /**
      * Finds terms whose label contains the specified search string.
      * <p>
-     * This method searches in the specified vocabulary only.
+     * This method searches in the specified vocabulary only. Matching terms are looked up in the {@link
+     * TermLabelIndex}.
      *
      * @param searchString String the search term labels by
      * @param vocabulary   Vocabulary whose terms should be searched
@@ -617,26 +814,14 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     public List<TermDto> findAll(String searchString, Vocabulary vocabulary) {
         Objects.requireNonNull(searchString);
         Objects.requireNonNull(vocabulary);
-        final TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                       "GRAPH ?context { " +
-                                                                       "?term a ?type ; " +
-                                                                       "      ?hasLabel ?label ; " +
-                                                                       "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) ." +
-                                                                       "}" +
-                                                                       "?term ?inVocabulary ?vocabulary ." +
-                                                                       "} ORDER BY " + orderSentence("?label"),
-                                                               TermDto.class)
-                                            .setParameter("type", typeUri)
-                                            .setParameter("context", context(vocabulary))
-                                            .setParameter("hasLabel", LABEL_PROP)
-                                            .setParameter("inVocabulary", URI.create(
-                                                    cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                            .setParameter("vocabulary", vocabulary.getUri())
-                                            .setParameter("searchString", searchString, config.getLanguage())
-                                            .setDescriptor(descriptorFactory.termDtoDescriptor(vocabulary.getUri()));
         try {
-            final List<TermDto> terms = executeQueryAndLoadSubTerms(query);
-            terms.forEach(this::loadParentSubTerms);
+            final Set<URI> matching = labelIndex.findByLabelContaining(vocabulary.getUri(), config.getLanguage(),
+                                                                       searchString, false);
+            if (matching.isEmpty()) {
+                return Collections.emptyList();
+            }
+            final List<TermDto> terms = loadTermsWithSubTerms(matching, Collections.singleton(context(vocabulary)));
+            loadParentSubTerms(terms);
             return terms;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -651,28 +836,27 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
      */
     public List<TermDto> findAll(String searchString) {
         Objects.requireNonNull(searchString);
-        final TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                       "" +
-                                                                       "?term a ?type ; " +
-                                                                       "      ?hasLabel ?label ; " +
-                                                                       "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) ." +
-                                                                       "?term ?inVocabulary ?vocabulary . " +
-                                                                       "FILTER NOT EXISTS {?term a ?snapshot . }" +
-                                                                       "} ORDER BY " + orderSentence("?label"),
-                                                               TermDto.class)
-                                            .setParameter("type", typeUri)
-                                            .setParameter("hasLabel", LABEL_PROP)
-                                            .setParameter("inVocabulary", URI.create(
-                                                    cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                            .setParameter("snapshot", URI.create(
-                                                    cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu))
-                                            .setParameter("searchString", searchString, config.getLanguage())
-                                            .setDescriptor(descriptorFactory.termDtoDescriptor(
-                                                    findAllVocabularies().toArray(new URI[]{})));
+        final TypedQuery<URI> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                                                   "" +
+                                                                   "?term a ?type ; " +
+                                                                   "      ?hasLabel ?label ; " +
+                                                                   "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) ." +
+                                                                   "?term ?inVocabulary ?vocabulary . " +
+                                                                   "FILTER NOT EXISTS {?term a ?snapshot . }" +
+                                                                   "}",
+                                                           URI.class)
+                                        .setParameter("type", typeUri)
+                                        .setParameter("hasLabel", LABEL_PROP)
+                                        .setParameter("inVocabulary", URI.create(
+                                                cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                        .setParameter("snapshot", URI.create(
+                                                cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu))
+                                        .setParameter("searchString", searchString, config.getLanguage());
 
         try {
-            final List<TermDto> terms = executeQueryAndLoadSubTerms(query);
-            terms.forEach(this::loadParentSubTerms);
+            final List<TermDto> terms = loadTermsWithSubTerms(query.getResultList(),
+                                                              contexts(findAllVocabularies()));
+            loadParentSubTerms(terms);
             return terms;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -691,28 +875,28 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     public List<TermDto> findAllIncludingImported(String searchString, Vocabulary vocabulary) {
         Objects.requireNonNull(searchString);
         Objects.requireNonNull(vocabulary);
-        final TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                       "?targetVocabulary ?imports* ?vocabulary ." +
-                                                                       "?term a ?type ;\n" +
-                                                                       "      ?hasLabel ?label ;\n" +
-                                                                       "      ?inVocabulary ?vocabulary ." +
-                                                                       "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) .\n" +
-                                                                       "} ORDER BY " + orderSentence("?label"),
-                                                               TermDto.class)
-                                            .setParameter("type", typeUri)
-                                            .setParameter("hasLabel", LABEL_PROP)
-                                            .setParameter("inVocabulary", URI.create(
-                                                    cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                            .setParameter("imports",
-                                                          URI.create(
-                                                                  cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
-                                            .setParameter("targetVocabulary", vocabulary.getUri())
-                                            .setParameter("searchString", searchString, config.getLanguage())
-                                            .setDescriptor(descriptorFactory.termDtoDescriptorWithImportedVocabularies(
-                                                    vocabulary.getUri()));
+        final Set<URI> vocabularies = importClosure(vocabulary);
+        final TypedQuery<URI> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                                                   "GRAPH ?g { " +
+                                                                   "?term a ?type ;\n" +
+                                                                   "      ?hasLabel ?label .\n" +
+                                                                   "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) .\n" +
+                                                                   "}" +
+                                                                   "?term ?inVocabulary ?vocabulary ." +
+                                                                   "FILTER (?g IN (?contexts))" +
+                                                                   "FILTER (?vocabulary IN (?vocabularies))" +
+                                                                   "}",
+                                                           URI.class)
+                                        .setParameter("type", typeUri)
+                                        .setParameter("hasLabel", LABEL_PROP)
+                                        .setParameter("inVocabulary", URI.create(
+                                                cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                        .setParameter("contexts", contexts(vocabularies))
+                                        .setParameter("vocabularies", vocabularies)
+                                        .setParameter("searchString", searchString, config.getLanguage());
         try {
-            final List<TermDto> terms = executeQueryAndLoadSubTerms(query);
-            terms.forEach(this::loadParentSubTerms);
+            final List<TermDto> terms = loadTermsWithSubTerms(query.getResultList(), contexts(vocabularies));
+            loadParentSubTerms(terms);
             return terms;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -733,22 +917,8 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         Objects.requireNonNull(label);
         Objects.requireNonNull(vocabulary);
         try {
-            URI vocabularyContext = contextMapper.getVocabularyContext(vocabulary);
-            return em.createNativeQuery("ASK { GRAPH ?context { " +
-                                        "?term a ?type ; " +
-                                        "?hasLabel ?label . } " +
-                                        "?term ?inVocabulary ?vocabulary . " +
-                                        "FILTER (LCASE(?label) = LCASE(?searchString)) . " +
-                                        "}", Boolean.class)
-                     .setParameter("type", typeUri)
-                     .setParameter("hasLabel", LABEL_PROP)
-                     .setParameter("inVocabulary",
-                                   URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                     .setParameter("vocabulary", vocabulary)
-                     .setParameter("searchString", label,
-                                   languageTag != null ? languageTag : config.getLanguage())
-                     .setParameter("context", vocabularyContext)
-                     .getSingleResult();
+            return labelIndex.existsPreferredLabel(vocabulary.getUri(),
+                                                   languageTag != null ? languageTag : config.getLanguage(), label);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -780,7 +950,13 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     @Override
     public void remove(Term entity) {
         super.remove(entity);
-        evictCachedSubTerms(entity.getParentTerms(), Collections.emptySet());
+        contentVersions.vocabulariesChanged(referencedVocabularies(entity));
+        labelIndex.termRemoved(entity.getUri());
+        vocabularyIndex.termRemoved(entity.getUri());
+        if (entity.getVocabulary() != null) {
+            hierarchyIndex.termRemoved(entity.getVocabulary(), entity.getUri());
+        }
+        orderIndex.vocabularyChanged(entity.getVocabulary());
     }
 
     @Override
@@ -796,28 +972,32 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
 
     @Override
     public List<Snapshot> findSnapshots(Term asset) {
-        return new AssetSnapshotLoader<Term>(em, typeUri, URI.create(
-                cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu)).findSnapshots(asset);
+        return snapshotCache.getSnapshots(asset.getUri(), () -> snapshotLoader().findSnapshots(asset));
+    }
+
+    private AssetSnapshotLoader<Term> snapshotLoader() {
+        return new AssetSnapshotLoader<>(em, typeUri, URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu),
+                                         deltaStore);
     }
 
     @Override
     public Optional<Term> findVersionValidAt(Term asset, Instant at) {
-        return new AssetSnapshotLoader<Term>(em, typeUri, URI.create(
-                cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu))
+        return snapshotCache.getVersionValidAt(asset.getUri(), at, () -> snapshotLoader()
                 .findVersionValidAt(asset, at).map(t -> {
-                    final Descriptor descriptor = descriptorFactory.termInfoDescriptor(findAllSnapshotVocabularies().toArray(new URI[]{}));
-                    t.setSubTerms(getSubTerms(t, descriptor));
-                    t.setInverseRelated(loadInverseRelatedTerms(t, descriptor));
-                    t.setInverseRelatedMatch(loadInverseRelatedMatchTerms(t, descriptor));
-                    t.setInverseExactMatchTerms(loadInverseExactMatchTerms(t, descriptor));
+                    final URI vocabulary = t.getVocabulary();
+                    loadInverseRelationships(Collections.singletonList(t),
+                                             vocabulary != null && deltaStore.isDeltaSnapshot(vocabulary) ?
+                                             deltaStore.getSnapshotContexts(vocabulary) :
+                                             contexts(findAllSnapshotVocabularies()));
                     return t;
-                });
+                }));
     }
 
     private List<URI> findAllSnapshotVocabularies() {
         try {
             return em.createNativeQuery("SELECT DISTINCT ?vocabulary WHERE { " +
                                                 "?vocabulary a ?snapshot . " +
+                                                AssetSnapshotLoader.incompleteSnapshotFilter("?vocabulary") +
                                                 "}", URI.class)
                      .setParameter("snapshot", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_slovniku))
                      .getResultList();
@@ -20,6 +20,7 @@ import cz.cvut.kbss.jopa.model.descriptors.EntityDescriptor;
 import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.RDFS;
+import cz.cvut.kbss.ontodriver.model.LangString;
 import cz.cvut.kbss.termit.asset.provenance.ModifiesData;
 import cz.cvut.kbss.termit.dto.assignment.TermOccurrences;
 import cz.cvut.kbss.termit.exception.PersistenceException;
@@ -27,15 +28,19 @@ import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.persistence.dao.util.SparqlResultToTermOccurrenceMapper;
+import cz.cvut.kbss.termit.persistence.index.occurrence.OccurrenceCounts;
+import cz.cvut.kbss.termit.persistence.index.occurrence.TermOccurrenceIndex;
+import cz.cvut.kbss.termit.persistence.index.occurrence.TermOccurrencePositionIndex;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigInteger;
 import java.net.URI;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Repository
 public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
@@ -43,11 +48,11 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
     private static final Logger LOG = LoggerFactory.getLogger(TermOccurrenceDao.class);
 
     /**
-     * Perf #1283
-     * <p>
-     * Query for loading term occurrences targeting a specified source (file, another term) in a single go.
+     * Maximum number of term occurrences loaded by a single query
      */
-    private static final String FIND_ALL_TARGETING_QUERY =
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private static final String FIND_TARGETING_QUERY_PATTERN =
             "SELECT ?occ ?type ?term ?target ?suggested ?selector ?exactMatch ?prefix ?suffix ?startPosition ?endPosition WHERE {" +
                     "?occ a ?occurrence ;" +
                     "   a ?type ;" +
@@ -70,14 +75,35 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
                     "   }" +
                     "}" +
                     "FILTER (?type = ?fileOccurrence || ?type = ?definitionalOccurrence)" +
+                    "%s" +
                     "BIND(EXISTS { ?occ a ?suggestedType . } as ?suggested)" +
                     "} GROUP BY ?occ ?type ?term ?target ?suggested ?selector ?exactMatch ?prefix ?suffix ?startPosition ?endPosition";
 
+    /**
+     * Perf #1283
+     * <p>
+     * Query for loading term occurrences targeting a specified source (file, another term) in a single go.
+     */
+    private static final String FIND_ALL_TARGETING_QUERY = String.format(FIND_TARGETING_QUERY_PATTERN, "");
+
+    /**
+     * Query for loading the specified term occurrences targeting a specified source in a single go.
+     */
+    private static final String FIND_TARGETING_IN_QUERY = String.format(FIND_TARGETING_QUERY_PATTERN,
+                                                                        "FILTER (?occ IN (?occurrences))");
+
     private final Configuration.Persistence config;
 
-    public TermOccurrenceDao(EntityManager em, Configuration config) {
+    private final TermOccurrenceIndex occurrenceIndex;
+
+    private final TermOccurrencePositionIndex positionIndex;
+
+    public TermOccurrenceDao(EntityManager em, Configuration config, TermOccurrenceIndex occurrenceIndex,
+                             TermOccurrencePositionIndex positionIndex) {
         super(TermOccurrence.class, em);
         this.config = config.getPersistence();
+        this.occurrenceIndex = occurrenceIndex;
+        this.positionIndex = positionIndex;
     }
 
     /**
@@ -119,67 +145,151 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
      */
     public List<TermOccurrence> findAllTargeting(Asset<?> target) {
         Objects.requireNonNull(target);
-        final Query query = em.createNativeQuery(FIND_ALL_TARGETING_QUERY)
-                              .setParameter("occurrence", URI.create(Vocabulary.s_c_vyskyt_termu))
-                              .setParameter("hasTarget", URI.create(Vocabulary.s_p_ma_cil))
-                              .setParameter("assignmentOfTerm", URI.create(Vocabulary.s_p_je_prirazenim_termu))
-                              .setParameter("occurrenceTarget", URI.create(Vocabulary.s_c_cil_vyskytu))
-                              .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
-                              .setParameter("source", target.getUri())
-                              .setParameter("hasSelector", URI.create(Vocabulary.s_p_ma_selektor))
-                              .setParameter("selectorType", URI.create(Vocabulary.s_c_selektor))
-                              .setParameter("hasExactMatch", URI.create(Vocabulary.s_p_ma_presny_text_quote))
-                              .setParameter("hasPrefix", URI.create(Vocabulary.s_p_ma_prefix_text_quote))
-                              .setParameter("hasSuffix", URI.create(Vocabulary.s_p_ma_suffix_text_quote))
-                              .setParameter("hasStart", URI.create(Vocabulary.s_p_ma_startovni_pozici))
-                              .setParameter("hasEnd", URI.create(Vocabulary.s_p_ma_koncovou_pozici))
-                              .setParameter("fileOccurrence", URI.create(Vocabulary.s_c_souborovy_vyskyt_termu))
-                              .setParameter("definitionalOccurrence", URI.create(Vocabulary.s_c_definicni_vyskyt_termu))
-                              .setParameter("suggestedType", URI.create(Vocabulary.s_c_navrzeny_vyskyt_termu));
+        final Query query = bindTargetingQueryParameters(em.createNativeQuery(FIND_ALL_TARGETING_QUERY),
+                                                         target.getUri());
         return new SparqlResultToTermOccurrenceMapper(target.getUri()).map(query.getResultList());
     }
 
+    /**
+     * Finds term occurrences whose target points to the specified resource and which overlap the specified region of
+     * the resource's content.
+     * <p>
+     * The region is determined by occurrence text position selectors, occurrences without a text position selector are
+     * not returned.
+     *
+     * @param target Asset to filter by
+     * @param start  Start offset of the region (inclusive)
+     * @param end    End offset of the region (exclusive)
+     * @param term   Identifier of the term whose occurrences to find, optional. If {@code null}, occurrences of all
+     *               terms are returned
+     * @return List of matching term occurrences, ordered by their start offset
+     */
+    public List<TermOccurrence> findAllTargeting(Asset<?> target, int start, int end, URI term) {
+        Objects.requireNonNull(target);
+        final List<URI> occurrences = positionIndex.findOccurrences(target.getUri(), start, end, term);
+        if (occurrences.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Map<URI, TermOccurrence> loaded = new HashMap<>(occurrences.size());
+        for (int i = 0; i < occurrences.size(); i += LOAD_BATCH_SIZE) {
+            final List<URI> batch = occurrences.subList(i, Math.min(i + LOAD_BATCH_SIZE, occurrences.size()));
+            final Query query = bindTargetingQueryParameters(em.createNativeQuery(FIND_TARGETING_IN_QUERY),
+                                                             target.getUri()).setParameter("occurrences", batch);
+            new SparqlResultToTermOccurrenceMapper(target.getUri()).map(query.getResultList())
+                                                                   .forEach(to -> loaded.put(to.getUri(), to));
+        }
+        return occurrences.stream().map(loaded::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static Query bindTargetingQueryParameters(Query query, URI source) {
+        return query.setParameter("occurrence", URI.create(Vocabulary.s_c_vyskyt_termu))
+                    .setParameter("hasTarget", URI.create(Vocabulary.s_p_ma_cil))
+                    .setParameter("assignmentOfTerm", URI.create(Vocabulary.s_p_je_prirazenim_termu))
+                    .setParameter("occurrenceTarget", URI.create(Vocabulary.s_c_cil_vyskytu))
+                    .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
+                    .setParameter("source", source)
+                    .setParameter("hasSelector", URI.create(Vocabulary.s_p_ma_selektor))
+                    .setParameter("selectorType", URI.create(Vocabulary.s_c_selektor))
+                    .setParameter("hasExactMatch", URI.create(Vocabulary.s_p_ma_presny_text_quote))
+                    .setParameter("hasPrefix", URI.create(Vocabulary.s_p_ma_prefix_text_quote))
+                    .setParameter("hasSuffix", URI.create(Vocabulary.s_p_ma_suffix_text_quote))
+                    .setParameter("hasStart", URI.create(Vocabulary.s_p_ma_startovni_pozici))
+                    .setParameter("hasEnd", URI.create(Vocabulary.s_p_ma_koncovou_pozici))
+                    .setParameter("fileOccurrence", URI.create(Vocabulary.s_c_souborovy_vyskyt_termu))
+                    .setParameter("definitionalOccurrence", URI.create(Vocabulary.s_c_definicni_vyskyt_termu))
+                    .setParameter("suggestedType", URI.create(Vocabulary.s_c_navrzeny_vyskyt_termu));
+    }
+
     /**
      * Gets aggregated information about occurrences of the specified {@link Term}.
+     * <p>
+     * Occurrence counts are taken from the {@link TermOccurrenceIndex}, only the resources in which the term occurs
+     * are resolved from the repository.
      *
      * @param term Term whose occurrences to retrieve
      * @return List of {@code TermOccurrences}
      */
     public List<TermOccurrences> getOccurrenceInfo(Term term) {
-        return em.createNativeQuery("SELECT ?term ?resource ?label (count(?x) as ?cnt) ?type ?suggested WHERE {" +
-                                 "BIND (?t AS ?term)" +
-                                 "{" +
-                                 "  ?x a ?suggestedOccurrence ." +
-                                 "  BIND (true as ?suggested)" +
-                                 "} UNION {" +
-                                 "  ?x a ?occurrence ." +
-                                 "  FILTER NOT EXISTS {" +
-                                 "    ?x a ?suggestedOccurrence ." +
-                                 "  }" +
-                                 "  BIND (false as ?suggested)" +
-                                 "} " +
-                                 "  ?x ?hasTerm ?term ;" +
-                                 "     ?hasTarget ?target . " +
-                                 "  { ?target ?hasSource ?resource . FILTER NOT EXISTS { ?resource a ?fileType . } } " +
-                                 "  UNION { ?target ?hasSource ?file . ?resource ?isDocumentOf ?file . } " +
-                                 "BIND (IF(EXISTS { ?resource a ?termType }, ?termDefOcc, ?fileOcc) as ?type)" +
-                                 "{ ?resource rdfs:label ?label . } UNION { ?resource ?hasTitle ?label . } " +
-                                 "FILTER langMatches(lang(?label), ?lang)" +
-                                 "} GROUP BY ?resource ?term ?label ?type ?suggested HAVING (?cnt > 0) ORDER BY ?label",
-                         "TermOccurrences")
-                 .setParameter("suggestedOccurrence", URI.create(Vocabulary.s_c_navrzeny_vyskyt_termu))
-                 .setParameter("hasTerm", URI.create(Vocabulary.s_p_je_prirazenim_termu))
-                 .setParameter("hasTarget", URI.create(Vocabulary.s_p_ma_cil))
-                 .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
-                 .setParameter("occurrence", URI.create(Vocabulary.s_c_vyskyt_termu))
-                 .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
-                 .setParameter("isDocumentOf", URI.create(Vocabulary.s_p_ma_soubor))
-                 .setParameter("fileType", URI.create(Vocabulary.s_c_soubor))
-                 .setParameter("lang", config.getLanguage())
-                 .setParameter("termType", URI.create(Vocabulary.s_c_term))
-                 .setParameter("termDefOcc", URI.create(Vocabulary.s_c_definicni_vyskyt_termu))
-                 .setParameter("fileOcc", URI.create(Vocabulary.s_c_souborovy_vyskyt_termu))
-                 .setParameter("t", term.getUri()).getResultList();
+        Objects.requireNonNull(term);
+        final Map<URI, OccurrenceCounts> counts = occurrenceIndex.getOccurrences(term.getUri());
+        if (counts.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Map<URI, List<OccurrenceInfoKey>> resources = resolveOccurrenceResources(counts.keySet());
+        final Map<OccurrenceInfoKey, Integer> aggregated = new HashMap<>();
+        counts.forEach((source, c) -> resources.getOrDefault(source, Collections.emptyList()).forEach(key -> {
+            if (c.getSuggested() > 0) {
+                aggregated.merge(key.withSuggested(true), c.getSuggested(), Integer::sum);
+            }
+            if (c.getApproved() > 0) {
+                aggregated.merge(key.withSuggested(false), c.getApproved(), Integer::sum);
+            }
+        }));
+        return aggregated.entrySet().stream()
+                         .map(e -> new TermOccurrences(term.getUri(), e.getKey().resource, e.getKey().label,
+                                                       BigInteger.valueOf(e.getValue()), e.getKey().type,
+                                                       e.getKey().suggested))
+                         .sorted(Comparator.comparing(TermOccurrences::getResourceLabel))
+                         .collect(Collectors.toList());
+    }
+
+    /**
+     * Resolves resources (with label) to which occurrences in the specified sources are attributed.
+     * <p>
+     * Occurrences in a file are attributed to the document containing the file, other sources (terms) represent the
+     * resource themselves. Sources are resolved in batches, so that the number of queries does not grow with the number
+     * of sources.
+     *
+     * @return Map of sources to resources their occurrences are attributed to
+     */
+    private Map<URI, List<OccurrenceInfoKey>> resolveOccurrenceResources(Collection<URI> sources) {
+        final List<URI> sourceList = new ArrayList<>(sources);
+        final Map<URI, List<OccurrenceInfoKey>> result = new HashMap<>(sourceList.size());
+        for (int i = 0; i < sourceList.size(); i += LOAD_BATCH_SIZE) {
+            final List<URI> batch = sourceList.subList(i, Math.min(i + LOAD_BATCH_SIZE, sourceList.size()));
+            // Sources are bound in each branch, so that the branches can be evaluated independently
+            final String values = batch.stream().map(u -> "<" + u + ">")
+                                       .collect(Collectors.joining(" ", "VALUES ?source { ", " } "));
+            final List<?> rows = em.createNativeQuery("SELECT ?source ?resource ?label ?isTerm WHERE {" +
+                                                              "{ " + values +
+                                                              "FILTER NOT EXISTS { ?source a ?fileType . } " +
+                                                              "BIND (?source AS ?resource) } " +
+                                                              "UNION { " + values +
+                                                              "?resource ?isDocumentOf ?source . } " +
+                                                              "BIND (EXISTS { ?resource a ?termType } as ?isTerm)" +
+                                                              "{ ?resource rdfs:label ?label . } UNION " +
+                                                              "{ ?resource ?hasTitle ?label . } " +
+                                                              "FILTER langMatches(lang(?label), ?lang)" +
+                                                              "}")
+                                   .setParameter("fileType", URI.create(Vocabulary.s_c_soubor))
+                                   .setParameter("isDocumentOf", URI.create(Vocabulary.s_p_ma_soubor))
+                                   .setParameter("termType", URI.create(Vocabulary.s_c_term))
+                                   .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
+                                   .setParameter("lang", config.getLanguage()).getResultList();
+            for (Object row : rows) {
+                assert row instanceof Object[];
+                final Object[] bindingSet = (Object[]) row;
+                final String label = bindingSet[2] instanceof LangString ? ((LangString) bindingSet[2]).getValue() :
+                                     bindingSet[2].toString();
+                result.computeIfAbsent((URI) bindingSet[0], k -> new ArrayList<>())
+                      .add(new OccurrenceInfoKey((URI) bindingSet[1], label,
+                                                 Boolean.TRUE.equals(bindingSet[3]) ?
+                                                 Vocabulary.s_c_definicni_vyskyt_termu :
+                                                 Vocabulary.s_c_souborovy_vyskyt_termu, false));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the specified term has any (suggested or approved) occurrences.
+     *
+     * @param term Term to check
+     * @return {@code true} if the term occurs in some resource, {@code false} otherwise
+     */
+    public boolean hasOccurrences(Term term) {
+        Objects.requireNonNull(term);
+        return occurrenceIndex.hasOccurrences(term.getUri());
     }
 
     @ModifiesData
@@ -193,19 +303,78 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
             if (entity.getTarget().getUri() == null) {
                 em.persist(entity.getTarget(), descriptor);
             }
+            occurrenceIndex.occurrencePersisted(entity.getTerm(), entity.getTarget().getSource(),
+                                                isSuggested(entity));
+            positionIndex.sourceModified(entity.getTarget().getSource());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    private static boolean isSuggested(TermOccurrence occurrence) {
+        return occurrence.getTypes() != null &&
+                occurrence.getTypes().contains(Vocabulary.s_c_navrzeny_vyskyt_termu);
+    }
+
+    @ModifiesData
+    @Override
+    public void remove(TermOccurrence entity) {
+        Objects.requireNonNull(entity);
+        Objects.requireNonNull(entity.getUri());
+        try {
+            final List<?> info = em.createNativeQuery("SELECT ?term ?source ?suggested WHERE {" +
+                                                              "?x ?hasTerm ?term ;" +
+                                                              "?hasTarget ?target ." +
+                                                              "?target ?hasSource ?source ." +
+                                                              "BIND (EXISTS { ?x a ?suggestedType . } AS ?suggested)" +
+                                                              "}")
+                                   .setParameter("x", entity.getUri())
+                                   .setParameter("hasTerm", URI.create(Vocabulary.s_p_je_prirazenim_termu))
+                                   .setParameter("hasTarget", URI.create(Vocabulary.s_p_ma_cil))
+                                   .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
+                                   .setParameter("suggestedType", URI.create(Vocabulary.s_c_navrzeny_vyskyt_termu))
+                                   .getResultList();
+            super.remove(entity);
+            info.forEach(row -> {
+                assert row instanceof Object[];
+                final Object[] bindingSet = (Object[]) row;
+                occurrenceIndex.occurrenceRemoved((URI) bindingSet[0], (URI) bindingSet[1],
+                                                  Boolean.TRUE.equals(bindingSet[2]));
+                positionIndex.sourceModified((URI) bindingSet[1]);
+            });
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Approves the specified suggested term occurrence.
+     * <p>
+     * If the occurrence is not suggested, nothing happens.
+     *
+     * @param occurrence Managed occurrence to approve
+     */
+    @ModifiesData
+    public void approve(TermOccurrence occurrence) {
+        Objects.requireNonNull(occurrence);
+        if (!isSuggested(occurrence)) {
+            return;
+        }
+        occurrence.removeType(Vocabulary.s_c_navrzeny_vyskyt_termu);
+        occurrenceIndex.occurrenceApproved(occurrence.getTerm(), occurrence.getTarget().getSource());
+    }
+
     /**
      * Removes all suggested term occurrences whose target points to the specified asset.
      *
      * @param target Asset for which suggested term occurrences will be removed
      */
+    @ModifiesData
     public void removeSuggested(Asset<?> target) {
         Objects.requireNonNull(target);
         removeAll(target.getUri(), URI.create(Vocabulary.s_c_navrzeny_vyskyt_termu));
+        occurrenceIndex.suggestedOccurrencesRemoved(target.getUri());
+        positionIndex.sourceModified(target.getUri());
     }
 
     private void removeAll(URI assetUri, URI toType) {
@@ -231,12 +400,110 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
      *
      * @param target Asset for which term occurrences will be removed
      */
+    @ModifiesData
     public void removeAll(Asset<?> target) {
         Objects.requireNonNull(target);
+        removeAllInSources(Collections.singleton(target.getUri()));
+    }
 
-        em.createNativeQuery("DROP GRAPH ?g")
-          .setParameter("g", TermOccurrence.resolveContext(target.getUri()))
-          .executeUpdate();
+    /**
+     * Removes all term occurrences whose targets point to any of the specified sources.
+     * <p>
+     * The occurrence contexts of all the sources are dropped in a single update.
+     *
+     * @param sources Identifiers of sources (assets) for which term occurrences will be removed
+     */
+    @ModifiesData
+    public void removeAllInSources(Collection<URI> sources) {
+        Objects.requireNonNull(sources);
+        if (sources.isEmpty()) {
+            return;
+        }
+        final List<URI> sourceList = new ArrayList<>(sources);
+        final StringBuilder update = new StringBuilder();
+        for (int i = 0; i < sourceList.size(); i++) {
+            if (i > 0) {
+                update.append(" ; ");
+            }
+            update.append("DROP SILENT GRAPH ?g").append(i);
+        }
+        final Query query = em.createNativeQuery(update.toString());
+        for (int i = 0; i < sourceList.size(); i++) {
+            query.setParameter("g" + i, TermOccurrence.resolveContext(sourceList.get(i)));
+        }
+        query.executeUpdate();
+        sourceList.forEach(source -> {
+            occurrenceIndex.allOccurrencesRemoved(source);
+            positionIndex.sourceModified(source);
+        });
+    }
+
+    /**
+     * Records that term occurrences in the specified source have to be checked and possibly removed.
+     * <p>
+     * The record is stored in the metadata context as part of the current transaction, so it survives restarts and is
+     * discarded when the transaction (e.g., removal of the source) is rolled back.
+     *
+     * @param source Identifier of the source (asset) whose term occurrences should be checked
+     * @see #findSourcesToCheck(int)
+     * @see #removeOrphans(Collection)
+     */
+    public void scheduleCheck(URI source) {
+        Objects.requireNonNull(source);
+        em.createNativeQuery("INSERT DATA { GRAPH ?g { ?source a ?pendingCheck . } }")
+          .setParameter("g", URI.create(config.getMetadataContext()))
+          .setParameter("source", source)
+          .setParameter("pendingCheck", URI.create(Vocabulary.s_c_zdroj_ke_kontrole_vyskytu)).executeUpdate();
+    }
+
+    /**
+     * Finds sources whose term occurrences have been scheduled for check.
+     *
+     * @param limit Maximum number of sources to return
+     * @return List of source identifiers
+     * @see #scheduleCheck(URI)
+     */
+    public List<URI> findSourcesToCheck(int limit) {
+        return em.createNativeQuery("SELECT DISTINCT ?source WHERE { GRAPH ?g { ?source a ?pendingCheck . } }",
+                                    URI.class)
+                 .setParameter("g", URI.create(config.getMetadataContext()))
+                 .setParameter("pendingCheck", URI.create(Vocabulary.s_c_zdroj_ke_kontrole_vyskytu))
+                 .setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Removes term occurrences whose target points to any of the specified sources which no longer exist.
+     * <p>
+     * Only the specified sources are checked, so the cost does not depend on the total number of term occurrences.
+     * Occurrence contexts of the orphaned sources are dropped in a single update. Check records of all the specified
+     * sources are removed.
+     *
+     * @param sources Identifiers of sources to check
+     * @see #scheduleCheck(URI)
+     */
+    @ModifiesData
+    public void removeOrphans(Collection<URI> sources) {
+        Objects.requireNonNull(sources);
+        if (sources.isEmpty()) {
+            return;
+        }
+        final String values = sources.stream().map(u -> "<" + u + ">")
+                                     .collect(Collectors.joining(" ", "VALUES ?source { ", " } "));
+        final List<URI> orphaned = em.createNativeQuery("SELECT ?source WHERE {" + values +
+                                                                // If an asset does not have a label, it does not exist
+                                                                "FILTER NOT EXISTS { " +
+                                                                "{ ?source ?hasLabel ?label . } " +
+                                                                "UNION" +
+                                                                "{ ?source ?hasTitle ?label . } " +
+                                                                "}}", URI.class)
+                                     .setParameter("hasLabel", URI.create(RDFS.LABEL))
+                                     .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
+                                     .getResultList();
+        orphaned.forEach(this::removeOrphaned);
+        removeAllInSources(orphaned);
+        em.createNativeQuery("DELETE { GRAPH ?g { ?source a ?pendingCheck . } } WHERE {" + values + "}")
+          .setParameter("g", URI.create(config.getMetadataContext()))
+          .setParameter("pendingCheck", URI.create(Vocabulary.s_c_zdroj_ke_kontrole_vyskytu)).executeUpdate();
     }
 
     /**
@@ -246,24 +513,78 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
      * batch removal (e.g., on corresponding asset remove) is implemented by dropping the whole context. However, old
      * occurrences were stored in the default context and thus the new removal logic does not affect them. This method
      * allows targeting such occurrences.
+     * <p>
+     * Note that this method scans all term occurrences in the repository, so it is meant only as an explicit repair
+     * operation. Use {@link #removeOrphans(Collection)} when the candidate sources are known. Occurrence contexts of the
+     * orphaned sources are dropped in a single update.
      */
+    @ModifiesData
     public void removeAllOrphans() {
-        em.createNativeQuery("SELECT DISTINCT ?source WHERE {" +
-                  "?t a ?target ;" +
-                  "?hasSource ?source ." +
-                  // If an asset does not have a label, it does not exist
-                  "FILTER NOT EXISTS { " +
-                  "{ ?source ?hasLabel ?label . } " +
-                  "UNION" +
-                  "{ ?source ?hasTitle ?label . } " +
-                  "}}", URI.class)
-          .setParameter("target", URI.create(Vocabulary.s_c_cil_vyskytu))
-          .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
-          .setParameter("hasLabel", URI.create(RDFS.LABEL))
-          .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
-          .getResultStream().forEach(a -> {
-              LOG.trace("Removing orphaned term occurrences targeting <{}>.", a);
-              removeAll(a, URI.create(Vocabulary.s_c_vyskyt_termu));
-          });
+        final List<URI> orphaned = findOrphanedSources();
+        orphaned.forEach(this::removeOrphaned);
+        removeAllInSources(orphaned);
+    }
+
+    private List<URI> findOrphanedSources() {
+        return em.createNativeQuery("SELECT DISTINCT ?source WHERE {" +
+                         "?t a ?target ;" +
+                         "?hasSource ?source ." +
+                         // If an asset does not have a label, it does not exist
+                         "FILTER NOT EXISTS { " +
+                         "{ ?source ?hasLabel ?label . } " +
+                         "UNION" +
+                         "{ ?source ?hasTitle ?label . } " +
+                         "}}", URI.class)
+                 .setParameter("target", URI.create(Vocabulary.s_c_cil_vyskytu))
+                 .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
+                 .setParameter("hasLabel", URI.create(RDFS.LABEL))
+                 .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
+                 .getResultList();
+    }
+
+    private void removeOrphaned(URI source) {
+        LOG.trace("Removing orphaned term occurrences targeting <{}>.", source);
+        removeAll(source, URI.create(Vocabulary.s_c_vyskyt_termu));
+        occurrenceIndex.allOccurrencesRemoved(source);
+        positionIndex.sourceModified(source);
+    }
+
+    /**
+     * Resource to which term occurrences are attributed, together with occurrence type and status.
+     */
+    private static final class OccurrenceInfoKey {
+        private final URI resource;
+        private final String label;
+        private final String type;
+        private final boolean suggested;
+
+        private OccurrenceInfoKey(URI resource, String label, String type, boolean suggested) {
+            this.resource = resource;
+            this.label = label;
+            this.type = type;
+            this.suggested = suggested;
+        }
+
+        private OccurrenceInfoKey withSuggested(boolean suggested) {
+            return new OccurrenceInfoKey(resource, label, type, suggested);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof OccurrenceInfoKey)) {
+                return false;
+            }
+            final OccurrenceInfoKey that = (OccurrenceInfoKey) o;
+            return suggested == that.suggested && resource.equals(that.resource) && label.equals(that.label) &&
+                    type.equals(that.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resource, label, type, suggested);
+        }
     }
 }
@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.persistence.dao;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
 import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
@@ -29,8 +30,13 @@ import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.validation.ValidationResult;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.util.SparqlResultToVocabularyMapper;
+import cz.cvut.kbss.termit.persistence.index.vocabulary.VocabularyImportGraph;
 import cz.cvut.kbss.termit.persistence.snapshot.AssetSnapshotLoader;
+import cz.cvut.kbss.termit.persistence.snapshot.DeltaSnapshotStore;
+import cz.cvut.kbss.termit.persistence.snapshot.SnapshotCache;
 import cz.cvut.kbss.termit.persistence.validation.VocabularyContentValidator;
+import cz.cvut.kbss.termit.persistence.version.VersionCounters;
 import cz.cvut.kbss.termit.service.snapshot.SnapshotProvider;
 import cz.cvut.kbss.termit.util.Configuration;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -57,19 +63,35 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
             "    BIND (SUBSTR(STR(?timestamp), 1, 10) as ?date) " +
             "} GROUP BY ?date HAVING (?cnt > 0) ORDER BY ?date";
 
-    private volatile long lastModified;
+    /**
+     * Key of the version counter used as last modification timestamp of vocabularies
+     */
+    static final String VERSION_COUNTER = "vocabularies";
 
     private final ApplicationContext context;
 
     private final VocabularyContextMapper contextMapper;
 
+    private final VocabularyImportGraph importGraph;
+
+    private final DeltaSnapshotStore deltaStore;
+
+    private final SnapshotCache snapshotCache;
+
+    private final VersionCounters versionCounters;
+
     @Autowired
     public VocabularyDao(EntityManager em, Configuration config, DescriptorFactory descriptorFactory,
-                         ApplicationContext context, VocabularyContextMapper contextMapper) {
+                         ApplicationContext context, VocabularyContextMapper contextMapper,
+                         VocabularyImportGraph importGraph, DeltaSnapshotStore deltaStore,
+                         SnapshotCache snapshotCache, VersionCounters versionCounters) {
         super(Vocabulary.class, em, config.getPersistence(), descriptorFactory);
-        refreshLastModified();
         this.context = context;
         this.contextMapper = contextMapper;
+        this.importGraph = importGraph;
+        this.deltaStore = deltaStore;
+        this.snapshotCache = snapshotCache;
+        this.versionCounters = versionCounters;
     }
 
     @Override
@@ -77,37 +99,103 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         return LABEL_PROPERTY;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Vocabularies (including their glossaries, models and documents) are loaded by a single query over the repository
+     * contexts of the vocabularies, instead of loading each vocabulary separately. The returned instances are not
+     * managed by the persistence context, so they should not be used for updates.
+     */
     @Override
     public List<Vocabulary> findAll() {
         try {
-            return em.createNativeQuery("SELECT DISTINCT ?v WHERE { ?v a ?type ;" +
-                                                "?hasTitle ?title ." +
-                                                "FILTER NOT EXISTS {" +
-                                                "?v a ?snapshot ." +
-                                                "}} ORDER BY ?title", URI.class)
-                     .setParameter("type", typeUri)
-                     .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
-                     .setParameter("snapshot", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_slovniku))
-                     .getResultStream().map(this::find).flatMap(Optional::stream).collect(Collectors.toList());
+            final List<URI> vocabularies = em.createNativeQuery("SELECT DISTINCT ?v WHERE { ?v a ?type ;" +
+                                                                        "?hasTitle ?title ." +
+                                                                        "FILTER NOT EXISTS {" +
+                                                                        "?v a ?snapshot ." +
+                                                                        "}}", URI.class)
+                                             .setParameter("type", typeUri)
+                                             .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
+                                             .setParameter("snapshot", URI.create(
+                                                     cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_slovniku))
+                                             .getResultList();
+            if (vocabularies.isEmpty()) {
+                return Collections.emptyList();
+            }
+            final List<Vocabulary> result = loadVocabularies(vocabularies);
+            result.sort(Comparator.comparing(Vocabulary::getLabel, Comparator.nullsLast(Comparator.naturalOrder())));
+            return result;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    /**
+     * Loads the specified vocabularies (including their glossaries, models and documents) by a single query over the
+     * repository contexts of the vocabularies.
+     * <p>
+     * The returned instances are not managed by the persistence context.
+     *
+     * @param vocabularies Identifiers of vocabularies to load, not empty
+     * @return List of loaded vocabularies, vocabularies which do not exist are skipped
+     */
+    private List<Vocabulary> loadVocabularies(Collection<URI> vocabularies) {
+        // Context mapping is cached, so this does not require additional queries
+        final Set<URI> contexts = vocabularies.stream().map(contextMapper::getVocabularyContext)
+                                              .collect(Collectors.toSet());
+        final List<?> statements = em.createNativeQuery("SELECT ?v ?s ?p ?o WHERE { GRAPH ?g { " +
+                                                                "?v a ?type . " +
+                                                                "{ ?v ?p ?o . BIND (?v AS ?s) } " +
+                                                                "UNION { ?v ?hasGlossary ?s . ?s ?p ?o . " +
+                                                                "FILTER (?p != ?hasTopConcept) } " +
+                                                                "UNION { ?v ?hasModel ?s . ?s ?p ?o . } " +
+                                                                "UNION { ?v ?describesDocument ?s . ?s ?p ?o . } " +
+                                                                "UNION { ?v ?describesDocument ?d . " +
+                                                                "?d ?hasFile ?s . ?s ?p ?o . } " +
+                                                                "} " +
+                                                                "FILTER (?g IN (?contexts)) " +
+                                                                "FILTER (?v IN (?vocabularies)) }")
+                                      .setParameter("type", typeUri)
+                                      .setParameter("hasGlossary", URI.create(
+                                              cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar))
+                                      .setParameter("hasModel", URI.create(
+                                              cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_model))
+                                      .setParameter("describesDocument", URI.create(
+                                              cz.cvut.kbss.termit.util.Vocabulary.s_p_popisuje_dokument))
+                                      .setParameter("hasFile", URI.create(
+                                              cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_soubor))
+                                      .setParameter("hasTopConcept", URI.create(SKOS.HAS_TOP_CONCEPT))
+                                      .setParameter("contexts", contexts)
+                                      .setParameter("vocabularies", vocabularies)
+                                      .getResultList();
+        return new SparqlResultToVocabularyMapper(config.getLanguage()).map(statements);
+    }
+
     @Override
     public Optional<Vocabulary> find(URI id) {
         Objects.requireNonNull(id);
-        try {
-            return Optional.ofNullable(em.find(type, id, descriptorFactory.vocabularyDescriptor(id)));
-        } catch (RuntimeException e) {
-            throw new PersistenceException(e);
-        }
+        return snapshotCache.getAsset(id, () -> {
+            try {
+                final Descriptor descriptor = descriptorFactory.vocabularyDescriptor(id);
+                // Snapshots which are still being created are not found
+                return Optional.ofNullable(
+                        deltaStore.read(id, vocabularyEm -> vocabularyEm.find(type, id, descriptor)))
+                        .filter(v -> !v.isSnapshot() ||
+                                snapshotLoader().isComplete(contextMapper.getVocabularyContext(id)));
+            } catch (RuntimeException e) {
+                throw new PersistenceException(e);
+            }
+        }, Vocabulary::isSnapshot);
     }
 
     @Override
     public Optional<Vocabulary> getReference(URI id) {
         Objects.requireNonNull(id);
         try {
+            if (deltaStore.isDeltaSnapshot(id)) {
+                // References from the materialized snapshots cannot be loaded lazily
+                return find(id);
+            }
             return Optional.ofNullable(em.getReference(type, id, descriptorFactory.vocabularyDescriptor(id)));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -123,11 +211,7 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
     public Collection<URI> getTransitivelyImportedVocabularies(Vocabulary entity) {
         Objects.requireNonNull(entity);
         try {
-            return em.createNativeQuery("SELECT DISTINCT ?imported WHERE {" +
-                                                "?x ?imports+ ?imported ." +
-                                                "}", URI.class)
-                     .setParameter("imports", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
-                     .setParameter("x", entity.getUri()).getResultList();
+            return new ArrayList<>(importGraph.getTransitiveImports(entity.getUri()));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -135,6 +219,8 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
 
     /**
      * Gets identifiers of vocabularies which directly import the supplied one.
+     * <p>
+     * The vocabularies are loaded by a single query and are not managed by the persistence context.
      *
      * @param vocabulary vocabulary, importing vocabularies of which are fetched
      * @return Collection of vocabularies which directly import #vocabulary
@@ -142,11 +228,8 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
     public List<Vocabulary> getImportingVocabularies(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
         try {
-            return em.createNativeQuery("SELECT DISTINCT ?importing WHERE {" +
-                                                "?importing ?imports ?imported ." +
-                                                "}", Vocabulary.class)
-                     .setParameter("imports", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
-                     .setParameter("imported", vocabulary.getUri()).getResultList();
+            final Set<URI> importing = importGraph.getImportingVocabularies(vocabulary.getUri());
+            return importing.isEmpty() ? Collections.emptyList() : loadVocabularies(importing);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -157,6 +240,7 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
     public Vocabulary update(Vocabulary entity) {
         Objects.requireNonNull(entity);
         try {
+            importGraph.vocabularyChanged();
             return em.merge(entity, descriptorFactory.vocabularyDescriptor(entity));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -169,6 +253,7 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         Objects.requireNonNull(entity);
         try {
             em.persist(entity, descriptorFactory.vocabularyDescriptor(entity));
+            importGraph.vocabularyChanged();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -180,6 +265,7 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         Objects.requireNonNull(entity);
         try {
             find(entity.getUri()).ifPresent(em::remove);
+            importGraph.vocabularyChanged();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -221,32 +307,30 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
     public boolean hasInterVocabularyTermRelationships(URI subjectVocabulary, URI targetVocabulary) {
         Objects.requireNonNull(subjectVocabulary);
         Objects.requireNonNull(targetVocabulary);
+        final Set<URI> targetClosure = new HashSet<>(importGraph.getTransitiveImports(targetVocabulary));
+        targetClosure.add(targetVocabulary);
         return em.createNativeQuery("ASK WHERE {" +
                                             "    ?t ?isTermFromVocabulary ?subjectVocabulary ; " +
                                             "       ?hasParentTerm ?parent . " +
                                             "    ?parent ?isTermFromVocabulary ?import . " +
-                                            "    {" +
-                                            "        SELECT ?import WHERE {" +
-                                            "           ?targetVocabulary ?importsVocabulary* ?import . " +
-                                            "} } }", Boolean.class)
+                                            "    FILTER (?import IN (?targetClosure)) " +
+                                            "}", Boolean.class)
                  .setParameter("isTermFromVocabulary",
                                URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
                  .setParameter("subjectVocabulary", subjectVocabulary)
                  .setParameter("hasParentTerm", URI.create(SKOS.BROADER))
-                 .setParameter("targetVocabulary", targetVocabulary)
-                 .setParameter("importsVocabulary",
-                               URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
+                 .setParameter("targetClosure", targetClosure)
                  .getSingleResult();
     }
 
     @Override
     public long getLastModified() {
-        return lastModified;
+        return versionCounters.getOrInitialize(VERSION_COUNTER);
     }
 
     @Override
     public void refreshLastModified() {
-        this.lastModified = System.currentTimeMillis();
+        versionCounters.increment(VERSION_COUNTER);
     }
 
     @EventListener
@@ -339,15 +423,19 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
 
     @Override
     public List<Snapshot> findSnapshots(Vocabulary vocabulary) {
-        return new AssetSnapshotLoader<Vocabulary>(em, typeUri, URI.create(
-                cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_slovniku)).findSnapshots(vocabulary);
+        return snapshotCache.getSnapshots(vocabulary.getUri(), () -> snapshotLoader().findSnapshots(vocabulary));
+    }
+
+    private AssetSnapshotLoader<Vocabulary> snapshotLoader() {
+        return new AssetSnapshotLoader<>(em, typeUri,
+                                         URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_slovniku),
+                                         deltaStore);
     }
 
     @Override
     public Optional<Vocabulary> findVersionValidAt(Vocabulary vocabulary, Instant at) {
-        return new AssetSnapshotLoader<Vocabulary>(em, typeUri, URI.create(
-                cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_slovniku))
-                .findVersionValidAt(vocabulary, at);
+        return snapshotCache.getVersionValidAt(vocabulary.getUri(), at,
+                                               () -> snapshotLoader().findVersionValidAt(vocabulary, at));
     }
 
     /**
@@ -368,10 +456,11 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         Objects.requireNonNull(rootVocabulary);
         Objects.requireNonNull(termRelationships);
 
-        final List<URI> result = new ArrayList<>();
+        final Set<URI> result = new HashSet<>();
         result.add(rootVocabulary.getUri());
-        // Using old-school iteration to prevent concurrent modification issues when adding items to list under iteration
-        for (int i = 0; i < result.size(); i++) {
+        // Breadth-first traversal, vocabularies related via terms are resolved by a single query per level
+        Set<URI> frontier = Collections.singleton(rootVocabulary.getUri());
+        while (!frontier.isEmpty()) {
             final Set<URI> toAdd = new HashSet<>(em.createNativeQuery("SELECT DISTINCT ?v WHERE {\n" +
                                                                               "    ?t a ?term ;\n" +
                                                                               "       ?inVocabulary ?vocabulary ;\n" +
@@ -379,24 +468,23 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
                                                                               "    ?z a ?term ;\n" +
                                                                               "       ?inVocabulary ?v .\n" +
                                                                               "    FILTER (?v != ?vocabulary)\n" +
+                                                                              "    FILTER (?vocabulary IN (?frontier))\n" +
                                                                               "    FILTER (?y IN (?cascadingRelationships))\n" +
                                                                               "}", URI.class)
                                                    .setParameter("term", URI.create(SKOS.CONCEPT))
                                                    .setParameter("inVocabulary",
                                                                  URI.create(
                                                                          cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                                   .setParameter("vocabulary", result.get(i))
+                                                   .setParameter("frontier", frontier)
                                                    .setParameter("cascadingRelationships", termRelationships)
                                                    .getResultList());
             // Explicitly imported vocabularies (it is likely they were already added due to term relationships, but just
             // to be sure)
-            toAdd.addAll(em.createNativeQuery("SELECT DISTINCT ?imported WHERE { ?v ?imports ?imported . }", URI.class)
-                           .setParameter("imports",
-                                         URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
-                           .setParameter("v", result.get(i)).getResultList());
-            result.forEach(toAdd::remove);
+            frontier.forEach(v -> toAdd.addAll(importGraph.getImports(v)));
+            toAdd.removeAll(result);
             result.addAll(toAdd);
+            frontier = toAdd;
         }
-        return new HashSet<>(result);
+        return result;
     }
 }
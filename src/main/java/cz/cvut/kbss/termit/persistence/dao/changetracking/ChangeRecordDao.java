@@ -12,6 +12,7 @@ import cz.cvut.kbss.termit.util.Vocabulary;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -41,13 +42,41 @@ public class ChangeRecordDao {
      */
     public void persist(AbstractChangeRecord record, Asset<?> changedAsset) {
         Objects.requireNonNull(record);
+        final EntityDescriptor descriptor = createDescriptor(changedAsset);
+        try {
+            em.persist(record, descriptor);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private EntityDescriptor createDescriptor(Asset<?> changedAsset) {
         final EntityDescriptor descriptor = new EntityDescriptor(
                 contextResolver.resolveChangeTrackingContext(changedAsset));
         descriptor.addAttributeDescriptor(em.getMetamodel().entity(AbstractChangeRecord.class).getAttribute("author"),
                 new EntityDescriptor());
         descriptor.setLanguage(null);
+        return descriptor;
+    }
+
+    /**
+     * Persists the specified change records into the change tracking context of the specified vocabulary.
+     * <p>
+     * The records are expected to concern the vocabulary or its terms. The change tracking context is resolved only
+     * once for all the records.
+     *
+     * @param records    Records to save
+     * @param vocabulary Vocabulary whose content was changed
+     */
+    public void persistAll(Collection<? extends AbstractChangeRecord> records,
+                           cz.cvut.kbss.termit.model.Vocabulary vocabulary) {
+        Objects.requireNonNull(records);
+        if (records.isEmpty()) {
+            return;
+        }
+        final EntityDescriptor descriptor = createDescriptor(vocabulary);
         try {
-            em.persist(record, descriptor);
+            records.forEach(r -> em.persist(r, descriptor));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
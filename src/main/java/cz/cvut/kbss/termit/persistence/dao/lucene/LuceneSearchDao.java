@@ -15,21 +15,15 @@
 package cz.cvut.kbss.termit.persistence.dao.lucene;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
-import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
 import cz.cvut.kbss.termit.util.Configuration;
-import cz.cvut.kbss.termit.util.Vocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
-import java.net.URI;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
-
 /**
  * {@link SearchDao} extension for Lucene-based repositories. These support rich search strings with wildcards and
  * operators.
@@ -50,20 +44,13 @@ public class LuceneSearchDao extends SearchDao {
     }
 
     @Override
-    public List<FullTextSearchResult> fullTextSearch(String searchString) {
-        Objects.requireNonNull(searchString);
-        if (searchString.isBlank()) {
-            return Collections.emptyList();
-        }
+    protected Query createFullTextSearchQuery(String searchString, boolean includeSnapshots) {
         final String wildcardString = addWildcard(searchString);
         final String exactMatch = splitExactMatch(searchString);
-        LOG.trace("Running full text search for search string \"{}\", using wildcard variant \"{}\".", searchString,
-                  wildcardString);
-        return setCommonQueryParams(em.createNativeQuery(ftsQuery, "FullTextSearchResult"), searchString)
-                .setParameter("snapshot", URI.create(Vocabulary.s_c_verze_objektu))
-                .setParameter("wildCardSearchString", wildcardString, null)
-                .setParameter("splitExactMatch", exactMatch, null)
-                .getResultList();
+        LOG.trace("Using wildcard variant \"{}\" of search string \"{}\".", wildcardString, searchString);
+        return super.createFullTextSearchQuery(searchString, includeSnapshots)
+                    .setParameter("wildCardSearchString", wildcardString, null)
+                    .setParameter("splitExactMatch", exactMatch, null);
     }
 
     private static String addWildcard(String searchString) {
@@ -82,22 +69,4 @@ public class LuceneSearchDao extends SearchDao {
         String s = "<em>";
         return s.concat(String.join("</em> <em>", split)).concat("</em>");
     }
-
-    @Override
-    public List<FullTextSearchResult> fullTextSearchIncludingSnapshots(String searchString) {
-        Objects.requireNonNull(searchString);
-        if (searchString.isBlank()) {
-            return Collections.emptyList();
-        }
-        final String wildcardString = addWildcard(searchString);
-        final String exactMatch = splitExactMatch(searchString);
-        LOG.trace(
-                "Running full text search (including snapshots) for search string \"{}\", using wildcard variant \"{}\".",
-                searchString, wildcardString);
-        return setCommonQueryParams(em.createNativeQuery(queryIncludingSnapshots(), "FullTextSearchResult"),
-                                    searchString)
-                .setParameter("wildCardSearchString", wildcardString, null)
-                .setParameter("splitExactMatch", exactMatch, null)
-                .getResultList();
-    }
 }
@@ -1,11 +1,14 @@
 package cz.cvut.kbss.termit.persistence.dao.skos;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyModified;
 import cz.cvut.kbss.termit.exception.importing.UnsupportedImportMediaTypeException;
 import cz.cvut.kbss.termit.exception.importing.VocabularyExistsException;
 import cz.cvut.kbss.termit.exception.importing.VocabularyImportException;
 import cz.cvut.kbss.termit.model.Glossary;
 import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.persistence.dao.TermDao;
 import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
 import cz.cvut.kbss.termit.util.Configuration;
@@ -13,18 +16,18 @@ import cz.cvut.kbss.termit.util.Utils;
 import org.eclipse.rdf4j.model.*;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
-import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.SKOS;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParser;
 import org.eclipse.rdf4j.rio.Rio;
-import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
@@ -32,10 +35,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import static cz.cvut.kbss.termit.util.Utils.getLanguageTagsPerProperties;
 import static cz.cvut.kbss.termit.util.Utils.getUniqueIriFromBase;
 
 /**
@@ -43,6 +46,11 @@ import static cz.cvut.kbss.termit.util.Utils.getUniqueIriFromBase;
  * <p>
  * It takes the thesauri as a TermIt glossary and 1) creates the necessary metadata (vocabulary, model) 2) generates the
  * necessary hasTopConcept relationships based on the broader/narrower hierarchy.
+ * <p>
+ * Imported data are processed in two passes. The first one parses the data, keeping only an index of concepts, concept
+ * schemes and their hierarchy in memory and spilling the statements into a temporary store on disk if they are too
+ * large (see {@link StagedImportData}). The second one rewrites IRIs where necessary and writes the statements into the
+ * repository in batches.
  */
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -50,6 +58,11 @@ public class SKOSImporter {
 
     private static final Logger LOG = LoggerFactory.getLogger(SKOSImporter.class);
 
+    /**
+     * Suffix of the context into which imported data are written before being moved into the vocabulary context.
+     */
+    static final String STAGING_CONTEXT_SUFFIX = "/import-staging";
+
     private static final Set<String> MULTILINGUAL_PROPERTIES = Set.of(
             SKOS.PREF_LABEL.toString(),
             SKOS.ALT_LABEL.toString(),
@@ -64,16 +77,31 @@ public class SKOSImporter {
 
     private final EntityManager em;
 
-    private final Model model = new LinkedHashModel();
+    private final ApplicationEventPublisher eventPublisher;
+
+    private StagedImportData data;
 
     private IRI glossaryIri;
 
+    /**
+     * Namespace to replace when renaming the imported vocabulary, {@code null} if it is not renamed
+     */
+    private String originalNamespace;
+    private String newNamespace;
+
+    /**
+     * Renamed IRIs (after namespace change) and their new values
+     */
+    private final Map<String, String> renamedIris = new HashMap<>();
+
     @Autowired
-    public SKOSImporter(Configuration config, VocabularyDao vocabularyDao, TermDao termDao, EntityManager em) {
+    public SKOSImporter(Configuration config, VocabularyDao vocabularyDao, TermDao termDao, EntityManager em,
+                        ApplicationEventPublisher eventPublisher) {
         this.config = config;
         this.vocabularyDao = vocabularyDao;
         this.termDao = termDao;
         this.em = em;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -92,7 +120,7 @@ public class SKOSImporter {
      */
     public Vocabulary importVocabulary(boolean rename, String mediaType, final Consumer<Vocabulary> persist,
                                        final InputStream... inputStreams) {
-        return importVocabulary(rename, null, mediaType, persist, inputStreams);
+        return importVocabulary(rename, null, mediaType, persist, null, inputStreams);
     }
 
     /**
@@ -108,32 +136,72 @@ public class SKOSImporter {
      * @return The imported vocabulary
      * @throws IllegalArgumentException Indicates invalid input data, e.g., no input streams, missing language tags
      *                                  etc.
+     * @see #importVocabulary(URI, String, Consumer, BiConsumer, InputStream...)
      */
     public Vocabulary importVocabulary(URI vocabularyIri, String mediaType, final Consumer<Vocabulary> persist,
                                        final InputStream... inputStreams) {
         Objects.requireNonNull(vocabularyIri);
-        return importVocabulary(false, vocabularyIri, mediaType, persist, inputStreams);
+        return importVocabulary(false, vocabularyIri, mediaType, persist, null, inputStreams);
+    }
+
+    /**
+     * Imports a SKOS vocabulary from the specified streams, possibly replacing an existing one.
+     * <p>
+     * If the specified {@code vocabularyIri} identifies an existing vocabulary with the same glossary as the imported
+     * data, only the difference between its current content and the imported data is written into the repository.
+     * Metadata of the existing vocabulary are preserved in this case. Otherwise, the existing vocabulary is removed
+     * and replaced with the imported data.
+     *
+     * @param vocabularyIri Target vocabulary identifier
+     * @param mediaType     Input data media type
+     * @param persist       Consumer of the imported vocabulary, used to save the imported data
+     * @param recordChanges Consumer of change records of terms added or modified by re-import of an existing
+     *                      vocabulary. Provenance data (author, timestamp) of the records are not set
+     * @param inputStreams  Streams containing the imported SKOS data
+     * @return The imported vocabulary
+     * @throws IllegalArgumentException Indicates invalid input data, e.g., no input streams, missing language tags
+     *                                  etc.
+     */
+    public Vocabulary importVocabulary(URI vocabularyIri, String mediaType, final Consumer<Vocabulary> persist,
+                                       final BiConsumer<Vocabulary, List<AbstractChangeRecord>> recordChanges,
+                                       final InputStream... inputStreams) {
+        Objects.requireNonNull(vocabularyIri);
+        Objects.requireNonNull(recordChanges);
+        return importVocabulary(false, vocabularyIri, mediaType, persist, recordChanges, inputStreams);
     }
 
     private Vocabulary importVocabulary(final boolean rename,
                                        final URI vocabularyIri,
                                        final String mediaType,
                                        final Consumer<Vocabulary> persist,
+                                       final BiConsumer<Vocabulary, List<AbstractChangeRecord>> recordChanges,
                                        final InputStream... inputStreams) {
         if (inputStreams.length == 0) {
             throw new IllegalArgumentException("No input provided for importing vocabulary.");
         }
         LOG.debug("Vocabulary import started.");
+        this.data = new StagedImportData(config.getSkosImport().getInMemoryStatementLimit(), MULTILINGUAL_PROPERTIES);
+        try {
+            return processImport(rename, vocabularyIri, mediaType, persist, recordChanges, inputStreams);
+        } finally {
+            data.close();
+        }
+    }
+
+    private Vocabulary processImport(final boolean rename,
+                                     final URI vocabularyIri,
+                                     final String mediaType,
+                                     final Consumer<Vocabulary> persist,
+                                     final BiConsumer<Vocabulary, List<AbstractChangeRecord>> recordChanges,
+                                     final InputStream[] inputStreams) {
         parseDataFromStreams(mediaType, inputStreams);
         LOG.debug("Checking that only language-tagged literals are provided.");
-
-        final Set<String> languageTags = getLanguageTagsPerProperties(model, MULTILINGUAL_PROPERTIES);
-        if (languageTags.contains("")) {
+        if (data.hasValueWithoutLanguageTag()) {
             throw new IllegalArgumentException(
                     "Each value of the properties must have a non-empty language tag: " + MULTILINGUAL_PROPERTIES);
         }
 
-        glossaryIri = resolveGlossaryIriFromImportedData(model);
+        glossaryIri = resolveGlossaryIriFromImportedData();
         LOG.trace("Importing glossary {}.", glossaryIri);
         insertTopConceptAssertions();
 
@@ -151,6 +219,15 @@ public class SKOSImporter {
                       vocabulary.getGlossary().getUri());
             ensureUniqueness(vocabulary);
         } else {
+            final Optional<Vocabulary> existing = vocabularyDao.find(vocabularyIri);
+            if (existing.isPresent() && vocabulary.getGlossary().getUri()
+                                                  .equals(existing.get().getGlossary().getUri())) {
+                if (!data.isSpilled()) {
+                    return reimportVocabulary(existing.get(), vocabulary, recordChanges);
+                }
+                LOG.info("Imported data are too large to compute difference, replacing content of vocabulary {}.",
+                         vocabularyIri);
+            }
             clearVocabulary(vocabularyIri);
         }
 
@@ -161,6 +238,58 @@ public class SKOSImporter {
         return vocabulary;
     }
 
+    /**
+     * Replaces content of the specified existing vocabulary with the imported data by writing only the difference
+     * between them.
+     */
+    private Vocabulary reimportVocabulary(Vocabulary existing, Vocabulary imported,
+                                          BiConsumer<Vocabulary, List<AbstractChangeRecord>> recordChanges) {
+        LOG.trace("Re-importing existing vocabulary {}.", existing.getUri());
+        if (imported.getLabel() != null && !imported.getLabel().equals(existing.getLabel())) {
+            existing.setLabel(imported.getLabel());
+            vocabularyDao.update(existing);
+        }
+        em.flush();
+        final VocabularyContentDiff diff = applyDifference(existing.getUri());
+        if (diff.isEmpty()) {
+            LOG.debug("Re-imported vocabulary {} does not differ from the existing one.", existing.getUri());
+            return existing;
+        }
+        em.getEntityManagerFactory().getCache().evict(existing.getUri());
+        // Bulk change of the vocabulary content, caches and indexes have to rebuild their data about the vocabulary
+        eventPublisher.publishEvent(new VocabularyModified(this, existing.getUri()));
+        eventPublisher.publishEvent(new VocabularyContentModified(this, existing.getUri()));
+        if (recordChanges != null) {
+            recordChanges.accept(existing, diff.createChangeRecords());
+        }
+        LOG.debug("Vocabulary re-import successfully finished. Added {}, removed {} and changed {} terms.",
+                  diff.getAddedTerms().size(), diff.getRemovedTerms().size(), diff.getChangedTerms().size());
+        return existing;
+    }
+
+    private VocabularyContentDiff applyDifference(URI vocabularyIri) {
+        final Repository repository = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            conn.begin();
+            final ValueFactory vf = repository.getValueFactory();
+            final IRI targetContext = vf.createIRI(vocabularyIri.toString());
+            final Model current = new LinkedHashModel();
+            try (final RepositoryResult<Statement> statements = conn.getStatements(null, null, null, false,
+                                                                                   targetContext)) {
+                statements.forEach(s -> current.add(s.getSubject(), s.getPredicate(), s.getObject()));
+            }
+            final Model imported = new LinkedHashModel();
+            data.forEach(s -> imported.add(rewrite(s, vf)));
+            final VocabularyContentDiff diff = new VocabularyContentDiff(current, imported, glossaryIri);
+            LOG.debug("Applying difference to context <{}>: removing {} and adding {} statements.", targetContext,
+                      diff.getStatementsToRemove().size(), diff.getStatementsToAdd().size());
+            conn.remove(diff.getStatementsToRemove(), targetContext);
+            conn.add(diff.getStatementsToAdd(), targetContext);
+            conn.commit();
+            return diff;
+        }
+    }
+
     private void ensureUniqueness(Vocabulary vocabulary) {
         if (vocabularyDao.exists(vocabulary.getUri())) {
             throw new VocabularyExistsException("The vocabulary IRI '" + vocabulary.getUri() + "' already exists.");
@@ -190,31 +319,67 @@ public class SKOSImporter {
     }
 
     private void ensureConceptIrisAreCompatibleWithTermIt() {
-        final Statement[] statements = model.filter(null, RDF.TYPE, SKOS.CONCEPT).toArray(new Statement[]{});
-        for (final Statement c : statements) {
+        for (final Resource c : data.getConcepts()) {
+            if (!c.isIRI()) {
+                continue;
+            }
+            final String sIri = rewriteIri(c.stringValue());
             String separator = config.getNamespace().getTerm().getSeparator();
-            if (c.getSubject().stringValue().contains(separator)) {
+            if (sIri.contains(separator)) {
                 continue;
             }
             separator = "#";
-            if (!c.getSubject().stringValue().contains(separator)) {
+            if (!sIri.contains(separator)) {
                 separator = "/";
             }
-            final String sIri = c.getSubject().stringValue();
             final int lastSeparator = sIri.lastIndexOf(separator);
             final String newIri = sIri.substring(0, lastSeparator)
                     + config.getNamespace().getTerm().getSeparator() + "/"
                     + sIri.substring(lastSeparator + 1);
-            Utils.changeIri(c.getSubject().stringValue(), newIri, model);
+            renameIri(sIri, newIri);
+        }
+    }
+
+    /**
+     * Registers renaming of the specified IRI. The IRI is expected to already reflect namespace change.
+     */
+    private void renameIri(String iri, String newIri) {
+        renamedIris.put(iri, newIri);
+    }
+
+    /**
+     * Gets the IRI under which the specified imported IRI will be stored in the repository.
+     */
+    private String rewriteIri(String iri) {
+        String result = iri;
+        if (originalNamespace != null && result.startsWith(originalNamespace)) {
+            result = newNamespace + result.substring(originalNamespace.length());
         }
+        return renamedIris.getOrDefault(result, result);
+    }
+
+    private Value rewrite(Value value, ValueFactory vf) {
+        if (!value.isIRI()) {
+            return value;
+        }
+        final String iri = rewriteIri(value.stringValue());
+        return iri.equals(value.stringValue()) ? value : vf.createIRI(iri);
+    }
+
+    private Statement rewrite(Statement statement, ValueFactory vf) {
+        if (originalNamespace == null && renamedIris.isEmpty()) {
+            return statement;
+        }
+        return vf.createStatement((Resource) rewrite(statement.getSubject(), vf),
+                                  (IRI) rewrite(statement.getPredicate(), vf),
+                                  rewrite(statement.getObject(), vf));
     }
 
     private void parseDataFromStreams(String mediaType, InputStream... inputStreams) {
         final RDFFormat rdfFormat = Rio.getParserFormatForMIMEType(mediaType).orElseThrow(
                 () -> new UnsupportedImportMediaTypeException("Media type '" + mediaType + "' not supported."));
         final RDFParser p = Rio.createParser(rdfFormat);
-        final StatementCollector collector = new StatementCollector(model);
-        p.setRDFHandler(collector);
+        p.setRDFHandler(data);
         for (InputStream is : inputStreams) {
             try {
                 p.parse(is, "");
@@ -224,10 +389,10 @@ public class SKOSImporter {
         }
     }
 
-    private static IRI resolveGlossaryIriFromImportedData(final Model model) {
-        final Model glossaryRes = model.filter(null, RDF.TYPE, SKOS.CONCEPT_SCHEME);
-        if (glossaryRes.size() == 1) {
-            final Resource glossary = glossaryRes.iterator().next().getSubject();
+    private IRI resolveGlossaryIriFromImportedData() {
+        final Set<Resource> glossaries = data.getConceptSchemes();
+        if (glossaries.size() == 1) {
+            final Resource glossary = glossaries.iterator().next();
             if (glossary.isIRI()) {
                 return (IRI) glossary;
             } else {
@@ -240,55 +405,89 @@ public class SKOSImporter {
 
     private String resolveVocabularyIriFromImportedData() {
         return Utils.getVocabularyIri(
-                model.filter(null, RDF.TYPE, SKOS.CONCEPT)
-                     .stream()
-                     .map(s -> s.getSubject().stringValue()).collect(Collectors.toSet()),
+                data.getConcepts().stream().map(Value::stringValue).collect(Collectors.toSet()),
                 config.getNamespace().getTerm().getSeparator());
     }
 
     private void insertTopConceptAssertions() {
         LOG.trace("Generating top concept assertions.");
-        final List<Resource> terms = model.filter(null, RDF.TYPE, SKOS.CONCEPT).stream().map
-                                                  (Statement::getSubject)
-                                          .collect(Collectors.toList());
-        terms.forEach(t -> {
-            final List<Value> broader = model.filter(t, SKOS.BROADER, null).stream().map
-                                                     (Statement::getObject)
-                                             .collect(Collectors.toList());
-            final boolean hasBroader = broader.stream()
-                                              .anyMatch(p -> model.contains((Resource) p, RDF
-                                                      .TYPE, SKOS.CONCEPT));
-            final List<Value> narrower = model.filter(null, SKOS.NARROWER, t).stream().map
-                                                      (Statement::getObject)
-                                              .collect(Collectors.toList());
-            final boolean isNarrower = narrower.stream()
-                                               .anyMatch(p -> model.contains((Resource) p, RDF
-                                                       .TYPE, SKOS.CONCEPT));
-            if (!hasBroader && !isNarrower) {
-                model.add(glossaryIri, SKOS.HAS_TOP_CONCEPT, t);
-            }
-        });
+        final List<Resource> topConcepts = data.getConcepts().stream().filter(t -> {
+            final boolean hasBroader = data.getBroader(t).stream().anyMatch(data::isConcept);
+            return !hasBroader && !data.isNarrower(t);
+        }).collect(Collectors.toList());
+        topConcepts.forEach(t -> data.add(glossaryIri, SKOS.HAS_TOP_CONCEPT, t));
     }
 
+    /**
+     * Writes the imported data into the repository.
+     * <p>
+     * The data are committed in batches of the configured size into a staging context and moved into the vocabulary
+     * context by a single update once all of them are written. The vocabulary context thus never contains only a part
+     * of the imported data. If writing fails, the staging context is cleared and the original content of the
+     * vocabulary context is left untouched.
+     */
     private void addDataIntoRepository(URI vocabularyIri) {
         final Repository repository = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
+        final int batchSize = config.getSkosImport().getBatchSize();
         try (final RepositoryConnection conn = repository.getConnection()) {
-            conn.begin();
-            final IRI targetContext = repository.getValueFactory().createIRI(vocabularyIri.toString());
-            LOG.debug("Importing vocabulary into context <{}>.", targetContext);
-            conn.add(model, targetContext);
-            conn.commit();
+            final ValueFactory vf = repository.getValueFactory();
+            final IRI targetContext = vf.createIRI(vocabularyIri.toString());
+            final IRI stagingContext = vf.createIRI(vocabularyIri + STAGING_CONTEXT_SUFFIX);
+            LOG.debug("Importing vocabulary into context <{}> via staging context <{}>.", targetContext,
+                      stagingContext);
+            try {
+                // Remove possible leftovers of an interrupted import
+                clearContext(conn, stagingContext);
+                final Model batch = new LinkedHashModel();
+                data.forEach(s -> {
+                    batch.add(rewrite(s, vf));
+                    if (batch.size() >= batchSize) {
+                        addBatch(conn, batch, stagingContext);
+                    }
+                });
+                addBatch(conn, batch, stagingContext);
+                conn.begin();
+                conn.prepareUpdate("ADD <" + stagingContext + "> TO <" + targetContext + ">").execute();
+                conn.clear(stagingContext);
+                conn.commit();
+            } catch (RuntimeException e) {
+                LOG.error("Unable to import vocabulary into context <{}>. Clearing staging context <{}>.",
+                          targetContext, stagingContext);
+                try {
+                    if (conn.isActive()) {
+                        conn.rollback();
+                    }
+                    clearContext(conn, stagingContext);
+                } catch (RuntimeException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
         }
     }
 
-    private Resource getGlossaryUri() {
-        Set<Resource> glossaries = model.filter(null, RDF.TYPE, SKOS.CONCEPT_SCHEME).subjects();
-        assert glossaries.size() == 1;
-        return glossaries.iterator().next();
+    private static void addBatch(RepositoryConnection conn, Model batch, IRI context) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        conn.begin();
+        conn.add(batch, context);
+        conn.commit();
+        batch.clear();
+    }
+
+    private static void clearContext(RepositoryConnection conn, IRI context) {
+        conn.begin();
+        conn.clear(context);
+        conn.commit();
+    }
+
+    private String getGlossaryUri() {
+        return rewriteIri(glossaryIri.stringValue());
     }
 
     private void setVocabularyLabelFromGlossary(final Vocabulary vocabulary) {
-        final Set<Statement> labels = model.filter(getGlossaryUri(), DCTERMS.TITLE, null);
+        final List<Statement> labels = data.getStatements(glossaryIri, DCTERMS.TITLE);
         labels.stream().filter(s -> {
             assert s.getObject() instanceof Literal;
             return Objects.equals(config.getPersistence().getLanguage(),
@@ -322,19 +521,20 @@ public class SKOSImporter {
         if (rename) {
             newVocabularyIri = getUniqueIriFromBase(newVocabularyIriBase, r -> vocabularyDao.find(URI.create(r)));
             if (!newVocabularyIri.equals(newVocabularyIriBase)) {
-                Utils.changeNamespace(newVocabularyIriBase, newVocabularyIri, model);
+                this.originalNamespace = newVocabularyIriBase;
+                this.newNamespace = newVocabularyIri;
             }
         }
         return newVocabularyIri;
     }
 
     private String getFreshGlossaryIri(final boolean rename) {
-        final String origGlossary = getGlossaryUri().toString();
+        final String origGlossary = getGlossaryUri();
         String newGlossaryIri = origGlossary;
         if (rename) {
             newGlossaryIri = getUniqueIriFromBase(origGlossary, r -> vocabularyDao.findGlossary(URI.create(r)));
             if (!newGlossaryIri.equals(origGlossary)) {
-                Utils.changeIri(origGlossary, newGlossaryIri, model);
+                renameIri(origGlossary, newGlossaryIri);
             }
         }
         return newGlossaryIri;
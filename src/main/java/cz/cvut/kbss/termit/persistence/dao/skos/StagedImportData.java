@@ -0,0 +1,251 @@
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.termit.exception.importing.VocabularyImportException;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+import org.eclipse.rdf4j.sail.nativerdf.NativeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Imported SKOS data staged before they are written into the repository.
+ * <p>
+ * Statements are kept in memory until their number exceeds the configured limit. After that, they are moved into a
+ * temporary native store on disk, so that very large vocabularies do not exhaust heap. Only an index of the data
+ * necessary to process the import (concepts, concept schemes and hierarchy) is always kept in memory.
+ * <p>
+ * Statements are stored without context. Instances have to be closed to release the temporary store.
+ */
+class StagedImportData extends AbstractRDFHandler implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StagedImportData.class);
+
+    /**
+     * Number of statements added into the temporary store in one transaction
+     */
+    private static final int SPILL_BATCH_SIZE = 10000;
+
+    private final int inMemoryStatementLimit;
+
+    private final Set<String> multilingualProperties;
+
+    private final Model inMemory = new LinkedHashModel();
+
+    private Path tempDir;
+    private SailRepository spillRepository;
+    private RepositoryConnection spillConnection;
+    private final Model spillBuffer = new LinkedHashModel();
+
+    private final Set<Resource> concepts = new LinkedHashSet<>();
+    private final Set<Resource> conceptSchemes = new LinkedHashSet<>();
+    private final Map<Resource, Set<Resource>> broader = new HashMap<>();
+    private final Set<Value> narrowerObjects = new HashSet<>();
+    private boolean missingLanguageTag;
+
+    /**
+     * @param inMemoryStatementLimit Maximum number of statements kept in memory
+     * @param multilingualProperties Identifiers of properties whose literal values must be language-tagged
+     */
+    StagedImportData(int inMemoryStatementLimit, Set<String> multilingualProperties) {
+        this.inMemoryStatementLimit = inMemoryStatementLimit;
+        this.multilingualProperties = multilingualProperties;
+    }
+
+    @Override
+    public void handleStatement(Statement st) {
+        add(st.getSubject(), st.getPredicate(), st.getObject());
+    }
+
+    /**
+     * Adds the specified statement to the staged data.
+     *
+     * @param subject   Statement subject
+     * @param predicate Statement predicate
+     * @param object    Statement object
+     */
+    void add(Resource subject, IRI predicate, Value object) {
+        index(subject, predicate, object);
+        if (spillConnection == null) {
+            inMemory.add(subject, predicate, object);
+            if (inMemory.size() > inMemoryStatementLimit) {
+                spill();
+            }
+        } else {
+            spillBuffer.add(subject, predicate, object);
+            if (spillBuffer.size() >= SPILL_BATCH_SIZE) {
+                flushSpillBuffer();
+            }
+        }
+    }
+
+    private void index(Resource subject, IRI predicate, Value object) {
+        if (RDF.TYPE.equals(predicate)) {
+            if (SKOS.CONCEPT.equals(object)) {
+                concepts.add(subject);
+            } else if (SKOS.CONCEPT_SCHEME.equals(object)) {
+                conceptSchemes.add(subject);
+            }
+        } else if (SKOS.BROADER.equals(predicate) && object.isResource()) {
+            broader.computeIfAbsent(subject, k -> new HashSet<>(2)).add((Resource) object);
+        } else if (SKOS.NARROWER.equals(predicate)) {
+            narrowerObjects.add(object);
+        } else if (object.isLiteral() && multilingualProperties.contains(predicate.stringValue()) &&
+                ((Literal) object).getLanguage().orElse("").isEmpty()) {
+            missingLanguageTag = true;
+        }
+    }
+
+    private void spill() {
+        LOG.debug("Imported data exceed {} statements, moving them into a temporary store.", inMemoryStatementLimit);
+        try {
+            this.tempDir = Files.createTempDirectory("termit-skos-import");
+        } catch (IOException e) {
+            throw new VocabularyImportException("Unable to create temporary store for imported data.", e);
+        }
+        this.spillRepository = new SailRepository(new NativeStore(tempDir.toFile()));
+        spillRepository.init();
+        this.spillConnection = spillRepository.getConnection();
+        spillConnection.begin();
+        spillConnection.add(inMemory);
+        spillConnection.commit();
+        inMemory.clear();
+    }
+
+    private void flushSpillBuffer() {
+        if (spillBuffer.isEmpty()) {
+            return;
+        }
+        spillConnection.begin();
+        spillConnection.add(spillBuffer);
+        spillConnection.commit();
+        spillBuffer.clear();
+    }
+
+    /**
+     * Whether the data were moved into the temporary store on disk.
+     *
+     * @return {@code true} if the data are not kept in memory
+     */
+    boolean isSpilled() {
+        return spillConnection != null;
+    }
+
+    Set<Resource> getConcepts() {
+        return Collections.unmodifiableSet(concepts);
+    }
+
+    Set<Resource> getConceptSchemes() {
+        return Collections.unmodifiableSet(conceptSchemes);
+    }
+
+    boolean isConcept(Value value) {
+        return concepts.contains(value);
+    }
+
+    /**
+     * Gets resources declared as broader by the specified resource.
+     *
+     * @param resource Narrower resource
+     * @return Set of broader resources, possibly empty
+     */
+    Set<Resource> getBroader(Resource resource) {
+        return broader.getOrDefault(resource, Collections.emptySet());
+    }
+
+    /**
+     * Whether the specified value is an object of any {@code skos:narrower} statement.
+     *
+     * @param value Value to check
+     * @return {@code true} if some resource declares the value as narrower
+     */
+    boolean isNarrower(Value value) {
+        return narrowerObjects.contains(value);
+    }
+
+    /**
+     * Whether any value of the multilingual properties is a literal without language tag.
+     *
+     * @return {@code true} if a literal without language tag was found
+     */
+    boolean hasValueWithoutLanguageTag() {
+        return missingLanguageTag;
+    }
+
+    /**
+     * Gets statements with the specified subject and predicate.
+     *
+     * @param subject   Statement subject
+     * @param predicate Statement predicate
+     * @return List of matching statements
+     */
+    List<Statement> getStatements(Resource subject, IRI predicate) {
+        if (!isSpilled()) {
+            return new ArrayList<>(inMemory.filter(subject, predicate, null));
+        }
+        flushSpillBuffer();
+        try (final RepositoryResult<Statement> result = spillConnection.getStatements(subject, predicate, null,
+                                                                                     false)) {
+            final List<Statement> statements = new ArrayList<>();
+            result.forEach(statements::add);
+            return statements;
+        }
+    }
+
+    /**
+     * Passes all the staged statements to the specified consumer.
+     * <p>
+     * Statements are read from the temporary store one by one if the data were moved to disk.
+     *
+     * @param consumer Statement consumer
+     */
+    void forEach(Consumer<Statement> consumer) {
+        if (!isSpilled()) {
+            inMemory.forEach(consumer);
+            return;
+        }
+        flushSpillBuffer();
+        try (final RepositoryResult<Statement> result = spillConnection.getStatements(null, null, null, false)) {
+            result.forEach(consumer);
+        }
+    }
+
+    /**
+     * Gets the staged data as an in-memory model.
+     *
+     * @return Model containing the staged statements
+     * @throws IllegalStateException If the data were moved to disk
+     */
+    Model asModel() {
+        if (isSpilled()) {
+            throw new IllegalStateException("Imported data are too large to be loaded into memory.");
+        }
+        return inMemory;
+    }
+
+    @Override
+    public void close() {
+        if (spillConnection != null) {
+            spillConnection.close();
+            spillRepository.shutDown();
+            try {
+                FileSystemUtils.deleteRecursively(tempDir);
+            } catch (IOException e) {
+                LOG.warn("Unable to delete temporary store of imported data {}.", tempDir, e);
+            }
+            this.spillConnection = null;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.PersistChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Statement-level difference between the current content of a vocabulary and re-imported SKOS data.
+ * <p>
+ * All statements about terms (SKOS concepts) present in either the current or the imported data are reconciled, i.e.,
+ * a re-imported term ends up exactly as described by the imported data, as if it were removed and imported again.
+ * Statements about the glossary are reconciled only for properties used in the imported data and for top concept
+ * assertions, so that glossary metadata managed by TermIt are preserved. Other imported statements are only added,
+ * because it cannot be determined whether existing statements about other resources come from a previous import.
+ * <p>
+ * Both the current and the imported data are expected to be without context.
+ */
+class VocabularyContentDiff {
+
+    private final Model current;
+
+    private final Model imported;
+
+    private final Model toRemove = new LinkedHashModel();
+
+    private final Model toAdd = new LinkedHashModel();
+
+    private final Set<Resource> addedTerms = new LinkedHashSet<>();
+
+    private final Set<Resource> removedTerms = new LinkedHashSet<>();
+
+    /**
+     * Properties whose values changed, per term existing both before and after the re-import
+     */
+    private final Map<Resource, Set<IRI>> changedTerms = new LinkedHashMap<>();
+
+    VocabularyContentDiff(Model current, Model imported, IRI glossary) {
+        this.current = Objects.requireNonNull(current);
+        this.imported = Objects.requireNonNull(imported);
+        Objects.requireNonNull(glossary);
+        computeTermChanges();
+        computeGlossaryChanges(glossary);
+        imported.stream().filter(s -> !isTerm(s.getSubject()) && !glossary.equals(s.getSubject()))
+                .filter(s -> !current.contains(s.getSubject(), s.getPredicate(), s.getObject()))
+                .forEach(toAdd::add);
+    }
+
+    private boolean isTerm(Resource r) {
+        return current.contains(r, RDF.TYPE, SKOS.CONCEPT) || imported.contains(r, RDF.TYPE, SKOS.CONCEPT);
+    }
+
+    private void computeTermChanges() {
+        final Set<Resource> currentTerms = current.filter(null, RDF.TYPE, SKOS.CONCEPT).subjects();
+        final Set<Resource> importedTerms = imported.filter(null, RDF.TYPE, SKOS.CONCEPT).subjects();
+        for (Resource term : currentTerms) {
+            if (!importedTerms.contains(term)) {
+                removedTerms.add(term);
+            }
+            for (Statement s : current.filter(term, null, null)) {
+                if (!imported.contains(s.getSubject(), s.getPredicate(), s.getObject())) {
+                    toRemove.add(s);
+                    propertyChanged(term, s.getPredicate());
+                }
+            }
+        }
+        for (Resource term : importedTerms) {
+            if (!currentTerms.contains(term)) {
+                addedTerms.add(term);
+            }
+            for (Statement s : imported.filter(term, null, null)) {
+                if (!current.contains(s.getSubject(), s.getPredicate(), s.getObject())) {
+                    toAdd.add(s);
+                    propertyChanged(term, s.getPredicate());
+                }
+            }
+        }
+        changedTerms.keySet().removeAll(addedTerms);
+        changedTerms.keySet().removeAll(removedTerms);
+    }
+
+    private void propertyChanged(Resource term, IRI property) {
+        changedTerms.computeIfAbsent(term, k -> new LinkedHashSet<>()).add(property);
+    }
+
+    private void computeGlossaryChanges(IRI glossary) {
+        final Set<IRI> reconciled = new HashSet<>(imported.filter(glossary, null, null).predicates());
+        reconciled.add(SKOS.HAS_TOP_CONCEPT);
+        // Glossary types are managed by TermIt
+        reconciled.remove(RDF.TYPE);
+        current.filter(glossary, null, null).stream()
+               .filter(s -> reconciled.contains(s.getPredicate()))
+               .filter(s -> !imported.contains(s.getSubject(), s.getPredicate(), s.getObject()))
+               .forEach(toRemove::add);
+        imported.filter(glossary, null, null).stream()
+                .filter(s -> !current.contains(s.getSubject(), s.getPredicate(), s.getObject()))
+                .forEach(toAdd::add);
+    }
+
+    /**
+     * Checks whether the imported data differ from the current content.
+     *
+     * @return {@code true} if there are no statements to add or remove, {@code false} otherwise
+     */
+    boolean isEmpty() {
+        return toRemove.isEmpty() && toAdd.isEmpty();
+    }
+
+    Model getStatementsToRemove() {
+        return toRemove;
+    }
+
+    Model getStatementsToAdd() {
+        return toAdd;
+    }
+
+    Set<Resource> getAddedTerms() {
+        return Collections.unmodifiableSet(addedTerms);
+    }
+
+    Set<Resource> getRemovedTerms() {
+        return Collections.unmodifiableSet(removedTerms);
+    }
+
+    Set<Resource> getChangedTerms() {
+        return Collections.unmodifiableSet(changedTerms.keySet());
+    }
+
+    /**
+     * Creates change records for terms added or modified by the re-import.
+     * <p>
+     * An update record is created for every changed property of a modified term. Provenance data (author, timestamp)
+     * are not set.
+     *
+     * @return List of change records
+     */
+    List<AbstractChangeRecord> createChangeRecords() {
+        final List<AbstractChangeRecord> records = new ArrayList<>(addedTerms.size() + changedTerms.size());
+        addedTerms.stream().filter(Value::isIRI).forEach(t -> {
+            final PersistChangeRecord record = new PersistChangeRecord();
+            record.setChangedEntity(URI.create(t.stringValue()));
+            records.add(record);
+        });
+        changedTerms.forEach((t, properties) -> {
+            if (!t.isIRI()) {
+                return;
+            }
+            for (IRI property : properties) {
+                final UpdateChangeRecord record = new UpdateChangeRecord();
+                record.setChangedEntity(URI.create(t.stringValue()));
+                record.setChangedAttribute(URI.create(property.stringValue()));
+                final Set<Object> originalValue = toChangeValues(current.filter(t, property, null).objects());
+                if (!originalValue.isEmpty()) {
+                    record.setOriginalValue(originalValue);
+                }
+                final Set<Object> newValue = toChangeValues(imported.filter(t, property, null).objects());
+                if (!newValue.isEmpty()) {
+                    record.setNewValue(newValue);
+                }
+                records.add(record);
+            }
+        });
+        return records;
+    }
+
+    /**
+     * Converts RDF values to values of change records.
+     * <p>
+     * Language-tagged literals are merged into a single multilingual string, unless there are multiple values in the
+     * same language (e.g., alternative labels).
+     */
+    private static Set<Object> toChangeValues(Set<Value> values) {
+        final Set<Object> result = new HashSet<>(values.size());
+        final List<Literal> langStrings = new ArrayList<>();
+        for (Value v : values) {
+            if (v.isIRI()) {
+                result.add(URI.create(v.stringValue()));
+            } else if (v.isLiteral() && ((Literal) v).getLanguage().isPresent()) {
+                langStrings.add((Literal) v);
+            } else {
+                result.add(v.stringValue());
+            }
+        }
+        final MultilingualString merged = new MultilingualString();
+        for (Literal l : langStrings) {
+            final String language = l.getLanguage().get();
+            if (merged.contains(language)) {
+                langStrings.forEach(ls -> result.add(MultilingualString.create(ls.getLabel(),
+                                                                               ls.getLanguage().get())));
+                return result;
+            }
+            merged.set(language, l.getLabel());
+        }
+        if (!langStrings.isEmpty()) {
+            result.add(merged);
+        }
+        return result;
+    }
+}
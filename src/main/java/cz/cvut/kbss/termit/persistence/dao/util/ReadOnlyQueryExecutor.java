@@ -0,0 +1,253 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.ontodriver.model.LangString;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.persistence.snapshot.DeltaSnapshotStore;
+import cz.cvut.kbss.termit.util.TransactionUtils;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Executes read-only SPARQL queries directly over the underlying RDF4J repository.
+ * <p>
+ * Unlike native queries executed via the {@link EntityManager}, results of these queries are never registered in the
+ * persistence context. This avoids the overhead of cloning and change tracking of the results and also prevents
+ * conflicts between the results and other instances of the same individuals in the persistence context (e.g., a term
+ * loaded as a {@link cz.cvut.kbss.termit.dto.listing.TermDto} and as a {@link cz.cvut.kbss.termit.dto.TermInfo}).
+ * <p>
+ * Query result rows are passed to a {@link SparqlResultMapper} in the same form as results of JOPA native queries,
+ * i.e., as arrays of values ordered by the query projection, with IRIs represented by {@link URI}s and
+ * language-tagged strings by {@link LangString}s.
+ * <p>
+ * The queries use a separate repository connection, which does not see changes made by the current transaction before
+ * it is committed. Therefore, when a read-write transaction is active, the queries are executed as native queries via
+ * the {@link EntityManager}, i.e., using the connection of the transaction. Their results are not registered in the
+ * persistence context either.
+ * <p>
+ * Queries over vocabulary snapshots stored as deltas are evaluated over the snapshots materialized by {@link
+ * DeltaSnapshotStore}, provided the read contexts are specified.
+ */
+@Component
+public class ReadOnlyQueryExecutor {
+
+    private final EntityManager em;
+
+    private final DeltaSnapshotStore deltaStore;
+
+    public ReadOnlyQueryExecutor(EntityManager em, DeltaSnapshotStore deltaStore) {
+        this.em = em;
+        this.deltaStore = deltaStore;
+    }
+
+    /**
+     * Creates a new query.
+     *
+     * @param query SPARQL SELECT query string
+     * @return Query which can be parameterized and executed
+     */
+    public Query createQuery(String query) {
+        return new Query(Objects.requireNonNull(query));
+    }
+
+    /**
+     * Read-only SPARQL query.
+     * <p>
+     * Singular parameter values are bound to the query variables, collection values are inserted into the query string
+     * as comma-separated lists of IRIs, so that they can be used in {@code IN} filters, similarly to JOPA native
+     * queries.
+     */
+    public class Query {
+
+        private final String query;
+
+        private final Map<String, Object> bindings = new HashMap<>();
+
+        private final Map<String, Collection<?>> collections = new HashMap<>();
+
+        private final Map<String, String> languages = new HashMap<>();
+
+        private Collection<URI> contexts = Collections.emptySet();
+
+        private Query(String query) {
+            this.query = query;
+        }
+
+        /**
+         * Sets value of the specified query parameter.
+         *
+         * @param name  Parameter (variable) name, without the leading question mark
+         * @param value Parameter value. Collections are supported for identifiers only
+         * @return This query
+         */
+        public Query setParameter(String name, Object value) {
+            Objects.requireNonNull(name);
+            Objects.requireNonNull(value);
+            if (value instanceof Collection) {
+                collections.put(name, (Collection<?>) value);
+            } else {
+                bindings.put(name, value);
+            }
+            return this;
+        }
+
+        /**
+         * Sets value of the specified query parameter to a language-tagged string.
+         *
+         * @param name     Parameter (variable) name, without the leading question mark
+         * @param value    String value
+         * @param language Language tag, may be {@code null}
+         * @return This query
+         */
+        public Query setParameter(String name, String value, String language) {
+            setParameter(name, value);
+            if (language != null) {
+                languages.put(name, language);
+            }
+            return this;
+        }
+
+        /**
+         * Sets repository contexts read by this query.
+         * <p>
+         * This allows evaluating the query over vocabulary snapshots stored as deltas. Note that the contexts are not
+         * used to restrict the query, it has to do so itself.
+         *
+         * @param contexts Repository contexts
+         * @return This query
+         * @see DeltaSnapshotStore#query(Collection, java.util.function.Function)
+         */
+        public Query inContexts(Collection<URI> contexts) {
+            this.contexts = Objects.requireNonNull(contexts);
+            return this;
+        }
+
+        /**
+         * Executes this query and maps its results using the specified mapper.
+         *
+         * @param mapper Mapper of the result rows
+         * @param <T>    Type of the mapped results
+         * @return Mapped results
+         */
+        public <T> List<T> getResultList(SparqlResultMapper<T> mapper) {
+            Objects.requireNonNull(mapper);
+            try {
+                // Snapshots materialized in memory are not changed by transactions
+                if (TransactionUtils.isReadWriteTransactionActive() && !deltaStore.isMaterializedInMemory(contexts)) {
+                    return mapper.map(evaluateInTransaction());
+                }
+                return mapper.map(deltaStore.query(contexts, this::evaluate));
+            } catch (RuntimeException e) {
+                throw new PersistenceException("Unable to execute read-only query.", e);
+            }
+        }
+
+        private List<Object[]> evaluate(RepositoryConnection connection) {
+            final ValueFactory vf = connection.getValueFactory();
+            final TupleQuery tq = connection.prepareTupleQuery(expandCollections());
+            bindings.forEach((name, value) -> tq.setBinding(name, toValue(name, value, vf)));
+            final List<Object[]> rows = new ArrayList<>();
+            try (final TupleQueryResult result = tq.evaluate()) {
+                final List<String> variables = result.getBindingNames();
+                while (result.hasNext()) {
+                    final BindingSet bs = result.next();
+                    rows.add(variables.stream().map(v -> fromValue(bs.getValue(v))).toArray());
+                }
+            }
+            return rows;
+        }
+
+        private List<Object[]> evaluateInTransaction() {
+            final cz.cvut.kbss.jopa.model.query.Query q = em.createNativeQuery(expandCollections());
+            bindings.forEach((name, value) -> {
+                if (languages.containsKey(name)) {
+                    q.setParameter(name, value.toString(), languages.get(name));
+                } else {
+                    q.setParameter(name, value instanceof HasIdentifier ? toUri(value) : value);
+                }
+            });
+            final List<?> result = q.getResultList();
+            // Native queries with a single variable in projection return plain values instead of arrays
+            return result.stream().map(row -> row instanceof Object[] ? (Object[]) row : new Object[]{row})
+                         .collect(Collectors.toList());
+        }
+
+        private String expandCollections() {
+            String result = query;
+            for (Map.Entry<String, Collection<?>> e : collections.entrySet()) {
+                final String values = e.getValue().stream().map(v -> "<" + toUri(v) + ">")
+                                       .collect(Collectors.joining(", "));
+                result = Pattern.compile("\\?" + Pattern.quote(e.getKey()) + "\\b").matcher(result)
+                                .replaceAll(Matcher.quoteReplacement(values));
+            }
+            return result;
+        }
+
+        private Value toValue(String name, Object value, ValueFactory vf) {
+            if (value instanceof URI || value instanceof HasIdentifier) {
+                return vf.createIRI(toUri(value).toString());
+            } else if (value instanceof Boolean) {
+                return vf.createLiteral((Boolean) value);
+            } else if (value instanceof Integer) {
+                return vf.createLiteral((Integer) value);
+            } else if (value instanceof Long) {
+                return vf.createLiteral((Long) value);
+            } else if (languages.containsKey(name)) {
+                return vf.createLiteral(value.toString(), languages.get(name));
+            }
+            return vf.createLiteral(value.toString());
+        }
+    }
+
+    private static URI toUri(Object value) {
+        if (value instanceof HasIdentifier) {
+            return ((HasIdentifier) value).getUri();
+        } else if (value instanceof URI) {
+            return (URI) value;
+        }
+        throw new IllegalArgumentException("Unsupported collection parameter value " + value);
+    }
+
+    private static Object fromValue(Value value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof IRI) {
+            return URI.create(value.stringValue());
+        } else if (!(value instanceof Literal)) {
+            // Blank nodes are not mapped
+            return null;
+        }
+        final Literal literal = (Literal) value;
+        if (literal.getLanguage().isPresent()) {
+            return new LangString(literal.getLabel(), literal.getLanguage().get());
+        }
+        final IRI datatype = literal.getDatatype();
+        if (XSD.BOOLEAN.equals(datatype)) {
+            return literal.booleanValue();
+        } else if (XSD.INT.equals(datatype)) {
+            return literal.intValue();
+        } else if (XSD.INTEGER.equals(datatype) || XSD.LONG.equals(datatype)) {
+            return literal.longValue();
+        } else if (XSD.DOUBLE.equals(datatype)) {
+            return literal.doubleValue();
+        } else if (XSD.DATETIME.equals(datatype)) {
+            return literal.calendarValue().toGregorianCalendar().toInstant();
+        }
+        return literal.getLabel();
+    }
+}
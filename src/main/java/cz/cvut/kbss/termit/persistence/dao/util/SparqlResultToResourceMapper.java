@@ -0,0 +1,30 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.util.Vocabulary;
+
+import java.net.URI;
+
+/**
+ * Maps statements about resources (and files of documents) to {@link Resource} instances.
+ * <p>
+ * Documents and files are mapped to the corresponding subclasses of {@link Resource}.
+ *
+ * @see StatementBasedAssetMapper
+ */
+public class SparqlResultToResourceMapper extends StatementBasedAssetMapper<Resource> {
+
+    public SparqlResultToResourceMapper(String language) {
+        super(language);
+    }
+
+    @Override
+    protected Resource mapAsset(URI uri, Statements statements) {
+        if (statements.hasType(uri, Vocabulary.s_c_dokument)) {
+            return mapDocument(uri, statements);
+        } else if (statements.hasType(uri, Vocabulary.s_c_soubor)) {
+            return mapFile(uri, statements);
+        }
+        return mapResource(new Resource(), uri, statements);
+    }
+}
@@ -0,0 +1,41 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.listing.TermDto;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps statements about terms and their (transitive) parents to {@link TermDto} instances.
+ * <p>
+ * Parent terms are mapped from the same statements, so the query is expected to return statements about the whole
+ * ancestor chain of each term. Parents are mapped only if their type is among the loaded statements, i.e., they exist
+ * in the queried repository contexts.
+ *
+ * @see StatementBasedAssetMapper
+ */
+public class SparqlResultToTermDtoMapper extends StatementBasedAssetMapper<TermDto> {
+
+    public SparqlResultToTermDtoMapper(String language) {
+        super(language);
+    }
+
+    @Override
+    protected TermDto mapAsset(URI uri, Statements statements) {
+        final Optional<TermDto> existing = statements.getMapped(uri, TermDto.class);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        final TermDto result = new TermDto();
+        statements.registerMapped(uri, result);
+        mapTerm(result, uri, statements);
+        final Set<TermDto> parents = statements.getReferences(uri, SKOS.BROADER).stream()
+                                               .filter(p -> statements.hasType(p, SKOS.CONCEPT))
+                                               .map(p -> mapAsset(p, statements)).collect(Collectors.toSet());
+        result.setParentTerms(parents.isEmpty() ? null : parents);
+        return result;
+    }
+}
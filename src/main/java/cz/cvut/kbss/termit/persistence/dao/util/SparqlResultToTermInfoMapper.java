@@ -16,6 +16,9 @@ import java.util.Map;
  * The only reason this mapper exists is that {@link cz.cvut.kbss.jopa.model.annotations.SparqlResultSetMapping} does
  * not support plural values, which is what happens when multiple translations of a Term's label are loaded by the
  * query.
+ * <p>
+ * Each result row is expected to contain term identifier, label and vocabulary. An optional fourth column may contain
+ * a type of the term.
  */
 public class SparqlResultToTermInfoMapper implements SparqlResultMapper<TermInfo> {
 
@@ -29,9 +32,10 @@ public class SparqlResultToTermInfoMapper implements SparqlResultMapper<TermInfo
                 // No result
                 continue;
             }
-            assert row.length == 3;
+            assert row.length == 3 || row.length == 4;
             final URI uri = (URI) row[0];
-            final LangString ls = (LangString) row[1];
+            final LangString ls = row[1] instanceof LangString ? (LangString) row[1] :
+                                  new LangString(row[1].toString());
             TermInfo ti;
             if (visited.containsKey(uri)) {
                 ti = visited.get(uri);
@@ -42,6 +46,9 @@ public class SparqlResultToTermInfoMapper implements SparqlResultMapper<TermInfo
                 ti.setLabel(MultilingualString.create(ls.getValue(), ls.getLanguage().orElse(null)));
             }
             ti.setVocabulary((URI) row[2]);
+            if (row.length > 3 && row[3] != null) {
+                ti.addType(row[3].toString());
+            }
             visited.put(ti.getUri(), ti);
         }
         return new ArrayList<>(visited.values());
@@ -0,0 +1,84 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.Vocabulary;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps statements about terms to full {@link Term} instances.
+ * <p>
+ * Parent terms (both {@link SKOS#BROADER} and {@link SKOS#BROAD_MATCH}) are mapped from the same statements, so the
+ * query is expected to return statements about the whole ancestor chain of each term. Terms referenced via SKOS
+ * related and matching properties are mapped to {@link TermInfo}s, the query should thus return their labels, types
+ * and vocabularies as well.
+ * <p>
+ * Definition source of the terms is not mapped.
+ *
+ * @see StatementBasedAssetMapper
+ */
+public class SparqlResultToTermMapper extends StatementBasedAssetMapper<Term> {
+
+    private static final Set<String> MAPPED_PROPERTIES = Set.of(
+            RDF.TYPE, SKOS.PREF_LABEL, SKOS.DEFINITION, SKOS.IN_SCHEME, SKOS.ALT_LABEL, SKOS.HIDDEN_LABEL,
+            SKOS.SCOPE_NOTE, SKOS.NOTATION, SKOS.EXAMPLE, DC.Terms.SOURCE, SKOS.EXACT_MATCH, SKOS.BROADER,
+            SKOS.BROAD_MATCH, SKOS.RELATED, SKOS.RELATED_MATCH, Vocabulary.s_p_je_pojmem_ze_slovniku,
+            Vocabulary.s_p_je_draft, Vocabulary.s_p_ma_zdroj_definice_termu);
+
+    public SparqlResultToTermMapper(String language) {
+        super(language);
+    }
+
+    @Override
+    protected Term mapAsset(URI uri, Statements statements) {
+        final Optional<Term> existing = statements.getMapped(uri, Term.class);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        final Term result = new Term();
+        statements.registerMapped(uri, result);
+        mapTerm(result, uri, statements);
+        result.setAltLabels(statements.getMultilingualStrings(uri, SKOS.ALT_LABEL));
+        result.setHiddenLabels(statements.getMultilingualStrings(uri, SKOS.HIDDEN_LABEL));
+        result.setDescription(statements.getMultilingualString(uri, SKOS.SCOPE_NOTE));
+        result.setNotations(statements.getStrings(uri, SKOS.NOTATION));
+        result.setExamples(statements.getMultilingualStrings(uri, SKOS.EXAMPLE));
+        result.setSources(statements.getStrings(uri, DC.Terms.SOURCE));
+        result.setParentTerms(mapParents(uri, SKOS.BROADER, statements));
+        result.setExternalParentTerms(mapParents(uri, SKOS.BROAD_MATCH, statements));
+        result.setRelated(mapTermInfos(uri, SKOS.RELATED, statements));
+        result.setRelatedMatch(mapTermInfos(uri, SKOS.RELATED_MATCH, statements));
+        result.setExactMatchTerms(mapTermInfos(uri, SKOS.EXACT_MATCH, statements));
+        result.setProperties(statements.getProperties(uri, MAPPED_PROPERTIES));
+        return result;
+    }
+
+    private Set<Term> mapParents(URI uri, String property, Statements statements) {
+        final Set<Term> parents = statements.getReferences(uri, property).stream()
+                                            .filter(p -> statements.hasType(p, SKOS.CONCEPT))
+                                            .map(p -> mapAsset(p, statements)).collect(Collectors.toSet());
+        return parents.isEmpty() ? null : parents;
+    }
+
+    private static Set<TermInfo> mapTermInfos(URI uri, String property, Statements statements) {
+        final Set<TermInfo> result = statements.getReferences(uri, property).stream()
+                                               .filter(t -> statements.hasType(t, SKOS.CONCEPT))
+                                               .map(t -> mapTermInfo(t, statements)).collect(Collectors.toSet());
+        return result.isEmpty() ? null : result;
+    }
+
+    private static TermInfo mapTermInfo(URI uri, Statements statements) {
+        final TermInfo result = new TermInfo(uri);
+        result.setLabel(statements.getMultilingualString(uri, SKOS.PREF_LABEL));
+        statements.getReference(uri, Vocabulary.s_p_je_pojmem_ze_slovniku).ifPresent(result::setVocabulary);
+        result.setTypes(statements.getTypes(uri, SKOS.CONCEPT));
+        return result;
+    }
+}
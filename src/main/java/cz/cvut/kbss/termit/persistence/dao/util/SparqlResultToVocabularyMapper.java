@@ -0,0 +1,60 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
+import cz.cvut.kbss.termit.model.Glossary;
+import cz.cvut.kbss.termit.model.Model;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.resource.Document;
+
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * Maps statements about vocabularies, their glossaries, models and documents to {@link Vocabulary} instances.
+ * <p>
+ * Root terms of glossaries are loaded lazily by JOPA and they are not mapped either.
+ *
+ * @see StatementBasedAssetMapper
+ */
+public class SparqlResultToVocabularyMapper extends StatementBasedAssetMapper<Vocabulary> {
+
+    private static final Set<String> MAPPED_PROPERTIES = Set.of(
+            RDF.TYPE, DC.Terms.TITLE, DC.Terms.DESCRIPTION,
+            cz.cvut.kbss.termit.util.Vocabulary.s_p_popisuje_dokument,
+            cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar,
+            cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_model,
+            cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik);
+
+    public SparqlResultToVocabularyMapper(String language) {
+        super(language);
+    }
+
+    @Override
+    protected Vocabulary mapAsset(URI uri, Statements statements) {
+        final Vocabulary result = new Vocabulary(uri);
+        result.setLabel(statements.getString(uri, DC.Terms.TITLE));
+        result.setDescription(statements.getString(uri, DC.Terms.DESCRIPTION));
+        statements.getReference(uri, cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar).ifPresent(g -> {
+            final Glossary glossary = new Glossary();
+            glossary.setUri(g);
+            result.setGlossary(glossary);
+        });
+        statements.getReference(uri, cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_model).ifPresent(m -> {
+            final Model model = new Model();
+            model.setUri(m);
+            result.setModel(model);
+        });
+        statements.getReference(uri, cz.cvut.kbss.termit.util.Vocabulary.s_p_popisuje_dokument).ifPresent(d -> {
+            final Document document = mapDocument(d, statements);
+            document.setVocabulary(uri);
+            result.setDocument(document);
+        });
+        final Set<URI> imports = statements.getReferences(uri,
+                                                          cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik);
+        result.setImportedVocabularies(imports.isEmpty() ? null : imports);
+        result.setTypes(statements.getTypes(uri, cz.cvut.kbss.termit.util.Vocabulary.s_c_slovnik));
+        result.setProperties(statements.getProperties(uri, MAPPED_PROPERTIES));
+        return result;
+    }
+}
@@ -0,0 +1,283 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.Asset;
+import cz.cvut.kbss.termit.model.resource.Document;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.util.Vocabulary;
+
+import java.net.URI;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Base class for mappers which materialize assets from statements loaded by a single SPARQL query.
+ * <p>
+ * Each result row is expected to contain four values - identifier of the asset to which the statement belongs and
+ * subject, property and value of the statement. This allows loading a list of assets together with their eagerly
+ * loaded related entities (e.g., documents and their files) in one query, instead of loading each asset separately.
+ * <p>
+ * Attribute values are resolved in the same way JOPA would resolve them, i.e., singular string attributes prefer
+ * values in the configured language. Note that mapped instances are not managed by the persistence context, so they
+ * are intended for reading only.
+ * <p>
+ * Statements are collected anew by each invocation of {@link #map(List)}, so a mapper instance can be reused.
+ *
+ * @param <T> Type of the mapped assets
+ */
+public abstract class StatementBasedAssetMapper<T extends Asset<?>> implements SparqlResultMapper<T> {
+
+    private static final URI RDF_TYPE = URI.create(RDF.TYPE);
+
+    private final String language;
+
+    protected StatementBasedAssetMapper(String language) {
+        this.language = language;
+    }
+
+    @Override
+    public List<T> map(List<?> result) {
+        final Statements statements = new Statements(language);
+        final Set<URI> assets = new LinkedHashSet<>();
+        for (Object elem : result) {
+            final Object[] row = (Object[]) elem;
+            assert row.length == 4;
+            if (!(row[0] instanceof URI) || !(row[1] instanceof URI) || row[3] == null) {
+                continue;
+            }
+            assets.add((URI) row[0]);
+            statements.add((URI) row[1], (URI) row[2], row[3]);
+        }
+        return assets.stream().map(uri -> mapAsset(uri, statements)).collect(Collectors.toList());
+    }
+
+    /**
+     * Maps the asset with the specified identifier.
+     *
+     * @param uri        Asset identifier
+     * @param statements Statements loaded by the query
+     * @return Mapped asset
+     */
+    protected abstract T mapAsset(URI uri, Statements statements);
+
+    /**
+     * Maps attributes common to all resources.
+     */
+    protected <R extends Resource> R mapResource(R instance, URI uri, Statements statements) {
+        instance.setUri(uri);
+        instance.setLabel(statements.getString(uri, DC.Terms.TITLE));
+        instance.setDescription(statements.getString(uri, DC.Terms.DESCRIPTION));
+        return instance;
+    }
+
+    /**
+     * Maps attributes common to all term representations.
+     */
+    protected <R extends AbstractTerm> R mapTerm(R instance, URI uri, Statements statements) {
+        instance.setUri(uri);
+        instance.setLabel(statements.getMultilingualString(uri, SKOS.PREF_LABEL));
+        instance.setDefinition(statements.getMultilingualString(uri, SKOS.DEFINITION));
+        statements.getReference(uri, SKOS.IN_SCHEME).ifPresent(instance::setGlossary);
+        statements.getReference(uri, Vocabulary.s_p_je_pojmem_ze_slovniku).ifPresent(instance::setVocabulary);
+        instance.setDraft(statements.getBoolean(uri, Vocabulary.s_p_je_draft));
+        instance.setTypes(statements.getTypes(uri, SKOS.CONCEPT));
+        return instance;
+    }
+
+    /**
+     * Maps document with the specified identifier, including its files.
+     */
+    protected Document mapDocument(URI uri, Statements statements) {
+        final Document document = mapResource(new Document(), uri, statements);
+        statements.getReference(uri, Vocabulary.s_p_ma_dokumentovy_slovnik).ifPresent(document::setVocabulary);
+        for (URI fileUri : statements.getReferences(uri, Vocabulary.s_p_ma_soubor)) {
+            final File file = mapFile(fileUri, statements);
+            file.setDocument(document);
+            document.addFile(file);
+        }
+        return document;
+    }
+
+    protected File mapFile(URI uri, Statements statements) {
+        final File file = mapResource(new File(), uri, statements);
+        file.setTypes(statements.getTypes(uri, Vocabulary.s_c_soubor));
+        return file;
+    }
+
+    /**
+     * Statements loaded by one query, indexed by subject and property.
+     * <p>
+     * Also keeps instances already mapped from the statements, so that subjects referenced repeatedly (e.g., common
+     * parent terms) are mapped only once and reference cycles are handled.
+     */
+    protected static final class Statements {
+
+        private final String language;
+
+        private final Map<URI, Map<URI, Set<Object>>> data = new HashMap<>();
+
+        private final Map<URI, Object> mapped = new HashMap<>();
+
+        private Statements(String language) {
+            this.language = language;
+        }
+
+        private void add(URI subject, URI property, Object value) {
+            data.computeIfAbsent(subject, k -> new HashMap<>()).computeIfAbsent(property, k -> new LinkedHashSet<>())
+                .add(value);
+        }
+
+        /**
+         * Gets instance already mapped from statements about the specified subject.
+         */
+        public <A> Optional<A> getMapped(URI subject, Class<A> cls) {
+            return Optional.ofNullable(mapped.get(subject)).filter(cls::isInstance).map(cls::cast);
+        }
+
+        /**
+         * Registers instance mapped from statements about the specified subject.
+         * <p>
+         * The instance should be registered before its attributes are mapped, so that reference cycles end with it.
+         */
+        public void registerMapped(URI subject, Object instance) {
+            mapped.put(subject, instance);
+        }
+
+        private Set<Object> values(URI subject, String property) {
+            return data.getOrDefault(subject, Collections.emptyMap())
+                       .getOrDefault(URI.create(property), Collections.emptySet());
+        }
+
+        /**
+         * Gets value of a singular string attribute of the specified subject.
+         * <p>
+         * Values in the configured language take precedence over values without language.
+         */
+        public String getString(URI subject, String property) {
+            String result = null;
+            for (Object value : values(subject, property)) {
+                if (value instanceof LangString) {
+                    final LangString ls = (LangString) value;
+                    if (ls.getLanguage().isEmpty()) {
+                        result = ls.getValue();
+                    } else if (ls.getLanguage().get().equals(language)) {
+                        return ls.getValue();
+                    }
+                } else if (value instanceof String) {
+                    result = (String) value;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Gets value of a singular multilingual attribute of the specified subject.
+         *
+         * @return Multilingual string with all the translations, {@code null} if there are none
+         */
+        public MultilingualString getMultilingualString(URI subject, String property) {
+            final MultilingualString result = new MultilingualString();
+            for (Object value : values(subject, property)) {
+                if (value instanceof LangString) {
+                    final LangString ls = (LangString) value;
+                    result.set(ls.getLanguage().orElse(null), ls.getValue());
+                } else if (value instanceof String) {
+                    result.set((String) value);
+                }
+            }
+            return result.isEmpty() ? null : result;
+        }
+
+        /**
+         * Gets values of a plural multilingual attribute of the specified subject.
+         * <p>
+         * Values are grouped into multilingual strings so that each of them contains at most one value in each
+         * language.
+         *
+         * @return Set of multilingual strings, {@code null} if there are none
+         */
+        public Set<MultilingualString> getMultilingualStrings(URI subject, String property) {
+            final List<MultilingualString> result = new ArrayList<>();
+            for (Object value : values(subject, property)) {
+                final String lang = value instanceof LangString ? ((LangString) value).getLanguage().orElse(null) :
+                                    null;
+                final String str = value instanceof LangString ? ((LangString) value).getValue() : value.toString();
+                final MultilingualString target = result.stream().filter(ms -> !ms.contains(lang)).findFirst()
+                                                        .orElseGet(() -> {
+                                                            final MultilingualString ms = new MultilingualString();
+                                                            result.add(ms);
+                                                            return ms;
+                                                        });
+                target.set(lang, str);
+            }
+            return result.isEmpty() ? null : new HashSet<>(result);
+        }
+
+        /**
+         * Gets values of a plural string attribute of the specified subject.
+         *
+         * @return Set of values, {@code null} if there are none
+         */
+        public Set<String> getStrings(URI subject, String property) {
+            final Set<String> result = values(subject, property).stream().map(v -> v instanceof LangString ?
+                                                                                   ((LangString) v).getValue() :
+                                                                                   v.toString())
+                                                                .collect(Collectors.toSet());
+            return result.isEmpty() ? null : result;
+        }
+
+        public Boolean getBoolean(URI subject, String property) {
+            return values(subject, property).stream().filter(Boolean.class::isInstance).map(Boolean.class::cast)
+                                            .findFirst().orElse(null);
+        }
+
+        public Set<URI> getReferences(URI subject, String property) {
+            return values(subject, property).stream().filter(URI.class::isInstance).map(URI.class::cast)
+                                            .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+
+        public Optional<URI> getReference(URI subject, String property) {
+            return getReferences(subject, property).stream().findFirst();
+        }
+
+        public boolean hasType(URI subject, String type) {
+            return values(subject, RDF.TYPE).contains(URI.create(type));
+        }
+
+        /**
+         * Gets types of the specified subject, excluding the class to which the subject is mapped.
+         *
+         * @return Set of types, {@code null} if there are none
+         */
+        public Set<String> getTypes(URI subject, String entityClass) {
+            final Set<String> types = getReferences(subject, RDF.TYPE).stream().map(URI::toString)
+                                                                       .filter(t -> !t.equals(entityClass))
+                                                                       .collect(Collectors.toSet());
+            return types.isEmpty() ? null : types;
+        }
+
+        /**
+         * Gets values of properties of the specified subject which are not mapped by any attribute.
+         *
+         * @param mappedProperties Properties mapped by attributes of the subject's entity class
+         * @return Map of property identifiers to values, {@code null} if there are none
+         */
+        public Map<String, Set<String>> getProperties(URI subject, Set<String> mappedProperties) {
+            final Map<String, Set<String>> result = new HashMap<>();
+            data.getOrDefault(subject, Collections.emptyMap()).forEach((property, values) -> {
+                if (!RDF_TYPE.equals(property) && !mappedProperties.contains(property.toString())) {
+                    result.put(property.toString(), values.stream().map(v -> v instanceof LangString ?
+                                                                             ((LangString) v).getValue() : v.toString())
+                                                          .collect(Collectors.toSet()));
+                }
+            });
+            return result.isEmpty() ? null : result;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Collects the best items of a stream of results, keeping only a bounded number of them in memory.
+ * <p>
+ * Only {@code offset + pageSize} best items (according to the specified order) are retained, so that memory usage
+ * does not depend on the total number of results. Items which are equal according to the order retain the order in
+ * which they were consumed.
+ *
+ * @param <T> Type of the collected items
+ */
+public class TopKCollector<T> implements Consumer<T> {
+
+    private final Pageable pageSpec;
+
+    private final int capacity;
+
+    private final Comparator<Entry<T>> order;
+
+    /**
+     * Heap with the worst retained item on top
+     */
+    private final PriorityQueue<Entry<T>> heap;
+
+    private long counter;
+
+    /**
+     * Creates new collector.
+     *
+     * @param order    Order of the items, the best ones first
+     * @param pageSpec Specification of the page of results to collect
+     */
+    public TopKCollector(Comparator<? super T> order, Pageable pageSpec) {
+        this.pageSpec = Objects.requireNonNull(pageSpec);
+        this.capacity = pageSpec.isPaged() ?
+                        (int) Math.min(Integer.MAX_VALUE, pageSpec.getOffset() + pageSpec.getPageSize()) :
+                        Integer.MAX_VALUE;
+        final Comparator<Entry<T>> itemOrder = (a, b) -> order.compare(a.item, b.item);
+        this.order = itemOrder.thenComparingLong(e -> e.sequence);
+        this.heap = new PriorityQueue<>(Math.min(capacity, 64) + 1, this.order.reversed());
+    }
+
+    @Override
+    public void accept(T item) {
+        final Entry<T> entry = new Entry<>(item, counter++);
+        if (heap.size() < capacity) {
+            heap.add(entry);
+        } else if (capacity > 0 && order.compare(entry, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    /**
+     * Gets the total number of consumed items.
+     *
+     * @return Number of items
+     */
+    public long getTotal() {
+        return counter;
+    }
+
+    /**
+     * Gets the requested page of the collected items.
+     *
+     * @return Page of the best items, ordered
+     */
+    public Page<T> toPage() {
+        final List<Entry<T>> entries = new ArrayList<>(heap);
+        entries.sort(order);
+        final int offset = pageSpec.isPaged() ? (int) Math.min(pageSpec.getOffset(), entries.size()) : 0;
+        final List<T> content = new ArrayList<>(entries.size() - offset);
+        entries.subList(offset, entries.size()).forEach(e -> content.add(e.item));
+        return new PageImpl<>(content, pageSpec, counter);
+    }
+
+    private static class Entry<T> {
+        private final T item;
+        private final long sequence;
+
+        private Entry(T item, long sequence) {
+            this.item = item;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package cz.cvut.kbss.termit.persistence.index.fts;
+
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Function;
+
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * Embedded full text index of term and vocabulary labels, alternative labels and definitions.
+ * <p>
+ * The index is stored on local disk (see {@link Configuration.Search.Index#getDirectory()}) and is based on Lucene.
+ * Textual values are indexed per language, and search is done in the persistence unit language only, so that results
+ * correspond to the repository-based search. Documents are grouped by the vocabulary they belong to, which allows
+ * replacing the content of a single vocabulary atomically.
+ * <p>
+ * Note that this class only manages the index. Its synchronization with the repository is handled by {@link
+ * FullTextIndexSynchronizer}.
+ */
+@Component
+@Profile("!lucene")
+@ConditionalOnProperty(prefix = "termit.search.index", name = "enabled", havingValue = "true")
+public class FullTextIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FullTextIndex.class);
+
+    static final String IRI_FIELD = "iri";
+    static final String TYPE_FIELD = "type";
+    static final String VOCABULARY_FIELD = "vocabulary";
+    static final String DRAFT_FIELD = "draft";
+    static final String SNAPSHOT_FIELD = "snapshot";
+    static final String LABEL_LANGUAGE_FIELD = "labelLanguage";
+    static final String LABEL_FIELD = "label";
+    static final String ALT_LABEL_FIELD = "altLabel";
+    static final String DEFINITION_FIELD = "definition";
+
+    private static final String HIGHLIGHT_START = "<em>";
+    private static final String HIGHLIGHT_END = "</em>";
+
+    /**
+     * Boosts of the searched fields. Matches in labels are considered more relevant than matches in definitions.
+     */
+    private static final Map<String, Float> FIELD_BOOSTS = new LinkedHashMap<>();
+
+    static {
+        // Iteration order determines also the order in which fields are examined for snippet highlighting
+        FIELD_BOOSTS.put(LABEL_FIELD, 3.0f);
+        FIELD_BOOSTS.put(ALT_LABEL_FIELD, 2.0f);
+        FIELD_BOOSTS.put(DEFINITION_FIELD, 1.0f);
+    }
+
+    private final Configuration.Search.Index config;
+
+    private final String language;
+
+    private final Analyzer analyzer = new FoldingAnalyzer();
+
+    private Directory directory;
+
+    /**
+     * Replaced when changes are rolled back, guarded by this instance
+     */
+    private IndexWriter writer;
+
+    /**
+     * Reads committed index content, so it is independent of the writer and is never replaced
+     */
+    private SearcherManager searcherManager;
+
+    @Autowired
+    public FullTextIndex(Configuration config) {
+        this.config = config.getSearch().getIndex();
+        this.language = config.getPersistence().getLanguage();
+    }
+
+    @PostConstruct
+    void open() {
+        Objects.requireNonNull(config.getDirectory(), "Full text index directory must be configured.");
+        try {
+            final Path path = Paths.get(config.getDirectory());
+            Files.createDirectories(path);
+            LOG.debug("Opening full text index in {}.", path);
+            this.directory = FSDirectory.open(path);
+            final IndexWriterConfig writerConfig = new IndexWriterConfig(analyzer);
+            writerConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            this.writer = new IndexWriter(directory, writerConfig);
+            // Make sure the index exists before opening a reader on it
+            writer.commit();
+            this.searcherManager = new SearcherManager(directory, new SearcherFactory());
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to open full text index.", e);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            LOG.error("Unable to close full text index.", e);
+        }
+    }
+
+    /**
+     * Checks whether the index contains no documents.
+     *
+     * @return {@code true} if the index is empty, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs() == 0;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Checks whether the index contains content of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return {@code true} if the vocabulary is indexed, {@code false} otherwise
+     */
+    public boolean containsVocabulary(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.count(new TermQuery(vocabularyTerm(vocabulary))) > 0;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Replaces indexed content of the specified vocabulary with the specified assets.
+     * <p>
+     * The replacement is atomic from the point of view of search.
+     *
+     * @param vocabulary Identifier of the vocabulary whose content is being replaced
+     * @param assets     Assets to index. The vocabulary itself should be among them
+     */
+    public synchronized void replaceVocabulary(URI vocabulary, Collection<IndexedAsset> assets) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(assets);
+        LOG.trace("Indexing {} assets of vocabulary {}.", assets.size(), uriToString(vocabulary));
+        try {
+            writer.updateDocuments(vocabularyTerm(vocabulary), toDocuments(assets));
+            commit();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to update full text index.", e);
+        }
+    }
+
+    private static Term vocabularyTerm(URI vocabulary) {
+        return new Term(VOCABULARY_FIELD, vocabulary.toString());
+    }
+
+    private static List<Document> toDocuments(Collection<IndexedAsset> assets) {
+        final List<Document> documents = new ArrayList<>(assets.size());
+        assets.forEach(a -> documents.add(toDocument(a)));
+        return documents;
+    }
+
+    private static Document toDocument(IndexedAsset asset) {
+        final Document doc = new Document();
+        doc.add(new StringField(IRI_FIELD, asset.getUri().toString(), Field.Store.YES));
+        doc.add(new StringField(TYPE_FIELD, asset.getType(), Field.Store.YES));
+        doc.add(new StringField(VOCABULARY_FIELD, asset.getVocabulary().toString(), Field.Store.YES));
+        doc.add(new StringField(SNAPSHOT_FIELD, Boolean.toString(asset.isSnapshot()), Field.Store.NO));
+        doc.add(new StoredField(DRAFT_FIELD, Boolean.toString(asset.isDraft())));
+        asset.getLabels().forEach((lang, value) -> {
+            doc.add(new TextField(fieldName(LABEL_FIELD, lang), value, Field.Store.YES));
+            doc.add(new StringField(LABEL_LANGUAGE_FIELD, lang, Field.Store.NO));
+        });
+        asset.getAltLabels().forEach((lang, values) -> values.forEach(
+                v -> doc.add(new TextField(fieldName(ALT_LABEL_FIELD, lang), v, Field.Store.YES))));
+        asset.getDefinitions().forEach((lang, value) -> doc.add(new TextField(fieldName(DEFINITION_FIELD, lang), value,
+                                                                              Field.Store.YES)));
+        return doc;
+    }
+
+    private static String fieldName(String field, String language) {
+        return field + "@" + language;
+    }
+
+    private void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Removes all indexed content of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    public synchronized void removeVocabulary(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        try {
+            writer.deleteDocuments(vocabularyTerm(vocabulary));
+            commit();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to update full text index.", e);
+        }
+    }
+
+    /**
+     * Rebuilds the whole index using data provided by the specified loader.
+     * <p>
+     * The original index content remains searchable until the rebuild is finished.
+     *
+     * @param vocabularies Identifiers of vocabularies to index
+     * @param loader       Provides assets to index for each of the vocabularies
+     */
+    public synchronized void rebuild(Collection<URI> vocabularies,
+                                     Function<URI, Collection<IndexedAsset>> loader) {
+        Objects.requireNonNull(vocabularies);
+        Objects.requireNonNull(loader);
+        LOG.debug("Rebuilding full text index of {} vocabularies.", vocabularies.size());
+        try {
+            writer.deleteAll();
+            for (URI v : vocabularies) {
+                writer.addDocuments(toDocuments(loader.apply(v)));
+            }
+            commit();
+        } catch (IOException | RuntimeException e) {
+            rollback();
+            throw new PersistenceException("Unable to rebuild full text index.", e);
+        }
+    }
+
+    private void rollback() {
+        try {
+            // Rollback closes the writer, so it has to be reopened. Searches read only committed content, so they are
+            // not affected
+            writer.rollback();
+            final IndexWriterConfig writerConfig = new IndexWriterConfig(analyzer);
+            writerConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            this.writer = new IndexWriter(directory, writerConfig);
+        } catch (IOException e) {
+            LOG.error("Unable to roll back full text index changes.", e);
+        }
+    }
+
+    /**
+     * Finds terms and vocabularies matching the specified search string.
+     * <p>
+     * All tokens of the search string have to match (the last one is treated as a prefix, so that incomplete words
+     * can be used as well). Results are ordered by score, matches in labels being ranked higher than matches in
+     * definitions. Matched parts of the snippet text are highlighted using {@literal <em>} tags.
+     * <p>
+     * Only the requested page of results is retrieved. The total number of results in the returned page is exact up to
+     * a threshold, above which it is a lower bound estimate.
+     *
+     * @param searchString     String to search by
+     * @param includeSnapshots Whether to include asset snapshots in the results
+     * @param pageSpec         Specification of the page of results to return
+     * @return Page of matching results, ordered by score
+     */
+    public Page<FullTextSearchResult> search(String searchString, boolean includeSnapshots, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
+        final List<String> tokens = tokenize(searchString);
+        if (tokens.isEmpty()) {
+            return Page.empty(pageSpec);
+        }
+        final Query query = buildQuery(tokens, includeSnapshots);
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final int offset = pageSpec.isPaged() ? (int) Math.min(pageSpec.getOffset(), Integer.MAX_VALUE) : 0;
+                final int maxDocs = Math.max(1, searcher.getIndexReader().numDocs());
+                final int n = pageSpec.isPaged() ? (int) Math.min((long) offset + pageSpec.getPageSize(), maxDocs) :
+                              maxDocs;
+                final TopDocs topDocs = searcher.search(query, Math.max(1, n));
+                final List<FullTextSearchResult> results = new ArrayList<>();
+                for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+                    final ScoreDoc sd = topDocs.scoreDocs[i];
+                    toResult(searcher.doc(sd.doc), sd.score, query).ifPresent(results::add);
+                }
+                return new PageImpl<>(results, pageSpec, topDocs.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to search full text index.", e);
+        }
+    }
+
+    private List<String> tokenize(String text) {
+        final List<String> tokens = new ArrayList<>();
+        try (final TokenStream ts = analyzer.tokenStream(LABEL_FIELD, text)) {
+            final CharTermAttribute term = ts.addAttribute(CharTermAttribute.class);
+            ts.reset();
+            while (ts.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            ts.end();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to analyze search string.", e);
+        }
+        return tokens;
+    }
+
+    private Query buildQuery(List<String> tokens, boolean includeSnapshots) {
+        final BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (int i = 0; i < tokens.size(); i++) {
+            final boolean last = i == tokens.size() - 1;
+            final BooleanQuery.Builder tokenQuery = new BooleanQuery.Builder();
+            for (Map.Entry<String, Float> e : FIELD_BOOSTS.entrySet()) {
+                final Term term = new Term(fieldName(e.getKey(), language), tokens.get(i));
+                tokenQuery.add(new BoostQuery(new TermQuery(term), e.getValue()), BooleanClause.Occur.SHOULD);
+                if (last) {
+                    // Prefix match is ranked lower than exact token match
+                    tokenQuery.add(new BoostQuery(new PrefixQuery(term), e.getValue() / 2),
+                                   BooleanClause.Occur.SHOULD);
+                }
+            }
+            builder.add(tokenQuery.build(), BooleanClause.Occur.MUST);
+        }
+        // Consistent with the repository-based search, which requires label in the persistence unit language
+        builder.add(new TermQuery(new Term(LABEL_LANGUAGE_FIELD, language)), BooleanClause.Occur.FILTER);
+        if (!includeSnapshots) {
+            builder.add(new TermQuery(new Term(SNAPSHOT_FIELD, Boolean.FALSE.toString())),
+                        BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    private Optional<FullTextSearchResult> toResult(Document doc, float score, Query query) throws IOException {
+        final String label = doc.get(fieldName(LABEL_FIELD, language));
+        if (label == null) {
+            return Optional.empty();
+        }
+        final String type = doc.get(TYPE_FIELD);
+        final URI vocabulary = URI.create(doc.get(VOCABULARY_FIELD));
+        final URI iri = URI.create(doc.get(IRI_FIELD));
+        final FullTextSearchResult result = new FullTextSearchResult(iri, label,
+                                                                     iri.equals(vocabulary) ? null : vocabulary,
+                                                                     Boolean.parseBoolean(doc.get(DRAFT_FIELD)),
+                                                                     type, LABEL_FIELD, label, (double) score);
+        for (String field : FIELD_BOOSTS.keySet()) {
+            final Optional<String> snippet = highlight(query, doc, field);
+            if (snippet.isPresent()) {
+                result.setSnippetField(field);
+                result.setSnippetText(snippet.get());
+                break;
+            }
+        }
+        return Optional.of(result);
+    }
+
+    private Optional<String> highlight(Query query, Document doc, String field) throws IOException {
+        final String fieldName = fieldName(field, language);
+        final Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter(HIGHLIGHT_START, HIGHLIGHT_END),
+                                                        new QueryScorer(query, fieldName));
+        for (String value : doc.getValues(fieldName)) {
+            try {
+                final String fragment = highlighter.getBestFragment(analyzer, fieldName, value);
+                if (fragment != null) {
+                    return Optional.of(fragment);
+                }
+            } catch (InvalidTokenOffsetsException e) {
+                LOG.warn("Unable to highlight search result snippet.", e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Analyzer which lower-cases tokens and folds diacritics, so that search is insensitive to character case and
+     * accents.
+     */
+    static class FoldingAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            final Tokenizer source = new StandardTokenizer();
+            final TokenStream result = new ASCIIFoldingFilter(new LowerCaseFilter(source));
+            return new TokenStreamComponents(source, result);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package cz.cvut.kbss.termit.persistence.index.fts;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.event.RebuildIndexesEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * Keeps the {@link FullTextIndex} in sync with the repository.
+ * <p>
+ * Indexing is done asynchronously in a single background thread, after the transaction which modified the data has
+ * been committed. Repeated requests to reindex the same vocabulary are coalesced, so that a burst of modifications
+ * (e.g., an import) results in a single reindexing of the vocabulary.
+ */
+@Component
+@Profile("!lucene")
+@ConditionalOnProperty(prefix = "termit.search.index", name = "enabled", havingValue = "true")
+public class FullTextIndexSynchronizer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FullTextIndexSynchronizer.class);
+
+    private static final String VOCABULARIES_QUERY = "SELECT DISTINCT ?v ?g ?snapshot WHERE { " +
+            "GRAPH ?g { " +
+            "?v a <" + Vocabulary.s_c_slovnik + "> . " +
+            "FILTER NOT EXISTS { ?g <" + Vocabulary.s_p_vychazi_z_verze + "> ?canonical . } " +
+            "} " +
+            "BIND (EXISTS { ?v a <" + Vocabulary.s_c_verze_slovniku + "> . } AS ?snapshot) " +
+            "}";
+
+    private static final String VOCABULARY_TITLE_QUERY = "SELECT ?title WHERE { " +
+            "GRAPH ?g { ?v <" + DC.Terms.TITLE + "> ?title . } " +
+            "}";
+
+    private static final String TERMS_QUERY = "SELECT ?t ?p ?value ?draft WHERE { " +
+            "GRAPH ?g { " +
+            "?t a <" + SKOS.CONCEPT + "> ; " +
+            "?p ?value . " +
+            "FILTER (?p IN (<" + SKOS.PREF_LABEL + ">, <" + SKOS.ALT_LABEL + ">, <" + SKOS.DEFINITION + ">)) " +
+            "OPTIONAL { ?t <" + Vocabulary.s_p_je_draft + "> ?draft . } " +
+            "} " +
+            "}";
+
+    private final FullTextIndex index;
+
+    private final EntityManager em;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        final Thread t = new Thread(r, "full-text-indexer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Vocabularies waiting for reindexing. Used to coalesce repeated requests.
+     */
+    private final Set<URI> pending = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public FullTextIndexSynchronizer(FullTextIndex index, EntityManager em) {
+        this.index = index;
+        this.em = em;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Builds the index on application startup in case it is empty.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (index.isEmpty()) {
+            LOG.info("Full text index is empty, building it.");
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the whole index.
+     */
+    @EventListener(RebuildIndexesEvent.class)
+    public void onRebuildIndexes() {
+        LOG.info("Rebuilding full text index.");
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyContentModified(VocabularyContentModified event) {
+        if (event.getVocabularyIri() != null) {
+            scheduleReindex(event.getVocabularyIri());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModified event) {
+        if (event.getVocabularyIri() != null) {
+            scheduleReindex(event.getVocabularyIri());
+        }
+    }
+
+    /**
+     * Indexes newly created vocabulary (or snapshot).
+     * <p>
+     * Since creating a vocabulary snapshot creates snapshots of the vocabulary's imports as well, all vocabularies
+     * which are not in the index yet are indexed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyCreated(VocabularyCreatedEvent event) {
+        if (event.getSource() instanceof HasIdentifier) {
+            scheduleReindex(((HasIdentifier) event.getSource()).getUri());
+        }
+        executor.submit(() -> {
+            try {
+                loadVocabularies().keySet().stream().filter(v -> !index.containsVocabulary(v))
+                                  .forEach(this::scheduleReindex);
+            } catch (RuntimeException e) {
+                LOG.error("Unable to index new vocabularies.", e);
+            }
+        });
+    }
+
+    private void scheduleRebuild() {
+        executor.submit(() -> {
+            try {
+                final Map<URI, VocabularyInfo> vocabularies = loadVocabularies();
+                index.rebuild(vocabularies.keySet(), v -> loadAssets(vocabularies.get(v)));
+                LOG.info("Full text index of {} vocabularies built.", vocabularies.size());
+            } catch (RuntimeException e) {
+                LOG.error("Unable to rebuild full text index.", e);
+            }
+        });
+    }
+
+    private void scheduleReindex(URI vocabulary) {
+        if (!pending.add(vocabulary)) {
+            return;
+        }
+        executor.submit(() -> {
+            // Remove first, so that modifications made during reindexing trigger another run
+            pending.remove(vocabulary);
+            try {
+                final VocabularyInfo info = loadVocabularies().get(vocabulary);
+                if (info == null) {
+                    LOG.trace("Vocabulary {} not found, removing it from full text index.", uriToString(vocabulary));
+                    index.removeVocabulary(vocabulary);
+                } else {
+                    index.replaceVocabulary(vocabulary, loadAssets(info));
+                }
+            } catch (RuntimeException e) {
+                LOG.error("Unable to reindex vocabulary {}.", uriToString(vocabulary), e);
+            }
+        });
+    }
+
+    private Map<URI, VocabularyInfo> loadVocabularies() {
+        final Repository repository = em.unwrap(Repository.class);
+        final Map<URI, VocabularyInfo> result = new LinkedHashMap<>();
+        try (final RepositoryConnection con = repository.getConnection();
+             final TupleQueryResult rs = con.prepareTupleQuery(VOCABULARIES_QUERY).evaluate()) {
+            while (rs.hasNext()) {
+                final BindingSet bs = rs.next();
+                final URI vocabulary = URI.create(bs.getValue("v").stringValue());
+                result.put(vocabulary, new VocabularyInfo(vocabulary, (IRI) bs.getValue("g"),
+                                                          ((Literal) bs.getValue("snapshot")).booleanValue()));
+            }
+        }
+        return result;
+    }
+
+    private Collection<IndexedAsset> loadAssets(VocabularyInfo vocabulary) {
+        final Repository repository = em.unwrap(Repository.class);
+        final Map<URI, IndexedAsset> assets = new LinkedHashMap<>();
+        try (final RepositoryConnection con = repository.getConnection()) {
+            final IndexedAsset vocAsset = new IndexedAsset(vocabulary.uri, Vocabulary.s_c_slovnik, vocabulary.uri);
+            vocAsset.setSnapshot(vocabulary.snapshot);
+            final TupleQuery titleQuery = con.prepareTupleQuery(VOCABULARY_TITLE_QUERY);
+            titleQuery.setBinding("g", vocabulary.context);
+            titleQuery.setBinding("v", con.getValueFactory().createIRI(vocabulary.uri.toString()));
+            try (final TupleQueryResult rs = titleQuery.evaluate()) {
+                while (rs.hasNext()) {
+                    final Literal title = (Literal) rs.next().getValue("title");
+                    title.getLanguage().ifPresent(lang -> vocAsset.addLabel(lang, title.getLabel()));
+                }
+            }
+            assets.put(vocabulary.uri, vocAsset);
+
+            final TupleQuery termsQuery = con.prepareTupleQuery(TERMS_QUERY);
+            termsQuery.setBinding("g", vocabulary.context);
+            try (final TupleQueryResult rs = termsQuery.evaluate()) {
+                while (rs.hasNext()) {
+                    final BindingSet bs = rs.next();
+                    final Value value = bs.getValue("value");
+                    if (!(value instanceof Literal) || !((Literal) value).getLanguage().isPresent()) {
+                        continue;
+                    }
+                    final URI termUri = URI.create(bs.getValue("t").stringValue());
+                    final IndexedAsset term = assets.computeIfAbsent(termUri, u -> {
+                        final IndexedAsset a = new IndexedAsset(u, SKOS.CONCEPT, vocabulary.uri);
+                        a.setSnapshot(vocabulary.snapshot);
+                        a.setDraft(!bs.hasBinding("draft") || ((Literal) bs.getValue("draft")).booleanValue());
+                        return a;
+                    });
+                    addValue(term, bs.getValue("p").stringValue(), (Literal) value);
+                }
+            }
+        }
+        return assets.values();
+    }
+
+    private static void addValue(IndexedAsset asset, String property, Literal value) {
+        final String lang = value.getLanguage().orElseThrow(IllegalStateException::new);
+        switch (property) {
+            case SKOS.PREF_LABEL:
+                asset.addLabel(lang, value.getLabel());
+                break;
+            case SKOS.ALT_LABEL:
+                asset.addAltLabel(lang, value.getLabel());
+                break;
+            case SKOS.DEFINITION:
+                asset.addDefinition(lang, value.getLabel());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported indexed property " + property);
+        }
+    }
+
+    private static class VocabularyInfo {
+        private final URI uri;
+        private final IRI context;
+        private final boolean snapshot;
+
+        private VocabularyInfo(URI uri, IRI context, boolean snapshot) {
+            this.uri = uri;
+            this.context = context;
+            this.snapshot = snapshot;
+        }
+    }
+}
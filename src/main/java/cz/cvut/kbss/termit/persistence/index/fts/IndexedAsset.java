@@ -0,0 +1,115 @@
+package cz.cvut.kbss.termit.persistence.index.fts;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Asset (term or vocabulary) data stored in the embedded full text index.
+ * <p>
+ * Textual values are organized by language, so that search can be restricted to a specific language.
+ */
+public class IndexedAsset {
+
+    private final URI uri;
+
+    private final String type;
+
+    private final URI vocabulary;
+
+    private boolean draft = true;
+
+    private boolean snapshot;
+
+    private final Map<String, String> labels = new HashMap<>();
+
+    private final Map<String, Set<String>> altLabels = new HashMap<>();
+
+    private final Map<String, String> definitions = new HashMap<>();
+
+    /**
+     * Creates new indexed asset.
+     *
+     * @param uri        Asset identifier
+     * @param type       Asset type, e.g., SKOS concept or vocabulary
+     * @param vocabulary Vocabulary the asset belongs to. For vocabularies, this is the vocabulary identifier
+     */
+    public IndexedAsset(URI uri, String type, URI vocabulary) {
+        this.uri = Objects.requireNonNull(uri);
+        this.type = Objects.requireNonNull(type);
+        this.vocabulary = Objects.requireNonNull(vocabulary);
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public URI getVocabulary() {
+        return vocabulary;
+    }
+
+    public boolean isDraft() {
+        return draft;
+    }
+
+    public void setDraft(boolean draft) {
+        this.draft = draft;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public Map<String, String> getLabels() {
+        return labels;
+    }
+
+    public void addLabel(String language, String value) {
+        labels.put(language, value);
+    }
+
+    public Map<String, Set<String>> getAltLabels() {
+        return altLabels;
+    }
+
+    public void addAltLabel(String language, String value) {
+        altLabels.computeIfAbsent(language, k -> new LinkedHashSet<>()).add(value);
+    }
+
+    public Map<String, String> getDefinitions() {
+        return definitions;
+    }
+
+    public void addDefinition(String language, String value) {
+        definitions.put(language, value);
+    }
+
+    /**
+     * Gets all languages in which this asset has some textual value.
+     *
+     * @return Set of language tags
+     */
+    public Set<String> getLanguages() {
+        final Set<String> languages = new HashSet<>(labels.keySet());
+        languages.addAll(altLabels.keySet());
+        languages.addAll(definitions.keySet());
+        return languages;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedAsset{" +
+                "uri=" + uri +
+                ", type='" + type + '\'' +
+                ", vocabulary=" + vocabulary +
+                ", labels=" + labels +
+                '}';
+    }
+}
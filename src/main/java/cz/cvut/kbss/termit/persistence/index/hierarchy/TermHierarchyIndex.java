@@ -0,0 +1,347 @@
+package cz.cvut.kbss.termit.persistence.index.hierarchy;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.event.DataModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.persistence.snapshot.DeltaSnapshotStore;
+import cz.cvut.kbss.termit.util.Utils;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static cz.cvut.kbss.termit.util.TransactionUtils.afterCommit;
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * In-memory index of term hierarchies (SKOS broader/narrower relationships) of vocabularies.
+ * <p>
+ * Allows answering subterm queries without querying the repository. Term identifiers are interned to integers and the
+ * hierarchy of each vocabulary is stored in primitive arrays (see {@link VocabularyHierarchy}), together with term
+ * labels and types, which are needed to represent subterms as {@link TermInfo}s.
+ * <p>
+ * Vocabularies are loaded into the index lazily, on first access. Changes made via the DAOs are applied incrementally
+ * once the corresponding transaction commits, bulk changes (e.g., vocabulary import or removal) evict the affected
+ * vocabulary.
+ * <p>
+ * Interned identifiers cannot be released one by one, because loaded hierarchies refer to them. Instead, when most of
+ * them are no longer used by any loaded hierarchy (e.g., after terms or vocabularies were removed), the whole index is
+ * discarded together with the identifiers and hierarchies are loaded again on access.
+ */
+@Component
+public class TermHierarchyIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermHierarchyIndex.class);
+
+    private static final String TERMS_QUERY = "SELECT ?term ?property ?value WHERE { " +
+            "GRAPH ?context { " +
+            "?term a <" + SKOS.CONCEPT + "> ; " +
+            "?property ?value . " +
+            "FILTER (?property IN (<" + SKOS.PREF_LABEL + ">, <" + SKOS.BROADER + ">, <" + RDF.TYPE + ">)) " +
+            "} }";
+
+    private final DeltaSnapshotStore deltaStore;
+
+    /**
+     * Minimum number of unused interned identifiers for which the index is discarded
+     */
+    private static final int MIN_UNUSED_IDS = 4096;
+
+    private final VocabularyContextMapper contextMapper;
+
+    private volatile State state = new State();
+
+    /**
+     * Guards modifications of the index state
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Incremented on every change, used to detect changes made while a vocabulary was being loaded
+     */
+    private final AtomicLong modificationCounter = new AtomicLong();
+
+    @Autowired
+    public TermHierarchyIndex(DeltaSnapshotStore deltaStore, VocabularyContextMapper contextMapper) {
+        this.deltaStore = deltaStore;
+        this.contextMapper = contextMapper;
+    }
+
+    /**
+     * Gets subterms of the specified term.
+     * <p>
+     * Subterms are terms whose broader term is the specified term. Terms without a label are skipped.
+     *
+     * @param term         Parent term identifier
+     * @param vocabularies Vocabularies in which subterms are looked for
+     * @return Subterms, in no particular order
+     */
+    public Set<TermInfo> getSubTerms(URI term, Collection<URI> vocabularies) {
+        Objects.requireNonNull(term);
+        final State current = this.state;
+        final TermIds ids = current.ids;
+        final List<VocabularyHierarchy> scope = getHierarchies(current, vocabularies);
+        final int id = ids.find(term);
+        final Set<TermInfo> result = new LinkedHashSet<>();
+        if (id == TermIds.UNKNOWN) {
+            return result;
+        }
+        scope.forEach(h -> collectSubTerms(h, ids, id, result));
+        return result;
+    }
+
+    /**
+     * Adds subterms of the specified term from the specified hierarchy to the specified collection.
+     *
+     * @param hierarchy Vocabulary hierarchy
+     * @param ids       Identifiers interned by the hierarchy
+     * @param term      Interned identifier of the parent term
+     * @param result    Collection to add the subterms to
+     */
+    static void collectSubTerms(VocabularyHierarchy hierarchy, TermIds ids, int term, Collection<TermInfo> result) {
+        hierarchy.forEachNarrower(term, child -> {
+            final MultilingualString label = hierarchy.getLabel(child);
+            if (label != null) {
+                final TermInfo ti = new TermInfo(ids.iri(child));
+                ti.setLabel(label);
+                ti.setVocabulary(hierarchy.getVocabulary());
+                for (String type : hierarchy.getTypes(child)) {
+                    ti.addType(type);
+                }
+                result.add(ti);
+            }
+        });
+    }
+
+    private List<VocabularyHierarchy> getHierarchies(State current, Collection<URI> vocabularies) {
+        return vocabularies.stream().map(v -> getHierarchy(current, v)).collect(Collectors.toList());
+    }
+
+    private VocabularyHierarchy getHierarchy(State current, URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final VocabularyHierarchy existing = current.hierarchies.get(vocabulary);
+        if (existing != null) {
+            return existing;
+        }
+        final long counter = modificationCounter.get();
+        final VocabularyHierarchy loaded = load(vocabulary, current.ids);
+        synchronized (lock) {
+            // Do not cache data which may have been modified during loading, they may be stale
+            if (counter == modificationCounter.get() && current == state) {
+                current.hierarchies.putIfAbsent(vocabulary, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private VocabularyHierarchy load(URI vocabulary, TermIds ids) {
+        LOG.trace("Loading term hierarchy of vocabulary {}.", uriToString(vocabulary));
+        final VocabularyHierarchy.Builder builder = VocabularyHierarchy.builder(vocabulary);
+        final URI context = contextMapper.getVocabularyContext(vocabulary);
+        return deltaStore.query(Collections.singleton(context), con -> {
+            final ValueFactory vf = con.getValueFactory();
+            final TupleQuery query = con.prepareTupleQuery(TERMS_QUERY);
+            query.setBinding("context", vf.createIRI(context.toString()));
+            try (final TupleQueryResult rs = query.evaluate()) {
+                while (rs.hasNext()) {
+                    final BindingSet bs = rs.next();
+                    final int term = ids.intern(URI.create(bs.getValue("term").stringValue()));
+                    final String property = bs.getValue("property").stringValue();
+                    final Value value = bs.getValue("value");
+                    builder.addTerm(term);
+                    if (SKOS.PREF_LABEL.equals(property) && value instanceof Literal) {
+                        builder.addLabel(term, value.stringValue(), ((Literal) value).getLanguage().orElse(null));
+                    } else if (SKOS.BROADER.equals(property) && value instanceof IRI) {
+                        builder.addBroader(term, ids.intern(URI.create(value.stringValue())));
+                    } else if (RDF.TYPE.equals(property) && !SKOS.CONCEPT.equals(value.stringValue())) {
+                        builder.addType(term, value.stringValue());
+                    }
+                }
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * Updates the specified term in the hierarchy of the specified vocabulary.
+     * <p>
+     * If there is an active transaction, the update is applied after it successfully commits.
+     *
+     * @param vocabulary Identifier of the vocabulary containing the term
+     * @param term       The updated (or persisted) term
+     */
+    public void termUpdated(URI vocabulary, Term term) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(term);
+        final URI termUri = term.getUri();
+        final MultilingualString label = term.getLabel() != null ?
+                                         new MultilingualString(term.getLabel().getValue()) : null;
+        final Set<String> types = new HashSet<>(Utils.emptyIfNull(term.getTypes()));
+        types.remove(SKOS.CONCEPT);
+        final List<URI> parents = Utils.emptyIfNull(term.getParentTerms()).stream().map(AbstractTerm::getUri)
+                                       .collect(Collectors.toList());
+        afterCommit(() -> modify(vocabulary, (b, ids) -> b.setTerm(ids.intern(termUri), label, types,
+                                                                   parents.stream().mapToInt(ids::intern)
+                                                                          .toArray())));
+    }
+
+    /**
+     * Removes the specified term from the hierarchy of the specified vocabulary.
+     * <p>
+     * If there is an active transaction, the removal is applied after it successfully commits.
+     *
+     * @param vocabulary Identifier of the vocabulary containing the term
+     * @param term       Identifier of the removed term
+     */
+    public void termRemoved(URI vocabulary, URI term) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(term);
+        afterCommit(() -> modify(vocabulary, (b, ids) -> {
+            final int id = ids.find(term);
+            return id != TermIds.UNKNOWN ? b.removeTerm(id) : b;
+        }));
+    }
+
+    /**
+     * Replaces hierarchy of the specified vocabulary (if it is loaded) with its modified copy.
+     */
+    private void modify(URI vocabulary,
+                        BiFunction<VocabularyHierarchy.Builder, TermIds, VocabularyHierarchy.Builder> modification) {
+        synchronized (lock) {
+            modificationCounter.incrementAndGet();
+            final VocabularyHierarchy current = state.hierarchies.get(vocabulary);
+            if (current != null) {
+                state.hierarchies.put(vocabulary, modification.apply(current.toBuilder(), state.ids).build());
+                releaseUnusedIds();
+            }
+        }
+    }
+
+    /**
+     * Evicts the specified vocabulary from the index, it will be reloaded on next access.
+     * <p>
+     * This is used for bulk changes (e.g., vocabulary import or removal) which are not tracked incrementally.
+     *
+     * @param event Event representing vocabulary modification
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModified event) {
+        if (event.getVocabularyIri() == null) {
+            evictAll();
+            return;
+        }
+        evict(event.getVocabularyIri());
+    }
+
+    /**
+     * Evicts the whole index when vocabulary content changes in a way which is not tracked incrementally.
+     *
+     * @param event Content modification event without vocabulary identification
+     */
+    @TransactionalEventListener(fallbackExecution = true, condition = "#event.vocabularyIri == null")
+    public void onUnspecifiedContentModified(VocabularyContentModified event) {
+        evictAll();
+    }
+
+    /**
+     * Evicts the specified vocabulary when its content was modified by another TermIt instance.
+     * <p>
+     * Local hierarchy changes are tracked incrementally, but changes replayed from other instances are not.
+     *
+     * @param event Replayed content modification event
+     */
+    @EventListener(condition = "#event.vocabularyIri != null && @invalidationBus.replaying")
+    public void onReplayedContentModified(VocabularyContentModified event) {
+        evict(event.getVocabularyIri());
+    }
+
+    /**
+     * Evicts the whole index when terms are modified by another TermIt instance.
+     *
+     * @param event Data modification event
+     */
+    @EventListener
+    public void onDataModified(DataModifiedEvent event) {
+        if (TermDao.class.getName().equals(event.getDaoClass())) {
+            evictAll();
+        }
+    }
+
+    private void evict(URI vocabulary) {
+        synchronized (lock) {
+            modificationCounter.incrementAndGet();
+            if (state.hierarchies.remove(vocabulary) != null) {
+                releaseUnusedIds();
+            }
+        }
+    }
+
+    /**
+     * Discards the index state, including interned identifiers, if most of the identifiers are not used by any loaded
+     * hierarchy.
+     */
+    private void releaseUnusedIds() {
+        assert Thread.holdsLock(lock);
+        final int used = state.hierarchies.values().stream().mapToInt(VocabularyHierarchy::size).sum();
+        final int unused = state.ids.size() - used;
+        if (unused > Math.max(MIN_UNUSED_IDS, used)) {
+            LOG.debug("Releasing {} unused term identifiers of the term hierarchy index.", unused);
+            this.state = new State();
+        }
+    }
+
+    @EventListener(EvictCacheEvent.class)
+    public void evictAll() {
+        synchronized (lock) {
+            modificationCounter.incrementAndGet();
+            this.state = new State();
+        }
+    }
+
+    /**
+     * Gets the number of currently interned term identifiers.
+     *
+     * @return Number of identifiers
+     */
+    int getInternedCount() {
+        return state.ids.size();
+    }
+
+    /**
+     * Interned term identifiers and hierarchies using them.
+     * <p>
+     * Readers use the state which was current when they started, so that identifiers and hierarchies they work with
+     * are always consistent.
+     */
+    private static final class State {
+
+        private final TermIds ids = new TermIds();
+
+        private final Map<URI, VocabularyHierarchy> hierarchies = new ConcurrentHashMap<>();
+    }
+}
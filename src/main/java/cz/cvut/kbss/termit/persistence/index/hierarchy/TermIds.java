@@ -0,0 +1,87 @@
+package cz.cvut.kbss.termit.persistence.index.hierarchy;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns term identifiers to dense non-negative integers.
+ * <p>
+ * Identifiers are not released individually, so that integer identifiers held by term hierarchies remain valid. Unused
+ * identifiers are released by discarding the whole instance (see {@link TermHierarchyIndex}). Lookups are lock-free,
+ * interning new identifiers is synchronized.
+ */
+final class TermIds {
+
+    /**
+     * Value returned for identifiers which have not been interned
+     */
+    static final int UNKNOWN = -1;
+
+    private final Map<URI, Integer> ids = new ConcurrentHashMap<>();
+
+    private volatile URI[] iris = new URI[1024];
+
+    private int size;
+
+    /**
+     * Gets integer identifier of the specified term, assigning a new one if the term has not been interned yet.
+     *
+     * @param iri Term identifier
+     * @return Integer identifier
+     */
+    int intern(URI iri) {
+        Objects.requireNonNull(iri);
+        final Integer existing = ids.get(iri);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (this) {
+            final Integer concurrent = ids.get(iri);
+            if (concurrent != null) {
+                return concurrent;
+            }
+            URI[] current = iris;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = iri;
+            // Publish the (possibly grown) array before the identifier becomes visible via the map
+            this.iris = current;
+            ids.put(iri, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Gets integer identifier of the specified term.
+     *
+     * @param iri Term identifier
+     * @return Integer identifier, {@link #UNKNOWN} if the term has not been interned
+     */
+    int find(URI iri) {
+        final Integer id = ids.get(iri);
+        return id != null ? id : UNKNOWN;
+    }
+
+    /**
+     * Gets term identifier corresponding to the specified integer identifier.
+     *
+     * @param id Integer identifier previously returned by {@link #intern(URI)}
+     * @return Term identifier
+     */
+    URI iri(int id) {
+        return iris[id];
+    }
+
+    /**
+     * Gets the number of interned identifiers.
+     *
+     * @return Number of identifiers
+     */
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,284 @@
+package cz.cvut.kbss.termit.persistence.index.hierarchy;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Term hierarchy (SKOS broader/narrower) of a single vocabulary.
+ * <p>
+ * Terms are represented by integer identifiers assigned by {@link TermIds}. Both broader and narrower adjacency are
+ * stored in compressed sparse row layout, i.e., as a single array of neighbours and an array of offsets into it, so
+ * the hierarchy of a vocabulary occupies a handful of primitive arrays regardless of its size. Labels and types of
+ * terms are stored once per term.
+ * <p>
+ * Broader terms need not be from the same vocabulary. Narrower terms are indexed by their broader term, so narrower
+ * terms of a term from another vocabulary can be found as well.
+ * <p>
+ * Instances are immutable, modifications are done by creating a modified copy via {@link #toBuilder()}.
+ */
+final class VocabularyHierarchy {
+
+    private static final String[] NO_TYPES = new String[0];
+
+    private final URI vocabulary;
+
+    /**
+     * Identifiers of terms of the vocabulary, sorted
+     */
+    private final int[] terms;
+
+    private final MultilingualString[] labels;
+
+    private final String[][] types;
+
+    private final int[] broaderOffsets;
+
+    private final int[] broader;
+
+    /**
+     * Identifiers of terms which have narrower terms in the vocabulary, sorted
+     */
+    private final int[] parents;
+
+    private final int[] narrowerOffsets;
+
+    private final int[] narrower;
+
+    private VocabularyHierarchy(Builder builder) {
+        this.vocabulary = builder.vocabulary;
+        final int size = builder.entries.size();
+        this.terms = builder.entries.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        this.labels = new MultilingualString[size];
+        this.types = new String[size][];
+        this.broaderOffsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            final Entry entry = builder.entries.get(terms[i]);
+            labels[i] = entry.label;
+            types[i] = entry.types.isEmpty() ? NO_TYPES : entry.types.toArray(NO_TYPES);
+            broaderOffsets[i + 1] = broaderOffsets[i] + entry.parentCount;
+        }
+        this.broader = new int[broaderOffsets[size]];
+        // Each edge is encoded as parent identifier in the high bits and child identifier in the low bits
+        final long[] edges = new long[broader.length];
+        for (int i = 0; i < size; i++) {
+            final Entry entry = builder.entries.get(terms[i]);
+            final int[] sorted = Arrays.copyOf(entry.parents, entry.parentCount);
+            Arrays.sort(sorted);
+            for (int j = 0; j < sorted.length; j++) {
+                broader[broaderOffsets[i] + j] = sorted[j];
+                edges[broaderOffsets[i] + j] = ((long) sorted[j] << 32) | terms[i];
+            }
+        }
+        // Edges sorted by parent (high bits) and child (low bits) form the narrower adjacency
+        Arrays.sort(edges);
+        this.narrower = new int[edges.length];
+        final int[] parentBuffer = new int[edges.length];
+        final int[] offsetBuffer = new int[edges.length + 1];
+        int parentCount = 0;
+        for (int i = 0; i < edges.length; i++) {
+            final int parent = (int) (edges[i] >>> 32);
+            narrower[i] = (int) edges[i];
+            if (parentCount == 0 || parentBuffer[parentCount - 1] != parent) {
+                parentBuffer[parentCount] = parent;
+                offsetBuffer[parentCount] = i;
+                parentCount++;
+            }
+        }
+        offsetBuffer[parentCount] = edges.length;
+        this.parents = Arrays.copyOf(parentBuffer, parentCount);
+        this.narrowerOffsets = Arrays.copyOf(offsetBuffer, parentCount + 1);
+    }
+
+    URI getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Gets the number of terms in this hierarchy.
+     *
+     * @return Number of terms
+     */
+    int size() {
+        return terms.length;
+    }
+
+    /**
+     * Checks whether the specified term belongs to the vocabulary.
+     *
+     * @param term Term identifier
+     * @return {@code true} if the term is from this vocabulary
+     */
+    boolean contains(int term) {
+        return Arrays.binarySearch(terms, term) >= 0;
+    }
+
+    /**
+     * Gets label of the specified term.
+     *
+     * @param term Term identifier
+     * @return Term label, {@code null} if the term is not from this vocabulary
+     */
+    MultilingualString getLabel(int term) {
+        final int index = Arrays.binarySearch(terms, term);
+        return index >= 0 ? labels[index] : null;
+    }
+
+    /**
+     * Gets types of the specified term, except for the type of SKOS concept.
+     *
+     * @param term Term identifier
+     * @return Term types, empty if the term has no additional types or is not from this vocabulary
+     */
+    String[] getTypes(int term) {
+        final int index = Arrays.binarySearch(terms, term);
+        return index >= 0 ? types[index] : NO_TYPES;
+    }
+
+    /**
+     * Passes broader terms of the specified term to the specified consumer.
+     *
+     * @param term     Term identifier
+     * @param consumer Consumer of broader term identifiers
+     */
+    void forEachBroader(int term, IntConsumer consumer) {
+        final int index = Arrays.binarySearch(terms, term);
+        if (index >= 0) {
+            for (int i = broaderOffsets[index]; i < broaderOffsets[index + 1]; i++) {
+                consumer.accept(broader[i]);
+            }
+        }
+    }
+
+    /**
+     * Passes narrower terms of the specified term from this vocabulary to the specified consumer.
+     *
+     * @param term     Term identifier. The term itself need not be from this vocabulary
+     * @param consumer Consumer of narrower term identifiers
+     */
+    void forEachNarrower(int term, IntConsumer consumer) {
+        final int index = Arrays.binarySearch(parents, term);
+        if (index >= 0) {
+            for (int i = narrowerOffsets[index]; i < narrowerOffsets[index + 1]; i++) {
+                consumer.accept(narrower[i]);
+            }
+        }
+    }
+
+    /**
+     * Creates a builder initialized with the content of this hierarchy.
+     *
+     * @return New builder
+     */
+    Builder toBuilder() {
+        final Builder builder = new Builder(vocabulary);
+        for (int i = 0; i < terms.length; i++) {
+            builder.setTerm(terms[i], labels[i], Arrays.asList(types[i]),
+                            Arrays.copyOfRange(broader, broaderOffsets[i], broaderOffsets[i + 1]));
+        }
+        return builder;
+    }
+
+    static Builder builder(URI vocabulary) {
+        return new Builder(vocabulary);
+    }
+
+    static final class Builder {
+
+        private final URI vocabulary;
+
+        private final Map<Integer, Entry> entries = new HashMap<>();
+
+        private Builder(URI vocabulary) {
+            this.vocabulary = Objects.requireNonNull(vocabulary);
+        }
+
+        private Entry entry(int term) {
+            return entries.computeIfAbsent(term, k -> new Entry());
+        }
+
+        /**
+         * Adds the specified term to the hierarchy, if it is not already present.
+         *
+         * @param term Term identifier
+         * @return This builder
+         */
+        Builder addTerm(int term) {
+            entry(term);
+            return this;
+        }
+
+        Builder addLabel(int term, String value, String language) {
+            final Entry entry = entry(term);
+            if (entry.label == null) {
+                entry.label = new MultilingualString();
+            }
+            entry.label.set(language, value);
+            return this;
+        }
+
+        Builder addType(int term, String type) {
+            entry(term).types.add(type);
+            return this;
+        }
+
+        Builder addBroader(int term, int parent) {
+            entry(term).addParent(parent);
+            return this;
+        }
+
+        /**
+         * Sets data of the specified term, replacing any existing data.
+         *
+         * @param term    Term identifier
+         * @param label   Term label, possibly {@code null}
+         * @param types   Term types
+         * @param parents Broader term identifiers
+         * @return This builder
+         */
+        Builder setTerm(int term, MultilingualString label, Collection<String> types, int[] parents) {
+            final Entry entry = new Entry();
+            entry.label = label;
+            entry.types.addAll(types);
+            for (int parent : parents) {
+                entry.addParent(parent);
+            }
+            entries.put(term, entry);
+            return this;
+        }
+
+        Builder removeTerm(int term) {
+            entries.remove(term);
+            return this;
+        }
+
+        VocabularyHierarchy build() {
+            return new VocabularyHierarchy(this);
+        }
+    }
+
+    private static final class Entry {
+
+        private MultilingualString label;
+
+        private final Set<String> types = new LinkedHashSet<>(2);
+
+        private int[] parents = new int[1];
+
+        private int parentCount;
+
+        private void addParent(int parent) {
+            for (int i = 0; i < parentCount; i++) {
+                if (parents[i] == parent) {
+                    return;
+                }
+            }
+            if (parentCount == parents.length) {
+                parents = Arrays.copyOf(parents, parentCount * 2);
+            }
+            parents[parentCount++] = parent;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package cz.cvut.kbss.termit.persistence.index.label;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.snapshot.DeltaSnapshotStore;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static cz.cvut.kbss.termit.util.TransactionUtils.afterCommit;
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * In-memory index of term labels (preferred and alternative), organized by vocabulary and language.
+ * <p>
+ * Allows answering label lookups (autocomplete, label uniqueness checks) without querying the repository. Vocabularies
+ * are loaded into the index lazily, on first access. Changes made via the DAOs are applied incrementally once the
+ * corresponding transaction commits. The index is bounded by a memory budget (see {@link
+ * Configuration.Search.LabelIndex#getMemoryBudget()}), least recently used vocabularies are evicted when it is
+ * exceeded.
+ * <p>
+ * Labels are compared case-insensitively.
+ */
+@Component
+public class TermLabelIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermLabelIndex.class);
+
+    private static final String LABELS_QUERY = "SELECT ?term ?label ?property WHERE { " +
+            "GRAPH ?context { " +
+            "?term a <" + SKOS.CONCEPT + "> ; " +
+            "?property ?label . " +
+            "FILTER (?property IN (<" + SKOS.PREF_LABEL + ">, <" + SKOS.ALT_LABEL + ">)) " +
+            "} " +
+            "?term <" + cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku + "> ?vocabulary . " +
+            "}";
+
+    private final DeltaSnapshotStore deltaStore;
+
+    private final VocabularyContextMapper contextMapper;
+
+    private final long memoryBudget;
+
+    /**
+     * Loaded vocabularies in access order
+     */
+    private final LinkedHashMap<URI, VocabularyLabels> vocabularies = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Incremented on every change, used to detect changes made while a vocabulary was being loaded
+     */
+    private final AtomicLong modificationCounter = new AtomicLong();
+
+    @Autowired
+    public TermLabelIndex(DeltaSnapshotStore deltaStore, VocabularyContextMapper contextMapper, Configuration config) {
+        this.deltaStore = deltaStore;
+        this.contextMapper = contextMapper;
+        this.memoryBudget = config.getSearch().getLabelIndex().getMemoryBudget();
+    }
+
+    /**
+     * Checks whether a term with the specified preferred label exists in the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @param language   Label language
+     * @param label      Label to look for (compared case-insensitively)
+     * @return {@code true} if a matching term exists, {@code false} otherwise
+     */
+    public boolean existsPreferredLabel(URI vocabulary, String language, String label) {
+        Objects.requireNonNull(label);
+        return getVocabularyLabels(vocabulary).existsPreferred(language, label);
+    }
+
+    /**
+     * Finds terms from the specified vocabulary whose label contains the specified string.
+     *
+     * @param vocabulary       Vocabulary identifier
+     * @param language         Label language
+     * @param substring        String to look for in labels (compared case-insensitively)
+     * @param includeAltLabels Whether to search alternative labels as well
+     * @return Identifiers of matching terms, in no particular order
+     */
+    public Set<URI> findByLabelContaining(URI vocabulary, String language, String substring,
+                                          boolean includeAltLabels) {
+        Objects.requireNonNull(substring);
+        return getVocabularyLabels(vocabulary).findContaining(language, substring, includeAltLabels);
+    }
+
+    private VocabularyLabels getVocabularyLabels(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        synchronized (vocabularies) {
+            final VocabularyLabels existing = vocabularies.get(vocabulary);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        final long counter = modificationCounter.get();
+        final VocabularyLabels loaded = load(vocabulary);
+        synchronized (vocabularies) {
+            // Do not cache data which may have been modified during loading, they may be stale
+            if (counter == modificationCounter.get()) {
+                vocabularies.putIfAbsent(vocabulary, loaded);
+                enforceMemoryBudget();
+            }
+        }
+        return loaded;
+    }
+
+    private VocabularyLabels load(URI vocabulary) {
+        LOG.trace("Loading labels of terms from vocabulary {}.", uriToString(vocabulary));
+        final VocabularyLabels labels = new VocabularyLabels();
+        final URI context = contextMapper.getVocabularyContext(vocabulary);
+        return deltaStore.query(Collections.singleton(context), con -> {
+            final ValueFactory vf = con.getValueFactory();
+            final TupleQuery query = con.prepareTupleQuery(LABELS_QUERY);
+            query.setBinding("context", vf.createIRI(context.toString()));
+            query.setBinding("vocabulary", vf.createIRI(vocabulary.toString()));
+            try (final TupleQueryResult rs = query.evaluate()) {
+                while (rs.hasNext()) {
+                    final BindingSet bs = rs.next();
+                    final Value label = bs.getValue("label");
+                    if (!(label instanceof Literal)) {
+                        continue;
+                    }
+                    final Optional<String> lang = ((Literal) label).getLanguage();
+                    // Language-less labels are not matched by language-specific lookups
+                    lang.ifPresent(l -> labels.add(URI.create(bs.getValue("term").stringValue()), l,
+                                                   label.stringValue(),
+                                                   SKOS.PREF_LABEL.equals(bs.getValue("property").stringValue())));
+                }
+            }
+            return labels;
+        });
+    }
+
+    private void enforceMemoryBudget() {
+        long total = vocabularies.values().stream().mapToLong(VocabularyLabels::getSize).sum();
+        final Iterator<Map.Entry<URI, VocabularyLabels>> it = vocabularies.entrySet().iterator();
+        // Always keep at least the most recently used vocabulary
+        while (total > memoryBudget && vocabularies.size() > 1) {
+            final Map.Entry<URI, VocabularyLabels> eldest = it.next();
+            LOG.trace("Evicting labels of vocabulary {} from label index.", uriToString(eldest.getKey()));
+            total -= eldest.getValue().getSize();
+            it.remove();
+        }
+    }
+
+    /**
+     * Updates labels of the specified term in the index.
+     * <p>
+     * If there is an active transaction, the update is applied after it successfully commits.
+     *
+     * @param vocabulary Identifier of the vocabulary containing the term
+     * @param term       The updated term
+     */
+    public void termUpdated(URI vocabulary, Term term) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(term);
+        final URI termUri = term.getUri();
+        final Map<String, String> prefLabels = term.getLabel() != null ?
+                                               new HashMap<>(term.getLabel().getValue()) : Collections.emptyMap();
+        final List<Map<String, String>> altLabels = new ArrayList<>();
+        Utils.emptyIfNull(term.getAltLabels()).stream().map(MultilingualString::getValue)
+             .forEach(v -> altLabels.add(new HashMap<>(v)));
+        afterCommit(() -> {
+            modificationCounter.incrementAndGet();
+            final VocabularyLabels labels = getLoaded(vocabulary);
+            if (labels == null) {
+                return;
+            }
+            synchronized (labels) {
+                labels.remove(termUri);
+                prefLabels.forEach((lang, value) -> labels.add(termUri, lang, value, true));
+                altLabels.forEach(m -> m.forEach((lang, value) -> labels.add(termUri, lang, value, false)));
+            }
+        });
+    }
+
+    /**
+     * Removes the specified term from the index.
+     * <p>
+     * If there is an active transaction, the removal is applied after it successfully commits.
+     *
+     * @param term Identifier of the removed term
+     */
+    public void termRemoved(URI term) {
+        Objects.requireNonNull(term);
+        afterCommit(() -> {
+            modificationCounter.incrementAndGet();
+            final List<VocabularyLabels> loaded;
+            synchronized (vocabularies) {
+                loaded = new ArrayList<>(vocabularies.values());
+            }
+            loaded.forEach(labels -> labels.remove(term));
+        });
+    }
+
+    private VocabularyLabels getLoaded(URI vocabulary) {
+        synchronized (vocabularies) {
+            return vocabularies.get(vocabulary);
+        }
+    }
+
+    /**
+     * Evicts the specified vocabulary from the index, it will be reloaded on next access.
+     * <p>
+     * This is used for bulk changes (e.g., vocabulary import or removal) which are not tracked incrementally.
+     *
+     * @param event Event representing vocabulary modification
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModified event) {
+        if (event.getVocabularyIri() == null) {
+            evictAll();
+            return;
+        }
+        evict(event.getVocabularyIri());
+    }
+
+    /**
+     * Evicts the whole index when vocabulary content changes in a way which is not tracked incrementally.
+     *
+     * @param event Content modification event without vocabulary identification
+     */
+    @TransactionalEventListener(fallbackExecution = true, condition = "#event.vocabularyIri == null")
+    public void onUnspecifiedContentModified(VocabularyContentModified event) {
+        evictAll();
+    }
+
+    /**
+     * Evicts the specified vocabulary when its content was modified by another TermIt instance.
+     * <p>
+     * Local content changes are tracked incrementally, but changes replayed from other instances are not.
+     *
+     * @param event Replayed content modification event
+     */
+    @EventListener(condition = "#event.vocabularyIri != null && @invalidationBus.replaying")
+    public void onReplayedContentModified(VocabularyContentModified event) {
+        evict(event.getVocabularyIri());
+    }
+
+    private void evict(URI vocabulary) {
+        modificationCounter.incrementAndGet();
+        synchronized (vocabularies) {
+            vocabularies.remove(vocabulary);
+        }
+    }
+
+    @EventListener(EvictCacheEvent.class)
+    public void evictAll() {
+        modificationCounter.incrementAndGet();
+        synchronized (vocabularies) {
+            vocabularies.clear();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package cz.cvut.kbss.termit.persistence.index.label;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Labels of terms from a single vocabulary, organized by language and normalized label value.
+ * <p>
+ * Exact label lookups are answered by a hash map, substring lookups scan the distinct labels of the language.
+ */
+class VocabularyLabels {
+
+    /**
+     * Rough estimate of memory used by one indexed label, not counting the label characters.
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    /**
+     * Language -> normalized label -> term identifier -> whether the label is a preferred label of the term
+     */
+    private final Map<String, Map<String, Map<URI, Boolean>>> labels = new HashMap<>();
+
+    private final Map<URI, List<Label>> termLabels = new HashMap<>();
+
+    private long size;
+
+    /**
+     * Normalizes the specified label, so that lookups are case insensitive.
+     *
+     * @param label Label to normalize
+     * @return Normalized label
+     */
+    static String normalize(String label) {
+        return label.toLowerCase(Locale.ROOT);
+    }
+
+    synchronized void add(URI term, String language, String label, boolean preferred) {
+        final String normalized = normalize(label);
+        final Map<URI, Boolean> terms = labels.computeIfAbsent(language, k -> new HashMap<>())
+                                              .computeIfAbsent(normalized, k -> new HashMap<>(2));
+        // Preferred label takes precedence in case the term has the same value as its alternative label
+        terms.merge(term, preferred, Boolean::logicalOr);
+        termLabels.computeIfAbsent(term, k -> new ArrayList<>()).add(new Label(language, normalized));
+        size += ENTRY_OVERHEAD + 2L * normalized.length();
+    }
+
+    synchronized void remove(URI term) {
+        final List<Label> removed = termLabels.remove(term);
+        if (removed == null) {
+            return;
+        }
+        for (Label l : removed) {
+            final Map<String, Map<URI, Boolean>> langLabels = labels.get(l.language);
+            final Map<URI, Boolean> terms = langLabels.get(l.value);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    langLabels.remove(l.value);
+                }
+            }
+            size -= ENTRY_OVERHEAD + 2L * l.value.length();
+        }
+    }
+
+    synchronized boolean contains(URI term) {
+        return termLabels.containsKey(term);
+    }
+
+    synchronized boolean existsPreferred(String language, String label) {
+        final Map<URI, Boolean> terms = labels.getOrDefault(language, Collections.emptyMap()).get(normalize(label));
+        return terms != null && terms.containsValue(Boolean.TRUE);
+    }
+
+    synchronized Set<URI> findContaining(String language, String substring, boolean includeAltLabels) {
+        final String normalized = normalize(substring);
+        final Set<URI> result = new HashSet<>();
+        labels.getOrDefault(language, Collections.emptyMap()).forEach((label, terms) -> {
+            if (label.contains(normalized)) {
+                collect(terms, includeAltLabels, result);
+            }
+        });
+        return result;
+    }
+
+    private static void collect(Map<URI, Boolean> terms, boolean includeAltLabels, Set<URI> result) {
+        terms.forEach((t, preferred) -> {
+            if (preferred || includeAltLabels) {
+                result.add(t);
+            }
+        });
+    }
+
+    /**
+     * Gets estimated memory footprint of this instance, in bytes.
+     *
+     * @return Size estimate
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    private static class Label {
+        private final String language;
+        private final String value;
+
+        private Label(String language, String value) {
+            this.language = language;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package cz.cvut.kbss.termit.persistence.index.occurrence;
+
+import java.util.Objects;
+
+/**
+ * Numbers of suggested and approved occurrences of a term in a single source (file, term definition).
+ * <p>
+ * Instances are immutable.
+ */
+public final class OccurrenceCounts {
+
+    static final OccurrenceCounts EMPTY = new OccurrenceCounts(0, 0);
+
+    private final int suggested;
+
+    private final int approved;
+
+    OccurrenceCounts(int suggested, int approved) {
+        this.suggested = suggested;
+        this.approved = approved;
+    }
+
+    public int getSuggested() {
+        return suggested;
+    }
+
+    public int getApproved() {
+        return approved;
+    }
+
+    boolean isEmpty() {
+        return suggested <= 0 && approved <= 0;
+    }
+
+    OccurrenceCounts add(int suggestedDelta, int approvedDelta) {
+        return new OccurrenceCounts(Math.max(0, suggested + suggestedDelta), Math.max(0, approved + approvedDelta));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OccurrenceCounts)) {
+            return false;
+        }
+        final OccurrenceCounts that = (OccurrenceCounts) o;
+        return suggested == that.suggested && approved == that.approved;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(suggested, approved);
+    }
+
+    @Override
+    public String toString() {
+        return "OccurrenceCounts{suggested=" + suggested + ", approved=" + approved + '}';
+    }
+}
@@ -0,0 +1,309 @@
+package cz.cvut.kbss.termit.persistence.index.occurrence;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.event.DataModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.RebuildIndexesEvent;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * In-memory index of term occurrence statistics, i.e., how many suggested and approved occurrences each term has in
+ * each source (file, definition of another term).
+ * <p>
+ * Allows answering term occurrence info requests (term detail, term removal checks) without aggregating all the
+ * occurrences in the repository. The index is built on first access and then maintained incrementally by {@link
+ * TermOccurrenceDao}, changes are applied once the corresponding transaction commits. It is rebuilt from the repository
+ * on {@link RebuildIndexesEvent} and when application caches are evicted.
+ */
+@Component
+public class TermOccurrenceIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermOccurrenceIndex.class);
+
+    private static final String COUNTS_QUERY = "SELECT ?term ?source ?suggested (COUNT(?x) AS ?cnt) WHERE { " +
+            "?x a <" + Vocabulary.s_c_vyskyt_termu + "> ; " +
+            "<" + Vocabulary.s_p_je_prirazenim_termu + "> ?term ; " +
+            "<" + Vocabulary.s_p_ma_cil + "> ?target . " +
+            "?target <" + Vocabulary.s_p_ma_zdroj + "> ?source . " +
+            "BIND (EXISTS { ?x a <" + Vocabulary.s_c_navrzeny_vyskyt_termu + "> . } AS ?suggested) " +
+            "} GROUP BY ?term ?source ?suggested";
+
+    private final EntityManager em;
+
+    /**
+     * Term -> source -> occurrence counts. {@code null} when the index is not loaded
+     */
+    private Map<URI, Map<URI, OccurrenceCounts>> byTerm;
+
+    /**
+     * Source -> terms occurring in it
+     */
+    private Map<URI, Set<URI>> bySource;
+
+    /**
+     * Incremented on every change, used to detect changes made while the index was being loaded
+     */
+    private long modificationCounter;
+
+    /**
+     * Number of transactions with changes which are being committed
+     */
+    private int committingTransactions;
+
+    @Autowired
+    public TermOccurrenceIndex(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Gets occurrence counts of the specified term, organized by the source in which the term occurs.
+     *
+     * @param term Term identifier
+     * @return Map of source identifiers to occurrence counts, empty if the term does not occur anywhere
+     */
+    public Map<URI, OccurrenceCounts> getOccurrences(URI term) {
+        Objects.requireNonNull(term);
+        synchronized (this) {
+            if (byTerm != null) {
+                return new HashMap<>(byTerm.getOrDefault(term, Collections.emptyMap()));
+            }
+        }
+        return new HashMap<>(load().getOrDefault(term, Collections.emptyMap()));
+    }
+
+    /**
+     * Checks whether the specified term has any (suggested or approved) occurrences.
+     *
+     * @param term Term identifier
+     * @return {@code true} if the term occurs somewhere, {@code false} otherwise
+     */
+    public boolean hasOccurrences(URI term) {
+        return !getOccurrences(term).isEmpty();
+    }
+
+    private Map<URI, Map<URI, OccurrenceCounts>> load() {
+        final long counter;
+        final boolean committing;
+        synchronized (this) {
+            counter = modificationCounter;
+            committing = committingTransactions > 0;
+        }
+        LOG.trace("Loading term occurrence index.");
+        final Map<URI, Map<URI, OccurrenceCounts>> loadedByTerm = new HashMap<>();
+        final Map<URI, Set<URI>> loadedBySource = new HashMap<>();
+        final Repository repository = em.unwrap(Repository.class);
+        try (final RepositoryConnection con = repository.getConnection();
+             final TupleQueryResult rs = con.prepareTupleQuery(COUNTS_QUERY).evaluate()) {
+            while (rs.hasNext()) {
+                final BindingSet bs = rs.next();
+                final URI term = URI.create(bs.getValue("term").stringValue());
+                final URI source = URI.create(bs.getValue("source").stringValue());
+                final int count = ((Literal) bs.getValue("cnt")).intValue();
+                final boolean suggested = ((Literal) bs.getValue("suggested")).booleanValue();
+                loadedByTerm.computeIfAbsent(term, k -> new HashMap<>())
+                            .merge(source, suggested ? new OccurrenceCounts(count, 0) :
+                                           new OccurrenceCounts(0, count),
+                                   (a, b) -> a.add(b.getSuggested(), b.getApproved()));
+                loadedBySource.computeIfAbsent(source, k -> new HashSet<>()).add(term);
+            }
+        }
+        synchronized (this) {
+            // Do not install data which may have been modified during loading, changes could be lost or applied twice
+            if (byTerm == null && !committing && counter == modificationCounter) {
+                this.byTerm = loadedByTerm;
+                this.bySource = loadedBySource;
+            }
+        }
+        return loadedByTerm;
+    }
+
+    /**
+     * Records a new occurrence of the specified term in the specified source.
+     *
+     * @param term      Term identifier
+     * @param source    Identifier of the source in which the term occurs
+     * @param suggested Whether the occurrence is suggested (or approved)
+     */
+    public void occurrencePersisted(URI term, URI source, boolean suggested) {
+        Objects.requireNonNull(term);
+        Objects.requireNonNull(source);
+        onCommit(() -> update(term, source, suggested ? 1 : 0, suggested ? 0 : 1));
+    }
+
+    /**
+     * Records removal of an occurrence of the specified term in the specified source.
+     *
+     * @param term      Term identifier
+     * @param source    Identifier of the source in which the term occurred
+     * @param suggested Whether the occurrence was suggested (or approved)
+     */
+    public void occurrenceRemoved(URI term, URI source, boolean suggested) {
+        Objects.requireNonNull(term);
+        Objects.requireNonNull(source);
+        onCommit(() -> update(term, source, suggested ? -1 : 0, suggested ? 0 : -1));
+    }
+
+    /**
+     * Records approval of a suggested occurrence of the specified term in the specified source.
+     *
+     * @param term   Term identifier
+     * @param source Identifier of the source in which the term occurs
+     */
+    public void occurrenceApproved(URI term, URI source) {
+        Objects.requireNonNull(term);
+        Objects.requireNonNull(source);
+        onCommit(() -> update(term, source, -1, 1));
+    }
+
+    /**
+     * Records removal of all suggested occurrences in the specified source.
+     *
+     * @param source Source identifier
+     */
+    public void suggestedOccurrencesRemoved(URI source) {
+        Objects.requireNonNull(source);
+        onCommit(() -> new ArrayList<>(bySource.getOrDefault(source, Collections.emptySet())).forEach(
+                term -> update(term, source, -byTerm.get(term).getOrDefault(source, OccurrenceCounts.EMPTY)
+                                                   .getSuggested(), 0)));
+    }
+
+    /**
+     * Records removal of all occurrences in the specified source.
+     *
+     * @param source Source identifier
+     */
+    public void allOccurrencesRemoved(URI source) {
+        Objects.requireNonNull(source);
+        onCommit(() -> {
+            final Set<URI> terms = bySource.remove(source);
+            if (terms != null) {
+                terms.forEach(term -> removeSource(term, source));
+            }
+        });
+    }
+
+    private void update(URI term, URI source, int suggestedDelta, int approvedDelta) {
+        final Map<URI, OccurrenceCounts> sources = byTerm.computeIfAbsent(term, k -> new HashMap<>());
+        final OccurrenceCounts counts = sources.getOrDefault(source, OccurrenceCounts.EMPTY)
+                                               .add(suggestedDelta, approvedDelta);
+        if (counts.isEmpty()) {
+            removeSource(term, source);
+            final Set<URI> terms = bySource.get(source);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    bySource.remove(source);
+                }
+            }
+        } else {
+            sources.put(source, counts);
+            bySource.computeIfAbsent(source, k -> new HashSet<>()).add(term);
+        }
+    }
+
+    private void removeSource(URI term, URI source) {
+        final Map<URI, OccurrenceCounts> sources = byTerm.get(term);
+        if (sources != null) {
+            sources.remove(source);
+            if (sources.isEmpty()) {
+                byTerm.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Applies the specified change to the index once the current transaction (if any) successfully commits.
+     * <p>
+     * Changes are not applied when the index is not loaded, it will contain them once it is.
+     */
+    private void onCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                synchronized (TermOccurrenceIndex.this) {
+                    modificationCounter++;
+                    committingTransactions++;
+                }
+                this.committing = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!committing) {
+                    return;
+                }
+                synchronized (TermOccurrenceIndex.this) {
+                    committingTransactions--;
+                    if (status == STATUS_COMMITTED) {
+                        apply(change);
+                    } else {
+                        // The change may have been seen by a concurrent load, it is safer to reload
+                        invalidate();
+                    }
+                }
+            }
+        });
+    }
+
+    private synchronized void apply(Runnable change) {
+        modificationCounter++;
+        if (byTerm != null) {
+            change.run();
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from the repository.
+     */
+    @EventListener(RebuildIndexesEvent.class)
+    public void rebuild() {
+        LOG.info("Rebuilding term occurrence index.");
+        invalidate();
+        load();
+    }
+
+    /**
+     * Discards the index, it will be reloaded on next access.
+     */
+    @EventListener(EvictCacheEvent.class)
+    public synchronized void invalidate() {
+        modificationCounter++;
+        this.byTerm = null;
+        this.bySource = null;
+    }
+
+    /**
+     * Discards the index when term occurrences are modified by another TermIt instance.
+     *
+     * @param event Data modification event
+     */
+    @EventListener
+    public void onDataModified(DataModifiedEvent event) {
+        if (TermOccurrenceDao.class.getName().equals(event.getDaoClass())) {
+            LOG.trace("Term occurrences modified by another instance, invalidating term occurrence index.");
+            invalidate();
+        }
+    }
+}
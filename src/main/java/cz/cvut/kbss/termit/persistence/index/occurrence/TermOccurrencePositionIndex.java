@@ -0,0 +1,258 @@
+package cz.cvut.kbss.termit.persistence.index.occurrence;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.event.DataModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Index of positions of term occurrences in sources (files, term definitions).
+ * <p>
+ * For each source, the index holds occurrences sorted by their start offset (as given by their text position
+ * selector), which allows finding occurrences in a region of the source without loading all of them. Occurrences
+ * without a text position selector are not indexed.
+ * <p>
+ * Sources are indexed lazily, the index is bounded by the total number of indexed occurrences, least recently used
+ * sources are evicted first.
+ */
+@Component
+public class TermOccurrencePositionIndex {
+
+    /**
+     * Maximum total number of occurrences held by the index
+     */
+    static final int MAX_OCCURRENCES = 500_000;
+
+    private static final String POSITIONS_QUERY = "SELECT ?occ ?term ?start ?end WHERE { " +
+            "?occ a <" + Vocabulary.s_c_vyskyt_termu + "> ; " +
+            "<" + Vocabulary.s_p_je_prirazenim_termu + "> ?term ; " +
+            "<" + Vocabulary.s_p_ma_cil + "> ?target . " +
+            "?target <" + Vocabulary.s_p_ma_zdroj + "> ?source ; " +
+            "<" + Vocabulary.s_p_ma_selektor + "> ?selector . " +
+            "?selector <" + Vocabulary.s_p_ma_startovni_pozici + "> ?start ; " +
+            "<" + Vocabulary.s_p_ma_koncovou_pozici + "> ?end . " +
+            "}";
+
+    private final EntityManager em;
+
+    private final Map<URI, SourcePositions> sources = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalOccurrences;
+
+    /**
+     * Incremented on every eviction, prevents indexing positions loaded before the eviction
+     */
+    private long generation;
+
+    public TermOccurrencePositionIndex(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Finds occurrences in the specified source which overlap the specified region.
+     *
+     * @param source Source identifier
+     * @param start  Start offset of the region (inclusive)
+     * @param end    End offset of the region (exclusive)
+     * @param term   Identifier of the term whose occurrences to find, optional. If {@code null}, occurrences of all
+     *               terms are returned
+     * @return Identifiers of matching occurrences ordered by their start offset
+     */
+    public List<URI> findOccurrences(URI source, int start, int end, URI term) {
+        Objects.requireNonNull(source);
+        return getPositions(source).find(start, end, term);
+    }
+
+    private SourcePositions getPositions(URI source) {
+        final long loadGeneration;
+        synchronized (this) {
+            final SourcePositions existing = sources.get(source);
+            if (existing != null) {
+                return existing;
+            }
+            loadGeneration = generation;
+        }
+        final SourcePositions loaded = load(source);
+        put(source, loaded, loadGeneration);
+        return loaded;
+    }
+
+    private SourcePositions load(URI source) {
+        final List<Position> positions = new ArrayList<>();
+        final Repository repository = em.unwrap(Repository.class);
+        try (final RepositoryConnection con = repository.getConnection()) {
+            final TupleQuery query = con.prepareTupleQuery(POSITIONS_QUERY);
+            query.setBinding("source", con.getValueFactory().createIRI(source.toString()));
+            try (final TupleQueryResult rs = query.evaluate()) {
+                while (rs.hasNext()) {
+                    final BindingSet bs = rs.next();
+                    positions.add(new Position(URI.create(bs.getValue("occ").stringValue()),
+                                               URI.create(bs.getValue("term").stringValue()),
+                                               ((Literal) bs.getValue("start")).intValue(),
+                                               ((Literal) bs.getValue("end")).intValue()));
+                }
+            }
+        }
+        return new SourcePositions(positions);
+    }
+
+    private synchronized void put(URI source, SourcePositions positions, long loadGeneration) {
+        if (loadGeneration != generation || positions.size() > MAX_OCCURRENCES) {
+            return;
+        }
+        final SourcePositions previous = sources.put(source, positions);
+        if (previous != null) {
+            totalOccurrences -= previous.size();
+        }
+        totalOccurrences += positions.size();
+        final Iterator<SourcePositions> it = sources.values().iterator();
+        while (totalOccurrences > MAX_OCCURRENCES && it.hasNext()) {
+            totalOccurrences -= it.next().size();
+            it.remove();
+        }
+    }
+
+    /**
+     * Evicts positions of occurrences in the specified source, because they have been modified.
+     * <p>
+     * If a transaction is active, the source is evicted again after it completes, so that the index does not contain
+     * positions loaded before the modification was committed.
+     *
+     * @param source Source identifier
+     */
+    public void sourceModified(URI source) {
+        Objects.requireNonNull(source);
+        evict(source);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(source);
+                }
+            });
+        }
+    }
+
+    private synchronized void evict(URI source) {
+        generation++;
+        final SourcePositions removed = sources.remove(source);
+        if (removed != null) {
+            totalOccurrences -= removed.size();
+        }
+    }
+
+    /**
+     * Evicts the whole index.
+     */
+    @EventListener(EvictCacheEvent.class)
+    public synchronized void evictAll() {
+        generation++;
+        sources.clear();
+        totalOccurrences = 0;
+    }
+
+    /**
+     * Evicts the whole index when term occurrences are modified by another TermIt instance.
+     *
+     * @param event Data modification event
+     */
+    @EventListener
+    public void onDataModified(DataModifiedEvent event) {
+        if (TermOccurrenceDao.class.getName().equals(event.getDaoClass())) {
+            evictAll();
+        }
+    }
+
+    private static final class Position {
+        private final URI occurrence;
+        private final URI term;
+        private final int start;
+        private final int end;
+
+        private Position(URI occurrence, URI term, int start, int end) {
+            this.occurrence = occurrence;
+            this.term = term;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Positions of occurrences in a single source, sorted by start offset.
+     */
+    private static final class SourcePositions {
+        private final int[] starts;
+        private final int[] ends;
+        private final URI[] occurrences;
+        private final URI[] terms;
+
+        /**
+         * Length of the longest occurrence, bounds the backward search for occurrences overlapping a region start
+         */
+        private final int maxLength;
+
+        private SourcePositions(List<Position> positions) {
+            positions.sort(Comparator.comparingInt((Position p) -> p.start).thenComparingInt(p -> p.end));
+            final int size = positions.size();
+            this.starts = new int[size];
+            this.ends = new int[size];
+            this.occurrences = new URI[size];
+            this.terms = new URI[size];
+            int max = 0;
+            for (int i = 0; i < size; i++) {
+                final Position p = positions.get(i);
+                starts[i] = p.start;
+                ends[i] = p.end;
+                occurrences[i] = p.occurrence;
+                terms[i] = p.term;
+                max = Math.max(max, p.end - p.start);
+            }
+            this.maxLength = max;
+        }
+
+        private int size() {
+            return starts.length;
+        }
+
+        private List<URI> find(int start, int end, URI term) {
+            // An occurrence may have multiple position selectors
+            final Set<URI> result = new LinkedHashSet<>();
+            // Occurrences starting before this offset cannot reach the region
+            int i = firstStartingAtOrAfter(start - (long) maxLength);
+            for (; i < starts.length && starts[i] < end; i++) {
+                if (ends[i] > start && (term == null || term.equals(terms[i]))) {
+                    result.add(occurrences[i]);
+                }
+            }
+            return new ArrayList<>(result);
+        }
+
+        private int firstStartingAtOrAfter(long offset) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (starts[mid] < offset) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
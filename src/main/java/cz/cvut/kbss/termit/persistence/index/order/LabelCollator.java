@@ -0,0 +1,97 @@
+package cz.cvut.kbss.termit.persistence.index.order;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.text.ParseException;
+import java.text.RuleBasedCollator;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Language-aware comparison of labels based on {@link Collator} rules for a language.
+ * <p>
+ * The default rules are tailored so that spaces and hyphens are not ignored, i.e., multi-word labels are sorted word by
+ * word. Comparison is case-insensitive, differences in case are used only to break ties.
+ * <p>
+ * Instances are thread-safe.
+ */
+public class LabelCollator {
+
+    /**
+     * Makes space and hyphen primary differences sorted before digits and letters (they are ignorable by default)
+     */
+    private static final String TAILORING = "& '!' < ' ' < '-'";
+
+    private final String language;
+
+    // Collator is not thread-safe
+    private final Collator collator;
+
+    public LabelCollator(String language) {
+        this.language = Objects.requireNonNull(language);
+        this.collator = createCollator(language);
+    }
+
+    private static Collator createCollator(String language) {
+        final Collator base = Collator.getInstance(Locale.forLanguageTag(language));
+        Collator result = base;
+        if (base instanceof RuleBasedCollator) {
+            try {
+                result = new RuleBasedCollator(((RuleBasedCollator) base).getRules() + TAILORING);
+            } catch (ParseException e) {
+                // Fall back to the default rules
+                result = base;
+            }
+        }
+        result.setStrength(Collator.TERTIARY);
+        return result;
+    }
+
+    /**
+     * Gets language whose rules this collator uses.
+     *
+     * @return Language tag
+     */
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * Computes sort key for the specified label.
+     * <p>
+     * Comparing keys is considerably cheaper than comparing the labels, so keys should be computed once and reused.
+     *
+     * @param label Label to compute key for, {@code null} is treated as an empty string
+     * @return Collation key
+     */
+    public synchronized CollationKey getKey(String label) {
+        return collator.getCollationKey(label != null ? label : "");
+    }
+
+    /**
+     * Sorts the specified list by labels extracted from its elements.
+     * <p>
+     * Sort key of each label is computed only once. The sort is stable and elements without label are placed at the
+     * end.
+     *
+     * @param items          Items to sort (in place)
+     * @param labelExtractor Extracts label from an item, may return {@code null}
+     * @param <T>            Item type
+     */
+    public <T> void sort(List<T> items, Function<T, String> labelExtractor) {
+        if (items.size() < 2) {
+            return;
+        }
+        final List<Map.Entry<CollationKey, T>> keyed = new ArrayList<>(items.size());
+        for (T item : items) {
+            final String label = labelExtractor.apply(item);
+            keyed.add(new AbstractMap.SimpleImmutableEntry<>(label != null ? getKey(label) : null, item));
+        }
+        keyed.sort(Map.Entry.comparingByKey(Comparator.nullsLast(Comparator.naturalOrder())));
+        final ListIterator<T> it = items.listIterator();
+        for (Map.Entry<CollationKey, T> e : keyed) {
+            it.next();
+            it.set(e.getValue());
+        }
+    }
+}
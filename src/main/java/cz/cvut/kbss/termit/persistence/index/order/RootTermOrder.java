@@ -0,0 +1,162 @@
+package cz.cvut.kbss.termit.persistence.index.order;
+
+import java.net.URI;
+import java.text.CollationKey;
+import java.util.*;
+
+/**
+ * Root terms of a single vocabulary sorted by their label.
+ * <p>
+ * Instances are immutable.
+ */
+class RootTermOrder {
+
+    private final String language;
+
+    private final URI[] terms;
+
+    private final CollationKey[] keys;
+
+    private final Map<URI, Integer> positions;
+
+    private RootTermOrder(String language, URI[] terms, CollationKey[] keys) {
+        this.language = language;
+        this.terms = terms;
+        this.keys = keys;
+        this.positions = new HashMap<>(terms.length * 2);
+        for (int i = 0; i < terms.length; i++) {
+            positions.put(terms[i], i);
+        }
+    }
+
+    /**
+     * Creates ordering of the specified terms.
+     *
+     * @param labels   Map of term identifiers to their labels
+     * @param collator Collator to compute sort keys with
+     * @return New ordering
+     */
+    static RootTermOrder create(Map<URI, String> labels, LabelCollator collator) {
+        final List<Entry> entries = new ArrayList<>(labels.size());
+        labels.forEach((term, label) -> entries.add(new Entry(term, collator.getKey(label))));
+        entries.sort(null);
+        final URI[] terms = new URI[entries.size()];
+        final CollationKey[] keys = new CollationKey[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            terms[i] = entries.get(i).term;
+            keys[i] = entries.get(i).key;
+        }
+        return new RootTermOrder(collator.getLanguage(), terms, keys);
+    }
+
+    String getLanguage() {
+        return language;
+    }
+
+    int size() {
+        return terms.length;
+    }
+
+    /**
+     * Gets a page of terms, skipping the specified excluded ones.
+     * <p>
+     * The start of the page is found without iterating over the preceding terms.
+     *
+     * @param offset   Index of the first term on the page
+     * @param pageSize Maximum number of terms on the page
+     * @param excluded Terms to skip
+     * @return Terms on the page, in order
+     */
+    List<URI> page(long offset, int pageSize, Set<URI> excluded) {
+        final int[] excludedPositions = excluded.stream().map(positions::get).filter(Objects::nonNull)
+                                                .mapToInt(Integer::intValue).sorted().toArray();
+        long start = offset;
+        for (int p : excludedPositions) {
+            if (p > start) {
+                break;
+            }
+            start++;
+        }
+        final List<URI> result = new ArrayList<>(Math.min(pageSize, terms.length));
+        for (long i = start; i < terms.length && result.size() < pageSize; i++) {
+            if (!excluded.contains(terms[(int) i])) {
+                result.add(terms[(int) i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges the specified orderings and gets a page of the result.
+     *
+     * @param orders   Orderings to merge
+     * @param offset   Index of the first term on the page
+     * @param pageSize Maximum number of terms on the page
+     * @param excluded Terms to skip
+     * @return Terms on the page, in order
+     */
+    static List<URI> mergedPage(Collection<RootTermOrder> orders, long offset, int pageSize, Set<URI> excluded) {
+        if (orders.size() == 1) {
+            return orders.iterator().next().page(offset, pageSize, excluded);
+        }
+        final PriorityQueue<Cursor> queue = new PriorityQueue<>();
+        orders.stream().filter(o -> o.size() > 0).forEach(o -> queue.add(new Cursor(o)));
+        final List<URI> result = new ArrayList<>();
+        long skipped = 0;
+        while (!queue.isEmpty() && result.size() < pageSize) {
+            final Cursor cursor = queue.poll();
+            final URI term = cursor.term();
+            if (!excluded.contains(term)) {
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    result.add(term);
+                }
+            }
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final URI term;
+        private final CollationKey key;
+
+        private Entry(URI term, CollationKey key) {
+            this.term = term;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            final int res = key.compareTo(o.key);
+            // Identifiers make the order total for terms with the same label
+            return res != 0 ? res : term.compareTo(o.term);
+        }
+    }
+
+    private static final class Cursor implements Comparable<Cursor> {
+        private final RootTermOrder order;
+        private int position;
+
+        private Cursor(RootTermOrder order) {
+            this.order = order;
+        }
+
+        private URI term() {
+            return order.terms[position];
+        }
+
+        private boolean advance() {
+            return ++position < order.terms.length;
+        }
+
+        @Override
+        public int compareTo(Cursor o) {
+            final int res = order.keys[position].compareTo(o.order.keys[o.position]);
+            return res != 0 ? res : term().compareTo(o.term());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package cz.cvut.kbss.termit.persistence.index.order;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.snapshot.DeltaSnapshotStore;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static cz.cvut.kbss.termit.util.TransactionUtils.afterCommit;
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * Keeps root terms of vocabularies ordered by their label in the configured language.
+ * <p>
+ * Sort keys are computed once per label using language-specific collation rules (see {@link LabelCollator}), so that
+ * paged root term listings can seek directly to the requested page instead of having the repository sort the whole
+ * vocabulary on each request. Vocabularies are loaded lazily, on first access, and are evicted when their content
+ * changes. Changes made via the DAOs are propagated once the corresponding transaction commits.
+ */
+@Component
+public class TermOrderIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermOrderIndex.class);
+
+    private static final String ROOTS_QUERY = "SELECT ?term ?label WHERE { " +
+            "GRAPH ?context { " +
+            "?vocabulary <" + cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar + ">/<" + SKOS.HAS_TOP_CONCEPT + "> ?term . " +
+            "?term a <" + SKOS.CONCEPT + "> ; " +
+            "<" + SKOS.PREF_LABEL + "> ?label . " +
+            "FILTER (lang(?label) = ?labelLang) " +
+            "} }";
+
+    private final DeltaSnapshotStore deltaStore;
+
+    private final VocabularyContextMapper contextMapper;
+
+    private final Configuration.Persistence config;
+
+    private final Map<String, LabelCollator> collators = new ConcurrentHashMap<>();
+
+    private final Map<URI, RootTermOrder> roots = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every change, used to detect changes made while a vocabulary was being loaded
+     */
+    private final AtomicLong modificationCounter = new AtomicLong();
+
+    @Autowired
+    public TermOrderIndex(DeltaSnapshotStore deltaStore, VocabularyContextMapper contextMapper, Configuration config) {
+        this.deltaStore = deltaStore;
+        this.contextMapper = contextMapper;
+        this.config = config.getPersistence();
+    }
+
+    /**
+     * Gets collator for the configured language.
+     *
+     * @return Label collator
+     */
+    public LabelCollator getCollator() {
+        return collators.computeIfAbsent(config.getLanguage(), LabelCollator::new);
+    }
+
+    /**
+     * Sorts the specified list by label in the configured language.
+     * <p>
+     * Items without label in the configured language are ordered by a label in any other language.
+     *
+     * @param items          Items to sort (in place)
+     * @param labelExtractor Extracts multilingual label from an item
+     * @param <T>            Item type
+     * @return The sorted list, for convenience
+     */
+    public <T> List<T> sortByLabel(List<T> items, Function<T, MultilingualString> labelExtractor) {
+        final String language = config.getLanguage();
+        getCollator().sort(items, item -> {
+            final MultilingualString label = labelExtractor.apply(item);
+            if (label == null || label.isEmpty()) {
+                return null;
+            }
+            return label.contains(language) ? label.get(language) : label.get();
+        });
+        return items;
+    }
+
+    /**
+     * Gets identifiers of root terms from the specified vocabularies on the specified page.
+     * <p>
+     * Root terms of all the vocabularies are merged into a single sequence ordered by label.
+     *
+     * @param vocabularies Identifiers of vocabularies whose root terms to get
+     * @param pageSpec     Page specification
+     * @param excluded     Terms to skip
+     * @return Root term identifiers on the page, in order
+     */
+    public List<URI> findRoots(Collection<URI> vocabularies, Pageable pageSpec, Collection<URI> excluded) {
+        Objects.requireNonNull(vocabularies);
+        Objects.requireNonNull(pageSpec);
+        final LabelCollator collator = getCollator();
+        final List<RootTermOrder> orders = vocabularies.stream().map(v -> getRootTermOrder(v, collator))
+                                                       .collect(Collectors.toList());
+        if (orders.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return RootTermOrder.mergedPage(orders, pageSpec.getOffset(), pageSpec.getPageSize(),
+                                        excluded != null ? new HashSet<>(excluded) : Collections.emptySet());
+    }
+
+    private RootTermOrder getRootTermOrder(URI vocabulary, LabelCollator collator) {
+        final RootTermOrder existing = roots.get(vocabulary);
+        if (existing != null && existing.getLanguage().equals(collator.getLanguage())) {
+            return existing;
+        }
+        final long counter = modificationCounter.get();
+        final RootTermOrder loaded = load(vocabulary, collator);
+        synchronized (roots) {
+            // Do not cache data which may have been modified during loading, they may be stale
+            if (counter == modificationCounter.get()) {
+                roots.put(vocabulary, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private RootTermOrder load(URI vocabulary, LabelCollator collator) {
+        LOG.trace("Loading root terms of vocabulary {}.", uriToString(vocabulary));
+        final Map<URI, String> labels = new HashMap<>();
+        final URI context = contextMapper.getVocabularyContext(vocabulary);
+        return deltaStore.query(Collections.singleton(context), con -> {
+            final ValueFactory vf = con.getValueFactory();
+            final TupleQuery query = con.prepareTupleQuery(ROOTS_QUERY);
+            query.setBinding("context", vf.createIRI(context.toString()));
+            query.setBinding("vocabulary", vf.createIRI(vocabulary.toString()));
+            query.setBinding("labelLang", vf.createLiteral(collator.getLanguage()));
+            try (final TupleQueryResult rs = query.evaluate()) {
+                while (rs.hasNext()) {
+                    final BindingSet bs = rs.next();
+                    // If there are multiple labels in the language, use the one sorting first
+                    labels.merge(URI.create(bs.getValue("term").stringValue()), bs.getValue("label").stringValue(),
+                                 (a, b) -> collator.getKey(a).compareTo(collator.getKey(b)) <= 0 ? a : b);
+                }
+            }
+            return RootTermOrder.create(labels, collator);
+        });
+    }
+
+    /**
+     * Marks root terms of the specified vocabulary as changed.
+     * <p>
+     * If there is an active transaction, the vocabulary is evicted after it successfully commits.
+     *
+     * @param vocabulary Vocabulary identifier, {@code null} if unknown
+     */
+    public void vocabularyChanged(URI vocabulary) {
+        afterCommit(() -> {
+            if (vocabulary != null) {
+                evict(vocabulary);
+            } else {
+                evictAll();
+            }
+        });
+    }
+
+    private void evict(URI vocabulary) {
+        synchronized (roots) {
+            modificationCounter.incrementAndGet();
+            roots.remove(vocabulary);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyContentModified(VocabularyContentModified event) {
+        if (event.getVocabularyIri() != null) {
+            evict(event.getVocabularyIri());
+        } else {
+            evictAll();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModified event) {
+        if (event.getVocabularyIri() != null) {
+            evict(event.getVocabularyIri());
+        } else {
+            evictAll();
+        }
+    }
+
+    @EventListener(EvictCacheEvent.class)
+    public void evictAll() {
+        synchronized (roots) {
+            modificationCounter.incrementAndGet();
+            roots.clear();
+        }
+    }
+}
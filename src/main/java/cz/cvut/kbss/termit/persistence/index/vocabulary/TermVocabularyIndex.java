@@ -0,0 +1,231 @@
+package cz.cvut.kbss.termit.persistence.index.vocabulary;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static cz.cvut.kbss.termit.util.TransactionUtils.afterCommit;
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * In-memory index of vocabularies terms belong to.
+ * <p>
+ * Allows resolving the vocabulary of a term (and thus the repository context in which the term is stored) without
+ * querying the repository. The index is populated on application startup by a single scan of the term-in-vocabulary
+ * statements. Terms persisted and removed via the DAO are applied incrementally once the corresponding transaction
+ * commits, vocabularies are rescanned when they are created or modified (e.g., imported or removed).
+ * <p>
+ * The index need not be complete, since the repository may be modified without going through this instance (e.g., by
+ * SPARQL updates or by other cluster nodes). Callers are thus expected to fall back to querying the repository when
+ * a term is not found in the index and register the result via {@link #put(URI, URI, long)}.
+ * <p>
+ * Vocabulary identifiers are interned, so that the index holds only one instance of each of them.
+ */
+@Component
+public class TermVocabularyIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermVocabularyIndex.class);
+
+    private static final String TERMS_QUERY = "SELECT ?term ?vocabulary WHERE { " +
+            "?term <" + cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku + "> ?vocabulary . }";
+
+    private final EntityManager em;
+
+    private final Map<URI, URI> termVocabularies = new ConcurrentHashMap<>();
+
+    /**
+     * Interned vocabulary identifiers
+     */
+    private final Map<URI, URI> vocabularies = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every change, used to detect changes made while a query fallback result was being loaded
+     */
+    private final AtomicLong modificationCounter = new AtomicLong();
+
+    @Autowired
+    public TermVocabularyIndex(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Gets identifier of the vocabulary the specified term belongs to.
+     *
+     * @param term Term identifier
+     * @return Vocabulary identifier, empty if the term is not known to the index
+     */
+    public Optional<URI> find(URI term) {
+        Objects.requireNonNull(term);
+        return Optional.ofNullable(termVocabularies.get(term));
+    }
+
+    /**
+     * Gets the current modification count of the index.
+     * <p>
+     * Callers resolving a term missing in the index by a query should read it before the query and pass it to {@link
+     * #put(URI, URI, long)}, so that results possibly made stale by concurrent changes are not stored.
+     *
+     * @return Modification count
+     */
+    public long getModificationCount() {
+        return modificationCounter.get();
+    }
+
+    /**
+     * Stores the vocabulary of the specified term resolved by the caller, unless the index has been modified since
+     * the specified modification count was read.
+     *
+     * @param term              Term identifier
+     * @param vocabulary        Identifier of the vocabulary the term belongs to
+     * @param modificationCount Modification count read before the vocabulary was resolved
+     * @see #getModificationCount()
+     */
+    public void put(URI term, URI vocabulary, long modificationCount) {
+        Objects.requireNonNull(term);
+        Objects.requireNonNull(vocabulary);
+        if (modificationCount == modificationCounter.get()) {
+            termVocabularies.putIfAbsent(term, intern(vocabulary));
+        }
+    }
+
+    private void put(URI term, URI vocabulary) {
+        termVocabularies.put(term, intern(vocabulary));
+    }
+
+    private URI intern(URI vocabulary) {
+        return vocabularies.computeIfAbsent(vocabulary, k -> k);
+    }
+
+    /**
+     * Registers a newly persisted term.
+     * <p>
+     * If there is an active transaction, the term is added after it successfully commits.
+     *
+     * @param term       Term identifier
+     * @param vocabulary Identifier of the vocabulary the term was persisted into
+     */
+    public void termPersisted(URI term, URI vocabulary) {
+        Objects.requireNonNull(term);
+        Objects.requireNonNull(vocabulary);
+        afterCommit(() -> {
+            modificationCounter.incrementAndGet();
+            put(term, vocabulary);
+        });
+    }
+
+    /**
+     * Removes the specified term from the index.
+     * <p>
+     * If there is an active transaction, the term is removed after it successfully commits.
+     *
+     * @param term Identifier of the removed term
+     */
+    public void termRemoved(URI term) {
+        Objects.requireNonNull(term);
+        afterCommit(() -> {
+            modificationCounter.incrementAndGet();
+            termVocabularies.remove(term);
+        });
+    }
+
+    /**
+     * Populates the index by scanning all terms in the repository.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LOG.debug("Loading term vocabulary index.");
+        modificationCounter.incrementAndGet();
+        termVocabularies.clear();
+        vocabularies.clear();
+        scan(null);
+        LOG.debug("Term vocabulary index loaded, it contains {} terms from {} vocabularies.", termVocabularies.size(),
+                  vocabularies.size());
+    }
+
+    /**
+     * Rescans terms of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    void reload(URI vocabulary) {
+        LOG.trace("Reloading terms of vocabulary {} in term vocabulary index.", uriToString(vocabulary));
+        modificationCounter.incrementAndGet();
+        termVocabularies.values().removeIf(vocabulary::equals);
+        scan(vocabulary);
+    }
+
+    private void scan(URI vocabulary) {
+        final Repository repository = em.unwrap(Repository.class);
+        try (final RepositoryConnection con = repository.getConnection()) {
+            final TupleQuery query = con.prepareTupleQuery(TERMS_QUERY);
+            if (vocabulary != null) {
+                query.setBinding("vocabulary", con.getValueFactory().createIRI(vocabulary.toString()));
+            }
+            try (final TupleQueryResult rs = query.evaluate()) {
+                while (rs.hasNext()) {
+                    final BindingSet bs = rs.next();
+                    final Value term = bs.getValue("term");
+                    final Value voc = bs.getValue("vocabulary");
+                    if (term instanceof IRI && voc instanceof IRI) {
+                        put(URI.create(term.stringValue()), URI.create(voc.stringValue()));
+                    }
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModified event) {
+        if (event.getVocabularyIri() == null) {
+            load();
+        } else {
+            reload(event.getVocabularyIri());
+        }
+    }
+
+    // Terms persisted or removed locally are registered incrementally, those changed by other instances are not
+    @EventListener(condition = "@invalidationBus.replaying")
+    public void onReplayedContentModified(VocabularyContentModified event) {
+        if (event.getVocabularyIri() == null) {
+            load();
+        } else {
+            reload(event.getVocabularyIri());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyCreated(VocabularyCreatedEvent event) {
+        if (event.getSource() instanceof Vocabulary) {
+            reload(((Vocabulary) event.getSource()).getUri());
+        }
+    }
+
+    @EventListener(EvictCacheEvent.class)
+    public void onEvictCache() {
+        load();
+    }
+}
@@ -0,0 +1,192 @@
+package cz.cvut.kbss.termit.persistence.index.vocabulary;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cz.cvut.kbss.termit.util.TransactionUtils.afterCommit;
+
+/**
+ * In-memory graph of vocabulary imports.
+ * <p>
+ * Provides import closures and reverse dependencies (importing vocabularies) without querying the repository. The
+ * graph is loaded lazily and reloaded after a vocabulary is created or modified, including modifications made by other
+ * TermIt instances, which are replayed by the {@link cz.cvut.kbss.termit.persistence.invalidation.InvalidationBus}.
+ * Changes made directly in the repository (bypassing TermIt) become visible after cache eviction.
+ * <p>
+ * Transitive closures are computed on first access and cached until the graph is reloaded.
+ */
+@Component
+public class VocabularyImportGraph {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VocabularyImportGraph.class);
+
+    private final EntityManager em;
+
+    private volatile Graph graph;
+
+    @Autowired
+    public VocabularyImportGraph(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Gets identifiers of vocabularies directly imported by the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Set of imported vocabulary identifiers, empty if there are none
+     */
+    public Set<URI> getImports(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return Collections.unmodifiableSet(resolve(getGraph(), vocabulary).imports);
+    }
+
+    /**
+     * Gets identifiers of all vocabularies imported by the specified vocabulary, including transitively imported ones.
+     * <p>
+     * The specified vocabulary is part of the result only if it imports itself via an import cycle.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Set of (transitively) imported vocabulary identifiers
+     */
+    public Set<URI> getTransitiveImports(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final Graph g = getGraph();
+        final Set<URI> cached = g.closures.get(vocabulary);
+        if (cached != null) {
+            return cached;
+        }
+        final Set<URI> closure = new LinkedHashSet<>();
+        final Deque<URI> toProcess = new ArrayDeque<>(resolve(g, vocabulary).imports);
+        while (!toProcess.isEmpty()) {
+            final URI current = toProcess.pop();
+            if (closure.add(current)) {
+                toProcess.addAll(resolve(g, current).imports);
+            }
+        }
+        final Set<URI> result = Collections.unmodifiableSet(closure);
+        g.closures.put(vocabulary, result);
+        return result;
+    }
+
+    /**
+     * Gets identifiers of vocabularies which directly import the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Set of importing vocabulary identifiers, empty if there are none
+     */
+    public Set<URI> getImportingVocabularies(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return Collections.unmodifiableSet(getGraph().importedBy.getOrDefault(vocabulary, Collections.emptySet()));
+    }
+
+    /**
+     * Gets identifiers of all vocabularies which import the specified vocabulary, including those importing it
+     * transitively.
+     * <p>
+     * The specified vocabulary is part of the result only if it imports itself via an import cycle.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Set of (transitively) importing vocabulary identifiers
+     */
+    public Set<URI> getTransitivelyImportingVocabularies(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final Graph g = getGraph();
+        final Set<URI> result = new LinkedHashSet<>();
+        final Deque<URI> toProcess = new ArrayDeque<>(g.importedBy.getOrDefault(vocabulary, Collections.emptySet()));
+        while (!toProcess.isEmpty()) {
+            final URI current = toProcess.pop();
+            if (result.add(current)) {
+                toProcess.addAll(g.importedBy.getOrDefault(current, Collections.emptySet()));
+            }
+        }
+        return result;
+    }
+
+    private Graph getGraph() {
+        final Graph current = graph;
+        if (current != null) {
+            return current;
+        }
+        // Loading while holding the lock ensures that an eviction during loading is applied after the load
+        synchronized (this) {
+            if (graph == null) {
+                this.graph = load();
+            }
+            return graph;
+        }
+    }
+
+    private Graph load() {
+        LOG.trace("Loading vocabulary import graph.");
+        final Graph result = new Graph();
+        em.createNativeQuery("SELECT DISTINCT ?v ?imported WHERE { ?v ?imports ?imported . }")
+          .setParameter("imports", URI.create(Vocabulary.s_p_importuje_slovnik))
+          .getResultStream().forEach(row -> {
+              assert row instanceof Object[];
+              assert ((Object[]) row).length == 2;
+              final Object[] bindingSet = (Object[]) row;
+              final URI vocabulary = (URI) bindingSet[0];
+              final URI imported = (URI) bindingSet[1];
+              result.nodes.computeIfAbsent(vocabulary, k -> new Node()).imports.add(imported);
+              result.importedBy.computeIfAbsent(imported, k -> ConcurrentHashMap.newKeySet()).add(vocabulary);
+          });
+        return result;
+    }
+
+    /**
+     * Gets node representing the specified vocabulary.
+     * <p>
+     * The graph contains all import statements, so a vocabulary which is not in the graph imports nothing. Creating a
+     * vocabulary reloads the graph.
+     */
+    private static Node resolve(Graph g, URI vocabulary) {
+        return g.nodes.getOrDefault(vocabulary, Node.EMPTY);
+    }
+
+    /**
+     * Marks the import graph as changed.
+     * <p>
+     * If there is an active transaction, the graph is discarded after it successfully commits. It will be reloaded on
+     * next access.
+     */
+    public void vocabularyChanged() {
+        afterCommit(this::evictAll);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModified event) {
+        evictAll();
+    }
+
+    @EventListener(value = {VocabularyCreatedEvent.class, EvictCacheEvent.class})
+    public void evictAll() {
+        synchronized (this) {
+            this.graph = null;
+        }
+    }
+
+    private static final class Graph {
+        private final Map<URI, Node> nodes = new ConcurrentHashMap<>();
+        private final Map<URI, Set<URI>> importedBy = new ConcurrentHashMap<>();
+        private final Map<URI, Set<URI>> closures = new ConcurrentHashMap<>();
+    }
+
+    private static final class Node {
+        private static final Node EMPTY = new Node();
+
+        private final Set<URI> imports = ConcurrentHashMap.newKeySet();
+    }
+}
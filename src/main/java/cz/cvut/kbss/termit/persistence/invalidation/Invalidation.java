@@ -0,0 +1,53 @@
+package cz.cvut.kbss.termit.persistence.invalidation;
+
+import java.util.Objects;
+
+/**
+ * Cache invalidation, consisting of its type and an optional key identifying the invalidated data.
+ */
+public class Invalidation {
+
+    private final InvalidationType type;
+
+    private final String key;
+
+    public Invalidation(InvalidationType type, String key) {
+        this.type = Objects.requireNonNull(type);
+        this.key = key;
+    }
+
+    public InvalidationType getType() {
+        return type;
+    }
+
+    /**
+     * Gets key identifying the invalidated data.
+     *
+     * @return Invalidation key, {@code null} if the invalidation is not restricted to particular data
+     */
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Invalidation)) {
+            return false;
+        }
+        final Invalidation that = (Invalidation) o;
+        return type == that.type && Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, key);
+    }
+
+    @Override
+    public String toString() {
+        return key != null ? type + "<" + key + ">" : type.toString();
+    }
+}
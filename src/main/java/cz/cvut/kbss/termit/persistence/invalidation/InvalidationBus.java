@@ -0,0 +1,326 @@
+package cz.cvut.kbss.termit.persistence.invalidation;
+
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.termit.event.DataModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.UserAccountModified;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Propagates cache invalidations among TermIt instances sharing the repository.
+ * <p>
+ * Invalidations caused by local modifications (and by explicit cache eviction) are recorded in the {@link
+ * InvalidationLog} as part of the modifying transaction. Each instance periodically polls the log for invalidations
+ * recorded by other instances and replays them into its local caches by publishing the corresponding application
+ * events. The second level cache of the persistence provider and the cached vocabulary list are evicted after each
+ * replay, because they may contain data affected by any modification.
+ * <p>
+ * Each poll looks back the configured overlap before the previous poll, so that invalidations whose transaction
+ * committed after the previous poll are not missed. Staleness of local caches is thus bounded by the poll interval
+ * plus the duration of the modifying transaction. If an instance is unable to poll for longer than the overlap, it
+ * evicts all its caches once polling succeeds again.
+ * <p>
+ * Propagation is enabled by {@code termit.cluster.enabled}.
+ */
+@Component
+@ManagedResource(objectName = "bean:name=TermItInvalidationBus",
+                 description = "Propagation of cache invalidations among TermIt instances.")
+public class InvalidationBus {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private static final String VOCABULARIES_CACHE = "vocabularies";
+
+    private final InvalidationLog log;
+
+    private final Configuration.Cluster config;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EntityManagerFactory emf;
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    /**
+     * Identifier of this instance, used to skip invalidations recorded by it
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ThreadLocal<Boolean> replaying = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * Records replayed in the current overlap window, mapped to their record time
+     */
+    private final Map<URI, Long> replayed = new ConcurrentHashMap<>();
+
+    private volatile long watermark = System.currentTimeMillis();
+
+    private volatile long lastPrune = System.currentTimeMillis();
+
+    private final AtomicLong replayedCount = new AtomicLong();
+
+    private final AtomicLong pollFailureCount = new AtomicLong();
+
+    private volatile long lastLag;
+
+    private volatile long maxLag;
+
+    @Autowired
+    public InvalidationBus(InvalidationLog log, Configuration config, ApplicationEventPublisher eventPublisher,
+                           EntityManagerFactory emf, ObjectProvider<CacheManager> cacheManager) {
+        this.log = log;
+        this.config = config.getCluster();
+        this.eventPublisher = eventPublisher;
+        this.emf = emf;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Whether invalidations recorded by another instance are being replayed by the current thread.
+     * <p>
+     * Listeners persisting data in reaction to modification events should ignore replayed events, because the data
+     * have already been persisted by the instance where the modification happened.
+     *
+     * @return {@code true} when replaying invalidations, {@code false} otherwise
+     */
+    public boolean isReplaying() {
+        return replaying.get();
+    }
+
+    /**
+     * Records the specified invalidation so that it can be replayed by other instances.
+     * <p>
+     * If there is an active transaction, the invalidation is recorded right before the transaction commits, together
+     * with other invalidations made by it.
+     *
+     * @param type Invalidation type
+     * @param key  Invalidation key, optional
+     */
+    public void record(InvalidationType type, String key) {
+        if (!config.isEnabled() || isReplaying()) {
+            return;
+        }
+        final Invalidation invalidation = new Invalidation(type, key);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.record(Collections.singleton(invalidation), instanceId);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Invalidation> pending = (Set<Invalidation>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            final Set<Invalidation> toRecord = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, toRecord);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationBus.this);
+                    log.record(toRecord, instanceId);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationBus.this);
+                }
+            });
+            pending = toRecord;
+        }
+        pending.add(invalidation);
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        record(InvalidationType.ALL, null);
+    }
+
+    @EventListener
+    public void onVocabularyCreated(VocabularyCreatedEvent event) {
+        record(InvalidationType.VOCABULARY_CREATED, event.getSource() instanceof HasIdentifier ?
+                                                    toKey(((HasIdentifier) event.getSource()).getUri()) : null);
+    }
+
+    @EventListener
+    public void onVocabularyModified(VocabularyModified event) {
+        record(InvalidationType.VOCABULARY, toKey(event.getVocabularyIri()));
+    }
+
+    @EventListener
+    public void onVocabularyContentModified(VocabularyContentModified event) {
+        record(InvalidationType.VOCABULARY_CONTENT, toKey(event.getVocabularyIri()));
+    }
+
+    @EventListener
+    public void onUserAccountModified(UserAccountModified event) {
+        record(InvalidationType.USER_ACCOUNT, toKey(event.getUserUri()));
+    }
+
+    private static String toKey(URI uri) {
+        return uri != null ? uri.toString() : null;
+    }
+
+    /**
+     * Replays invalidations recorded by other instances since the previous poll.
+     */
+    @Scheduled(fixedDelayString = "${termit.cluster.poll-interval:2000}")
+    public void poll() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        final long pollStart = System.currentTimeMillis();
+        final long since = watermark - config.getOverlap();
+        final List<InvalidationRecord> records;
+        try {
+            records = log.findSince(since);
+        } catch (RuntimeException e) {
+            pollFailureCount.incrementAndGet();
+            LOG.error("Unable to read invalidation log.", e);
+            return;
+        }
+        final boolean missedInvalidations = pollStart - watermark > config.getOverlap();
+        final List<InvalidationRecord> toReplay = new ArrayList<>();
+        for (InvalidationRecord r : records) {
+            if (!instanceId.equals(r.getOrigin()) && replayed.putIfAbsent(r.getUri(), r.getTime()) == null) {
+                toReplay.add(r);
+            }
+        }
+        if (missedInvalidations) {
+            LOG.warn("Invalidation log was not polled for {} ms, invalidations may have been missed. " +
+                             "Evicting all caches.", pollStart - watermark);
+            toReplay.add(0, new InvalidationRecord(URI.create("urn:termit:invalidation:missed"),
+                                                   new Invalidation(InvalidationType.ALL, null), instanceId,
+                                                   pollStart));
+        }
+        if (!toReplay.isEmpty()) {
+            replay(toReplay, pollStart);
+        }
+        final long nextSince = pollStart - config.getOverlap();
+        replayed.values().removeIf(time -> time <= nextSince);
+        this.watermark = pollStart;
+        if (pollStart - lastPrune >= config.getRetention()) {
+            prune(pollStart);
+        }
+    }
+
+    private void replay(List<InvalidationRecord> records, long now) {
+        replaying.set(Boolean.TRUE);
+        try {
+            for (InvalidationRecord r : records) {
+                LOG.trace("Replaying {}.", r);
+                dispatch(r.getInvalidation());
+                updateLag(Math.max(0, now - r.getTime()));
+            }
+            emf.getCache().evictAll();
+            final CacheManager cm = cacheManager.getIfAvailable();
+            final Cache vocabularies = cm != null ? cm.getCache(VOCABULARIES_CACHE) : null;
+            if (vocabularies != null) {
+                vocabularies.clear();
+            }
+        } finally {
+            replaying.remove();
+        }
+    }
+
+    private void dispatch(Invalidation invalidation) {
+        final URI key = invalidation.getKey() != null ? URI.create(invalidation.getKey()) : null;
+        switch (invalidation.getType()) {
+            case ALL:
+                eventPublisher.publishEvent(new EvictCacheEvent(this));
+                break;
+            case VOCABULARY_CREATED:
+                eventPublisher.publishEvent(new VocabularyCreatedEvent(key != null ? new Vocabulary(key) : this));
+                break;
+            case VOCABULARY:
+                eventPublisher.publishEvent(new VocabularyModified(this, key));
+                break;
+            case VOCABULARY_CONTENT:
+                eventPublisher.publishEvent(new VocabularyContentModified(this, key));
+                break;
+            case USER_ACCOUNT:
+                if (key != null) {
+                    eventPublisher.publishEvent(new UserAccountModified(this, key));
+                }
+                break;
+            case DATA:
+                // The second level cache is evicted after each replay, the event is for DAO-maintained indexes
+                if (invalidation.getKey() != null) {
+                    eventPublisher.publishEvent(new DataModifiedEvent(this, invalidation.getKey()));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void updateLag(long lag) {
+        replayedCount.incrementAndGet();
+        this.lastLag = lag;
+        if (lag > maxLag) {
+            this.maxLag = lag;
+        }
+        if (lag > config.getOverlap()) {
+            LOG.warn("Invalidation replayed {} ms after it was recorded, which exceeds the configured overlap.", lag);
+        }
+    }
+
+    private void prune(long now) {
+        try {
+            log.removeBefore(now - config.getRetention());
+            this.lastPrune = now;
+        } catch (RuntimeException e) {
+            LOG.error("Unable to prune invalidation log.", e);
+        }
+    }
+
+    @ManagedAttribute(description = "Identifier of this instance in the invalidation log.")
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @ManagedAttribute(description = "Number of invalidations replayed from other instances.")
+    public long getReplayedCount() {
+        return replayedCount.get();
+    }
+
+    @ManagedAttribute(description = "Number of failed attempts to read the invalidation log.")
+    public long getPollFailureCount() {
+        return pollFailureCount.get();
+    }
+
+    @ManagedAttribute(description = "Time (ms) between recording and replaying of the last replayed invalidation.")
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    @ManagedAttribute(description = "Maximum time (ms) between recording and replaying of an invalidation.")
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    @ManagedAttribute(description = "Time (ms) since the invalidation log was last successfully polled.")
+    public long getTimeSinceLastPoll() {
+        return System.currentTimeMillis() - watermark;
+    }
+}
@@ -0,0 +1,164 @@
+package cz.cvut.kbss.termit.persistence.invalidation;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Log of cache invalidations stored in a dedicated repository context.
+ * <p>
+ * The log is shared by all TermIt instances using the repository, which allows them to replay invalidations made by
+ * other instances.
+ */
+@Component
+public class InvalidationLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InvalidationLog.class);
+
+    private final EntityManager em;
+
+    private final PlatformTransactionManager txManager;
+
+    private final URI context;
+
+    @Autowired
+    public InvalidationLog(EntityManager em, PlatformTransactionManager txManager, Configuration config) {
+        this.em = em;
+        this.txManager = txManager;
+        this.context = URI.create(config.getCluster().getInvalidationContext());
+    }
+
+    /**
+     * Records the specified invalidations.
+     * <p>
+     * The invalidations are written in the current transaction, if there is one. Otherwise, a new transaction is
+     * used.
+     *
+     * @param invalidations Invalidations to record
+     * @param origin        Identifier of the TermIt instance recording the invalidations
+     */
+    public void record(Collection<Invalidation> invalidations, String origin) {
+        Objects.requireNonNull(invalidations);
+        Objects.requireNonNull(origin);
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        final long time = System.currentTimeMillis();
+        new TransactionTemplate(txManager).executeWithoutResult(status -> invalidations.forEach(inv -> {
+            try {
+                final Query q = em.createNativeQuery("INSERT { GRAPH ?g { " +
+                                                             "?record a ?recordType ; " +
+                                                             "?hasType ?type ; " +
+                                                             "?hasOrigin ?origin ; " +
+                                                             (inv.getKey() != null ? "?hasKey ?key ; " : "") +
+                                                             "?hasTime ?time . " +
+                                                             "} } WHERE {}")
+                                  .setParameter("g", context)
+                                  .setParameter("record", URI.create(context + "/" + UUID.randomUUID()))
+                                  .setParameter("recordType", URI.create(Vocabulary.s_c_zaznam_o_zneplatneni))
+                                  .setParameter("hasType", URI.create(Vocabulary.s_p_ma_typ_zneplatneni))
+                                  .setParameter("type", inv.getType().name())
+                                  .setParameter("hasOrigin", URI.create(Vocabulary.s_p_ma_puvodce_zneplatneni))
+                                  .setParameter("origin", origin)
+                                  .setParameter("hasTime", URI.create(Vocabulary.s_p_ma_cas_zneplatneni))
+                                  .setParameter("time", time);
+                if (inv.getKey() != null) {
+                    q.setParameter("hasKey", URI.create(Vocabulary.s_p_ma_klic_zneplatneni))
+                     .setParameter("key", inv.getKey());
+                }
+                q.executeUpdate();
+            } catch (RuntimeException e) {
+                throw new PersistenceException(e);
+            }
+        }));
+    }
+
+    /**
+     * Finds invalidations recorded after the specified time.
+     *
+     * @param since Time (in milliseconds since the epoch)
+     * @return List of invalidation records ordered by the time they were recorded
+     */
+    public List<InvalidationRecord> findSince(long since) {
+        final List<InvalidationRecord> result = new ArrayList<>();
+        try {
+            em.createNativeQuery("SELECT ?record ?type ?key ?origin (STR(?time) AS ?t) WHERE { " +
+                                         "GRAPH ?g { " +
+                                         "?record a ?recordType ; " +
+                                         "?hasType ?type ; " +
+                                         "?hasOrigin ?origin ; " +
+                                         "?hasTime ?time . " +
+                                         "OPTIONAL { ?record ?hasKey ?key . } " +
+                                         "} " +
+                                         "FILTER (?time > ?since) " +
+                                         "} ORDER BY ?time")
+              .setParameter("g", context)
+              .setParameter("recordType", URI.create(Vocabulary.s_c_zaznam_o_zneplatneni))
+              .setParameter("hasType", URI.create(Vocabulary.s_p_ma_typ_zneplatneni))
+              .setParameter("hasOrigin", URI.create(Vocabulary.s_p_ma_puvodce_zneplatneni))
+              .setParameter("hasTime", URI.create(Vocabulary.s_p_ma_cas_zneplatneni))
+              .setParameter("hasKey", URI.create(Vocabulary.s_p_ma_klic_zneplatneni))
+              .setParameter("since", since)
+              .getResultStream().forEach(row -> {
+                  assert row instanceof Object[];
+                  final Object[] bindingSet = (Object[]) row;
+                  final InvalidationType type;
+                  try {
+                      type = InvalidationType.valueOf(bindingSet[1].toString());
+                  } catch (IllegalArgumentException e) {
+                      // E.g., recorded by a newer version of TermIt
+                      LOG.warn("Skipping invalidation record {} of unknown type {}.", bindingSet[0], bindingSet[1]);
+                      return;
+                  }
+                  final String key = bindingSet[2] != null ? bindingSet[2].toString() : null;
+                  result.add(new InvalidationRecord((URI) bindingSet[0], new Invalidation(type, key),
+                                                    bindingSet[3].toString(),
+                                                    Long.parseLong(bindingSet[4].toString())));
+              });
+            return result;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Removes invalidations recorded before the specified time.
+     *
+     * @param before Time (in milliseconds since the epoch)
+     */
+    public void removeBefore(long before) {
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            try {
+                em.createNativeQuery("DELETE { GRAPH ?g { ?record ?p ?o . } } WHERE { " +
+                                             "GRAPH ?g { " +
+                                             "?record a ?recordType ; " +
+                                             "?hasTime ?time ; " +
+                                             "?p ?o . " +
+                                             "} " +
+                                             "FILTER (?time < ?before) " +
+                                             "}")
+                  .setParameter("g", context)
+                  .setParameter("recordType", URI.create(Vocabulary.s_c_zaznam_o_zneplatneni))
+                  .setParameter("hasTime", URI.create(Vocabulary.s_p_ma_cas_zneplatneni))
+                  .setParameter("before", before).executeUpdate();
+            } catch (RuntimeException e) {
+                throw new PersistenceException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package cz.cvut.kbss.termit.persistence.invalidation;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * Invalidation stored in the invalidation log.
+ */
+public class InvalidationRecord {
+
+    private final URI uri;
+
+    private final Invalidation invalidation;
+
+    private final String origin;
+
+    private final long time;
+
+    public InvalidationRecord(URI uri, Invalidation invalidation, String origin, long time) {
+        this.uri = Objects.requireNonNull(uri);
+        this.invalidation = Objects.requireNonNull(invalidation);
+        this.origin = origin;
+        this.time = time;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public Invalidation getInvalidation() {
+        return invalidation;
+    }
+
+    /**
+     * Gets identifier of the TermIt instance which recorded the invalidation.
+     *
+     * @return Instance identifier
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Gets time (in milliseconds since the epoch) when the invalidation was recorded.
+     *
+     * @return Record time
+     */
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return "InvalidationRecord{" + invalidation + ", origin=" + origin + ", time=" + time + '}';
+    }
+}
@@ -0,0 +1,33 @@
+package cz.cvut.kbss.termit.persistence.invalidation;
+
+/**
+ * Types of cache invalidations propagated among TermIt instances.
+ */
+public enum InvalidationType {
+    /**
+     * All caches should be evicted.
+     */
+    ALL,
+    /**
+     * A vocabulary was created. Key is the vocabulary identifier.
+     */
+    VOCABULARY_CREATED,
+    /**
+     * A vocabulary (e.g., its imports) was modified. Key is the vocabulary identifier, if known.
+     */
+    VOCABULARY,
+    /**
+     * Content of a vocabulary (its terms) was modified. Key is the vocabulary identifier, if known.
+     */
+    VOCABULARY_CONTENT,
+    /**
+     * A user account was modified. Key is the user account identifier.
+     */
+    USER_ACCOUNT,
+    /**
+     * Data managed by a DAO were modified. Key is the name of the DAO class.
+     * <p>
+     * Affects the second level cache of the persistence provider.
+     */
+    DATA
+}
@@ -19,16 +19,25 @@ import java.util.Optional;
  */
 public class AssetSnapshotLoader<T extends Asset<?>> {
 
+    /**
+     * Excludes snapshots ({@code ?s}) stored in contexts which are still being written, see {@link
+     * #incompleteSnapshotFilter(String)}
+     */
+    private static final String COMPLETE_FILTER = incompleteSnapshotFilter("?s");
+
     private final EntityManager em;
 
     private final URI assetType;
 
     private final URI snapshotType;
 
-    public AssetSnapshotLoader(EntityManager em, URI assetType, URI snapshotType) {
+    private final DeltaSnapshotStore deltaStore;
+
+    public AssetSnapshotLoader(EntityManager em, URI assetType, URI snapshotType, DeltaSnapshotStore deltaStore) {
         this.em = em;
         this.assetType = assetType;
         this.snapshotType = snapshotType;
+        this.deltaStore = deltaStore;
     }
 
     public List<Snapshot> findSnapshots(T asset) {
@@ -40,6 +49,7 @@ public class AssetSnapshotLoader<T extends Asset<?>> {
                                                 "?versionOf ?source . " +
                                                 "BIND (?source as ?asset) . " +
                                                 "BIND (?snapshotType as ?type) . " +
+                                                COMPLETE_FILTER +
                                                 "} ORDER BY DESC(?created)",
                                         "Snapshot")
                      .setParameter("snapshotType", snapshotType)
@@ -56,14 +66,52 @@ public class AssetSnapshotLoader<T extends Asset<?>> {
         Objects.requireNonNull(asset);
         Objects.requireNonNull(at);
         try {
-            return Optional.of(em.createNativeQuery("SELECT ?s WHERE { " +
+            final Class<T> assetClass = (Class<T>) asset.getClass();
+            if (deltaStore.hasDeltaSnapshots()) {
+                final Optional<URI> context = findVersionContextValidAt(asset, at);
+                if (context.isPresent() && deltaStore.isDeltaSnapshot(context.get())) {
+                    final URI version = findVersionValidAt(asset, at, URI.class);
+                    return Optional.ofNullable(
+                            deltaStore.read(context.get(), snapshotEm -> snapshotEm.find(assetClass, version)));
+                }
+            }
+            return Optional.of(findVersionValidAt(asset, at, assetClass));
+        } catch (NoResultException e) {
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private <R> R findVersionValidAt(T asset, Instant at, Class<R> resultClass) {
+        return em.createNativeQuery("SELECT ?s WHERE { " +
+                                            "?s a ?type ; " +
+                                            "a ?snapshotType ; " +
+                                            "?versionOf ?asset ; " +
+                                            "?hasCreated ?created . " +
+                                            "FILTER (?created <= ?at) " +
+                                            COMPLETE_FILTER +
+                                            "} ORDER BY DESC(?created) LIMIT 1", resultClass)
+                 .setParameter("type", assetType)
+                 .setParameter("snapshotType", snapshotType)
+                 .setParameter("hasCreated",
+                               URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_datum_a_cas_vytvoreni_verze))
+                 .setParameter("versionOf", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_verzi))
+                 .setParameter("at", at)
+                 .setParameter("asset", asset).getSingleResult();
+    }
+
+    private Optional<URI> findVersionContextValidAt(T asset, Instant at) {
+        try {
+            return Optional.of(em.createNativeQuery("SELECT ?g WHERE { " +
                                                             "?s a ?type ; " +
                                                             "a ?snapshotType ; " +
                                                             "?versionOf ?asset ; " +
                                                             "?hasCreated ?created . " +
                                                             "FILTER (?created <= ?at) " +
-                                                            "} ORDER BY DESC(?created) LIMIT 1",
-                                                    (Class<T>) asset.getClass())
+                                                            "GRAPH ?g { ?s a ?snapshotType . } " +
+                                                            COMPLETE_FILTER +
+                                                            "} ORDER BY DESC(?created) LIMIT 1", URI.class)
                                  .setParameter("type", assetType)
                                  .setParameter("snapshotType", snapshotType)
                                  .setParameter("hasCreated",
@@ -75,8 +123,41 @@ public class AssetSnapshotLoader<T extends Asset<?>> {
                                  .setParameter("asset", asset).getSingleResult());
         } catch (NoResultException e) {
             return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks whether the specified snapshot context has been completely written.
+     * <p>
+     * Contexts are marked as incomplete while a snapshot job writes them. Data read from an incomplete context may
+     * still change (or be removed), so they must not be cached.
+     *
+     * @param snapshotContext Snapshot context identifier
+     * @return {@code false} if the context is marked as incomplete, {@code true} otherwise
+     */
+    public boolean isComplete(URI snapshotContext) {
+        Objects.requireNonNull(snapshotContext);
+        try {
+            return !em.createNativeQuery("ASK { GRAPH ?context { ?context a ?incomplete . } }", Boolean.class)
+                      .setParameter("context", snapshotContext)
+                      .setParameter("incomplete",
+                                    URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_rozpracovana_verze))
+                      .getSingleResult();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
+
+    /**
+     * Creates a SPARQL filter excluding snapshots stored in contexts which are marked as incomplete, i.e., are still
+     * being written by a snapshot job (or were left by an interrupted one).
+     *
+     * @param snapshot Query variable representing the snapshot asset
+     * @return SPARQL filter
+     */
+    public static String incompleteSnapshotFilter(String snapshot) {
+        return "FILTER NOT EXISTS { GRAPH ?incompleteContext { " +
+                "?incompleteContext a <" + cz.cvut.kbss.termit.util.Vocabulary.s_c_rozpracovana_verze + "> . " +
+                snapshot + " ?incompleteProperty ?incompleteValue . } } ";
+    }
 }
@@ -2,10 +2,13 @@ package cz.cvut.kbss.termit.persistence.snapshot;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.termit.dto.Snapshot;
+import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
 import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
 import cz.cvut.kbss.termit.util.Configuration;
-import cz.cvut.kbss.termit.util.Utils;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.repository.Repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -13,8 +16,17 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
 
 import static cz.cvut.kbss.termit.util.Constants.SKOS_CONCEPT_MATCH_RELATIONSHIPS;
 import static cz.cvut.kbss.termit.util.Utils.uriToString;
@@ -24,6 +36,14 @@ import static cz.cvut.kbss.termit.util.Utils.uriToString;
  * <p>
  * The cascading will recursively include vocabularies whose terms are in SKOS-based relationships with terms from the
  * vocabularies already selected for snapshot creation.
+ * <p>
+ * Vocabularies are copied into their snapshot contexts in parallel by {@link SnapshotJobManager} workers, in the
+ * background, progress of the operation is tracked by a {@link SnapshotJob}. The snapshot contexts are written
+ * directly to the repository, so if copying of any of the vocabularies fails, all snapshot contexts created by the
+ * operation are removed. The contexts are marked as incomplete until all of them are written, so that they can be
+ * removed even if the operation is interrupted. Snapshot queries skip contexts marked as incomplete.
+ * <p>
+ * If delta snapshot storage is configured, snapshots are written by {@link DeltaSnapshotStore}.
  */
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -35,31 +55,64 @@ public class CascadingSnapshotCreator extends SnapshotCreator {
 
     private final VocabularyDao vocabularyDao;
 
-    private final String snapshotVocabularyQuery;
-    private final String snapshotTermQuery;
+    private final VocabularyContextMapper contextMapper;
+
+    private final SnapshotJobManager jobManager;
+
+    private final DeltaSnapshotStore deltaStore;
+
+    private final SnapshotCache snapshotCache;
 
     public CascadingSnapshotCreator(Configuration configuration, EntityManager em,
-                                    VocabularyDao vocabularyDao) {
+                                    VocabularyDao vocabularyDao, VocabularyContextMapper contextMapper,
+                                    SnapshotJobManager jobManager, DeltaSnapshotStore deltaStore,
+                                    SnapshotCache snapshotCache) {
         super(configuration);
         this.em = em;
         this.vocabularyDao = vocabularyDao;
-        this.snapshotVocabularyQuery = Utils.loadQuery("snapshot/vocabulary.ru");
-        this.snapshotTermQuery = Utils.loadQuery("snapshot/term.ru");
+        this.contextMapper = contextMapper;
+        this.jobManager = jobManager;
+        this.deltaStore = deltaStore;
+        this.snapshotCache = snapshotCache;
     }
 
     @Override
     public Snapshot createSnapshot(Vocabulary vocabulary) {
+        try {
+            return startSnapshot(vocabulary).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Vocabularies to snapshot are resolved and the snapshot job is registered in the calling thread, the vocabularies
+     * are then copied in the background.
+     */
+    @Override
+    public CompletableFuture<Snapshot> startSnapshot(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
         LOG.info("Creating snapshot of {}.", vocabulary);
         final Set<URI> toSnapshot = resolveVocabulariesToSnapshot(vocabulary);
-        toSnapshot.forEach(v -> {
-            snapshotVocabulary(v);
-            snapshotTerms(v);
-        });
-        final Snapshot snapshot = new Snapshot(snapshotUri(vocabulary.getUri()), timestamp, vocabulary.getUri(),
+        // Resolve contexts in the calling thread, the context mapper may need the current persistence context
+        final Map<URI, URI> contexts = new LinkedHashMap<>();
+        toSnapshot.forEach(v -> contexts.put(v, contextMapper.getVocabularyContext(v)));
+        final VocabularySnapshotCopier copier = new VocabularySnapshotCopier(em.unwrap(Repository.class),
+                                                                             getSnapshotSuffix(), timestamp,
+                                                                             VocabularySnapshotCopier.DEFAULT_BATCH_SIZE);
+        final List<IRI> snapshotContexts = contexts.keySet().stream().map(copier::snapshotOf)
+                                                   .collect(Collectors.toList());
+        final Lease lease = new Lease(copier, snapshotContexts);
+        final URI snapshotUri = snapshotUri(vocabulary.getUri());
+        final SnapshotJob job = jobManager.start(vocabulary.getUri(), snapshotUri, toSnapshot.size());
+        final Snapshot snapshot = new Snapshot(snapshotUri, timestamp, vocabulary.getUri(),
                                                cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_slovniku);
-        LOG.debug("Snapshot created: {}", snapshot);
-        return snapshot;
+        return copyVocabularies(copier, contexts, job, lease).thenApply(v -> {
+            LOG.debug("Snapshot created: {}", snapshot);
+            return snapshot;
+        });
     }
 
     private URI snapshotUri(URI source) {
@@ -73,19 +126,87 @@ public class CascadingSnapshotCreator extends SnapshotCreator {
         return toSnapshot;
     }
 
-    private void snapshotVocabulary(URI vocabulary) {
-        LOG.trace("Creating snapshot of vocabulary {} with identifier {}.", uriToString(vocabulary),
-                  uriToString(snapshotUri(vocabulary)));
-        em.createNativeQuery(snapshotVocabularyQuery).setParameter("vocabulary", vocabulary)
-          .setParameter("suffix", getSnapshotSuffix())
-          .setParameter("created", timestamp)
-          .executeUpdate();
+    private CompletableFuture<Void> copyVocabularies(VocabularySnapshotCopier copier, Map<URI, URI> contexts,
+                                                     SnapshotJob job, Lease lease) {
+        final AtomicBoolean aborted = new AtomicBoolean();
+        final CompletableFuture<?>[] tasks = contexts.entrySet().stream().map(e -> CompletableFuture.runAsync(() -> {
+            try {
+                LOG.trace("Creating snapshot of vocabulary {} with identifier {}.", uriToString(e.getKey()),
+                          uriToString(snapshotUri(e.getKey())));
+                final LongConsumer progress = count -> {
+                    job.statementsCopied(count);
+                    lease.extend();
+                };
+                if (deltaStore.isEnabled()) {
+                    deltaStore.copy(copier, e.getKey(), e.getValue(), aborted::get, progress);
+                } else {
+                    copier.copy(e.getKey(), e.getValue(), aborted::get, progress);
+                }
+                job.vocabularyProcessed();
+            } catch (RuntimeException ex) {
+                // Stop copying the other vocabularies, the snapshot will be rolled back anyway
+                aborted.set(true);
+                throw ex;
+            }
+        }, jobManager.getExecutor())).toArray(CompletableFuture[]::new);
+        // allOf completes only after all the tasks complete, so nothing is written after the rollback
+        return CompletableFuture.allOf(tasks).thenRun(() -> copier.markComplete(lease.snapshotContexts))
+                                .handle((v, ex) -> finish(copier, lease, job, ex));
     }
 
-    private void snapshotTerms(URI vocabulary) {
-        em.createNativeQuery(snapshotTermQuery).setParameter("vocabulary", vocabulary)
-          .setParameter("suffix", getSnapshotSuffix())
-          .setParameter("created", timestamp)
-          .executeUpdate();
+    private Void finish(VocabularySnapshotCopier copier, Lease lease, SnapshotJob job, Throwable error) {
+        if (error == null) {
+            snapshotCache.snapshotCreated();
+            job.completed();
+            return null;
+        }
+        final Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        rollback(copier, lease.snapshotContexts, job, cause);
+        snapshotCache.snapshotRemoved();
+        throw new PersistenceException(
+                "Unable to create snapshot of vocabulary " + uriToString(job.getVocabulary()) + ".", cause);
+    }
+
+    private void rollback(VocabularySnapshotCopier copier, List<IRI> snapshotContexts, SnapshotJob job,
+                          Throwable cause) {
+        LOG.error("Unable to create snapshot {}, rolling back.", uriToString(job.getSnapshot()), cause);
+        job.failed();
+        try {
+            copier.clear(snapshotContexts);
+        } catch (RuntimeException e) {
+            // The contexts stay marked as incomplete, so they will be removed once the mark expires
+            LOG.error("Unable to remove contexts of snapshot {}.", uriToString(job.getSnapshot()), e);
+        }
+        deltaStore.evictAll();
+    }
+
+    /**
+     * Keeps the snapshot contexts marked as incomplete while the snapshot job progresses.
+     */
+    private static class Lease {
+
+        private final VocabularySnapshotCopier copier;
+
+        private final List<IRI> snapshotContexts;
+
+        private Instant extended;
+
+        private Lease(VocabularySnapshotCopier copier, List<IRI> snapshotContexts) {
+            this.copier = copier;
+            this.snapshotContexts = snapshotContexts;
+            this.extended = Instant.now();
+            copier.markIncomplete(snapshotContexts, extended.plus(SnapshotJobManager.INCOMPLETE_LEASE));
+        }
+
+        /**
+         * Extends the incomplete mark if at least half of the lease has elapsed since it was last extended.
+         */
+        private synchronized void extend() {
+            final Instant now = Instant.now();
+            if (now.isAfter(extended.plus(SnapshotJobManager.INCOMPLETE_LEASE.dividedBy(2)))) {
+                copier.markIncomplete(snapshotContexts, now.plus(SnapshotJobManager.INCOMPLETE_LEASE));
+                this.extended = now;
+            }
+        }
     }
 }
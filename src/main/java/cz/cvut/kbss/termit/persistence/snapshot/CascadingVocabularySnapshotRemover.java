@@ -22,9 +22,16 @@ public class CascadingVocabularySnapshotRemover implements SnapshotRemover {
 
     private final EntityManager em;
 
-    public CascadingVocabularySnapshotRemover(VocabularyDao vocabularyDao, EntityManager em) {
+    private final DeltaSnapshotStore deltaStore;
+
+    private final SnapshotCache snapshotCache;
+
+    public CascadingVocabularySnapshotRemover(VocabularyDao vocabularyDao, EntityManager em,
+                                              DeltaSnapshotStore deltaStore, SnapshotCache snapshotCache) {
         this.vocabularyDao = vocabularyDao;
         this.em = em;
+        this.deltaStore = deltaStore;
+        this.snapshotCache = snapshotCache;
     }
 
     @Override
@@ -40,8 +47,11 @@ public class CascadingVocabularySnapshotRemover implements SnapshotRemover {
                                                                                 Constants.SKOS_CONCEPT_MATCH_RELATIONSHIPS);
         snapshotsToRemove.forEach(snapshotUri -> {
             final URI ctx = resolveSnapshotContext(snapshotUri);
+            // Later delta snapshots cannot be replayed without this one
+            deltaStore.materializeDependents(ctx);
             clearContext(ctx);
         });
+        snapshotCache.snapshotRemoved();
     }
 
     private void ensureAssetType(Snapshot snapshot) {
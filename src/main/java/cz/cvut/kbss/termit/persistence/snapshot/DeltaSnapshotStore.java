@@ -0,0 +1,553 @@
+package cz.cvut.kbss.termit.persistence.snapshot;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.event.CompactSnapshotsEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * Stores vocabulary snapshots as deltas relative to the previous snapshot of the same vocabulary.
+ * <p>
+ * A delta snapshot context contains the version metadata of all the snapshot assets (types, source asset, creation
+ * date), statements added since the previous snapshot and reified statements removed since the previous snapshot.
+ * Every {@link Configuration.Snapshot#getCheckpointInterval()}-th snapshot in a chain is stored in full, so that the
+ * number of deltas which have to be replayed remains bounded.
+ * <p>
+ * Delta snapshots are read from an in-memory store ({@link MaterializedSnapshots}), into which they are materialized,
+ * i.e., the deltas are replayed and the snapshot is completed with the statements it shares with the previous
+ * snapshot. Reading a snapshot thus never writes into the repository. Compaction (see {@link #compact()}) materializes
+ * the latest snapshot of each vocabulary in the repository, creating a new checkpoint.
+ */
+@Component
+public class DeltaSnapshotStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeltaSnapshotStore.class);
+
+    private static final String LATEST_SNAPSHOT_QUERY = "SELECT ?snapshot WHERE { " +
+            "?snapshot a <" + Vocabulary.s_c_verze_slovniku + "> ; " +
+            "<" + Vocabulary.s_p_je_verzi_slovniku + "> ?vocabulary ; " +
+            "<" + Vocabulary.s_p_ma_datum_a_cas_vytvoreni_verze + "> ?created . " +
+            "} ORDER BY DESC(?created) LIMIT 1";
+
+    private static final String LATEST_DELTA_SNAPSHOTS_QUERY = "SELECT ?snapshot WHERE { " +
+            "?snapshot a <" + Vocabulary.s_c_rozdilova_verze + "> ; " +
+            "<" + Vocabulary.s_p_je_verzi_slovniku + "> ?vocabulary ; " +
+            "<" + Vocabulary.s_p_ma_datum_a_cas_vytvoreni_verze + "> ?created . " +
+            "FILTER NOT EXISTS { " +
+            "?newer <" + Vocabulary.s_p_je_verzi_slovniku + "> ?vocabulary ; " +
+            "<" + Vocabulary.s_p_ma_datum_a_cas_vytvoreni_verze + "> ?newerCreated . " +
+            "FILTER (?newerCreated > ?created) " +
+            "} }";
+
+    private final EntityManager em;
+
+    private final Configuration.Snapshot config;
+
+    private final IRI deltaType;
+    private final IRI hasPreviousVersion;
+    private final IRI hasRemovedStatement;
+    private final IRI isVersionOfVocabulary;
+    private final IRI importsVocabulary;
+    private final IRI isTermOf;
+    private final IRI vocabularySnapshotType;
+
+    /**
+     * Properties of version metadata, which are stored for every snapshot asset
+     */
+    private final Set<IRI> metadataProperties;
+
+    /**
+     * Properties used to represent the delta itself
+     */
+    private final Set<IRI> deltaProperties;
+
+    /**
+     * Identifiers of delta snapshots which have not been materialized yet
+     */
+    private volatile Set<URI> deltaSnapshots;
+
+    private final MaterializedSnapshots materialized;
+
+    public DeltaSnapshotStore(EntityManager em, Configuration config) {
+        this.em = em;
+        this.config = config.getSnapshot();
+        this.materialized = new MaterializedSnapshots(config);
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        this.deltaType = vf.createIRI(Vocabulary.s_c_rozdilova_verze);
+        this.hasPreviousVersion = vf.createIRI(Vocabulary.s_p_ma_predchozi_verzi);
+        this.hasRemovedStatement = vf.createIRI(Vocabulary.s_p_ma_odebrany_vyrok);
+        this.isVersionOfVocabulary = vf.createIRI(Vocabulary.s_p_je_verzi_slovniku);
+        this.importsVocabulary = vf.createIRI(Vocabulary.s_p_importuje_slovnik);
+        this.isTermOf = vf.createIRI(Vocabulary.s_p_je_pojmem_ze_slovniku);
+        this.vocabularySnapshotType = vf.createIRI(Vocabulary.s_c_verze_slovniku);
+        // Term membership in glossaries is stored in every snapshot, so that the repository can infer the vocabulary
+        // of all the terms of a delta snapshot
+        this.metadataProperties = new HashSet<>(
+                Arrays.asList(RDF.TYPE, SKOS.IN_SCHEME, isVersionOfVocabulary,
+                              vf.createIRI(Vocabulary.s_p_je_verzi_glosare),
+                              vf.createIRI(Vocabulary.s_p_je_verzi_modelu),
+                              vf.createIRI(Vocabulary.s_p_je_verzi_pojmu),
+                              isTermOf, vf.createIRI(Vocabulary.s_p_ma_datum_a_cas_vytvoreni_verze)));
+        this.deltaProperties = new HashSet<>(
+                Arrays.asList(hasPreviousVersion, hasRemovedStatement, RDF.SUBJECT, RDF.PREDICATE, RDF.OBJECT));
+    }
+
+    /**
+     * Whether new snapshots should be stored as deltas.
+     *
+     * @return {@code true} if delta storage is configured
+     */
+    public boolean isEnabled() {
+        return config.getStorage() == Configuration.Snapshot.Storage.DELTA;
+    }
+
+    private Repository repository() {
+        return em.unwrap(Repository.class);
+    }
+
+    /**
+     * Writes snapshot of the specified vocabulary as a delta relative to the latest existing snapshot of the
+     * vocabulary.
+     * <p>
+     * The snapshot is written in full if the vocabulary has no snapshot yet, or if the chain of deltas would exceed the
+     * configured checkpoint interval.
+     *
+     * @param copier     Copier producing the snapshot
+     * @param vocabulary Identifier of the vocabulary to copy
+     * @param context    Repository context in which the vocabulary is stored
+     * @param aborted    Checked before every batch is written, the copy stops once it returns {@code true}
+     * @param progress   Notified of the number of statements in each written batch
+     * @return Total number of written statements
+     */
+    long copy(VocabularySnapshotCopier copier, URI vocabulary, URI context, BooleanSupplier aborted,
+              LongConsumer progress) {
+        final IRI snapshot = copier.snapshotOf(vocabulary);
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final IRI previous = findLatestSnapshot(con, vocabulary);
+            if (previous == null || chainLength(con, previous) + 1 >= config.getCheckpointInterval()) {
+                LOG.trace("Storing snapshot {} in full.", snapshot);
+                return copier.copy(vocabulary, context, aborted, progress);
+            }
+            final ValueFactory vf = con.getValueFactory();
+            // Statements of the previous snapshot not encountered in the current content are the removed ones
+            final Set<Statement> removed = new HashSet<>(rewrite(content(con, previous), suffixOf(con, previous),
+                                                                 copier.getSuffix(), vf));
+            final long previousSize = removed.size();
+            final long added = copier.copy(vocabulary, context, s -> metadataProperties.contains(s.getPredicate()) ||
+                    !removed.remove(vf.createStatement(s.getSubject(), s.getPredicate(), s.getObject())), aborted,
+                                           progress);
+            if (aborted.getAsBoolean()) {
+                return added;
+            }
+            final Model delta = new LinkedHashModel();
+            delta.add(snapshot, RDF.TYPE, deltaType, snapshot);
+            delta.add(snapshot, hasPreviousVersion, previous, snapshot);
+            int i = 0;
+            for (Statement r : removed) {
+                final IRI node = vf.createIRI(snapshot + "/removed/" + i++);
+                delta.add(snapshot, hasRemovedStatement, node, snapshot);
+                delta.add(node, RDF.TYPE, RDF.STATEMENT, snapshot);
+                delta.add(node, RDF.SUBJECT, r.getSubject(), snapshot);
+                delta.add(node, RDF.PREDICATE, r.getPredicate(), snapshot);
+                delta.add(node, RDF.OBJECT, r.getObject(), snapshot);
+            }
+            LOG.trace("Storing snapshot {} as delta of {} ({} statements written, {} of {} removed).", snapshot,
+                      previous, added, removed.size(), previousSize);
+            final long written = added + copier.write(delta, aborted, progress);
+            getDeltaSnapshots().add(URI.create(snapshot.stringValue()));
+            return written;
+        }
+    }
+
+    private IRI findLatestSnapshot(RepositoryConnection con, URI vocabulary) {
+        final TupleQuery query = con.prepareTupleQuery(LATEST_SNAPSHOT_QUERY);
+        query.setBinding("vocabulary", con.getValueFactory().createIRI(vocabulary.toString()));
+        try (final TupleQueryResult rs = query.evaluate()) {
+            return rs.hasNext() ? (IRI) rs.next().getValue("snapshot") : null;
+        }
+    }
+
+    private int chainLength(RepositoryConnection con, IRI snapshot) {
+        int length = 0;
+        IRI current = previousVersion(con, snapshot);
+        while (current != null) {
+            length++;
+            current = previousVersion(con, current);
+        }
+        return length;
+    }
+
+    private IRI previousVersion(RepositoryConnection con, IRI snapshot) {
+        final List<Statement> previous = Iterations.asList(
+                con.getStatements(snapshot, hasPreviousVersion, null, false, snapshot));
+        return previous.isEmpty() ? null : (IRI) previous.get(0).getObject();
+    }
+
+    private String suffixOf(RepositoryConnection con, IRI snapshot) {
+        final List<Statement> versionOf = Iterations.asList(
+                con.getStatements(snapshot, isVersionOfVocabulary, null, false, snapshot));
+        assert !versionOf.isEmpty();
+        return snapshot.stringValue().substring(versionOf.get(0).getObject().stringValue().length());
+    }
+
+    /**
+     * Gets content of the specified snapshot, without version metadata, replaying deltas if necessary.
+     * <p>
+     * The statements have no context.
+     */
+    private Model content(RepositoryConnection con, IRI snapshot) {
+        final ValueFactory vf = con.getValueFactory();
+        final Model stored = new LinkedHashModel();
+        try (final RepositoryResult<Statement> statements = con.getStatements(null, null, null, false, snapshot)) {
+            statements.forEach(s -> stored.add(s.getSubject(), s.getPredicate(), s.getObject()));
+        }
+        final Model result;
+        final Optional<Resource> previous = Models.objectResource(stored.filter(snapshot, hasPreviousVersion, null));
+        if (stored.contains(snapshot, RDF.TYPE, deltaType) && previous.isPresent()) {
+            final IRI previousSnapshot = (IRI) previous.get();
+            result = rewrite(content(con, previousSnapshot), suffixOf(con, previousSnapshot),
+                             suffixOf(con, snapshot), vf);
+            Models.objectResources(stored.filter(snapshot, hasRemovedStatement, null)).forEach(node -> {
+                final Optional<Resource> subject = Models.objectResource(stored.filter(node, RDF.SUBJECT, null));
+                final Optional<IRI> predicate = Models.objectIRI(stored.filter(node, RDF.PREDICATE, null));
+                final Optional<Value> object = Models.object(stored.filter(node, RDF.OBJECT, null));
+                if (subject.isPresent() && predicate.isPresent() && object.isPresent()) {
+                    result.remove(subject.get(), predicate.get(), object.get());
+                }
+            });
+        } else {
+            result = new LinkedHashModel();
+        }
+        stored.stream().filter(s -> !metadataProperties.contains(s.getPredicate()) &&
+                !deltaProperties.contains(s.getPredicate())).forEach(result::add);
+        return result;
+    }
+
+    private static Model rewrite(Model statements, String fromSuffix, String toSuffix, ValueFactory vf) {
+        final Model result = new LinkedHashModel();
+        statements.forEach(s -> result.add((Resource) rewrite(s.getSubject(), fromSuffix, toSuffix, vf),
+                                           s.getPredicate(), rewrite(s.getObject(), fromSuffix, toSuffix, vf)));
+        return result;
+    }
+
+    private static Value rewrite(Value value, String fromSuffix, String toSuffix, ValueFactory vf) {
+        if (value instanceof IRI && value.stringValue().endsWith(fromSuffix)) {
+            final String str = value.stringValue();
+            return vf.createIRI(str.substring(0, str.length() - fromSuffix.length()) + toSuffix);
+        }
+        return value;
+    }
+
+    private Set<URI> getDeltaSnapshots() {
+        Set<URI> result = deltaSnapshots;
+        if (result == null) {
+            synchronized (this) {
+                if (deltaSnapshots == null) {
+                    this.deltaSnapshots = loadDeltaSnapshots();
+                }
+                result = deltaSnapshots;
+            }
+        }
+        return result;
+    }
+
+    private Set<URI> loadDeltaSnapshots() {
+        final Set<URI> result = ConcurrentHashMap.newKeySet();
+        try (final RepositoryConnection con = repository().getConnection()) {
+            try (final RepositoryResult<Statement> statements = con.getStatements(null, RDF.TYPE, deltaType,
+                                                                                   false)) {
+                statements.forEach(s -> result.add(URI.create(s.getSubject().stringValue())));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether there are any delta snapshots which have not been materialized yet.
+     *
+     * @return {@code true} if there are delta snapshots, {@code false} otherwise
+     */
+    public boolean hasDeltaSnapshots() {
+        return !getDeltaSnapshots().isEmpty();
+    }
+
+    /**
+     * Checks whether the specified vocabulary snapshot is stored as a delta.
+     *
+     * @param snapshot Vocabulary snapshot identifier (also its repository context)
+     * @return {@code true} if the snapshot is a delta snapshot, {@code false} otherwise
+     */
+    public boolean isDeltaSnapshot(URI snapshot) {
+        Objects.requireNonNull(snapshot);
+        return hasDeltaSnapshots() && getDeltaSnapshots().contains(snapshot);
+    }
+
+    /**
+     * Gets repository contexts of the specified vocabulary snapshot and snapshots of the vocabularies it (transitively)
+     * imports.
+     * <p>
+     * Imports of delta snapshots are resolved by replaying the deltas, so they may differ from imports stored in the
+     * repository.
+     *
+     * @param snapshot Vocabulary snapshot identifier (also its repository context)
+     * @return Set of contexts, including the specified snapshot
+     */
+    public Set<URI> getSnapshotContexts(URI snapshot) {
+        Objects.requireNonNull(snapshot);
+        final Set<URI> result = new LinkedHashSet<>();
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final Deque<IRI> toVisit = new ArrayDeque<>();
+            toVisit.push(con.getValueFactory().createIRI(snapshot.toString()));
+            while (!toVisit.isEmpty()) {
+                final IRI current = toVisit.pop();
+                if (result.add(URI.create(current.stringValue()))) {
+                    importsOf(con, current).forEach(toVisit::push);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Set<IRI> importsOf(RepositoryConnection con, IRI snapshot) {
+        final Set<IRI> result = new HashSet<>();
+        final IRI previous = previousVersion(con, snapshot);
+        if (previous != null) {
+            final String fromSuffix = suffixOf(con, previous);
+            final String toSuffix = suffixOf(con, snapshot);
+            importsOf(con, previous).forEach(
+                    i -> result.add((IRI) rewrite(i, fromSuffix, toSuffix, con.getValueFactory())));
+            try (final RepositoryResult<Statement> nodes = con.getStatements(snapshot, hasRemovedStatement, null,
+                                                                              false, snapshot)) {
+                nodes.forEach(n -> {
+                    final Resource node = (Resource) n.getObject();
+                    if (con.hasStatement(node, RDF.SUBJECT, snapshot, false, snapshot) &&
+                            con.hasStatement(node, RDF.PREDICATE, importsVocabulary, false, snapshot)) {
+                        Iterations.asList(con.getStatements(node, RDF.OBJECT, null, false, snapshot))
+                                  .forEach(s -> result.remove(s.getObject()));
+                    }
+                });
+            }
+        }
+        try (final RepositoryResult<Statement> imports = con.getStatements(snapshot, importsVocabulary, null, false,
+                                                                            snapshot)) {
+            imports.stream().filter(s -> s.getObject() instanceof IRI).forEach(s -> result.add((IRI) s.getObject()));
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates the specified query over data from the specified repository contexts.
+     * <p>
+     * If the contexts are vocabulary snapshots and at least one of them is stored as a delta, the query is evaluated
+     * over the snapshots materialized in memory. Otherwise, it is evaluated over the repository.
+     *
+     * @param contexts Repository contexts the query reads
+     * @param query    Query to evaluate
+     * @param <T>      Result type
+     * @return Query result
+     */
+    public <T> T query(Collection<URI> contexts, Function<RepositoryConnection, T> query) {
+        Objects.requireNonNull(contexts);
+        Objects.requireNonNull(query);
+        if (isMaterializedInMemory(contexts)) {
+            return materialized.query(contexts, this::materializedContent, query);
+        }
+        try (final RepositoryConnection con = repository().getConnection()) {
+            return query.apply(con);
+        }
+    }
+
+    /**
+     * Reads data of the specified vocabulary snapshot using the specified function.
+     * <p>
+     * If the snapshot is stored as a delta, the reader gets a separate entity manager reading from the snapshots
+     * materialized in memory. These contain the snapshot and snapshots of the vocabularies it (transitively) imports
+     * (see {@link #getSnapshotContexts(URI)}). The loaded entities are thus not managed by the current persistence
+     * context.
+     * <p>
+     * Otherwise, the reader gets the regular entity manager.
+     *
+     * @param snapshot Vocabulary snapshot identifier (also its repository context), may also identify a regular
+     *                 vocabulary
+     * @param reader   Reads the data
+     * @param <T>      Result type
+     * @return Result of the reader
+     */
+    public <T> T read(URI snapshot, Function<EntityManager, T> reader) {
+        Objects.requireNonNull(snapshot);
+        Objects.requireNonNull(reader);
+        if (!isDeltaSnapshot(snapshot)) {
+            return reader.apply(em);
+        }
+        return materialized.read(getSnapshotContexts(snapshot), this::materializedContent, reader);
+    }
+
+    /**
+     * Checks whether queries over the specified repository contexts are evaluated over the snapshots materialized in
+     * memory.
+     *
+     * @param contexts Repository contexts
+     * @return {@code true} if the contexts are vocabulary snapshots and at least one of them is stored as a delta
+     * @see #query(Collection, Function)
+     */
+    public boolean isMaterializedInMemory(Collection<URI> contexts) {
+        if (!hasDeltaSnapshots() || contexts.stream().noneMatch(getDeltaSnapshots()::contains)) {
+            return false;
+        }
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            return contexts.stream().allMatch(ctx -> {
+                final IRI iri = vf.createIRI(ctx.toString());
+                return getDeltaSnapshots().contains(ctx) ||
+                        con.hasStatement(iri, RDF.TYPE, vocabularySnapshotType, false, iri);
+            });
+        }
+    }
+
+    /**
+     * Gets the full content of the specified snapshot context, as it is stored in the in-memory store.
+     * <p>
+     * Besides the replayed content, it contains version metadata and explicit statements about membership of terms
+     * in the snapshot vocabulary, which are otherwise inferred by the repository.
+     */
+    private Model materializedContent(URI snapshot) {
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final IRI snapshotIri = con.getValueFactory().createIRI(snapshot.toString());
+            final Set<Value> removalNodes = Iterations.asList(
+                    con.getStatements(snapshotIri, hasRemovedStatement, null, false, snapshotIri)).stream()
+                                                      .map(Statement::getObject).collect(Collectors.toSet());
+            final Model result = new LinkedHashModel();
+            try (final RepositoryResult<Statement> stored = con.getStatements(null, null, null, false,
+                                                                               snapshotIri)) {
+                stored.stream().filter(s -> metadataProperties.contains(s.getPredicate()) &&
+                              !removalNodes.contains(s.getSubject()) && !deltaType.equals(s.getObject()))
+                      .forEach(s -> result.add(s.getSubject(), s.getPredicate(), s.getObject()));
+            }
+            result.addAll(content(con, snapshotIri));
+            final List<Resource> terms = new ArrayList<>(result.filter(null, RDF.TYPE, SKOS.CONCEPT).subjects());
+            terms.stream().filter(t -> !result.contains(t, isTermOf, null))
+                 .forEach(t -> result.add(t, isTermOf, snapshotIri));
+            return result;
+        }
+    }
+
+    /**
+     * Materializes the specified delta snapshot in the repository, turning it into a full snapshot.
+     */
+    private synchronized void materialize(URI snapshot) {
+        if (!getDeltaSnapshots().contains(snapshot)) {
+            // Materialized concurrently
+            return;
+        }
+        LOG.debug("Materializing delta snapshot {}.", uriToString(snapshot));
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final IRI snapshotIri = con.getValueFactory().createIRI(snapshot.toString());
+            final Model content = content(con, snapshotIri);
+            final List<Resource> removalNodes = Iterations.asList(
+                    con.getStatements(snapshotIri, hasRemovedStatement, null, false, snapshotIri)).stream()
+                                                          .map(s -> (Resource) s.getObject())
+                                                          .collect(Collectors.toList());
+            con.begin();
+            removalNodes.forEach(node -> con.remove(node, null, null, snapshotIri));
+            con.remove(snapshotIri, hasRemovedStatement, null, snapshotIri);
+            con.remove(snapshotIri, hasPreviousVersion, null, snapshotIri);
+            con.remove(snapshotIri, RDF.TYPE, deltaType, snapshotIri);
+            con.add(content, snapshotIri);
+            con.commit();
+        }
+        getDeltaSnapshots().remove(snapshot);
+    }
+
+    /**
+     * Materializes delta snapshots which are based on the specified snapshot.
+     * <p>
+     * This has to be done before the specified snapshot is removed, otherwise the deltas could not be replayed. The
+     * specified snapshot is also removed from the in-memory store.
+     *
+     * @param snapshot Identifier of the vocabulary snapshot to be removed
+     */
+    public void materializeDependents(URI snapshot) {
+        Objects.requireNonNull(snapshot);
+        materialized.evict(snapshot);
+        if (!hasDeltaSnapshots()) {
+            return;
+        }
+        final List<URI> dependents;
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final IRI snapshotIri = con.getValueFactory().createIRI(snapshot.toString());
+            dependents = Iterations.asList(con.getStatements(null, hasPreviousVersion, snapshotIri, false)).stream()
+                                   .map(s -> URI.create(s.getSubject().stringValue()))
+                                   .collect(Collectors.toList());
+        }
+        dependents.forEach(this::materialize);
+        getDeltaSnapshots().remove(snapshot);
+    }
+
+    /**
+     * Compacts delta snapshots by materializing the latest snapshot of each vocabulary, if it is a delta snapshot.
+     * <p>
+     * Subsequent snapshots are stored as deltas relative to the created checkpoints.
+     */
+    @Scheduled(cron = "${termit.schedule.cron.snapshot-compaction:-}")
+    @EventListener(CompactSnapshotsEvent.class)
+    public void compact() {
+        if (!hasDeltaSnapshots()) {
+            return;
+        }
+        LOG.debug("Compacting delta snapshots.");
+        final List<URI> toMaterialize = new ArrayList<>();
+        try (final RepositoryConnection con = repository().getConnection()) {
+            try (final TupleQueryResult rs = con.prepareTupleQuery(LATEST_DELTA_SNAPSHOTS_QUERY).evaluate()) {
+                while (rs.hasNext()) {
+                    final BindingSet bs = rs.next();
+                    toMaterialize.add(URI.create(bs.getValue("snapshot").stringValue()));
+                }
+            }
+        }
+        toMaterialize.forEach(this::materialize);
+        LOG.debug("Materialized {} delta snapshots.", toMaterialize.size());
+    }
+
+    @EventListener(EvictCacheEvent.class)
+    public void evictAll() {
+        synchronized (this) {
+            this.deltaSnapshots = null;
+        }
+        materialized.evictAll();
+    }
+
+    @PreDestroy
+    void close() {
+        materialized.close();
+    }
+}
@@ -0,0 +1,228 @@
+package cz.cvut.kbss.termit.persistence.snapshot;
+
+import cz.cvut.kbss.jopa.Persistence;
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.ontodriver.rdf4j.Rdf4jDataSource;
+import cz.cvut.kbss.ontodriver.rdf4j.config.Rdf4jOntoDriverProperties;
+import cz.cvut.kbss.termit.persistence.MainPersistenceFactory;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static cz.cvut.kbss.jopa.model.JOPAPersistenceProperties.*;
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * In-memory store of materialized snapshot contexts.
+ * <p>
+ * Delta snapshots are read from this store, so that reading them does not write anything into the main repository.
+ * Other snapshots read together with a delta snapshot (e.g., snapshots of imported vocabularies) are copied into the
+ * store as well, so that queries over them can be evaluated by the store alone.
+ * <p>
+ * The store is bounded by the total number of statements it contains, the least recently used contexts are removed
+ * first. Contexts are not removed while they are being read. Snapshots do not change, so stored contexts never have to
+ * be updated.
+ */
+class MaterializedSnapshots {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MaterializedSnapshots.class);
+
+    private static final String PHYSICAL_URI = "urn:termit:materialized-snapshots";
+
+    private final Configuration config;
+
+    private final long maxStatements;
+
+    /**
+     * Stored contexts and the number of their statements, in access order
+     */
+    private final Map<URI, Long> contexts = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long statementCount;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private EntityManagerFactory emf;
+
+    private Repository repository;
+
+    MaterializedSnapshots(Configuration config) {
+        this.config = config;
+        this.maxStatements = config.getSnapshot().getMaterializedMaxStatements();
+    }
+
+    private void init() {
+        if (emf != null) {
+            return;
+        }
+        final Map<String, String> properties = MainPersistenceFactory.defaultParams();
+        properties.put(ONTOLOGY_PHYSICAL_URI_KEY, PHYSICAL_URI);
+        properties.put(DATA_SOURCE_CLASS, Rdf4jDataSource.class.getName());
+        properties.put(LANG, config.getPersistence().getLanguage());
+        properties.put(PREFER_MULTILINGUAL_STRING, Boolean.TRUE.toString());
+        properties.put(CACHE_ENABLED, Boolean.FALSE.toString());
+        properties.put(Rdf4jOntoDriverProperties.USE_VOLATILE_STORAGE, Boolean.TRUE.toString());
+        this.emf = Persistence.createEntityManagerFactory("termitMaterializedSnapshotsPU", properties);
+        final EntityManager em = emf.createEntityManager();
+        try {
+            this.repository = em.unwrap(Repository.class);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Evaluates a query over the specified contexts, loading the missing ones into the store first.
+     *
+     * @param required Contexts which need to be in the store
+     * @param loader   Loads statements of a missing context
+     * @param query    Query to evaluate
+     * @param <T>      Result type
+     * @return Result of the query
+     */
+    <T> T query(Collection<URI> required, Function<URI, Model> loader, Function<RepositoryConnection, T> query) {
+        return withContexts(required, loader, () -> {
+            try (final RepositoryConnection con = repository.getConnection()) {
+                return query.apply(con);
+            }
+        });
+    }
+
+    /**
+     * Reads entities from the specified contexts using a new entity manager, loading the missing contexts into the
+     * store first.
+     *
+     * @param required Contexts which need to be in the store
+     * @param loader   Loads statements of a missing context
+     * @param reader   Reads the data
+     * @param <T>      Result type
+     * @return Result of the reader
+     */
+    <T> T read(Collection<URI> required, Function<URI, Model> loader, Function<EntityManager, T> reader) {
+        return withContexts(required, loader, () -> {
+            final EntityManager em = emf.createEntityManager();
+            try {
+                return reader.apply(em);
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Loads the required contexts and executes the specified action while holding the read lock, so that the contexts
+     * are not removed from the store before the action finishes.
+     */
+    private <T> T withContexts(Collection<URI> required, Function<URI, Model> loader, Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            init();
+            required.stream().filter(ctx -> contexts.get(ctx) == null).forEach(ctx -> add(ctx, loader.apply(ctx)));
+            shrink(required);
+            // Downgrade to read lock
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(URI context, Model content) {
+        LOG.debug("Materialized snapshot {} in memory ({} statements).", uriToString(context), content.size());
+        try (final RepositoryConnection con = repository.getConnection()) {
+            final IRI contextIri = con.getValueFactory().createIRI(context.toString());
+            con.begin();
+            con.clear(contextIri);
+            con.add(content, contextIri);
+            con.commit();
+        }
+        contexts.put(context, (long) content.size());
+        this.statementCount += content.size();
+    }
+
+    private void shrink(Collection<URI> retained) {
+        final Iterator<Map.Entry<URI, Long>> it = contexts.entrySet().iterator();
+        final List<URI> removed = new ArrayList<>();
+        while (statementCount > maxStatements && it.hasNext()) {
+            final Map.Entry<URI, Long> e = it.next();
+            if (retained.contains(e.getKey())) {
+                continue;
+            }
+            this.statementCount -= e.getValue();
+            removed.add(e.getKey());
+            it.remove();
+        }
+        clear(removed);
+    }
+
+    private void clear(Collection<URI> toRemove) {
+        if (toRemove.isEmpty() || repository == null) {
+            return;
+        }
+        try (final RepositoryConnection con = repository.getConnection()) {
+            con.begin();
+            con.clear(toRemove.stream().map(ctx -> con.getValueFactory().createIRI(ctx.toString()))
+                              .toArray(IRI[]::new));
+            con.commit();
+        }
+    }
+
+    /**
+     * Removes the specified context from the store.
+     *
+     * @param context Context to remove
+     */
+    void evict(URI context) {
+        lock.writeLock().lock();
+        try {
+            final Long size = contexts.remove(context);
+            if (size != null) {
+                this.statementCount -= size;
+                clear(Collections.singleton(context));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all contexts from the store.
+     */
+    void evictAll() {
+        lock.writeLock().lock();
+        try {
+            clear(new ArrayList<>(contexts.keySet()));
+            contexts.clear();
+            this.statementCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void close() {
+        lock.writeLock().lock();
+        try {
+            if (emf != null && emf.isOpen()) {
+                emf.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package cz.cvut.kbss.termit.persistence.snapshot;
+
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static cz.cvut.kbss.termit.util.TransactionUtils.afterCommit;
+import static cz.cvut.kbss.termit.util.Utils.emptyIfNull;
+
+/**
+ * Bounded cache of data read from asset snapshots.
+ * <p>
+ * Snapshots are immutable, so a loaded snapshot asset never needs to be reloaded (unless the snapshot is removed).
+ * Snapshot listings and versions valid at an instant are derived from the set of existing snapshots, so they are
+ * evicted whenever a snapshot is created or removed.
+ * <p>
+ * The cache is bounded by the total weight of its entries, least recently used entries are evicted first.
+ */
+@Component
+public class SnapshotCache {
+
+    private enum Region {
+        /**
+         * Snapshot assets
+         */
+        ASSET,
+        /**
+         * Lists of snapshots of an asset
+         */
+        SNAPSHOTS,
+        /**
+         * Versions of an asset valid at a certain instant
+         */
+        VERSION_AT
+    }
+
+    private final long maxWeight;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalWeight;
+
+    /**
+     * Incremented on every eviction, prevents caching values loaded before the eviction
+     */
+    private long generation;
+
+    public SnapshotCache(Configuration config) {
+        this.maxWeight = config.getSnapshot().getCacheMaxWeight();
+    }
+
+    /**
+     * Gets a cached snapshot asset with the specified identifier or loads it.
+     * <p>
+     * The loaded value is cached only if it represents a snapshot, as determined by the specified predicate. The loader
+     * must not return snapshots which are still being created (see {@link AssetSnapshotLoader#isComplete(URI)}), as
+     * they may still change.
+     *
+     * @param id         Asset identifier
+     * @param loader     Loads the asset if it is not cached
+     * @param isSnapshot Determines whether the loaded value is a snapshot
+     * @param <T>        Asset type
+     * @return Cached or loaded asset
+     */
+    public <T> Optional<T> getAsset(URI id, Supplier<Optional<T>> loader, Predicate<T> isSnapshot) {
+        return getOrLoad(new Key(Region.ASSET, id, null), loader, v -> v.isPresent() && isSnapshot.test(v.get()));
+    }
+
+    /**
+     * Gets a cached list of snapshots of the specified asset or loads it.
+     *
+     * @param asset  Asset identifier
+     * @param loader Loads the snapshots if they are not cached
+     * @param <T>    Result type
+     * @return Cached or loaded snapshots
+     */
+    public <T> T getSnapshots(URI asset, Supplier<T> loader) {
+        return getOrLoad(new Key(Region.SNAPSHOTS, asset, null), loader, v -> true);
+    }
+
+    /**
+     * Gets a cached version of the specified asset valid at the specified instant or loads it.
+     *
+     * @param asset  Asset identifier
+     * @param at     Instant at which the version is valid
+     * @param loader Loads the version if it is not cached
+     * @param <T>    Asset type
+     * @return Cached or loaded asset version
+     */
+    public <T> Optional<T> getVersionValidAt(URI asset, Instant at, Supplier<Optional<T>> loader) {
+        return getOrLoad(new Key(Region.VERSION_AT, asset, at), loader, Optional::isPresent);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V getOrLoad(Key key, Supplier<V> loader, Predicate<V> cacheable) {
+        if (maxWeight <= 0) {
+            return loader.get();
+        }
+        final long loadGeneration;
+        synchronized (this) {
+            final Entry existing = entries.get(key);
+            if (existing != null) {
+                return (V) existing.value;
+            }
+            loadGeneration = generation;
+        }
+        // Load outside the lock, concurrent loads of the same value are harmless
+        final V value = loader.get();
+        if (cacheable.test(value)) {
+            put(key, value, loadGeneration);
+        }
+        return value;
+    }
+
+    private synchronized void put(Key key, Object value, long loadGeneration) {
+        final long weight = weigh(value);
+        if (loadGeneration != generation || weight > maxWeight) {
+            return;
+        }
+        final Entry previous = entries.put(key, new Entry(value, weight));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+        final Iterator<Entry> it = entries.values().iterator();
+        while (totalWeight > maxWeight && it.hasNext()) {
+            totalWeight -= it.next().weight;
+            it.remove();
+        }
+    }
+
+    private static long weigh(Object value) {
+        if (value instanceof Optional) {
+            return ((Optional<?>) value).map(SnapshotCache::weigh).orElse(1L);
+        }
+        if (value instanceof Collection) {
+            return 1L + ((Collection<?>) value).size();
+        }
+        if (value instanceof Term) {
+            final Term t = (Term) value;
+            return 1L + emptyIfNull(t.getParentTerms()).size() + emptyIfNull(t.getSubTerms()).size() +
+                    emptyIfNull(t.getRelated()).size() + emptyIfNull(t.getInverseRelated()).size() +
+                    emptyIfNull(t.getRelatedMatch()).size() + emptyIfNull(t.getInverseRelatedMatch()).size() +
+                    emptyIfNull(t.getExactMatchTerms()).size() + emptyIfNull(t.getInverseExactMatchTerms()).size();
+        }
+        return 1L;
+    }
+
+    /**
+     * Notifies the cache that a snapshot has been created.
+     * <p>
+     * Snapshot listings and versions valid at an instant are evicted immediately and, if there is an active
+     * transaction, again after it successfully commits.
+     */
+    public void snapshotCreated() {
+        evictVersionLookups();
+        afterCommit(this::evictVersionLookups);
+    }
+
+    /**
+     * Notifies the cache that a snapshot has been removed.
+     * <p>
+     * The whole cache is evicted immediately and, if there is an active transaction, again after it successfully
+     * commits.
+     */
+    public void snapshotRemoved() {
+        evictAll();
+        afterCommit(this::evictAll);
+    }
+
+    /**
+     * Evicts snapshot listings and versions valid at an instant.
+     */
+    public synchronized void evictVersionLookups() {
+        generation++;
+        final Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().region != Region.ASSET) {
+                totalWeight -= e.getValue().weight;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Evicts snapshot listings and versions valid at an instant when vocabulary content is modified by another TermIt
+     * instance, because the modification may have been caused by snapshot creation.
+     */
+    @EventListener(value = VocabularyContentModified.class, condition = "@invalidationBus.replaying")
+    public void onReplayedContentModified() {
+        evictVersionLookups();
+    }
+
+    /**
+     * Evicts the whole cache when a vocabulary is modified by another TermIt instance, because the modification may
+     * have been caused by snapshot removal.
+     */
+    @EventListener(value = VocabularyModified.class, condition = "@invalidationBus.replaying")
+    public void onReplayedVocabularyModified() {
+        evictAll();
+    }
+
+    /**
+     * Gets the current total weight of the cached entries.
+     */
+    synchronized long getWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Evicts the whole cache.
+     */
+    @EventListener(EvictCacheEvent.class)
+    public synchronized void evictAll() {
+        generation++;
+        entries.clear();
+        this.totalWeight = 0;
+    }
+
+    private static final class Key {
+        private final Region region;
+        private final URI id;
+        private final Instant at;
+
+        private Key(Region region, URI id, Instant at) {
+            this.region = region;
+            this.id = Objects.requireNonNull(id);
+            this.at = at;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return region == key.region && id.equals(key.id) && Objects.equals(at, key.at);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(region, id, at);
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long weight;
+
+        private Entry(Object value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import cz.cvut.kbss.termit.util.Constants;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Creates snapshot of a vocabulary and its contents.
@@ -33,6 +34,22 @@ public abstract class SnapshotCreator {
      */
     public abstract Snapshot createSnapshot(Vocabulary vocabulary);
 
+    /**
+     * Starts creation of a snapshot of the specified vocabulary.
+     * <p>
+     * By default, the snapshot is created synchronously, implementations may create it in the background.
+     *
+     * @param vocabulary Vocabulary to snapshot
+     * @return Future snapshot metadata, completed exceptionally if the snapshot could not be created
+     */
+    public CompletableFuture<Snapshot> startSnapshot(Vocabulary vocabulary) {
+        try {
+            return CompletableFuture.completedFuture(createSnapshot(vocabulary));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     /**
      * Gets a timestamp-based suffix for snapshot identifiers.
      * <p>
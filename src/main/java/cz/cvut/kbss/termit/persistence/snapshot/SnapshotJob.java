@@ -0,0 +1,112 @@
+package cz.cvut.kbss.termit.persistence.snapshot;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a vocabulary snapshot creation.
+ * <p>
+ * Snapshot creation cascades to related vocabularies, so the progress is reported as the number of vocabularies
+ * already copied into the snapshot and the number of statements written so far.
+ */
+public class SnapshotJob {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final URI vocabulary;
+
+    private final URI snapshot;
+
+    private final Instant started = Instant.now();
+
+    private final int vocabularyCount;
+
+    private final AtomicInteger processedVocabularies = new AtomicInteger();
+
+    private final AtomicLong copiedStatements = new AtomicLong();
+
+    private volatile Status status = Status.RUNNING;
+
+    private volatile Instant finished;
+
+    public SnapshotJob(URI vocabulary, URI snapshot, int vocabularyCount) {
+        this.vocabulary = Objects.requireNonNull(vocabulary);
+        this.snapshot = Objects.requireNonNull(snapshot);
+        this.vocabularyCount = vocabularyCount;
+    }
+
+    /**
+     * Identifier of the vocabulary whose snapshot is being created.
+     */
+    public URI getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Identifier of the created snapshot.
+     */
+    public URI getSnapshot() {
+        return snapshot;
+    }
+
+    public Instant getStarted() {
+        return started;
+    }
+
+    public Instant getFinished() {
+        return finished;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Total number of vocabularies included in the snapshot.
+     */
+    public int getVocabularyCount() {
+        return vocabularyCount;
+    }
+
+    public int getProcessedVocabularies() {
+        return processedVocabularies.get();
+    }
+
+    public long getCopiedStatements() {
+        return copiedStatements.get();
+    }
+
+    void statementsCopied(long count) {
+        copiedStatements.addAndGet(count);
+    }
+
+    void vocabularyProcessed() {
+        processedVocabularies.incrementAndGet();
+    }
+
+    void completed() {
+        this.finished = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void failed() {
+        this.finished = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotJob{" +
+                "vocabulary=" + vocabulary +
+                ", snapshot=" + snapshot +
+                ", status=" + status +
+                ", processedVocabularies=" + processedVocabularies + "/" + vocabularyCount +
+                ", copiedStatements=" + copiedStatements +
+                '}';
+    }
+}
@@ -0,0 +1,135 @@
+package cz.cvut.kbss.termit.persistence.snapshot;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs snapshot copy tasks and keeps track of snapshot jobs.
+ * <p>
+ * Vocabularies included in a snapshot are copied in parallel by a pool of background workers, each using its own
+ * repository connection. The latest job of each vocabulary is retained so that clients can check its progress.
+ * <p>
+ * Snapshot contexts are marked as incomplete while they are being written, running jobs periodically extend the mark.
+ * Contexts whose mark expired belong to a job which was interrupted (for instance, because the application was
+ * stopped) and they are removed on application start and periodically afterwards.
+ */
+@Component
+public class SnapshotJobManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotJobManager.class);
+
+    /**
+     * How long a snapshot context stays marked as incomplete unless the job extends the mark
+     */
+    static final Duration INCOMPLETE_LEASE = Duration.ofMinutes(10);
+
+    private final EntityManager em;
+
+    private final ExecutorService executor;
+
+    private final Map<URI, SnapshotJob> jobs = new ConcurrentHashMap<>();
+
+    public SnapshotJobManager(EntityManager em) {
+        this.em = em;
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("snapshot-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory);
+    }
+
+    /**
+     * Registers a new snapshot job for the specified vocabulary.
+     *
+     * @param vocabulary      Identifier of the vocabulary being snapshot
+     * @param snapshot        Identifier of the snapshot being created
+     * @param vocabularyCount Number of vocabularies included in the snapshot
+     * @return The new job
+     */
+    SnapshotJob start(URI vocabulary, URI snapshot, int vocabularyCount) {
+        final SnapshotJob job = new SnapshotJob(vocabulary, snapshot, vocabularyCount);
+        jobs.put(vocabulary, job);
+        return job;
+    }
+
+    /**
+     * Gets executor running the snapshot copy tasks.
+     */
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Finds the latest snapshot job of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Latest snapshot job, possibly still running, empty if no snapshot of the vocabulary was created since
+     * application start
+     */
+    public Optional<SnapshotJob> findLatestJob(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return Optional.ofNullable(jobs.get(vocabulary));
+    }
+
+    /**
+     * Removes snapshot contexts whose incomplete mark has expired.
+     *
+     * @see VocabularySnapshotCopier#markIncomplete(java.util.Collection, Instant)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${termit.schedule.incomplete-snapshot-cleanup-delay:600000}",
+               initialDelayString = "${termit.schedule.incomplete-snapshot-cleanup-delay:600000}")
+    public void removeIncompleteSnapshots() {
+        final Instant now = Instant.now();
+        try (final RepositoryConnection con = em.unwrap(Repository.class).getConnection()) {
+            final Set<Resource> expired = new HashSet<>();
+            try (final RepositoryResult<Statement> marks = con.getStatements(null, con.getValueFactory().createIRI(
+                    Vocabulary.s_p_rozpracovano_do), null, false)) {
+                marks.forEach(s -> {
+                    if (s.getContext() != null && s.getObject() instanceof Literal &&
+                            Instant.parse(s.getObject().stringValue()).isBefore(now)) {
+                        expired.add(s.getContext());
+                    }
+                });
+            }
+            if (expired.isEmpty()) {
+                return;
+            }
+            LOG.warn("Removing {} incomplete snapshot contexts left by interrupted snapshot jobs: {}.",
+                     expired.size(), expired);
+            con.begin();
+            con.clear(expired.toArray(new Resource[0]));
+            con.commit();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
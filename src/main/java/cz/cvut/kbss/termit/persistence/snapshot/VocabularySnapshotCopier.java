@@ -0,0 +1,383 @@
+package cz.cvut.kbss.termit.persistence.snapshot;
+
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.*;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Copies the content of a single vocabulary into its snapshot context.
+ * <p>
+ * Statements are streamed from the vocabulary context and identifiers of the vocabulary, its glossary, model and terms
+ * are rewritten on the fly by appending the snapshot suffix. The result is written in batches, each in a separate
+ * transaction, so that snapshots of large vocabularies do not require one huge transaction. Each copy uses its own
+ * repository connections, so multiple vocabularies can be copied in parallel.
+ * <p>
+ * Vocabulary snapshot links to snapshots of the glossary, model and imported vocabularies; term snapshots link to
+ * snapshots of the terms they are in SKOS relationships with.
+ */
+class VocabularySnapshotCopier {
+
+    static final int DEFAULT_BATCH_SIZE = 5000;
+
+    private static final String TERMS_QUERY = "SELECT DISTINCT ?term ?glossary WHERE { " +
+            "?term <" + Vocabulary.s_p_je_pojmem_ze_slovniku + "> ?vocabulary . " +
+            "GRAPH ?context { ?term a <" + SKOS.CONCEPT + "> ; <" + SKOS.IN_SCHEME + "> ?glossary . } }";
+
+    private final Repository repository;
+
+    private final String suffix;
+
+    private final Literal created;
+
+    private final int batchSize;
+
+    private final ValueFactory vf;
+
+    /**
+     * Vocabulary properties which are not copied verbatim
+     */
+    private final Set<IRI> skippedVocabularyProperties;
+
+    /**
+     * Term properties whose values are rewritten to snapshots
+     */
+    private final Set<IRI> rewrittenTermProperties;
+
+    /**
+     * Term properties which are not copied
+     */
+    private final Set<IRI> skippedTermProperties;
+
+    VocabularySnapshotCopier(Repository repository, String suffix, Instant created, int batchSize) {
+        this.repository = repository;
+        this.suffix = suffix;
+        this.batchSize = batchSize;
+        this.vf = repository.getValueFactory();
+        this.created = vf.createLiteral(created.toString(), XSD.DATETIME);
+        this.skippedVocabularyProperties = new HashSet<>(
+                Arrays.asList(iri(Vocabulary.s_p_ma_glosar), iri(Vocabulary.s_p_ma_model),
+                              iri(Vocabulary.s_p_popisuje_dokument), iri(Vocabulary.s_p_importuje_slovnik),
+                              OWL.IMPORTS));
+        this.rewrittenTermProperties = new HashSet<>(
+                Arrays.asList(SKOS.BROADER, SKOS.BROAD_MATCH, SKOS.RELATED, SKOS.RELATED_MATCH, SKOS.EXACT_MATCH));
+        this.skippedTermProperties = new HashSet<>(
+                Arrays.asList(SKOS.NARROWER, SKOS.NARROW_MATCH, SKOS.TOP_CONCEPT_OF, SKOS.IN_SCHEME));
+    }
+
+    private IRI iri(String iri) {
+        return vf.createIRI(iri);
+    }
+
+    /**
+     * Gets the suffix appended to identifiers of snapshot assets.
+     */
+    String getSuffix() {
+        return suffix;
+    }
+
+    IRI snapshotOf(URI identifier) {
+        return vf.createIRI(identifier + suffix);
+    }
+
+    private Value snapshotOf(Value value) {
+        return value instanceof IRI ? vf.createIRI(value.stringValue() + suffix) : value;
+    }
+
+    /**
+     * Copies the specified vocabulary into its snapshot context.
+     *
+     * @param vocabulary Identifier of the vocabulary to copy
+     * @param context    Repository context in which the vocabulary is stored
+     * @param aborted    Checked before every batch is written, the copy stops once it returns {@code true}
+     * @param progress   Notified of the number of statements in each written batch
+     * @return Total number of written statements
+     */
+    long copy(URI vocabulary, URI context, BooleanSupplier aborted, LongConsumer progress) {
+        return copy(vocabulary, context, s -> true, aborted, progress);
+    }
+
+    /**
+     * Copies the specified vocabulary into its snapshot context, writing only statements matching the specified
+     * filter.
+     * <p>
+     * The filter is called exactly once for every produced snapshot statement.
+     *
+     * @param vocabulary Identifier of the vocabulary to copy
+     * @param context    Repository context in which the vocabulary is stored
+     * @param filter     Decides whether a snapshot statement (in the snapshot context) is written
+     * @param aborted    Checked before every batch is written, the copy stops once it returns {@code true}
+     * @param progress   Notified of the number of statements in each written batch
+     * @return Total number of written statements
+     */
+    long copy(URI vocabulary, URI context, Predicate<Statement> filter, BooleanSupplier aborted,
+              LongConsumer progress) {
+        try (final RepositoryConnection target = repository.getConnection()) {
+            final BatchWriter writer = new BatchWriter(target, snapshotOf(vocabulary), aborted, progress, filter);
+            produce(vocabulary, context, writer);
+            writer.flush();
+            return writer.written;
+        }
+    }
+
+    /**
+     * Writes the specified statements into the repository in batches.
+     *
+     * @param statements Statements to write, including their context
+     * @param aborted    Checked before every batch is written, writing stops once it returns {@code true}
+     * @param progress   Notified of the number of statements in each written batch
+     * @return Total number of written statements
+     */
+    long write(Iterable<Statement> statements, BooleanSupplier aborted, LongConsumer progress) {
+        try (final RepositoryConnection target = repository.getConnection()) {
+            final BatchWriter writer = new BatchWriter(target, null, aborted, progress, s -> true);
+            for (Statement s : statements) {
+                if (writer.isAborted()) {
+                    break;
+                }
+                writer.add(s);
+            }
+            writer.flush();
+            return writer.written;
+        }
+    }
+
+    private void produce(URI vocabulary, URI context, StatementSink sink) {
+        final IRI vocabularyIri = iri(vocabulary.toString());
+        final IRI contextIri = iri(context.toString());
+        final IRI snapshot = snapshotOf(vocabulary);
+        try (final RepositoryConnection source = repository.getConnection()) {
+            final Resource glossary = singleObject(source, vocabularyIri, Vocabulary.s_p_ma_glosar, contextIri);
+            final Resource model = singleObject(source, vocabularyIri, Vocabulary.s_p_ma_model, contextIri);
+            final boolean copyVocabulary = glossary != null && model != null && source.hasStatement(vocabularyIri,
+                    RDF.TYPE, iri(Vocabulary.s_c_slovnik), false, contextIri);
+            if (copyVocabulary) {
+                writeVocabularyMetadata(sink, vocabularyIri, snapshot, glossary, model);
+            }
+            final Map<Resource, Set<Value>> terms = resolveTerms(source, vocabularyIri, contextIri);
+            for (Map.Entry<Resource, Set<Value>> e : terms.entrySet()) {
+                writeTermMetadata(sink, e.getKey(), e.getValue());
+            }
+            try (final RepositoryResult<Statement> statements = source.getStatements(null, null, null, false,
+                                                                                       contextIri)) {
+                while (statements.hasNext() && !sink.isAborted()) {
+                    final Statement s = statements.next();
+                    final Resource subject = s.getSubject();
+                    if (copyVocabulary && subject.equals(vocabularyIri)) {
+                        copyVocabularyStatement(sink, s, snapshot);
+                    } else if (copyVocabulary && subject.equals(glossary)) {
+                        if (s.getPredicate().equals(SKOS.HAS_TOP_CONCEPT)) {
+                            sink.add((Resource) snapshotOf(glossary), SKOS.HAS_TOP_CONCEPT,
+                                     snapshotOf(s.getObject()));
+                        }
+                    } else if (terms.containsKey(subject)) {
+                        copyTermStatement(sink, s);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Resource singleObject(RepositoryConnection con, IRI subject, String property, IRI context) {
+        final List<Statement> statements = Iterations.asList(
+                con.getStatements(subject, con.getValueFactory().createIRI(property), null, false, context));
+        return statements.isEmpty() || !(statements.get(0).getObject() instanceof Resource) ? null :
+               (Resource) statements.get(0).getObject();
+    }
+
+    private Map<Resource, Set<Value>> resolveTerms(RepositoryConnection con, IRI vocabulary, IRI context) {
+        final Map<Resource, Set<Value>> terms = new HashMap<>();
+        final TupleQuery query = con.prepareTupleQuery(TERMS_QUERY);
+        query.setBinding("vocabulary", vocabulary);
+        query.setBinding("context", context);
+        try (final TupleQueryResult rs = query.evaluate()) {
+            while (rs.hasNext()) {
+                final BindingSet bs = rs.next();
+                terms.computeIfAbsent((Resource) bs.getValue("term"), k -> new HashSet<>())
+                     .add(bs.getValue("glossary"));
+            }
+        }
+        return terms;
+    }
+
+    private void writeVocabularyMetadata(StatementSink sink, IRI vocabulary, IRI snapshot, Resource glossary,
+                                         Resource model) {
+        final Resource glossarySnapshot = (Resource) snapshotOf(glossary);
+        final Resource modelSnapshot = (Resource) snapshotOf(model);
+        sink.add(snapshot, RDF.TYPE, iri(Vocabulary.s_c_verze_slovniku));
+        sink.add(snapshot, iri(Vocabulary.s_p_je_verzi_slovniku), vocabulary);
+        sink.add(snapshot, iri(Vocabulary.s_p_ma_datum_a_cas_vytvoreni_verze), created);
+        sink.add(snapshot, iri(Vocabulary.s_p_ma_glosar), glossarySnapshot);
+        sink.add(snapshot, iri(Vocabulary.s_p_ma_model), modelSnapshot);
+        sink.add(glossarySnapshot, RDF.TYPE, iri(Vocabulary.s_c_glosar));
+        sink.add(glossarySnapshot, RDF.TYPE, iri(Vocabulary.s_c_verze_glosare));
+        sink.add(glossarySnapshot, RDF.TYPE, SKOS.CONCEPT_SCHEME);
+        sink.add(glossarySnapshot, iri(Vocabulary.s_p_je_verzi_glosare), glossary);
+        sink.add(glossarySnapshot, iri(Vocabulary.s_p_ma_datum_a_cas_vytvoreni_verze), created);
+        sink.add(modelSnapshot, RDF.TYPE, iri(Vocabulary.s_c_model));
+        sink.add(modelSnapshot, RDF.TYPE, iri(Vocabulary.s_c_verze_modelu));
+        sink.add(modelSnapshot, iri(Vocabulary.s_p_je_verzi_modelu), model);
+        sink.add(modelSnapshot, iri(Vocabulary.s_p_ma_datum_a_cas_vytvoreni_verze), created);
+    }
+
+    private void copyVocabularyStatement(StatementSink sink, Statement s, IRI snapshot) {
+        final IRI property = s.getPredicate();
+        if (property.stringValue().equals(Vocabulary.s_p_importuje_slovnik)) {
+            sink.add(snapshot, property, snapshotOf(s.getObject()));
+        } else if (!skippedVocabularyProperties.contains(property)) {
+            sink.add(snapshot, property, s.getObject());
+        }
+    }
+
+    private void writeTermMetadata(StatementSink sink, Resource term, Set<Value> glossaries) {
+        final Resource termSnapshot = (Resource) snapshotOf(term);
+        sink.add(termSnapshot, RDF.TYPE, SKOS.CONCEPT);
+        sink.add(termSnapshot, RDF.TYPE, iri(Vocabulary.s_c_verze_pojmu));
+        glossaries.forEach(g -> sink.add(termSnapshot, SKOS.IN_SCHEME, snapshotOf(g)));
+        sink.add(termSnapshot, iri(Vocabulary.s_p_je_verzi_pojmu), term);
+        sink.add(termSnapshot, iri(Vocabulary.s_p_ma_datum_a_cas_vytvoreni_verze), created);
+    }
+
+    private void copyTermStatement(StatementSink sink, Statement s) {
+        final Resource termSnapshot = (Resource) snapshotOf(s.getSubject());
+        final IRI property = s.getPredicate();
+        if (rewrittenTermProperties.contains(property)) {
+            sink.add(termSnapshot, property, snapshotOf(s.getObject()));
+        } else if (!skippedTermProperties.contains(property)) {
+            sink.add(termSnapshot, property, s.getObject());
+        }
+    }
+
+    /**
+     * Marks the specified snapshot contexts as incomplete until the specified instant.
+     * <p>
+     * Incomplete snapshot contexts whose mark expires are removed (see {@link SnapshotJobManager}), so that a snapshot
+     * whose creation was interrupted, e.g., by application shutdown, does not remain in the repository. The mark is
+     * replaced if it already exists, which allows a running snapshot job to extend it.
+     *
+     * @param snapshots Snapshot contexts to mark
+     * @param until     Instant until which the snapshot creation is expected to progress
+     */
+    void markIncomplete(Collection<IRI> snapshots, Instant until) {
+        final IRI incompleteUntil = iri(Vocabulary.s_p_rozpracovano_do);
+        final Literal value = vf.createLiteral(until.toString(), XSD.DATETIME);
+        try (final RepositoryConnection con = repository.getConnection()) {
+            con.begin();
+            snapshots.forEach(ctx -> {
+                con.remove(ctx, incompleteUntil, null, ctx);
+                con.add(ctx, RDF.TYPE, iri(Vocabulary.s_c_rozpracovana_verze), ctx);
+                con.add(ctx, incompleteUntil, value, ctx);
+            });
+            con.commit();
+        }
+    }
+
+    /**
+     * Removes the incomplete mark from the specified snapshot contexts, making the snapshot final.
+     *
+     * @param snapshots Snapshot contexts
+     * @see #markIncomplete(Collection, Instant)
+     */
+    void markComplete(Collection<IRI> snapshots) {
+        try (final RepositoryConnection con = repository.getConnection()) {
+            con.begin();
+            snapshots.forEach(ctx -> {
+                con.remove(ctx, iri(Vocabulary.s_p_rozpracovano_do), null, ctx);
+                con.remove(ctx, RDF.TYPE, iri(Vocabulary.s_c_rozpracovana_verze), ctx);
+            });
+            con.commit();
+        }
+    }
+
+    /**
+     * Removes content of the specified snapshot contexts.
+     * <p>
+     * Used to roll back a snapshot whose creation failed.
+     *
+     * @param snapshots Snapshot contexts to clear
+     */
+    void clear(Collection<IRI> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        try (final RepositoryConnection con = repository.getConnection()) {
+            con.begin();
+            con.clear(snapshots.toArray(new Resource[0]));
+            con.commit();
+        }
+    }
+
+    private interface StatementSink {
+        void add(Resource subject, IRI property, Value value);
+
+        boolean isAborted();
+    }
+
+    private class BatchWriter implements StatementSink {
+        private final RepositoryConnection connection;
+        private final IRI context;
+        private final BooleanSupplier aborted;
+        private final LongConsumer progress;
+        private final Predicate<Statement> filter;
+        private final List<Statement> batch;
+        private long written;
+
+        private BatchWriter(RepositoryConnection connection, IRI context, BooleanSupplier aborted,
+                            LongConsumer progress, Predicate<Statement> filter) {
+            this.connection = connection;
+            this.context = context;
+            this.aborted = aborted;
+            this.progress = progress;
+            this.filter = filter;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        @Override
+        public void add(Resource subject, IRI property, Value value) {
+            add(vf.createStatement(subject, property, value, context));
+        }
+
+        private void add(Statement statement) {
+            if (!filter.test(statement)) {
+                return;
+            }
+            batch.add(statement);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public boolean isAborted() {
+            return aborted.getAsBoolean();
+        }
+
+        private void flush() {
+            if (batch.isEmpty() || isAborted()) {
+                return;
+            }
+            connection.begin();
+            connection.add(batch);
+            connection.commit();
+            written += batch.size();
+            progress.accept(batch.size());
+            batch.clear();
+        }
+    }
+}
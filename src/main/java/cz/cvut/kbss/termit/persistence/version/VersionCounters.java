@@ -0,0 +1,219 @@
+package cz.cvut.kbss.termit.persistence.version;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static cz.cvut.kbss.termit.util.TransactionUtils.afterCommit;
+
+/**
+ * Data version counters stored in the repository.
+ * <p>
+ * Counters live in the metadata context of the repository and are incremented in the same transaction as the
+ * modification they reflect, so they survive restarts and are shared by all TermIt instances using the repository.
+ * Counter values are based on the current time (a counter is set to the current time in milliseconds, or to its
+ * previous value plus one if that is greater), so they can also be used as last modification timestamps.
+ * <p>
+ * Each instance caches counter values and revalidates them against the repository once the configured revalidation
+ * interval elapses. Local increments evict the cached value as soon as the transaction commits.
+ * <p>
+ * Note that concurrent increments of the same counter by different instances within the same millisecond may result
+ * in a single increment.
+ */
+@Component
+public class VersionCounters {
+
+    private final EntityManager em;
+
+    private final PlatformTransactionManager txManager;
+
+    private final String context;
+
+    private final long revalidationInterval;
+
+    private final Map<String, CachedValue> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every eviction, prevents caching of values loaded concurrently with a modification
+     */
+    private final AtomicLong evictionCounter = new AtomicLong();
+
+    @Autowired
+    public VersionCounters(EntityManager em, PlatformTransactionManager txManager, Configuration config) {
+        this.em = em;
+        this.txManager = txManager;
+        this.context = config.getPersistence().getMetadataContext();
+        this.revalidationInterval = config.getPersistence().getVersionRevalidationInterval();
+    }
+
+    /**
+     * Gets the current value of the specified counter.
+     *
+     * @param key Counter key
+     * @return Counter value, {@code 0} if the counter has never been incremented
+     */
+    public long get(String key) {
+        Objects.requireNonNull(key);
+        return get(Collections.singleton(key)).get(key);
+    }
+
+    /**
+     * Gets current values of the specified counters.
+     * <p>
+     * Counters whose cached values need revalidation are loaded from the repository using a single query.
+     *
+     * @param keys Counter keys
+     * @return Map of counter keys to their values, value of a counter which has never been incremented is {@code 0}
+     */
+    public Map<String, Long> get(Collection<String> keys) {
+        Objects.requireNonNull(keys);
+        final long now = System.currentTimeMillis();
+        final Map<String, Long> result = new HashMap<>(keys.size());
+        final Set<String> stale = new HashSet<>();
+        for (String key : keys) {
+            final CachedValue cached = cache.get(key);
+            if (cached != null && now - cached.validatedAt < revalidationInterval) {
+                result.put(key, cached.value);
+            } else {
+                stale.add(key);
+            }
+        }
+        if (!stale.isEmpty()) {
+            final long evictions = evictionCounter.get();
+            final Map<String, Long> loaded = load(stale);
+            for (String key : stale) {
+                final long value = loaded.getOrDefault(key, 0L);
+                result.put(key, value);
+                // Do not cache values which may have been loaded concurrently with a modification, they may be stale
+                if (evictions == evictionCounter.get()) {
+                    cache.put(key, new CachedValue(value, now));
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Long> load(Collection<String> keys) {
+        final Map<URI, String> counters = new HashMap<>(keys.size());
+        keys.forEach(k -> counters.put(counterIri(k), k));
+        final Map<String, Long> result = new HashMap<>(keys.size());
+        try {
+            em.createNativeQuery("SELECT ?counter (STR(MAX(?value)) AS ?max) WHERE { " +
+                                         "GRAPH ?g { ?counter ?hasValue ?value . } " +
+                                         "FILTER (?counter IN (?counters)) " +
+                                         "} GROUP BY ?counter")
+              .setParameter("g", URI.create(context))
+              .setParameter("hasValue", URI.create(Vocabulary.s_p_ma_hodnotu_citace))
+              .setParameter("counters", counters.keySet())
+              .getResultStream().forEach(row -> {
+                  assert row instanceof Object[];
+                  final Object[] bindingSet = (Object[]) row;
+                  result.put(counters.get((URI) bindingSet[0]), Long.parseLong(bindingSet[1].toString()));
+              });
+            return result;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private URI counterIri(String key) {
+        return URI.create(context + "/counter/" + URLEncoder.encode(key, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the current value of the specified counter, initializing the counter if it has never been incremented.
+     *
+     * @param key Counter key
+     * @return Counter value, always greater than zero
+     * @see #increment(String)
+     */
+    public long getOrInitialize(String key) {
+        final long value = get(key);
+        return value > 0 ? value : increment(key);
+    }
+
+    /**
+     * Increments the specified counter.
+     * <p>
+     * The counter is updated in the current transaction, if there is one. Otherwise, a new transaction is used.
+     *
+     * @param key Counter key
+     * @return New value of the counter
+     */
+    public long increment(String key) {
+        Objects.requireNonNull(key);
+        final Long result = new TransactionTemplate(txManager).execute(status -> {
+            final URI counter = counterIri(key);
+            final long current = load(Collections.singleton(key)).getOrDefault(key, 0L);
+            final long value = Math.max(current + 1, System.currentTimeMillis());
+            try {
+                em.createNativeQuery("DELETE { GRAPH ?g { ?counter ?hasValue ?old . } } " +
+                                             "INSERT { GRAPH ?g { ?counter a ?type ; ?hasValue ?value . } } " +
+                                             "WHERE { OPTIONAL { GRAPH ?g { ?counter ?hasValue ?old . } } }")
+                  .setParameter("g", URI.create(context))
+                  .setParameter("counter", counter)
+                  .setParameter("type", URI.create(Vocabulary.s_c_citac_verzi))
+                  .setParameter("hasValue", URI.create(Vocabulary.s_p_ma_hodnotu_citace))
+                  .setParameter("value", value).executeUpdate();
+            } catch (RuntimeException e) {
+                throw new PersistenceException(e);
+            }
+            evict(key);
+            afterCommit(() -> evict(key));
+            return value;
+        });
+        assert result != null;
+        return result;
+    }
+
+    /**
+     * Increments the specified counters in the current transaction (or in a new one if there is no transaction).
+     *
+     * @param keys Counter keys
+     */
+    public void increment(Collection<String> keys) {
+        Objects.requireNonNull(keys);
+        if (keys.isEmpty()) {
+            return;
+        }
+        new TransactionTemplate(txManager).executeWithoutResult(status -> keys.forEach(this::increment));
+    }
+
+    private void evict(String key) {
+        evictionCounter.incrementAndGet();
+        cache.remove(key);
+    }
+
+    /**
+     * Evicts all locally cached counter values. They will be reloaded from the repository on next access.
+     */
+    @EventListener(EvictCacheEvent.class)
+    public void evictAll() {
+        evictionCounter.incrementAndGet();
+        cache.clear();
+    }
+
+    private static final class CachedValue {
+        private final long value;
+        private final long validatedAt;
+
+        private CachedValue(long value, long validatedAt) {
+            this.value = value;
+            this.validatedAt = validatedAt;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package cz.cvut.kbss.termit.persistence.version;
+
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.persistence.index.vocabulary.VocabularyImportGraph;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks versions of vocabulary content.
+ * <p>
+ * Each vocabulary has a version counter which is incremented whenever the vocabulary or its terms are modified.
+ * Counters are stored in the repository (see {@link VersionCounters}) and incremented in the same transaction as the
+ * modification, so a client which sees a new version is guaranteed to also see the new data. Versions are thus stable
+ * across application restarts and consistent among multiple TermIt instances sharing the repository.
+ * <p>
+ * Term representations contain data from other vocabularies as well (e.g., imported parent terms or subterms from
+ * vocabularies importing the vocabulary), so the content tag of a vocabulary combines versions of the vocabulary, of
+ * all vocabularies it imports and of all vocabularies importing it.
+ */
+@Component
+public class VocabularyContentVersions {
+
+    /**
+     * Key of the counter incremented when content of an unknown vocabulary (or of all vocabularies) changes
+     */
+    static final String GLOBAL_COUNTER = "vocabulary-content";
+
+    private final VocabularyImportGraph importGraph;
+
+    private final VersionCounters counters;
+
+    @Autowired
+    public VocabularyContentVersions(VocabularyImportGraph importGraph, VersionCounters counters) {
+        this.importGraph = importGraph;
+        this.counters = counters;
+    }
+
+    private static String counterKey(URI vocabulary) {
+        return vocabulary != null ? GLOBAL_COUNTER + ":" + vocabulary : GLOBAL_COUNTER;
+    }
+
+    /**
+     * Gets the current version of content of the specified vocabulary itself.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Content version
+     */
+    public long getVersion(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return counters.get(counterKey(vocabulary));
+    }
+
+    /**
+     * Gets a tag identifying the current state of content of the specified vocabulary, including content of
+     * vocabularies it imports and of vocabularies importing it.
+     * <p>
+     * The tag is suitable to be used as an entity tag of representations derived from the vocabulary content.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Opaque content tag
+     */
+    public String getTag(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final Set<URI> scope = new HashSet<>(importGraph.getTransitiveImports(vocabulary));
+        scope.addAll(importGraph.getTransitivelyImportingVocabularies(vocabulary));
+        scope.add(vocabulary);
+        final Set<String> keys = scope.stream().map(VocabularyContentVersions::counterKey).collect(Collectors.toSet());
+        keys.add(GLOBAL_COUNTER);
+        final Map<String, Long> versions = counters.get(keys);
+        // Sum is independent of iteration order
+        long digest = 0;
+        for (URI v : scope) {
+            digest += mix(v, versions.get(counterKey(v)));
+        }
+        return Long.toString(versions.get(GLOBAL_COUNTER), Character.MAX_RADIX) + "-" + Long.toHexString(digest);
+    }
+
+    private static long mix(URI vocabulary, long version) {
+        long h = vocabulary.hashCode() * 0x9E3779B97F4A7C15L + version;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Marks content of the specified vocabularies as changed.
+     * <p>
+     * Versions are incremented in the current transaction, if there is one.
+     *
+     * @param vocabularies Vocabulary identifiers
+     */
+    public void vocabulariesChanged(Collection<URI> vocabularies) {
+        Objects.requireNonNull(vocabularies);
+        counters.increment(vocabularies.stream().map(VocabularyContentVersions::counterKey).distinct()
+                                       .collect(Collectors.toList()));
+    }
+
+    // Replayed events were already counted by the instance where the modification happened
+    @EventListener(condition = "!@invalidationBus.replaying")
+    public void onVocabularyContentModified(VocabularyContentModified event) {
+        counters.increment(counterKey(event.getVocabularyIri()));
+    }
+
+    @EventListener(condition = "!@invalidationBus.replaying")
+    public void onVocabularyModified(VocabularyModified event) {
+        counters.increment(counterKey(event.getVocabularyIri()));
+    }
+
+    @EventListener(value = EvictCacheEvent.class, condition = "!@invalidationBus.replaying")
+    public void evictAll() {
+        counters.increment(GLOBAL_COUNTER);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -34,4 +35,28 @@ public class AdminController {
         LOG.debug("Cache invalidation request received from client.");
         adminBean.invalidateCaches();
     }
+
+    @PreAuthorize("hasRole('" + SecurityConstants.ROLE_ADMIN + "')")
+    @PutMapping("/indexes")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void rebuildIndexes() {
+        LOG.debug("Index rebuild request received from client.");
+        adminBean.rebuildIndexes();
+    }
+
+    @PreAuthorize("hasRole('" + SecurityConstants.ROLE_ADMIN + "')")
+    @PutMapping("/snapshots/compaction")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void compactSnapshots() {
+        LOG.debug("Snapshot compaction request received from client.");
+        adminBean.compactSnapshots();
+    }
+
+    @PreAuthorize("hasRole('" + SecurityConstants.ROLE_ADMIN + "')")
+    @DeleteMapping("/occurrences/orphans")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cleanupOrphanedOccurrences() {
+        LOG.debug("Orphaned term occurrences cleanup request received from client.");
+        adminBean.cleanupOrphanedOccurrences();
+    }
 }
@@ -20,6 +20,7 @@ package cz.cvut.kbss.termit.rest;
 import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.TextAnalysisRecord;
+import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
@@ -33,18 +34,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/resources")
@@ -52,6 +59,18 @@ public class ResourceController extends BaseController {
 
     private static final Logger LOG = LoggerFactory.getLogger(ResourceController.class);
 
+    /**
+     * Request attributes used to let the servlet container (Tomcat) send file content directly from the file system
+     */
+    static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    private static final String GZIP_ENCODING = "gzip";
+
+    private static final Pattern ZERO_QUALITY = Pattern.compile(";\\s*q=0(\\.0*)?$");
+
     private final ResourceService resourceService;
 
     @Autowired
@@ -80,28 +99,84 @@ public class ResourceController extends BaseController {
         LOG.debug("Resource {} updated.", resource);
     }
 
+    /**
+     * Gets content of the file with the specified identification.
+     * <p>
+     * The response is tagged with a hash of the content, so clients may revalidate it using {@code If-None-Match}.
+     * Requests for byte ranges of the content are supported. Compressed content is returned if the client accepts it
+     * and compression is supported for the file type (HTML).
+     *
+     * @param normalizedName Normalized name of the file
+     * @param namespace      Identifier namespace. Optional
+     * @param asAttachment   Whether the content should be returned as attachment
+     * @param webRequest     Request being processed
+     * @return File content
+     */
     @GetMapping(value = "/{normalizedName}/content")
     public ResponseEntity<org.springframework.core.io.Resource> getContent(
             @PathVariable String normalizedName,
             @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace,
-            @RequestParam(name = "attachment", required = false) boolean asAttachment) {
+            @RequestParam(name = "attachment", required = false) boolean asAttachment,
+            ServletWebRequest webRequest) {
         final Resource resource = getResource(normalizedName, namespace);
         try {
-            final TypeAwareResource content = resourceService.getContent(resource);
+            // Ranges refer to the uncompressed content
+            final boolean ranged = webRequest.getHeader(HttpHeaders.RANGE) != null;
+            final Optional<TypeAwareResource> compressed = !ranged && acceptsGzip(webRequest) ?
+                                                           resourceService.getCompressedContent(resource) :
+                                                           Optional.empty();
+            final TypeAwareResource content = compressed.orElseGet(() -> resourceService.getContent(resource));
+            if (webRequest.checkNotModified(content.getContentHash().orElse(null), content.lastModified())) {
+                return null;
+            }
             final ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
-                                                                     .contentLength(content.contentLength())
                                                                      .contentType(MediaType.parseMediaType(
                                                                              content.getMediaType()
-                                                                                    .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE)));
+                                                                                    .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE)))
+                                                                     .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            compressed.ifPresent(c -> builder.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING));
             if (asAttachment) {
                 builder.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + normalizedName + "\"");
             }
+            if (!ranged && sendFile(webRequest.getRequest(), content)) {
+                // Ranges are otherwise advertised by the resource message converter, which is bypassed here
+                return builder.header(HttpHeaders.ACCEPT_RANGES, "bytes").contentLength(content.contentLength())
+                              .build();
+            }
             return builder.body(content);
         } catch (IOException e) {
             throw new TermItException("Unable to load content of resource " + resource, e);
         }
     }
 
+    private static boolean acceptsGzip(WebRequest request) {
+        final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && Arrays.stream(acceptEncoding.split(","))
+                                               .map(encoding -> encoding.trim().toLowerCase())
+                                               .anyMatch(encoding -> encoding.startsWith(GZIP_ENCODING) &&
+                                                       !ZERO_QUALITY.matcher(encoding).find());
+    }
+
+    /**
+     * Lets the servlet container send the specified content directly from the file system (without copying it through
+     * the application), if the container supports it.
+     * <p>
+     * Responses to HEAD requests have no body, so there is nothing to send.
+     *
+     * @return {@code true} if the container will send the content, {@code false} if it has to be written to the
+     * response
+     */
+    private static boolean sendFile(HttpServletRequest request, TypeAwareResource content) throws IOException {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)) || !content.isFile() ||
+                HttpMethod.HEAD.matches(request.getMethod())) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, content.getFile().getCanonicalPath());
+        request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+        request.setAttribute(SENDFILE_END_ATTRIBUTE, content.contentLength());
+        return true;
+    }
+
     @PutMapping(value = "/{normalizedName}/content")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PreAuthorize("hasRole('" + SecurityConstants.ROLE_FULL_USER + "')")
@@ -141,6 +216,32 @@ public class ResourceController extends BaseController {
         return resourceService.getFiles(resourceService.getRequiredReference(identifier));
     }
 
+    /**
+     * Gets term occurrences in the specified region of the content of the file with the specified identification.
+     * <p>
+     * This allows clients to fetch only occurrences in the currently displayed part of the file.
+     *
+     * @param normalizedName Normalized name used to identify the file
+     * @param namespace      Namespace used for resource identifier resolution. Optional, if not specified, the
+     *                       configured namespace is used
+     * @param start          Start offset of the region (inclusive). Optional, defaults to the start of the content
+     * @param end            End offset of the region (exclusive). Optional, defaults to the end of the content
+     * @param term           Identifier of the term whose occurrences to retrieve. Optional
+     * @return List of term occurrences ordered by their position in the content
+     */
+    @GetMapping(value = "/{normalizedName}/occurrences",
+                produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
+    public List<TermOccurrence> getOccurrences(@PathVariable String normalizedName,
+                                               @RequestParam(name = QueryParams.NAMESPACE,
+                                                             required = false) Optional<String> namespace,
+                                               @RequestParam(name = "start", required = false,
+                                                             defaultValue = "0") int start,
+                                               @RequestParam(name = "end", required = false) Optional<Integer> end,
+                                               @RequestParam(name = "term", required = false) URI term) {
+        final Resource resource = getResource(normalizedName, namespace);
+        return resourceService.getOccurrences(resource, start, end.orElse(Integer.MAX_VALUE), term);
+    }
+
     private String resourceNamespace(Optional<String> namespace) {
         return namespace.orElse(config.getNamespace().getResource());
     }
@@ -19,9 +19,12 @@ import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.SearchService;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -32,10 +35,19 @@ import java.net.URI;
 import java.util.List;
 import java.util.Set;
 
+import static cz.cvut.kbss.termit.rest.util.RestUtils.createPageRequest;
+
 @RestController
 @RequestMapping("/search")
 public class SearchController extends BaseController {
 
+    /**
+     * Full text search results are always paged, so that a request without page specification does not retrieve all
+     * matching assets
+     */
+    static final String DEFAULT_PAGE_SIZE = "100";
+    static final String DEFAULT_PAGE = "0";
+
     private final SearchService searchService;
 
     @Autowired
@@ -46,8 +58,16 @@ public class SearchController extends BaseController {
 
     @PreAuthorize("permitAll()")
     @GetMapping(value = "/fts", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<FullTextSearchResult> fullTextSearch(@RequestParam(name = "searchString") String searchString) {
-        return searchService.fullTextSearch(searchString);
+    public ResponseEntity<List<FullTextSearchResult>> fullTextSearch(
+            @RequestParam(name = "searchString") String searchString,
+            @RequestParam(name = Constants.QueryParams.PAGE_SIZE, required = false,
+                          defaultValue = DEFAULT_PAGE_SIZE) Integer pageSize,
+            @RequestParam(name = Constants.QueryParams.PAGE, required = false,
+                          defaultValue = DEFAULT_PAGE) Integer pageNo) {
+        final Page<FullTextSearchResult> result = searchService.fullTextSearch(searchString,
+                                                                               createPageRequest(pageSize, pageNo));
+        return ResponseEntity.ok().header(Constants.X_TOTAL_COUNT_HEADER, Long.toString(result.getTotalElements()))
+                             .body(result.getContent());
     }
 
     @PreAuthorize("permitAll()")
@@ -29,6 +29,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.io.IOException;
 import java.net.URI;
@@ -61,54 +62,94 @@ public class TermController extends BaseController {
     /**
      * Get all terms from vocabulary with the specified identification.
      * <p>
-     * This method also allows to export the terms into CSV or Excel by using HTTP content type negotiation or filter
-     * terms by a search string.
+     * This method also allows to filter terms by a search string. Export of the terms into CSV, Excel or RDF is
+     * handled by {@link #exportAll(String, Optional, boolean, Set, String, ServletWebRequest)}.
+     * <p>
+     * No media types are declared, so that requests accepting any media type are mapped to this method rather than to
+     * the export.
      *
      * @param vocabularyIdFragment Vocabulary name
      * @param namespace            Vocabulary namespace. Optional
      * @param searchString         String to filter term labels by. Optional
-     * @param includeImported      Whether to include imported vocabularies when searching for terms. Does not apply to
-     *                             term export. Optional, defaults to false
+     * @param includeImported      Whether to include imported vocabularies when searching for terms. Optional,
+     *                             defaults to false
+     * @param webRequest           Request used to evaluate {@code If-None-Match} against the vocabulary content version
+     * @return List of terms of the specific vocabulary
+     */
+    @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms")
+    public ResponseEntity<List<TermDto>> getAll(@PathVariable String vocabularyIdFragment,
+                                                @RequestParam(name = QueryParams.NAMESPACE,
+                                                              required = false) Optional<String> namespace,
+                                                @RequestParam(name = "searchString",
+                                                              required = false) String searchString,
+                                                @RequestParam(name = "includeImported",
+                                                              required = false) boolean includeImported,
+                                                ServletWebRequest webRequest) {
+        final URI vocabularyUri = getVocabularyUri(namespace, vocabularyIdFragment);
+        if (webRequest.checkNotModified(getContentVersionTag(vocabularyUri))) {
+            return null;
+        }
+        final Vocabulary vocabulary = getVocabulary(vocabularyUri);
+        final List<TermDto> result;
+        if (searchString != null) {
+            result = includeImported ? termService.findAllIncludingImported(searchString, vocabulary) :
+                     termService.findAll(searchString, vocabulary);
+        } else {
+            result = includeImported ? termService.findAllIncludingImported(vocabulary) :
+                     termService.findAll(vocabulary);
+        }
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(result);
+    }
+
+    /**
+     * Exports all terms from vocabulary with the specified identification into CSV, Excel or RDF, based on HTTP content
+     * type negotiation.
+     *
+     * @param vocabularyIdFragment Vocabulary name
+     * @param namespace            Vocabulary namespace. Optional
      * @param withReferences       Whether to include terms from other vocabularies referenced by terms from the
-     *                             vocabulary being exported. Relevant only for term export. Optional, defaults to
-     *                             false
+     *                             vocabulary being exported. Optional, defaults to false
      * @param properties           A set of properties representing references to terms from other vocabularies to take
-     *                             into account in export. Relevant only for term export. Optional
-     * @param acceptType           MIME type accepted by the client, relevant only for term export
-     * @return List of terms of the specific vocabulary
+     *                             into account in export. Optional
+     * @param acceptType           MIME type accepted by the client
+     * @param webRequest           Request used to evaluate {@code If-None-Match} against the vocabulary content version
+     * @return Exported terms of the specific vocabulary
      */
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms",
-                produces = {MediaType.APPLICATION_JSON_VALUE,
-                            JsonLd.MEDIA_TYPE,
-                            Constants.MediaType.CSV,
+                produces = {Constants.MediaType.CSV,
                             Constants.MediaType.EXCEL,
                             Constants.MediaType.TURTLE,
                             Constants.MediaType.RDF_XML})
-    public ResponseEntity<?> getAll(@PathVariable String vocabularyIdFragment,
-                                    @RequestParam(name = QueryParams.NAMESPACE,
-                                                  required = false) Optional<String> namespace,
-                                    @RequestParam(name = "searchString", required = false) String searchString,
-                                    @RequestParam(name = "includeImported", required = false) boolean includeImported,
-                                    @RequestParam(name = "withReferences", required = false) boolean withReferences,
-                                    @RequestParam(name = "property", required = false,
-                                                  defaultValue = "[]") Set<String> properties,
-                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false,
-                                                   defaultValue = MediaType.ALL_VALUE) String acceptType) {
+    public ResponseEntity<TypeAwareResource> exportAll(@PathVariable String vocabularyIdFragment,
+                                                       @RequestParam(name = QueryParams.NAMESPACE,
+                                                                     required = false) Optional<String> namespace,
+                                                       @RequestParam(name = "withReferences",
+                                                                     required = false) boolean withReferences,
+                                                       @RequestParam(name = "property", required = false,
+                                                                     defaultValue = "[]") Set<String> properties,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT)
+                                                               String acceptType,
+                                                       ServletWebRequest webRequest) {
         final URI vocabularyUri = getVocabularyUri(namespace, vocabularyIdFragment);
-        final Vocabulary vocabulary = getVocabulary(vocabularyUri);
-        if (searchString != null) {
-            return ResponseEntity.ok(includeImported ?
-                                     termService.findAllIncludingImported(searchString, vocabulary) :
-                                     termService.findAll(searchString, vocabulary));
+        if (webRequest.checkNotModified(getContentVersionTag(vocabularyUri))) {
+            return null;
         }
-        final Optional<ResponseEntity<?>> export = exportTerms(vocabulary, withReferences, properties, acceptType);
-        return export.orElse(ResponseEntity
-                                     .ok(includeImported ? termService.findAllIncludingImported(vocabulary) :
-                                         termService.findAll(vocabulary)));
+        final Vocabulary vocabulary = getVocabulary(vocabularyUri);
+        return exportTerms(vocabulary, withReferences, properties, acceptType)
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE));
     }
 
-    private Optional<ResponseEntity<?>> exportTerms(Vocabulary vocabulary, boolean withReferences,
-                                                    Collection<String> properties, String mediaType) {
+    /**
+     * Gets an entity tag representing the current version of terms of the specified vocabulary.
+     * <p>
+     * It is used for conditional requests on read endpoints scoped to the vocabulary.
+     */
+    private String getContentVersionTag(URI vocabularyUri) {
+        return RestUtils.createWeakETag(termService.getContentVersion(vocabularyUri));
+    }
+
+    private Optional<ResponseEntity<TypeAwareResource>> exportTerms(Vocabulary vocabulary, boolean withReferences,
+                                                                    Collection<String> properties, String mediaType) {
         final Optional<TypeAwareResource> content = withReferences ?
                                                     termService.exportGlossaryWithReferences(vocabulary, properties,
                                                                                              mediaType) :
@@ -118,6 +159,7 @@ public class TermController extends BaseController {
                 return ResponseEntity.ok()
                                      .contentLength(r.contentLength())
                                      .contentType(MediaType.parseMediaType(mediaType))
+                                     .varyBy(HttpHeaders.ACCEPT)
                                      .header(HttpHeaders.CONTENT_DISPOSITION,
                                              "attachment; filename=\"" + IdentifierResolver.extractIdentifierFragment(
                                                      vocabulary.getUri()) +
@@ -175,23 +217,32 @@ public class TermController extends BaseController {
      * @param pageNo               Number of the page to return. Optional
      * @param includeImported      Whether a transitive closure of vocabulary imports should be used when getting the
      *                             root terms. Optional, defaults to {@code false}
+     * @param webRequest           Request used to evaluate {@code If-None-Match} against the vocabulary content version
      * @return List of root terms of the specific vocabulary
      */
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/roots",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<TermDto> getAllRoots(@PathVariable String vocabularyIdFragment,
-                                     @RequestParam(name = QueryParams.NAMESPACE,
-                                                   required = false) Optional<String> namespace,
-                                     @RequestParam(name = QueryParams.PAGE_SIZE, required = false) Integer pageSize,
-                                     @RequestParam(name = QueryParams.PAGE, required = false) Integer pageNo,
-                                     @RequestParam(name = "includeImported", required = false) boolean includeImported,
-                                     @RequestParam(name = "includeTerms", required = false,
-                                                   defaultValue = "") List<URI> includeTerms) {
-        final Vocabulary vocabulary = getVocabulary(getVocabularyUri(namespace, vocabularyIdFragment));
-        return includeImported ?
+    public ResponseEntity<List<TermDto>> getAllRoots(@PathVariable String vocabularyIdFragment,
+                                                     @RequestParam(name = QueryParams.NAMESPACE,
+                                                                   required = false) Optional<String> namespace,
+                                                     @RequestParam(name = QueryParams.PAGE_SIZE,
+                                                                   required = false) Integer pageSize,
+                                                     @RequestParam(name = QueryParams.PAGE,
+                                                                   required = false) Integer pageNo,
+                                                     @RequestParam(name = "includeImported",
+                                                                   required = false) boolean includeImported,
+                                                     @RequestParam(name = "includeTerms", required = false,
+                                                                   defaultValue = "") List<URI> includeTerms,
+                                                     ServletWebRequest webRequest) {
+        final URI vocabularyUri = getVocabularyUri(namespace, vocabularyIdFragment);
+        if (webRequest.checkNotModified(getContentVersionTag(vocabularyUri))) {
+            return null;
+        }
+        final Vocabulary vocabulary = getVocabulary(vocabularyUri);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(includeImported ?
                termService
                        .findAllRootsIncludingImported(vocabulary, createPageRequest(pageSize, pageNo), includeTerms) :
-               termService.findAllRoots(vocabulary, createPageRequest(pageSize, pageNo), includeTerms);
+               termService.findAllRoots(vocabulary, createPageRequest(pageSize, pageNo), includeTerms));
     }
 
     /**
@@ -223,16 +274,21 @@ public class TermController extends BaseController {
      * @param vocabularyIdFragment Vocabulary identifier fragment
      * @param termIdFragment       Term identifier fragment
      * @param namespace            Vocabulary identifier namespace. Optional
+     * @param webRequest           Request used to evaluate {@code If-None-Match} against the vocabulary content version
      * @return Matching term
      * @throws NotFoundException If term does not exist
      */
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/{termIdFragment}",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public Term getById(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
-                        @PathVariable("termIdFragment") String termIdFragment,
-                        @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace) {
-        final URI termUri = getTermUri(vocabularyIdFragment, termIdFragment, namespace);
-        return termService.findRequired(termUri);
+    public ResponseEntity<Term> getById(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
+                                        @PathVariable("termIdFragment") String termIdFragment,
+                                        @RequestParam(name = QueryParams.NAMESPACE,
+                                                      required = false) Optional<String> namespace,
+                                        ServletWebRequest webRequest) {
+        if (webRequest.checkNotModified(getContentVersionTag(getVocabularyUri(namespace, vocabularyIdFragment)))) {
+            return null;
+        }
+        return RestUtils.createVersionedResponse(findTerm(vocabularyIdFragment, termIdFragment, namespace), false);
     }
 
     /**
@@ -243,10 +299,14 @@ public class TermController extends BaseController {
      * @see #getById(String, String)
      */
     @GetMapping(value = "/terms/{termIdFragment}", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public Term getById(@PathVariable("termIdFragment") String termIdFragment,
-                        @RequestParam(name = QueryParams.NAMESPACE) String namespace) {
+    public ResponseEntity<Term> getById(@PathVariable("termIdFragment") String termIdFragment,
+                                        @RequestParam(name = QueryParams.NAMESPACE) String namespace) {
         final URI termUri = idResolver.resolveIdentifier(namespace, termIdFragment);
-        return termService.findRequired(termUri);
+        return RestUtils.createSnapshotAwareResponse(termService.findRequired(termUri), false);
+    }
+
+    private Term findTerm(String vocabIdFragment, String termIdFragment, Optional<String> namespace) {
+        return termService.findRequired(getTermUri(vocabIdFragment, termIdFragment, namespace));
     }
 
     private URI getTermUri(String vocabIdFragment, String termIdFragment, Optional<String> namespace) {
@@ -332,12 +392,16 @@ public class TermController extends BaseController {
 
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/{termIdFragment}/subterms",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<Term> getSubTerms(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
-                                  @PathVariable("termIdFragment") String termIdFragment,
-                                  @RequestParam(name = QueryParams.NAMESPACE,
-                                                required = false) Optional<String> namespace) {
-        final Term parent = getById(vocabularyIdFragment, termIdFragment, namespace);
-        return termService.findSubTerms(parent);
+    public ResponseEntity<List<Term>> getSubTerms(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
+                                                  @PathVariable("termIdFragment") String termIdFragment,
+                                                  @RequestParam(name = QueryParams.NAMESPACE,
+                                                                required = false) Optional<String> namespace,
+                                                  ServletWebRequest webRequest) {
+        if (webRequest.checkNotModified(getContentVersionTag(getVocabularyUri(namespace, vocabularyIdFragment)))) {
+            return null;
+        }
+        final Term parent = findTerm(vocabularyIdFragment, termIdFragment, namespace);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(termService.findSubTerms(parent));
     }
 
     /**
@@ -347,7 +411,7 @@ public class TermController extends BaseController {
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
     public List<Term> getSubTerms(@PathVariable("termIdFragment") String termIdFragment,
                                   @RequestParam(name = QueryParams.NAMESPACE) String namespace) {
-        final Term parent = getById(termIdFragment, namespace);
+        final Term parent = termService.findRequired(idResolver.resolveIdentifier(namespace, termIdFragment));
         return termService.findSubTerms(parent);
     }
 
@@ -369,7 +433,7 @@ public class TermController extends BaseController {
                                               @RequestParam(name = QueryParams.NAMESPACE,
                                                             required = false) Optional<String> namespace,
                                               @RequestBody Term newTerm) {
-        final Term parent = getById(vocabularyIdFragment, parentIdFragment, namespace);
+        final Term parent = findTerm(vocabularyIdFragment, parentIdFragment, namespace);
         termService.persistChild(newTerm, parent);
         LOG.debug("Child term {} of parent {} created.", newTerm, parent);
         return ResponseEntity.created(createSubTermLocation(newTerm.getUri(), parentIdFragment)).build();
@@ -392,7 +456,7 @@ public class TermController extends BaseController {
                                               @RequestParam(name = QueryParams.NAMESPACE,
                                                             required = false) String namespace,
                                               @RequestBody Term newTerm) {
-        final Term parent = getById(parentIdFragment, namespace);
+        final Term parent = termService.findRequired(idResolver.resolveIdentifier(namespace, parentIdFragment));
         termService.persistChild(newTerm, parent);
         LOG.debug("Child term {} of parent {} created.", newTerm, parent);
         return ResponseEntity.created(createSubTermLocation(newTerm.getUri(), parentIdFragment)).build();
@@ -455,7 +519,7 @@ public class TermController extends BaseController {
                                       @PathVariable String termIdFragment,
                                       @RequestParam(name = QueryParams.NAMESPACE, required = false)
                                               Optional<String> namespace) {
-        termService.analyzeTermDefinition(getById(vocabularyIdFragment, termIdFragment, namespace),
+        termService.analyzeTermDefinition(findTerm(vocabularyIdFragment, termIdFragment, namespace),
                                           getVocabularyUri(namespace, vocabularyIdFragment));
     }
 
@@ -16,10 +16,11 @@ package cz.cvut.kbss.termit.rest;
 
 import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.termit.dto.AggregatedChangeInfo;
-import cz.cvut.kbss.termit.dto.Snapshot;
+import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.validation.ValidationResult;
+import cz.cvut.kbss.termit.persistence.snapshot.SnapshotJob;
 import cz.cvut.kbss.termit.rest.util.RestUtils;
 import cz.cvut.kbss.termit.security.SecurityConstants;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
@@ -60,10 +61,12 @@ public class VocabularyController extends BaseController {
 
     @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
     public ResponseEntity<List<Vocabulary>> getAll(ServletWebRequest webRequest) {
-        if (webRequest.checkNotModified(vocabularyService.getLastModified())) {
+        final long lastModified = vocabularyService.getLastModified();
+        // Last modification is tracked with millisecond precision, ETag allows detecting changes within one second
+        if (webRequest.checkNotModified(RestUtils.createWeakETag(Long.toString(lastModified)), lastModified)) {
             return null;
         }
-        return ResponseEntity.ok().lastModified(vocabularyService.getLastModified()).body(vocabularyService.findAll());
+        return ResponseEntity.ok().lastModified(lastModified).body(vocabularyService.findAll());
     }
 
     @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
@@ -75,9 +78,13 @@ public class VocabularyController extends BaseController {
     }
 
     @GetMapping(value = "/{fragment}", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public Vocabulary getById(@PathVariable String fragment,
-                              @RequestParam(name = QueryParams.NAMESPACE,
-                                            required = false) Optional<String> namespace) {
+    public ResponseEntity<Vocabulary> getById(@PathVariable String fragment,
+                                              @RequestParam(name = QueryParams.NAMESPACE,
+                                                            required = false) Optional<String> namespace) {
+        return RestUtils.createSnapshotAwareResponse(findVocabulary(fragment, namespace), false);
+    }
+
+    private Vocabulary findVocabulary(String fragment, Optional<String> namespace) {
         final URI id = resolveVocabularyUri(fragment, namespace);
         return vocabularyService.findRequired(id);
     }
@@ -192,7 +199,7 @@ public class VocabularyController extends BaseController {
     public void runTextAnalysisOnAllTerms(@PathVariable String vocabularyIdFragment,
                                           @RequestParam(name = QueryParams.NAMESPACE,
                                                         required = false) Optional<String> namespace) {
-        vocabularyService.runTextAnalysisOnAllTerms(getById(vocabularyIdFragment, namespace));
+        vocabularyService.runTextAnalysisOnAllTerms(findVocabulary(vocabularyIdFragment, namespace));
     }
 
     /**
@@ -255,10 +262,22 @@ public class VocabularyController extends BaseController {
                                                              required = false) Optional<String> namespace) {
         final URI identifier = resolveIdentifier(namespace.orElse(config.getNamespace().getVocabulary()), fragment);
         final Vocabulary vocabulary = vocabularyService.getRequiredReference(identifier);
-        final Snapshot snapshot = vocabularyService.createSnapshot(vocabulary);
-        LOG.debug("Created snapshot of vocabulary {}.", vocabulary);
-        return ResponseEntity.created(
-                locationWithout(generateLocation(snapshot.getUri()), "/" + fragment + "/versions")).build();
+        vocabularyService.createSnapshot(vocabulary);
+        LOG.debug("Started creation of snapshot of vocabulary {}.", vocabulary);
+        final URI jobLocation = namespace.map(
+                ns -> RestUtils.createLocationFromCurrentUriWithPathAndQuery("/job", QueryParams.NAMESPACE, ns))
+                                         .orElseGet(() -> RestUtils.createLocationFromCurrentUriWithPath("/job"));
+        return ResponseEntity.accepted().location(jobLocation).build();
+    }
+
+    @GetMapping(value = "/{fragment}/versions/job", produces = MediaType.APPLICATION_JSON_VALUE)
+    public SnapshotJob getLatestSnapshotJob(@PathVariable String fragment,
+                                            @RequestParam(name = QueryParams.NAMESPACE,
+                                                          required = false) Optional<String> namespace) {
+        final URI identifier = resolveIdentifier(namespace.orElse(config.getNamespace().getVocabulary()), fragment);
+        final Vocabulary vocabulary = vocabularyService.getRequiredReference(identifier);
+        return vocabularyService.findLatestSnapshotJob(vocabulary).orElseThrow(
+                () -> NotFoundException.create("Snapshot job of vocabulary", identifier));
     }
 
     @GetMapping(value = "/{fragment}/versions", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
@@ -14,10 +14,12 @@ import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Utils;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.net.URI;
 import java.time.Instant;
@@ -41,48 +43,82 @@ public class ReadOnlyTermController extends BaseController {
 
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<?> getTerms(@PathVariable String vocabularyIdFragment,
-                            @RequestParam(name = Constants.QueryParams.NAMESPACE,
-                                          required = false) Optional<String> namespace,
-                            @RequestParam(name = "searchString", required = false) String searchString,
-                            @RequestParam(name = "includeImported", required = false) boolean includeImported) {
+    public ResponseEntity<List<TermDto>> getTerms(@PathVariable String vocabularyIdFragment,
+                                                  @RequestParam(name = Constants.QueryParams.NAMESPACE,
+                                                                required = false) Optional<String> namespace,
+                                                  @RequestParam(name = "searchString",
+                                                                required = false) String searchString,
+                                                  @RequestParam(name = "includeImported",
+                                                                required = false) boolean includeImported,
+                                                  ServletWebRequest webRequest) {
+        if (isNotModified(vocabularyIdFragment, namespace, webRequest)) {
+            return null;
+        }
         final Vocabulary vocabulary = getVocabulary(vocabularyIdFragment, namespace);
         if (searchString != null) {
-            return includeImported ? termService.findAllIncludingImported(searchString, vocabulary) :
-                   termService.findAll(searchString, vocabulary);
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT)
+                                 .body(includeImported ?
+                                       termService.findAllIncludingImported(searchString, vocabulary) :
+                                       termService.findAll(searchString, vocabulary));
         }
-        return termService.findAll(vocabulary);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(termService.findAll(vocabulary));
+    }
+
+    private URI getVocabularyUri(String fragment, Optional<String> namespace) {
+        return resolveIdentifier(namespace.orElse(config.getNamespace().getVocabulary()), fragment);
     }
 
     private Vocabulary getVocabulary(String fragment, Optional<String> namespace) {
-        final URI uri = resolveIdentifier(namespace.orElse(config.getNamespace().getVocabulary()), fragment);
-        return termService.findVocabularyRequired(uri);
+        return termService.findVocabularyRequired(getVocabularyUri(fragment, namespace));
+    }
+
+    /**
+     * Checks whether the client already has the current version of terms of the specified vocabulary.
+     * <p>
+     * If so, the response is marked as Not Modified.
+     */
+    private boolean isNotModified(String fragment, Optional<String> namespace, ServletWebRequest webRequest) {
+        final URI vocabularyUri = getVocabularyUri(fragment, namespace);
+        return webRequest.checkNotModified(RestUtils.createWeakETag(termService.getContentVersion(vocabularyUri)));
     }
 
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/roots",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<TermDto> getAllRoots(@PathVariable String vocabularyIdFragment,
-                                     @RequestParam(name = Constants.QueryParams.NAMESPACE,
-                                                   required = false) Optional<String> namespace,
-                                     @RequestParam(name = Constants.QueryParams.PAGE_SIZE,
-                                                   required = false) Integer pageSize,
-                                     @RequestParam(name = Constants.QueryParams.PAGE, required = false) Integer pageNo,
-                                     @RequestParam(name = "includeImported",
-                                                   required = false) boolean includeImported) {
+    public ResponseEntity<List<TermDto>> getAllRoots(@PathVariable String vocabularyIdFragment,
+                                                     @RequestParam(name = Constants.QueryParams.NAMESPACE,
+                                                                   required = false) Optional<String> namespace,
+                                                     @RequestParam(name = Constants.QueryParams.PAGE_SIZE,
+                                                                   required = false) Integer pageSize,
+                                                     @RequestParam(name = Constants.QueryParams.PAGE,
+                                                                   required = false) Integer pageNo,
+                                                     @RequestParam(name = "includeImported",
+                                                                   required = false) boolean includeImported,
+                                                     ServletWebRequest webRequest) {
+        if (isNotModified(vocabularyIdFragment, namespace, webRequest)) {
+            return null;
+        }
         final Vocabulary vocabulary = getVocabulary(vocabularyIdFragment, namespace);
         final Pageable pageSpec = RestUtils.createPageRequest(pageSize, pageNo);
-        return includeImported ? termService.findAllRootsIncludingImported(vocabulary, pageSpec) :
-               termService.findAllRoots(vocabulary, pageSpec);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT)
+                             .body(includeImported ? termService.findAllRootsIncludingImported(vocabulary, pageSpec) :
+                                   termService.findAllRoots(vocabulary, pageSpec));
     }
 
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/{termIdFragment}",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public ReadOnlyTerm getById(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
-                                @PathVariable("termIdFragment") String termIdFragment,
-                                @RequestParam(name = Constants.QueryParams.NAMESPACE,
-                                              required = false) Optional<String> namespace) {
-        final URI termUri = getTermUri(vocabularyIdFragment, termIdFragment, namespace);
-        return termService.findRequired(termUri);
+    public ResponseEntity<ReadOnlyTerm> getById(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
+                                                @PathVariable("termIdFragment") String termIdFragment,
+                                                @RequestParam(name = Constants.QueryParams.NAMESPACE,
+                                                              required = false) Optional<String> namespace,
+                                                ServletWebRequest webRequest) {
+        if (isNotModified(vocabularyIdFragment, namespace, webRequest)) {
+            return null;
+        }
+        return RestUtils.createVersionedResponse(findTerm(vocabularyIdFragment, termIdFragment, namespace), true);
+    }
+
+    private ReadOnlyTerm findTerm(String vocabIdFragment, String termIdFragment, Optional<String> namespace) {
+        return termService.findRequired(getTermUri(vocabIdFragment, termIdFragment, namespace));
     }
 
     private URI getTermUri(String vocabIdFragment, String termIdFragment, Optional<String> namespace) {
@@ -96,20 +132,24 @@ public class ReadOnlyTermController extends BaseController {
     }
 
     @GetMapping(value = "/terms/{termIdFragment}", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public ReadOnlyTerm getById(@PathVariable("termIdFragment") String termIdFragment,
-                                @RequestParam(name = Constants.QueryParams.NAMESPACE) String namespace) {
+    public ResponseEntity<ReadOnlyTerm> getById(@PathVariable("termIdFragment") String termIdFragment,
+                                                @RequestParam(name = Constants.QueryParams.NAMESPACE) String namespace) {
         final URI termUri = idResolver.resolveIdentifier(namespace, termIdFragment);
-        return termService.findRequired(termUri);
+        return RestUtils.createSnapshotAwareResponse(termService.findRequired(termUri), true);
     }
 
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/{termIdFragment}/subterms",
                 produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<ReadOnlyTerm> getSubTerms(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
-                                          @PathVariable("termIdFragment") String termIdFragment,
-                                          @RequestParam(name = Constants.QueryParams.NAMESPACE,
-                                                        required = false) Optional<String> namespace) {
-        final ReadOnlyTerm parent = getById(vocabularyIdFragment, termIdFragment, namespace);
-        return termService.findSubTerms(parent);
+    public ResponseEntity<List<ReadOnlyTerm>> getSubTerms(
+            @PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
+            @PathVariable("termIdFragment") String termIdFragment,
+            @RequestParam(name = Constants.QueryParams.NAMESPACE, required = false) Optional<String> namespace,
+            ServletWebRequest webRequest) {
+        if (isNotModified(vocabularyIdFragment, namespace, webRequest)) {
+            return null;
+        }
+        final ReadOnlyTerm parent = findTerm(vocabularyIdFragment, termIdFragment, namespace);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(termService.findSubTerms(parent));
     }
 
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/{termIdFragment}/comments",
@@ -170,7 +210,7 @@ public class ReadOnlyTermController extends BaseController {
                                           @RequestParam(name = Constants.QueryParams.NAMESPACE,
                                                         required = false) Optional<String> namespace,
                                           @RequestParam(name = "at", required = false) Optional<String> at) {
-        final ReadOnlyTerm term = getById(vocabularyIdFragment, termIdFragment, namespace);
+        final ReadOnlyTerm term = findTerm(vocabularyIdFragment, termIdFragment, namespace);
         return getTermSnapshots(at, term);
     }
 
@@ -187,7 +227,7 @@ public class ReadOnlyTermController extends BaseController {
     public ResponseEntity<?> getSnapshots(@PathVariable String termIdFragment,
                                           @RequestParam(name = Constants.QueryParams.NAMESPACE) String namespace,
                                           @RequestParam(name = "at", required = false) Optional<String> at) {
-        final ReadOnlyTerm term = getById(termIdFragment, namespace);
+        final ReadOnlyTerm term = termService.findRequired(idResolver.resolveIdentifier(namespace, termIdFragment));
         return getTermSnapshots(at, term);
     }
 }
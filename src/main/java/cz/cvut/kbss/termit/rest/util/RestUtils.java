@@ -15,10 +15,17 @@
 package cz.cvut.kbss.termit.rest.util;
 
 import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.model.util.SupportsSnapshots;
 import cz.cvut.kbss.termit.util.Constants;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -32,6 +39,7 @@ import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static cz.cvut.kbss.termit.util.Constants.DEFAULT_PAGE_SIZE;
 import static cz.cvut.kbss.termit.util.Constants.DEFAULT_PAGE_SPEC;
@@ -41,6 +49,11 @@ import static cz.cvut.kbss.termit.util.Constants.DEFAULT_PAGE_SPEC;
  */
 public class RestUtils {
 
+    /**
+     * How long clients may cache snapshot representations
+     */
+    private static final long SNAPSHOT_MAX_AGE_DAYS = 365;
+
     private RestUtils() {
         throw new AssertionError();
     }
@@ -190,6 +203,70 @@ public class RestUtils {
         }
     }
 
+    /**
+     * Creates a response with the specified asset, letting clients cache it permanently if it is a snapshot.
+     * <p>
+     * Snapshots never change once created, so their representation gets a strong ETag derived from the snapshot
+     * identifier and is marked as immutable. Other assets are returned without any caching headers. Snapshots which are
+     * still being created are not found by the DAOs, so they never get here.
+     *
+     * @param asset  Asset to return
+     * @param shared Whether snapshot representations may be stored by shared caches (e.g., reverse proxies). Should be
+     *               {@code false} for endpoints requiring authentication
+     * @param <T>    Asset type
+     * @return Response entity
+     */
+    public static <T extends HasIdentifier & SupportsSnapshots> ResponseEntity<T> createSnapshotAwareResponse(T asset,
+                                                                                                         boolean shared) {
+        Objects.requireNonNull(asset);
+        if (!asset.isSnapshot()) {
+            return ResponseEntity.ok(asset);
+        }
+        return snapshotResponseBuilder(shared).eTag(DigestUtils.md5DigestAsHex(asset.getUri().toString()
+                                                                                    .getBytes(StandardCharsets.UTF_8)))
+                                              .body(asset);
+    }
+
+    /**
+     * Creates a response with the specified asset whose version has already been checked against the request.
+     * <p>
+     * The entity tag is expected to be set by {@link WebRequest#checkNotModified(String)}, so no ETag is added.
+     * Snapshots are still marked as immutable, see {@link #createSnapshotAwareResponse(HasIdentifier, boolean)}.
+     *
+     * @param asset  Asset to return
+     * @param shared Whether snapshot representations may be stored by shared caches
+     * @param <T>    Asset type
+     * @return Response entity
+     */
+    public static <T extends HasIdentifier & SupportsSnapshots> ResponseEntity<T> createVersionedResponse(T asset,
+                                                                                                     boolean shared) {
+        Objects.requireNonNull(asset);
+        return (asset.isSnapshot() ? snapshotResponseBuilder(shared) : ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT))
+                .body(asset);
+    }
+
+    private static ResponseEntity.BodyBuilder snapshotResponseBuilder(boolean shared) {
+        final CacheControl cacheControl = CacheControl.maxAge(SNAPSHOT_MAX_AGE_DAYS, TimeUnit.DAYS);
+        return ResponseEntity.ok()
+                             .header(HttpHeaders.CACHE_CONTROL,
+                                     (shared ? cacheControl.cachePublic() : cacheControl.cachePrivate())
+                                             .getHeaderValue() + ", immutable")
+                             .varyBy(HttpHeaders.ACCEPT);
+    }
+
+    /**
+     * Creates a weak entity tag with the specified value.
+     * <p>
+     * Weak tags are used for representations which are semantically equivalent for the same version of data, but need
+     * not be byte-for-byte identical (e.g., JSON and JSON-LD serialization).
+     *
+     * @param value Tag value, e.g., content version
+     * @return Weak entity tag
+     */
+    public static String createWeakETag(String value) {
+        return "W/\"" + value + "\"";
+    }
+
     /**
      * Creates a page request from the specified parameters.
      * <p>
@@ -77,7 +77,8 @@ public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
         final String authToken = authHeader.substring(SecurityConstants.JWT_TOKEN_PREFIX.length());
         try {
             final TermItUserDetails userDetails = jwtUtils.extractUserInfo(authToken);
-            final TermItUserDetails existingDetails = userDetailsService.loadUserByUsername(userDetails.getUsername());
+            final TermItUserDetails existingDetails = userDetailsService.loadCachedUserByUsername(
+                    userDetails.getUsername());
             SecurityUtils.verifyAccountStatus(existingDetails.getUser());
             SecurityUtils.setCurrentUser(existingDetails);
             refreshToken(authToken, response);
@@ -101,8 +102,8 @@ public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
     }
 
     private void refreshToken(String authToken, HttpServletResponse response) {
-        final String newToken = jwtUtils.refreshToken(authToken);
-        response.setHeader(HttpHeaders.AUTHORIZATION, SecurityConstants.JWT_TOKEN_PREFIX + newToken);
+        jwtUtils.refreshTokenIfExpiring(authToken).ifPresent(newToken -> response.setHeader(
+                HttpHeaders.AUTHORIZATION, SecurityConstants.JWT_TOKEN_PREFIX + newToken));
     }
 
     /**
@@ -50,10 +50,13 @@ public class JwtUtils {
 
     private final Key key;
 
+    private final long refreshWindow;
+
     @Autowired
     public JwtUtils(@Qualifier("objectMapper") ObjectMapper objectMapper, Configuration config) {
         this.objectMapper = objectMapper;
         this.key = Keys.hmacShaKeyFor(config.getJwt().getSecretKey().getBytes(StandardCharsets.UTF_8));
+        this.refreshWindow = config.getJwt().getRefreshWindow();
     }
 
     /**
@@ -156,8 +159,30 @@ public class JwtUtils {
      * @return Newly generated token with updated expiration date
      */
     public String refreshToken(String token) {
+        Objects.requireNonNull(token);
+        return createRefreshedToken(getClaimsFromToken(token));
+    }
+
+    /**
+     * Refreshes the specified token if it expires within the configured refresh window.
+     * <p>
+     * This prevents signing a new token on every request made with a token which is still valid for a long time.
+     *
+     * @param token The token to refresh
+     * @return Newly generated token with updated expiration date, empty if the token does not need to be refreshed yet
+     * @see Configuration.Jwt#getRefreshWindow()
+     */
+    public Optional<String> refreshTokenIfExpiring(String token) {
         Objects.requireNonNull(token);
         final Claims claims = getClaimsFromToken(token);
+        if (claims.getExpiration() != null &&
+                claims.getExpiration().toInstant().isAfter(Instant.now().plusMillis(refreshWindow))) {
+            return Optional.empty();
+        }
+        return Optional.of(createRefreshedToken(claims));
+    }
+
+    private String createRefreshedToken(Claims claims) {
         final Instant issued = issueTimestamp();
         claims.setIssuedAt(Date.from(issued));
         claims.setExpiration(Date.from(issued.plusMillis(SecurityConstants.SESSION_TIMEOUT)));
@@ -23,6 +23,7 @@ import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.UnsupportedAssetOperationException;
 import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
@@ -65,17 +66,20 @@ public class ResourceService
 
     private final ChangeRecordService changeRecordService;
 
+    private final TermOccurrenceService termOccurrenceService;
+
     private ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public ResourceService(ResourceRepositoryService repositoryService, DocumentManager documentManager,
                            TextAnalysisService textAnalysisService, VocabularyService vocabularyService,
-                           ChangeRecordService changeRecordService) {
+                           ChangeRecordService changeRecordService, TermOccurrenceService termOccurrenceService) {
         this.repositoryService = repositoryService;
         this.documentManager = documentManager;
         this.textAnalysisService = textAnalysisService;
         this.vocabularyService = vocabularyService;
         this.changeRecordService = changeRecordService;
+        this.termOccurrenceService = termOccurrenceService;
     }
 
     /**
@@ -127,6 +131,22 @@ public class ResourceService
         return documentManager.getAsResource((File) resource);
     }
 
+    /**
+     * Gets gzip-compressed content of the specified resource.
+     *
+     * @param resource Resource whose content should be retrieved
+     * @return Representation of the compressed resource content, empty if compression is not supported for the
+     * resource content
+     * @throws UnsupportedAssetOperationException When content of the specified resource cannot be retrieved
+     */
+    public Optional<TypeAwareResource> getCompressedContent(Resource resource) {
+        Objects.requireNonNull(resource);
+        if (!(resource instanceof File)) {
+            throw new UnsupportedAssetOperationException("Content retrieval is not supported for resource " + resource);
+        }
+        return documentManager.getAsCompressedResource((File) resource);
+    }
+
     /**
      * Saves content of the specified resource.
      *
@@ -225,6 +245,32 @@ public class ResourceService
         repositoryService.remove(file);
     }
 
+    /**
+     * Gets term occurrences in the specified region of the specified resource's content.
+     * <p>
+     * The region is given by character offsets in the resource content, occurrences overlapping the region are
+     * returned.
+     *
+     * @param resource Resource whose term occurrences to retrieve
+     * @param start    Start offset of the region (inclusive)
+     * @param end      End offset of the region (exclusive)
+     * @param term     Identifier of the term whose occurrences to retrieve, optional
+     * @return List of term occurrences ordered by their position in the content
+     * @throws UnsupportedAssetOperationException If the specified resource is not a File
+     * @throws InvalidParameterException          If the region is not valid
+     */
+    public List<TermOccurrence> getOccurrences(Resource resource, int start, int end, URI term) {
+        Objects.requireNonNull(resource);
+        if (!(resource instanceof File)) {
+            throw new UnsupportedAssetOperationException(
+                    "Term occurrence retrieval is not supported for resource " + resource);
+        }
+        if (start < 0 || end < start) {
+            throw new InvalidParameterException("Invalid content region [" + start + ", " + end + ").");
+        }
+        return termOccurrenceService.findAllInRegion(resource, start, end, term);
+    }
+
     /**
      * Executes text analysis on the specified resource's content.
      * <p>
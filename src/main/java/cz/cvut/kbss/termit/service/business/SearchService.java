@@ -18,6 +18,8 @@ import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
@@ -38,12 +40,15 @@ public class SearchService {
 
     /**
      * Executes full text search in assets.
+     * <p>
+     * Results are ranked by score, only the requested page of results is returned.
      *
      * @param searchString String to search by
-     * @return Matching assets
+     * @param pageSpec     Specification of the page of results to return
+     * @return Page of matching assets
      */
-    public List<FullTextSearchResult> fullTextSearch(String searchString) {
-        return searchDao.fullTextSearch(searchString);
+    public Page<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
+        return searchDao.fullTextSearch(searchString, pageSpec);
     }
 
     /**
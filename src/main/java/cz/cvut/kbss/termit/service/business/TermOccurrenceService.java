@@ -1,8 +1,10 @@
 package cz.cvut.kbss.termit.service.business;
 
+import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 
 import java.net.URI;
+import java.util.List;
 
 /**
  * Business service for managing {@link TermOccurrence}s.
@@ -20,6 +22,19 @@ public interface TermOccurrenceService {
      */
     TermOccurrence getRequiredReference(URI id);
 
+    /**
+     * Finds term occurrences in the specified asset which overlap the specified region of its content.
+     * <p>
+     * This allows to retrieve only occurrences in the visible part of a (possibly large) document.
+     *
+     * @param target Asset in which the occurrences appear
+     * @param start  Start offset of the region (inclusive)
+     * @param end    End offset of the region (exclusive)
+     * @param term   Identifier of the term whose occurrences to find, optional
+     * @return List of matching term occurrences, ordered by their position in the content
+     */
+    List<TermOccurrence> findAllInRegion(Asset<?> target, int start, int end, URI term);
+
     /**
      * Persists the specified term occurrence.
      *
@@ -13,6 +13,7 @@ import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.comment.Comment;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.version.VocabularyContentVersions;
 import cz.cvut.kbss.termit.service.changetracking.ChangeRecordProvider;
 import cz.cvut.kbss.termit.service.comment.CommentService;
 import cz.cvut.kbss.termit.service.document.TextAnalysisService;
@@ -60,11 +61,14 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
 
     private final VocabularyContextMapper contextMapper;
 
+    private final VocabularyContentVersions contentVersions;
+
     @Autowired
     public TermService(VocabularyExporters exporters, VocabularyService vocabularyService,
                        TermRepositoryService repositoryService, TextAnalysisService textAnalysisService,
                        TermOccurrenceService termOccurrenceService, ChangeRecordService changeRecordService,
-                       CommentService commentService, Configuration config, VocabularyContextMapper contextMapper) {
+                       CommentService commentService, Configuration config, VocabularyContextMapper contextMapper,
+                       VocabularyContentVersions contentVersions) {
         this.exporters = exporters;
         this.vocabularyService = vocabularyService;
         this.repositoryService = repositoryService;
@@ -74,6 +78,7 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         this.commentService = commentService;
         this.config = config;
         this.contextMapper = contextMapper;
+        this.contentVersions = contentVersions;
     }
 
     /**
@@ -239,6 +244,19 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         return vocabularyService.findRequired(id);
     }
 
+    /**
+     * Gets a tag identifying the current version of terms in the vocabulary with the specified identifier.
+     * <p>
+     * The tag changes whenever terms of the vocabulary, of vocabularies it imports or of vocabularies importing it
+     * change.
+     *
+     * @param vocabularyId Vocabulary identifier
+     * @return Content version tag
+     */
+    public String getContentVersion(URI vocabularyId) {
+        return contentVersions.getTag(vocabularyId);
+    }
+
     /**
      * Gets a reference to the vocabulary with the specified identifier.
      *
@@ -19,6 +19,7 @@ import cz.cvut.kbss.termit.dto.AggregatedChangeInfo;
 import cz.cvut.kbss.termit.dto.Snapshot;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.validation.ValidationResult;
+import cz.cvut.kbss.termit.persistence.snapshot.SnapshotJob;
 import cz.cvut.kbss.termit.service.changetracking.ChangeRecordProvider;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -26,7 +27,9 @@ import java.net.URI;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface of business logic concerning vocabularies.
@@ -125,14 +128,27 @@ public interface VocabularyService
     Integer getTermCount(Vocabulary vocabulary);
 
     /**
-     * Creates a snapshot of the specified vocabulary.
+     * Starts creation of a snapshot of the specified vocabulary.
      * <p>
      * The result is a read-only snapshot of the specified vocabulary, its content and any vocabularies it depends on or
-     * that depend on it.
+     * that depend on it. The snapshot is created in the background, its progress can be checked via {@link
+     * #findLatestSnapshotJob(Vocabulary)}.
      *
      * @param vocabulary Vocabulary to snapshot
+     * @return Future snapshot metadata, completed once the snapshot is created
      */
-    Snapshot createSnapshot(Vocabulary vocabulary);
+    CompletableFuture<Snapshot> createSnapshot(Vocabulary vocabulary);
+
+    /**
+     * Finds the latest snapshot creation job of the specified vocabulary.
+     * <p>
+     * The job provides progress of the snapshot creation, which may take a long time for vocabularies related to many
+     * other vocabularies.
+     *
+     * @param vocabulary Vocabulary whose snapshot job to find
+     * @return Latest snapshot job, empty if no snapshot of the vocabulary has been created since application start
+     */
+    Optional<SnapshotJob> findLatestSnapshotJob(Vocabulary vocabulary);
 
     /**
      * Finds snapshots of the specified asset.
@@ -39,6 +39,10 @@ public class ReadOnlyTermService {
         return termService.findVocabularyRequired(vocabularyUri);
     }
 
+    public String getContentVersion(URI vocabularyUri) {
+        return termService.getContentVersion(vocabularyUri);
+    }
+
     public List<TermDto> findAll(Vocabulary vocabulary) {
         return termService.findAll(vocabulary);
     }
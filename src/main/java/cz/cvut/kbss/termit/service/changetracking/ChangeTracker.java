@@ -2,6 +2,7 @@ package cz.cvut.kbss.termit.service.changetracking;
 
 import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.changetracking.PersistChangeRecord;
 import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
@@ -80,4 +81,29 @@ public class ChangeTracker {
             changeRecordDao.persist(ch, update);
         });
     }
+
+    /**
+     * Records changes of the content of the specified vocabulary made in bulk, e.g., by its re-import.
+     * <p>
+     * Author and timestamp are set on the records before they are saved.
+     *
+     * @param vocabulary Vocabulary whose content was changed
+     * @param changes    Records of changes to the vocabulary terms
+     */
+    @Transactional
+    public void recordVocabularyContentChanges(Vocabulary vocabulary, Collection<? extends AbstractChangeRecord> changes) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(changes);
+        if (changes.isEmpty()) {
+            return;
+        }
+        final Instant now = Utils.timestamp();
+        final User user = securityUtils.getCurrentUser().toUser();
+        changes.forEach(ch -> {
+            ch.setAuthor(user);
+            ch.setTimestamp(now);
+        });
+        LOG.trace("Recording {} changes of the content of vocabulary {}.", changes.size(), vocabulary);
+        changeRecordDao.persistAll(changes, vocabulary);
+    }
 }
@@ -0,0 +1,204 @@
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.exception.DocumentManagerException;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed store of file contents.
+ * <p>
+ * Each blob is identified by the SHA-256 hash of its content, so identical contents are stored only once. Blobs are
+ * stored in the {@link #BLOB_DIRECTORY} of the file storage, optionally compressed.
+ * <p>
+ * The store does not track references to blobs, unreferenced blobs are removed by {@link #collectGarbage(Set)}.
+ */
+@Component
+public class BlobStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlobStore.class);
+
+    /**
+     * Name of the directory (in the file storage) in which blobs are stored
+     */
+    public static final String BLOB_DIRECTORY = ".blobs";
+
+    private static final String COMPRESSED_SUFFIX = ".gz";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Blobs stored (or reused) more recently than this are never garbage-collected, because references to them may
+     * not have been recorded yet
+     */
+    static final long GARBAGE_COLLECTION_GRACE_PERIOD = 60 * 60 * 1000L;
+
+    private final Configuration.File config;
+
+    public BlobStore(Configuration config) {
+        this.config = config.getFile();
+    }
+
+    private Path root() {
+        return Paths.get(config.getStorage(), BLOB_DIRECTORY);
+    }
+
+    private Path resolve(String key, boolean compressed) {
+        return root().resolve(key.substring(0, 2)).resolve(compressed ? key + COMPRESSED_SUFFIX : key);
+    }
+
+    private Optional<Path> find(String key) {
+        final Path compressed = resolve(key, true);
+        if (Files.exists(compressed)) {
+            return Optional.of(compressed);
+        }
+        final Path plain = resolve(key, false);
+        return Files.exists(plain) ? Optional.of(plain) : Optional.empty();
+    }
+
+    /**
+     * Stores the content of the specified file.
+     * <p>
+     * If a blob with identical content already exists, it is reused.
+     *
+     * @param content Path to the file whose content should be stored
+     * @return Key of the blob with the content
+     */
+    public String store(Path content) {
+        Objects.requireNonNull(content);
+        try {
+            final String key = hash(content);
+            final Optional<Path> existing = find(key);
+            if (existing.isPresent()) {
+                LOG.trace("Content of {} already stored as blob {}.", content, key);
+                // Protect the blob from garbage collection until the new reference is recorded
+                Files.setLastModifiedTime(existing.get(), FileTime.from(Instant.now()));
+                return key;
+            }
+            final boolean compress = config.isCompressBackups();
+            final Path target = resolve(key, compress);
+            Files.createDirectories(target.getParent());
+            final Path tmp = Files.createTempFile(target.getParent(), key, TEMP_SUFFIX);
+            try {
+                try (final InputStream in = Files.newInputStream(content);
+                     final OutputStream out = compress ? new GZIPOutputStream(Files.newOutputStream(tmp)) :
+                                              Files.newOutputStream(tmp)) {
+                    in.transferTo(out);
+                }
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            LOG.trace("Stored content of {} as blob {}.", content, key);
+            return key;
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to store content of " + content + ".", e);
+        }
+    }
+
+    /**
+     * Computes the key under which the specified content would be stored.
+     *
+     * @param content Path to the file whose content to hash
+     * @return SHA-256 hash of the content, hex-encoded
+     * @throws IOException When the content cannot be read
+     */
+    static String hash(Path content) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported.", e);
+        }
+        try (final InputStream in = new DigestInputStream(Files.newInputStream(content), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Checks whether a blob with the specified key exists.
+     *
+     * @param key Blob key
+     * @return {@code true} if the blob exists, {@code false} otherwise
+     */
+    public boolean exists(String key) {
+        Objects.requireNonNull(key);
+        return find(key).isPresent();
+    }
+
+    /**
+     * Opens the (uncompressed) content of the blob with the specified key.
+     *
+     * @param key Blob key
+     * @return Blob content, the caller is responsible for closing it
+     * @throws DocumentManagerException If the blob does not exist or cannot be read
+     */
+    public InputStream open(String key) {
+        Objects.requireNonNull(key);
+        final Path blob = find(key).orElseThrow(() -> new DocumentManagerException("Blob " + key + " not found."));
+        try {
+            final InputStream in = Files.newInputStream(blob);
+            return blob.getFileName().toString().endsWith(COMPRESSED_SUFFIX) ? new GZIPInputStream(in) : in;
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to read blob " + key + ".", e);
+        }
+    }
+
+    /**
+     * Removes blobs which are not referenced.
+     * <p>
+     * Blobs stored or reused within the {@link #GARBAGE_COLLECTION_GRACE_PERIOD} are kept.
+     *
+     * @param referenced Keys of blobs which are still referenced
+     * @return Number of removed blobs
+     */
+    public int collectGarbage(Set<String> referenced) {
+        Objects.requireNonNull(referenced);
+        final Path root = root();
+        if (!Files.exists(root)) {
+            return 0;
+        }
+        final long threshold = System.currentTimeMillis() - GARBAGE_COLLECTION_GRACE_PERIOD;
+        int removed = 0;
+        try (final Stream<Path> blobs = Files.walk(root, 2)) {
+            final Iterator<Path> it = blobs.filter(Files::isRegularFile).iterator();
+            while (it.hasNext()) {
+                final Path blob = it.next();
+                final String name = blob.getFileName().toString();
+                final String key = name.endsWith(COMPRESSED_SUFFIX) ?
+                                   name.substring(0, name.length() - COMPRESSED_SUFFIX.length()) : name;
+                if (!referenced.contains(key) && Files.getLastModifiedTime(blob).toMillis() < threshold) {
+                    LOG.trace("Removing unreferenced blob {}.", blob);
+                    Files.delete(blob);
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to garbage-collect blobs.", e);
+        }
+        return removed;
+    }
+}
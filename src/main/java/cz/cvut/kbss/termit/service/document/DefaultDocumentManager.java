@@ -32,21 +32,39 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.time.format.DateTimeParseException;
+import java.util.*;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Default document manager uses files on filesystem to store content.
+ * <p>
+ * Backups of file content are stored in a {@link BlobStore}, so that identical contents are stored only once. Backups
+ * of a file are recorded in a backup manifest stored next to the file. Each manifest line contains the backup timestamp
+ * and the key of the blob with the backed up content.
+ * <p>
+ * Media type and hash of file content are cached as long as the file does not change. Compressed variants of HTML
+ * files are created on demand and stored next to the files.
  */
 @Service
 public class DefaultDocumentManager implements DocumentManager {
@@ -56,11 +74,58 @@ public class DefaultDocumentManager implements DocumentManager {
     private final DateTimeFormatter timestampFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd_HHmmss_S")
                                                                        .withZone(ZoneId.systemDefault());
 
+    /**
+     * Suffix of the name of the backup manifest of a file
+     */
+    static final String BACKUP_MANIFEST_SUFFIX = "~backups";
+
+    private static final String MANIFEST_SEPARATOR = "\t";
+
+    /**
+     * Name of a legacy backup file, i.e., original file name + ~ + time stamp of the backup
+     */
+    private static final Pattern LEGACY_BACKUP_NAME = Pattern.compile("(.+)~(\\d[\\d_-]*)");
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * Suffix of the name of the gzip-compressed variant of a file
+     */
+    static final String COMPRESSED_VARIANT_SUFFIX = "~gzip";
+
+    /**
+     * Media types of files for which compressed variants are provided
+     */
+    private static final Set<String> COMPRESSIBLE_MEDIA_TYPES = Set.of(MediaType.TEXT_HTML_VALUE,
+                                                                       MediaType.APPLICATION_XHTML_XML_VALUE);
+
+    /**
+     * Maximum number of files whose content metadata are cached
+     */
+    private static final int METADATA_CACHE_SIZE = 1024;
+
+    private final Tika tika = new Tika();
+
+    private final Map<Path, ContentMetadata> metadataCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, ContentMetadata> eldest) {
+            return size() > METADATA_CACHE_SIZE;
+        }
+    };
+
     private final Configuration config;
 
+    private final BlobStore blobStore;
+
+    /**
+     * Guards updates of backup manifests
+     */
+    private final Object manifestLock = new Object();
+
     @Autowired
-    public DefaultDocumentManager(Configuration config) {
+    public DefaultDocumentManager(Configuration config, BlobStore blobStore) {
         this.config = config;
+        this.blobStore = blobStore;
     }
 
     private java.io.File resolveFile(File file, boolean verifyExists) {
@@ -96,7 +161,81 @@ public class DefaultDocumentManager implements DocumentManager {
 
     @Override
     public TypeAwareResource getAsResource(File file) {
-        return new TypeAwareFileSystemResource(resolveFile(file, true), getMediaType(file));
+        final java.io.File content = resolveFile(file, true);
+        final ContentMetadata metadata = getMetadata(content);
+        return new TypeAwareFileSystemResource(content, metadata.mediaType, metadata.getContentHash(content.toPath()));
+    }
+
+    @Override
+    public Optional<TypeAwareResource> getAsCompressedResource(File file) {
+        final java.io.File content = resolveFile(file, true);
+        final ContentMetadata metadata = getMetadata(content);
+        if (!COMPRESSIBLE_MEDIA_TYPES.contains(metadata.mediaType)) {
+            return Optional.empty();
+        }
+        final Path variant = content.toPath().resolveSibling(content.getName() + COMPRESSED_VARIANT_SUFFIX);
+        try {
+            // The variant gets the modification time of the content it was created from, so that it is recreated
+            // whenever the content changes
+            if (!Files.exists(variant) || Files.getLastModifiedTime(variant).toMillis() != metadata.lastModified) {
+                compress(content.toPath(), variant, metadata.lastModified);
+            }
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to compress content of file " + file + ".", e);
+        }
+        return Optional.of(new TypeAwareFileSystemResource(variant.toFile(), metadata.mediaType,
+                                                            metadata.getContentHash(content.toPath()) + "-gzip"));
+    }
+
+    private static void compress(Path content, Path target, long lastModified) throws IOException {
+        LOG.trace("Creating compressed variant of {}.", content);
+        final Path tmp = createTempFile(target);
+        try {
+            try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                Files.copy(content, out);
+            }
+            Files.setLastModifiedTime(tmp, FileTime.fromMillis(lastModified));
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Creates a temporary file for writing the specified target.
+     * <p>
+     * Temporary files are hidden and their names do not start with the target name, so that they are never mistaken
+     * for backups or compressed variants of a file.
+     */
+    private static Path createTempFile(Path target) throws IOException {
+        return Files.createTempFile(target.getParent(), "." + target.getFileName() + ".", TEMP_FILE_SUFFIX);
+    }
+
+    private ContentMetadata getMetadata(java.io.File content) {
+        final Path path = content.toPath().toAbsolutePath();
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            final long lastModified = attributes.lastModifiedTime().toMillis();
+            synchronized (metadataCache) {
+                final ContentMetadata cached = metadataCache.get(path);
+                if (cached != null && cached.isValid(lastModified, attributes.size())) {
+                    return cached;
+                }
+            }
+            final ContentMetadata metadata = new ContentMetadata(lastModified, attributes.size(), tika.detect(content));
+            synchronized (metadataCache) {
+                metadataCache.put(path, metadata);
+            }
+            return metadata;
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to determine file content type.", e);
+        }
+    }
+
+    private void evictMetadata(java.io.File content) {
+        synchronized (metadataCache) {
+            metadataCache.remove(content.toPath().toAbsolutePath());
+        }
     }
 
     @Override
@@ -106,6 +245,7 @@ public class DefaultDocumentManager implements DocumentManager {
             LOG.debug("Saving file content to {}.", target);
             Files.createDirectories(target.getParentFile().toPath());
             Files.copy(content, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            evictMetadata(target);
         } catch (IOException e) {
             throw new DocumentManagerException("Unable to write out file content.", e);
         }
@@ -115,24 +255,165 @@ public class DefaultDocumentManager implements DocumentManager {
     public void createBackup(File file) {
         try {
             final java.io.File toBackup = resolveFile(file, true);
-            final java.io.File backupFile = new java.io.File(
-                    toBackup.getParent() + java.io.File.separator + generateBackupFileName(file));
-            LOG.debug("Backing up file {} to {}.", toBackup, backupFile);
-            Files.copy(toBackup.toPath(), backupFile.toPath());
+            final Path manifest = resolveBackupManifest(file, toBackup.getParentFile());
+            final String key = blobStore.store(toBackup.toPath());
+            synchronized (manifestLock) {
+                final List<String> entries = readManifest(manifest);
+                if (!entries.isEmpty() && key.equals(parseBackupEntry(entries.get(entries.size() - 1)))) {
+                    LOG.trace("Content of file {} has not changed since the last backup.", toBackup);
+                    return;
+                }
+                LOG.debug("Backing up file {} as blob {}.", toBackup, key);
+                entries.add(timestampFormat.format(Utils.timestamp()) + MANIFEST_SEPARATOR + key);
+                writeManifest(manifest, entries);
+            }
         } catch (IOException e) {
             throw new DocumentManagerException("Unable to backup file.", e);
         }
     }
 
     /**
-     * Backup file name consists of the original file name + ~ + the current time stamp in a predefined format
+     * Backup manifest name consists of the original file name + {@link #BACKUP_MANIFEST_SUFFIX}.
+     */
+    private static Path resolveBackupManifest(File file, java.io.File directory) {
+        return resolveBackupManifest(directory.toPath().resolve(IdentifierResolver.sanitizeFileName(file.getLabel())));
+    }
+
+    private static Path resolveBackupManifest(Path content) {
+        return content.resolveSibling(content.getFileName() + BACKUP_MANIFEST_SUFFIX);
+    }
+
+    private static List<String> readManifest(Path manifest) throws IOException {
+        return Files.exists(manifest) ? new ArrayList<>(Files.readAllLines(manifest)) : new ArrayList<>();
+    }
+
+    /**
+     * Atomically replaces the manifest with the specified entries, discarding the oldest ones if the maximum number of
+     * backups is exceeded.
+     */
+    private void writeManifest(Path manifest, List<String> entries) throws IOException {
+        final int maxBackups = config.getFile().getMaxBackups();
+        final List<String> retained = maxBackups > 0 && entries.size() > maxBackups ?
+                                      entries.subList(entries.size() - maxBackups, entries.size()) : entries;
+        final Path tmp = createTempFile(manifest);
+        try {
+            Files.write(tmp, retained);
+            Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String parseBackupEntry(String entry) {
+        final int separatorIndex = entry.indexOf(MANIFEST_SEPARATOR);
+        return separatorIndex >= 0 ? entry.substring(separatorIndex + MANIFEST_SEPARATOR.length()).trim() : null;
+    }
+
+    /**
+     * Gets keys of blobs with backed up content of the specified file, ordered from the oldest to the newest backup.
      *
-     * @param file File for which backup file name should be generated
-     * @return Backup name
+     * @param file File whose backups to retrieve
+     * @return List of blob keys, possibly empty
+     */
+    List<String> getBackups(File file) {
+        final java.io.File physicalFile = resolveFile(file, false);
+        final Path manifest = resolveBackupManifest(file, physicalFile.getParentFile());
+        if (!Files.exists(manifest)) {
+            return Collections.emptyList();
+        }
+        try {
+            return Files.readAllLines(manifest).stream().map(DefaultDocumentManager::parseBackupEntry)
+                        .filter(Objects::nonNull).collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to read backup manifest of file " + file + ".", e);
+        }
+    }
+
+    /**
+     * Removes backed up contents which are no longer referenced by any backup manifest.
+     * <p>
+     * Contents become unreferenced when the oldest backups of a file are discarded or when the file is removed.
+     * <p>
+     * Legacy backup files (original file name + ~ + time stamp) are imported into the blob store and recorded in the
+     * backup manifest of the corresponding file before the garbage is collected.
      */
-    private String generateBackupFileName(File file) {
-        final String origName = IdentifierResolver.sanitizeFileName(file.getLabel());
-        return origName + "~" + timestampFormat.format(Utils.timestamp());
+    @Scheduled(cron = "${termit.schedule.cron.blob-garbage-collection:0 30 2 * * ?}")
+    public void collectBackupGarbage() {
+        final Path storage = Paths.get(config.getFile().getStorage());
+        if (!Files.exists(storage)) {
+            return;
+        }
+        final Path blobDirectory = storage.resolve(BlobStore.BLOB_DIRECTORY);
+        importLegacyBackups(storage, blobDirectory);
+        final Set<String> referenced = new HashSet<>();
+        try (final Stream<Path> files = Files.walk(storage)) {
+            final Iterator<Path> manifests = files.filter(p -> !p.startsWith(blobDirectory))
+                                                  .filter(p -> p.getFileName().toString()
+                                                                .endsWith(BACKUP_MANIFEST_SUFFIX)).iterator();
+            while (manifests.hasNext()) {
+                Files.readAllLines(manifests.next()).stream().map(DefaultDocumentManager::parseBackupEntry)
+                     .filter(Objects::nonNull).forEach(referenced::add);
+            }
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to read backup manifests.", e);
+        }
+        final int removed = blobStore.collectGarbage(referenced);
+        LOG.debug("Removed {} unreferenced backup contents.", removed);
+    }
+
+    private void importLegacyBackups(Path storage, Path blobDirectory) {
+        final Map<Path, List<Path>> legacyBackups = new HashMap<>();
+        try (final Stream<Path> files = Files.walk(storage)) {
+            final Iterator<Path> it = files.filter(p -> !p.startsWith(blobDirectory)).filter(Files::isRegularFile)
+                                           .iterator();
+            while (it.hasNext()) {
+                final Path candidate = it.next();
+                final Matcher m = LEGACY_BACKUP_NAME.matcher(candidate.getFileName().toString());
+                if (m.matches() && Files.isRegularFile(candidate.resolveSibling(m.group(1)))) {
+                    legacyBackups.computeIfAbsent(candidate.resolveSibling(m.group(1)), k -> new ArrayList<>())
+                                 .add(candidate);
+                }
+            }
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to find legacy backups.", e);
+        }
+        legacyBackups.forEach(this::importLegacyBackups);
+    }
+
+    private void importLegacyBackups(Path content, List<Path> backups) {
+        LOG.debug("Importing {} legacy backups of file {} into blob store.", backups.size(), content);
+        try {
+            final List<String> imported = new ArrayList<>(backups.size());
+            for (Path backup : backups) {
+                imported.add(resolveLegacyBackupTimestamp(backup) + MANIFEST_SEPARATOR + blobStore.store(backup));
+            }
+            synchronized (manifestLock) {
+                final Path manifest = resolveBackupManifest(content);
+                final List<String> entries = readManifest(manifest);
+                entries.addAll(imported);
+                // Time stamps are formatted so that their lexicographical order is chronological
+                entries.sort(Comparator.comparing(e -> e.split(MANIFEST_SEPARATOR, 2)[0]));
+                writeManifest(manifest, entries);
+            }
+            for (Path backup : backups) {
+                Files.delete(backup);
+            }
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to import legacy backups of file " + content + ".", e);
+        }
+    }
+
+    private String resolveLegacyBackupTimestamp(Path backup) throws IOException {
+        final Matcher m = LEGACY_BACKUP_NAME.matcher(backup.getFileName().toString());
+        if (m.matches()) {
+            try {
+                timestampFormat.parse(m.group(2));
+                return m.group(2);
+            } catch (DateTimeParseException e) {
+                LOG.trace("Backup file {} name does not contain a valid time stamp.", backup);
+            }
+        }
+        return timestampFormat.format(Files.getLastModifiedTime(backup).toInstant());
     }
 
     @Override
@@ -143,22 +424,13 @@ public class DefaultDocumentManager implements DocumentManager {
     @Override
     public Optional<String> getContentType(File file) {
         try {
-            return Optional.ofNullable(getMediaType(file));
+            return Optional.ofNullable(getMetadata(resolveFile(file, true)).mediaType);
         } catch (DocumentManagerException e) {
             LOG.error("Exception caught when determining content type of file {}.", file, e);
             return Optional.empty();
         }
     }
 
-    private String getMediaType(File file) {
-        final java.io.File content = resolveFile(file, true);
-        try {
-            return new Tika().detect(content);
-        } catch (IOException e) {
-            throw new DocumentManagerException("Unable to determine file content type.", e);
-        }
-    }
-
     @Override
     public void remove(Resource resource) {
         Objects.requireNonNull(resource);
@@ -182,17 +454,21 @@ public class DefaultDocumentManager implements DocumentManager {
         }
         removeBackups(file, physicalFile);
         physicalFile.delete();
+        evictMetadata(physicalFile);
         removeParentIfNotInDocument(file, physicalFile);
     }
 
     private void removeBackups(File file, java.io.File physicalFile) {
-        LOG.trace("Removing backups of file {}.", physicalFile);
+        LOG.trace("Removing backups and compressed variant of file {}.", physicalFile);
         processBackups(file, physicalFile.getParentFile(), java.io.File::delete);
     }
 
+    /**
+     * Processes the backup manifest, the compressed variant and legacy backup files of the specified file.
+     */
     private void processBackups(File file, java.io.File directory, Consumer<java.io.File> consumer) {
-        final String backupStartPattern = IdentifierResolver.sanitizeFileName(file.getLabel()) + "~";
-        final java.io.File[] backups = directory.listFiles((f, fn) -> fn.startsWith(backupStartPattern));
+        final String name = IdentifierResolver.sanitizeFileName(file.getLabel());
+        final java.io.File[] backups = directory.listFiles((f, fn) -> isBackupOf(name, fn));
         if (backups != null) {
             for (java.io.File backup : backups) {
                 consumer.accept(backup);
@@ -200,6 +476,14 @@ public class DefaultDocumentManager implements DocumentManager {
         }
     }
 
+    private static boolean isBackupOf(String name, String candidate) {
+        if (candidate.equals(name + BACKUP_MANIFEST_SUFFIX) || candidate.equals(name + COMPRESSED_VARIANT_SUFFIX)) {
+            return true;
+        }
+        final Matcher m = LEGACY_BACKUP_NAME.matcher(candidate);
+        return m.matches() && m.group(1).equals(name);
+    }
+
     private void removeParentIfNotInDocument(File file, java.io.File physicalFile) {
         if (file.getDocument() == null) {
             LOG.trace("Removing directory of document-less file {}.", file);
@@ -293,13 +577,16 @@ public class DefaultDocumentManager implements DocumentManager {
         LOG.debug("Moving content from '{}' to '{}' due to file rename.", event.getOriginalName(),
                 event.getNewName());
         Files.move(physicalOriginal.toPath(), newFile.toPath());
+        evictMetadata(physicalOriginal);
         moveBackupFiles(original, physicalOriginal.getParentFile(), event);
     }
 
     private void moveBackupFiles(File originalFile, java.io.File directory, FileRenameEvent event) {
         LOG.debug("Moving backup files.");
+        final String originalName = IdentifierResolver.sanitizeFileName(event.getOriginalName());
+        final String newFileName = IdentifierResolver.sanitizeFileName(event.getNewName());
         processBackups(originalFile, directory, f -> {
-            final String newName = f.getName().replace(event.getOriginalName(), event.getNewName());
+            final String newName = newFileName + f.getName().substring(originalName.length());
             LOG.trace("Moving backup file from '{}' to '{}'", f.getName(), newName);
             try {
                 Files.move(f.toPath(), new java.io.File(f.getParent() + java.io.File.separator + newName).toPath());
@@ -308,4 +595,39 @@ public class DefaultDocumentManager implements DocumentManager {
             }
         });
     }
+
+    /**
+     * Metadata of file content, valid as long as the size and modification time of the file do not change.
+     */
+    private static final class ContentMetadata {
+        private final long lastModified;
+        private final long size;
+        private final String mediaType;
+
+        /**
+         * Computed lazily, only responses with file content need it
+         */
+        private volatile String contentHash;
+
+        private ContentMetadata(long lastModified, long size, String mediaType) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.mediaType = mediaType;
+        }
+
+        private boolean isValid(long lastModified, long size) {
+            return this.lastModified == lastModified && this.size == size;
+        }
+
+        private String getContentHash(Path content) {
+            if (contentHash == null) {
+                try {
+                    this.contentHash = BlobStore.hash(content);
+                } catch (IOException e) {
+                    throw new DocumentManagerException("Unable to compute hash of file content.", e);
+                }
+            }
+            return contentHash;
+        }
+    }
 }
@@ -57,6 +57,18 @@ public interface DocumentManager {
      */
     TypeAwareResource getAsResource(File file);
 
+    /**
+     * Gets gzip-compressed content of the specified file as a {@link org.springframework.core.io.Resource}.
+     * <p>
+     * Compressed content is supported only for some types of files (e.g., HTML). Implementations may create it lazily
+     * and reuse it as long as the content of the file does not change.
+     *
+     * @param file File representing the physical item
+     * @return Resource representation of the compressed content, empty if compression is not supported for the file
+     * @throws NotFoundException If the file cannot be found
+     */
+    Optional<TypeAwareResource> getAsCompressedResource(File file);
+
     /**
      * Saves the specified content to a physical location represented by the specified file.
      * <p>
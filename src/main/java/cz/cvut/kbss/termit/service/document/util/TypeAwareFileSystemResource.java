@@ -31,9 +31,16 @@ public class TypeAwareFileSystemResource extends FileSystemResource implements T
 
     private final String mediaType;
 
+    private final String contentHash;
+
     public TypeAwareFileSystemResource(File file, String mediaType) {
+        this(file, mediaType, null);
+    }
+
+    public TypeAwareFileSystemResource(File file, String mediaType, String contentHash) {
         super(file);
         this.mediaType = mediaType;
+        this.contentHash = contentHash;
     }
 
     @Override
@@ -41,6 +48,11 @@ public class TypeAwareFileSystemResource extends FileSystemResource implements T
         return Optional.ofNullable(mediaType);
     }
 
+    @Override
+    public Optional<String> getContentHash() {
+        return Optional.ofNullable(contentHash);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -53,11 +65,11 @@ public class TypeAwareFileSystemResource extends FileSystemResource implements T
             return false;
         }
         TypeAwareFileSystemResource that = (TypeAwareFileSystemResource) o;
-        return Objects.equals(mediaType, that.mediaType);
+        return Objects.equals(mediaType, that.mediaType) && Objects.equals(contentHash, that.contentHash);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), mediaType);
+        return Objects.hash(super.hashCode(), mediaType, contentHash);
     }
 }
@@ -14,7 +14,10 @@
  */
 package cz.cvut.kbss.termit.service.jmx;
 
+import cz.cvut.kbss.termit.event.CleanupOrphanedOccurrencesEvent;
+import cz.cvut.kbss.termit.event.CompactSnapshotsEvent;
 import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.RebuildIndexesEvent;
 import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
 import cz.cvut.kbss.termit.event.VocabularyContentModified;
 import cz.cvut.kbss.termit.service.mail.Message;
@@ -56,6 +59,24 @@ public class AppAdminBean {
         eventPublisher.publishEvent(new VocabularyContentModified(this));
     }
 
+    @ManagedOperation(description = "Rebuilds the application indexes.")
+    public void rebuildIndexes() {
+        LOG.info("Rebuilding application indexes...");
+        eventPublisher.publishEvent(new RebuildIndexesEvent(this));
+    }
+
+    @ManagedOperation(description = "Compacts delta-encoded vocabulary snapshots into full checkpoints.")
+    public void compactSnapshots() {
+        LOG.info("Compacting vocabulary snapshots...");
+        eventPublisher.publishEvent(new CompactSnapshotsEvent(this));
+    }
+
+    @ManagedOperation(description = "Removes term occurrences in all sources which no longer exist.")
+    public void cleanupOrphanedOccurrences() {
+        LOG.info("Cleaning up orphaned term occurrences...");
+        eventPublisher.publishEvent(new CleanupOrphanedOccurrencesEvent(this));
+    }
+
     @ManagedOperation(description = "Sends test email to the specified address.")
     public void sendTermEmail(String address) {
         final Message message = Message.to(address).subject("TermIt Test Email")
@@ -91,11 +91,18 @@ public class ResourceRepositoryService extends BaseAssetRepositoryService<Resour
 
     @Override
     protected void preRemove(Resource instance) {
-        LOG.trace("Removing term occurrences in resource {} which is about to be removed.", instance);
-        termOccurrenceDao.removeAll(instance);
         removeFromParentDocumentIfFile(instance);
     }
 
+    /**
+     * Term occurrences in the removed resource are removed asynchronously, the resource is only scheduled for check.
+     */
+    @Override
+    protected void postRemove(Resource instance) {
+        LOG.trace("Scheduling removal of term occurrences in removed resource {}.", instance);
+        termOccurrenceDao.scheduleCheck(instance.getUri());
+    }
+
     private void removeFromParentDocumentIfFile(Resource instance) {
         if (!(instance instanceof File)) {
             return;
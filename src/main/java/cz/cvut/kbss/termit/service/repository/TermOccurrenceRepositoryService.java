@@ -14,27 +14,34 @@
  */
 package cz.cvut.kbss.termit.service.repository;
 
+import cz.cvut.kbss.termit.event.CleanupOrphanedOccurrencesEvent;
 import cz.cvut.kbss.termit.exception.NotFoundException;
+import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
 import cz.cvut.kbss.termit.service.business.TermOccurrenceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
+import java.util.List;
 import java.util.Objects;
 
-import static cz.cvut.kbss.termit.util.Constants.SCHEDULING_PATTERN;
-
 @Service
 public class TermOccurrenceRepositoryService implements TermOccurrenceService {
 
     private static final Logger LOG = LoggerFactory.getLogger(TermOccurrenceRepositoryService.class);
 
+    /**
+     * Maximum number of sources checked in one cleanup run
+     */
+    static final int CLEANUP_BATCH_SIZE = 100;
+
     private final TermOccurrenceDao termOccurrenceDao;
 
     @Autowired
@@ -47,6 +54,12 @@ public class TermOccurrenceRepositoryService implements TermOccurrenceService {
         return termOccurrenceDao.getReference(id).orElseThrow(() -> NotFoundException.create(TermOccurrence.class, id));
     }
 
+    @Override
+    public List<TermOccurrence> findAllInRegion(Asset<?> target, int start, int end, URI term) {
+        Objects.requireNonNull(target);
+        return termOccurrenceDao.findAllTargeting(target, start, end, term);
+    }
+
     @Transactional
     @Override
     public void persist(TermOccurrence occurrence) {
@@ -61,7 +74,7 @@ public class TermOccurrenceRepositoryService implements TermOccurrenceService {
         final TermOccurrence toApprove = termOccurrenceDao.find(occurrence.getUri()).orElseThrow(
                 () -> NotFoundException.create(TermOccurrence.class, occurrence.getUri()));
         LOG.trace("Approving term occurrence {}", toApprove);
-        toApprove.removeType(cz.cvut.kbss.termit.util.Vocabulary.s_c_navrzeny_vyskyt_termu);
+        termOccurrenceDao.approve(toApprove);
     }
 
     @Transactional
@@ -73,14 +86,32 @@ public class TermOccurrenceRepositoryService implements TermOccurrenceService {
     }
 
     /**
-     * Cleans up possibly orphaned term occurrences.
+     * Cleans up term occurrences in sources scheduled for check.
      * <p>
-     * Such occurrences reference targets whose sources no longer exist in the repository.
+     * Sources are scheduled for check when they are removed (see {@link TermOccurrenceDao#scheduleCheck(URI)}). Term
+     * occurrences of the scheduled sources which no longer exist are removed in batches, so the cost of the cleanup
+     * depends only on the number of removed sources, not on the total number of term occurrences.
      */
-    @Scheduled(cron = SCHEDULING_PATTERN)
+    @Scheduled(fixedDelayString = "${termit.schedule.occurrence-cleanup-delay:10000}")
     @Transactional
     public void cleanupOrphans() {
-        LOG.debug("Executing orphaned term occurrences cleanup.");
+        final List<URI> toCheck = termOccurrenceDao.findSourcesToCheck(CLEANUP_BATCH_SIZE);
+        if (toCheck.isEmpty()) {
+            return;
+        }
+        LOG.debug("Executing orphaned term occurrences cleanup for {} sources.", toCheck.size());
+        termOccurrenceDao.removeOrphans(toCheck);
+    }
+
+    /**
+     * Removes all orphaned term occurrences in the repository.
+     * <p>
+     * This scans all term occurrences, so it is executed only on explicit request, e.g., to repair legacy data.
+     */
+    @EventListener(CleanupOrphanedOccurrencesEvent.class)
+    @Transactional
+    public void cleanupAllOrphans() {
+        LOG.info("Removing all orphaned term occurrences...");
         termOccurrenceDao.removeAllOrphans();
     }
 }
@@ -408,6 +408,15 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> impl
         super.remove(instance);
     }
 
+    /**
+     * Occurrences of other terms in the removed term's definition are removed asynchronously, the term is only
+     * scheduled for check.
+     */
+    @Override
+    protected void postRemove(Term instance) {
+        termOccurrenceDao.scheduleCheck(instance.getUri());
+    }
+
     @Override
     public List<Snapshot> findSnapshots(Term asset) {
         return termDao.findSnapshots(asset);
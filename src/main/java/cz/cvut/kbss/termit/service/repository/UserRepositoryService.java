@@ -14,6 +14,7 @@
  */
 package cz.cvut.kbss.termit.service.repository;
 
+import cz.cvut.kbss.termit.event.UserAccountModified;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.model.UserAccount;
 import cz.cvut.kbss.termit.persistence.dao.GenericDao;
@@ -21,13 +22,16 @@ import cz.cvut.kbss.termit.persistence.dao.UserAccountDao;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.util.Configuration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import javax.validation.Validator;
 
 @Service
-public class UserRepositoryService extends BaseRepositoryService<UserAccount> {
+public class UserRepositoryService extends BaseRepositoryService<UserAccount>
+        implements ApplicationEventPublisherAware {
 
     private final UserAccountDao userAccountDao;
 
@@ -37,6 +41,8 @@ public class UserRepositoryService extends BaseRepositoryService<UserAccount> {
 
     private final Configuration.Namespace cfgNamespace;
 
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     public UserRepositoryService(UserAccountDao userAccountDao, IdentifierResolver idResolver,
                                  PasswordEncoder passwordEncoder, Validator validator,
@@ -93,6 +99,16 @@ public class UserRepositoryService extends BaseRepositoryService<UserAccount> {
         validate(instance);
     }
 
+    @Override
+    protected void postUpdate(UserAccount instance) {
+        eventPublisher.publishEvent(new UserAccountModified(this, instance.getUri()));
+    }
+
+    @Override
+    protected void postRemove(UserAccount instance) {
+        eventPublisher.publishEvent(new UserAccountModified(this, instance.getUri()));
+    }
+
     /**
      * Checks whether an admin account exists in the system.
      *
@@ -101,4 +117,9 @@ public class UserRepositoryService extends BaseRepositoryService<UserAccount> {
     public boolean doesAdminExist() {
         return userAccountDao.doesAdminExist();
     }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
 }
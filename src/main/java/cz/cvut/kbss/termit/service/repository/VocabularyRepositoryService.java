@@ -16,9 +16,12 @@ import cz.cvut.kbss.termit.persistence.dao.BaseAssetDao;
 import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
 import cz.cvut.kbss.termit.persistence.dao.skos.SKOSImporter;
 import cz.cvut.kbss.termit.persistence.snapshot.SnapshotCreator;
+import cz.cvut.kbss.termit.persistence.snapshot.SnapshotJob;
+import cz.cvut.kbss.termit.persistence.snapshot.SnapshotJobManager;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.TermService;
 import cz.cvut.kbss.termit.service.business.VocabularyService;
+import cz.cvut.kbss.termit.service.changetracking.ChangeTracker;
 import cz.cvut.kbss.termit.service.security.AuthorizationService;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
@@ -48,6 +51,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @CacheConfig(cacheNames = "vocabularies")
@@ -71,6 +75,10 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
 
     private final ApplicationContext context;
 
+    private final SnapshotJobManager snapshotJobManager;
+
+    private final ChangeTracker changeTracker;
+
     private ApplicationEventPublisher eventPublisher;
 
     @Autowired
@@ -78,7 +86,8 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
                                        IdentifierResolver idResolver,
                                        Validator validator, ChangeRecordService changeRecordService,
                                        @Lazy TermService termService,
-                                       EditableVocabularies editableVocabularies, Configuration config) {
+                                       EditableVocabularies editableVocabularies, Configuration config,
+                                       SnapshotJobManager snapshotJobManager, ChangeTracker changeTracker) {
         super(validator);
         this.context = context;
         this.vocabularyDao = vocabularyDao;
@@ -87,6 +96,8 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         this.changeRecordService = changeRecordService;
         this.editableVocabularies = editableVocabularies;
         this.config = config;
+        this.snapshotJobManager = snapshotJobManager;
+        this.changeTracker = changeTracker;
     }
 
     /**
@@ -239,7 +250,9 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         Objects.requireNonNull(file);
         try {
             String contentType = resolveContentType(file);
-            return getSKOSImporter().importVocabulary(vocabularyIri, contentType, this::persist, file.getInputStream());
+            return getSKOSImporter().importVocabulary(vocabularyIri, contentType, this::persist,
+                                                      changeTracker::recordVocabularyContentChanges,
+                                                      file.getInputStream());
         } catch (VocabularyImportException e) {
             throw e;
         } catch (Exception e) {
@@ -308,10 +321,17 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
 
     @PreAuthorize("@authorizationService.canEdit(#vocabulary)")
     @Override
-    public Snapshot createSnapshot(Vocabulary vocabulary) {
-        final Snapshot s = getSnapshotCreator().createSnapshot(vocabulary);
-        eventPublisher.publishEvent(new VocabularyCreatedEvent(s));
-        return s;
+    public CompletableFuture<Snapshot> createSnapshot(Vocabulary vocabulary) {
+        return getSnapshotCreator().startSnapshot(vocabulary).thenApply(s -> {
+            eventPublisher.publishEvent(new VocabularyCreatedEvent(s));
+            return s;
+        });
+    }
+
+    @Override
+    public Optional<SnapshotJob> findLatestSnapshotJob(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return snapshotJobManager.findLatestJob(vocabulary.getUri());
     }
 
     private SnapshotCreator getSnapshotCreator() {
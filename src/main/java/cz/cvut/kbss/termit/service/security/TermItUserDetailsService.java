@@ -17,26 +17,142 @@
  */
 package cz.cvut.kbss.termit.service.security;
 
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.UserAccountModified;
+import cz.cvut.kbss.termit.model.UserAccount;
 import cz.cvut.kbss.termit.persistence.dao.UserAccountDao;
 import cz.cvut.kbss.termit.security.model.TermItUserDetails;
+import cz.cvut.kbss.termit.util.Configuration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static cz.cvut.kbss.termit.util.TransactionUtils.afterCommit;
+
+/**
+ * Loads user details for authentication and authorization.
+ * <p>
+ * User accounts used to authorize requests can be served from a bounded cache (see {@link
+ * #loadCachedUserByUsername(String)}). A cached account is evicted when it is modified (including status changes like
+ * locking after too many failed login attempts, and role changes) and expires after the configured time-to-live, which
+ * bounds staleness of modifications made directly in the repository. Authentication always loads the account from the
+ * repository.
+ */
 @Service
 public class TermItUserDetailsService implements UserDetailsService {
 
     private final UserAccountDao userAccountDao;
 
+    private final int cacheSize;
+
+    private final long cacheTtl;
+
+    private final Map<String, CachedAccount> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Incremented on every eviction, prevents caching accounts loaded before the eviction
+     */
+    private long generation;
+
     @Autowired
-    public TermItUserDetailsService(UserAccountDao userAccountDao) {
+    public TermItUserDetailsService(UserAccountDao userAccountDao, Configuration config) {
         this.userAccountDao = userAccountDao;
+        this.cacheSize = config.getJwt().getUserCacheSize();
+        this.cacheTtl = config.getJwt().getUserCacheTtl();
     }
 
     @Override
     public TermItUserDetails loadUserByUsername(String username) {
-        return new TermItUserDetails(userAccountDao.findByUsername(username).orElseThrow(
-                () -> new UsernameNotFoundException("User with username " + username + " not found.")));
+        return new TermItUserDetails(loadAccount(username));
+    }
+
+    private UserAccount loadAccount(String username) {
+        return userAccountDao.findByUsername(username).orElseThrow(
+                () -> new UsernameNotFoundException("User with username " + username + " not found."));
+    }
+
+    /**
+     * Loads user details, using the cache of user accounts.
+     * <p>
+     * Intended for authorization of requests made by already authenticated users. The returned details contain a copy
+     * of the cached account, so they can be modified freely.
+     *
+     * @param username Username to search by
+     * @return Details of the matching user
+     * @throws UsernameNotFoundException If no user with the specified username exists
+     */
+    public TermItUserDetails loadCachedUserByUsername(String username) {
+        if (cacheSize <= 0) {
+            return loadUserByUsername(username);
+        }
+        final long loadGeneration;
+        synchronized (this) {
+            final CachedAccount cached = cache.get(username);
+            if (cached != null && System.currentTimeMillis() - cached.loaded < cacheTtl) {
+                return new TermItUserDetails(cached.account.copy());
+            }
+            loadGeneration = generation;
+        }
+        final UserAccount account = loadAccount(username);
+        put(username, account.copy(), loadGeneration);
+        return new TermItUserDetails(account);
+    }
+
+    private synchronized void put(String username, UserAccount account, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        cache.put(username, new CachedAccount(account, System.currentTimeMillis()));
+        final Iterator<CachedAccount> it = cache.values().iterator();
+        while (cache.size() > cacheSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Evicts the modified user account from the cache.
+     * <p>
+     * The account is evicted immediately and, if there is an active transaction, again after it successfully commits,
+     * so that it is not cached in the state before modification by a concurrent request.
+     *
+     * @param event Event representing the modification
+     */
+    @EventListener
+    public void onUserAccountModified(UserAccountModified event) {
+        final URI userUri = event.getUserUri();
+        evict(userUri);
+        afterCommit(() -> evict(userUri));
+    }
+
+    private synchronized void evict(URI userUri) {
+        generation++;
+        cache.values().removeIf(cached -> userUri.equals(cached.account.getUri()));
+    }
+
+    /**
+     * Evicts all cached user accounts.
+     */
+    @EventListener(EvictCacheEvent.class)
+    public synchronized void evictAll() {
+        generation++;
+        cache.clear();
+    }
+
+    private static final class CachedAccount {
+        private final UserAccount account;
+        private final long loaded;
+
+        private CachedAccount(UserAccount account, long loaded) {
+            this.account = account;
+            this.loaded = loaded;
+        }
     }
 }
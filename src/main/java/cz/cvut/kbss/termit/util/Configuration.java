@@ -50,6 +50,10 @@ public class Configuration {
     private Cors cors = new Cors();
     private Schedule schedule = new Schedule();
     private Mail mail = new Mail();
+    private Search search = new Search();
+    private Snapshot snapshot = new Snapshot();
+    private Cluster cluster = new Cluster();
+    private SkosImport skosImport = new SkosImport();
 
     public String getUrl() {
         return url;
@@ -179,6 +183,38 @@ public class Configuration {
         this.mail = mail;
     }
 
+    public Search getSearch() {
+        return search;
+    }
+
+    public void setSearch(Search search) {
+        this.search = search;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public void setCluster(Cluster cluster) {
+        this.cluster = cluster;
+    }
+
+    public SkosImport getSkosImport() {
+        return skosImport;
+    }
+
+    public void setSkosImport(SkosImport skosImport) {
+        this.skosImport = skosImport;
+    }
+
     @org.springframework.context.annotation.Configuration
     @ConfigurationProperties(prefix = "persistence")
     public static class Persistence {
@@ -192,6 +228,19 @@ public class Configuration {
          */
         @NotNull
         String language;
+        /**
+         * IRI of the repository context in which application metadata (e.g., data version counters) are stored.
+         */
+        @NotNull
+        String metadataContext = "http://onto.fel.cvut.cz/ontologies/application/termit/metadata";
+        /**
+         * How long (in milliseconds) a locally cached data version counter may be used before it is revalidated
+         * against the repository.
+         * <p>
+         * This bounds the time other TermIt instances sharing the repository may serve stale responses to conditional
+         * requests after data are modified.
+         */
+        long versionRevalidationInterval = 1000;
 
         public String getDriver() {
             return driver;
@@ -208,6 +257,22 @@ public class Configuration {
         public void setLanguage(String language) {
             this.language = language;
         }
+
+        public String getMetadataContext() {
+            return metadataContext;
+        }
+
+        public void setMetadataContext(String metadataContext) {
+            this.metadataContext = metadataContext;
+        }
+
+        public long getVersionRevalidationInterval() {
+            return versionRevalidationInterval;
+        }
+
+        public void setVersionRevalidationInterval(long versionRevalidationInterval) {
+            this.versionRevalidationInterval = versionRevalidationInterval;
+        }
     }
 
     @org.springframework.context.annotation.Configuration
@@ -467,6 +532,18 @@ public class Configuration {
         @NotNull
         String storage;
 
+        /**
+         * Whether to compress file backups.
+         */
+        boolean compressBackups = true;
+
+        /**
+         * Maximum number of backups kept for a file. The oldest backups are discarded when the limit is exceeded.
+         * <p>
+         * Non-positive values mean no limit.
+         */
+        int maxBackups = 20;
+
         public String getStorage() {
             return storage;
         }
@@ -474,6 +551,22 @@ public class Configuration {
         public void setStorage(String storage) {
             this.storage = storage;
         }
+
+        public boolean isCompressBackups() {
+            return compressBackups;
+        }
+
+        public void setCompressBackups(boolean compressBackups) {
+            this.compressBackups = compressBackups;
+        }
+
+        public int getMaxBackups() {
+            return maxBackups;
+        }
+
+        public void setMaxBackups(int maxBackups) {
+            this.maxBackups = maxBackups;
+        }
     }
 
     @org.springframework.context.annotation.Configuration
@@ -485,6 +578,29 @@ public class Configuration {
         @NotNull
         String secretKey;
 
+        /**
+         * How long (in milliseconds) before its expiration a token gets refreshed.
+         * <p>
+         * Tokens with longer validity are not refreshed when used. Defaults to 12 hours, i.e., half of the session
+         * timeout.
+         */
+        private long refreshWindow = 12 * 60 * 60 * 1000L;
+
+        /**
+         * Maximum number of user accounts cached for authorization of requests.
+         * <p>
+         * Zero disables the cache.
+         */
+        private int userCacheSize = 1000;
+
+        /**
+         * How long (in milliseconds) a user account is cached for authorization of requests.
+         * <p>
+         * Cached accounts are evicted when modified, so this only bounds staleness of changes made directly in the
+         * repository.
+         */
+        private long userCacheTtl = 60000;
+
         public String getSecretKey() {
             return secretKey;
         }
@@ -492,6 +608,30 @@ public class Configuration {
         public void setSecretKey(String secretKey) {
             this.secretKey = secretKey;
         }
+
+        public long getRefreshWindow() {
+            return refreshWindow;
+        }
+
+        public void setRefreshWindow(long refreshWindow) {
+            this.refreshWindow = refreshWindow;
+        }
+
+        public int getUserCacheSize() {
+            return userCacheSize;
+        }
+
+        public void setUserCacheSize(int userCacheSize) {
+            this.userCacheSize = userCacheSize;
+        }
+
+        public long getUserCacheTtl() {
+            return userCacheTtl;
+        }
+
+        public void setUserCacheTtl(long userCacheTtl) {
+            this.userCacheTtl = userCacheTtl;
+        }
     }
 
     @org.springframework.context.annotation.Configuration
@@ -625,6 +765,18 @@ public class Configuration {
 
             private Notification notification = new Notification();
 
+            /**
+             * CRON expression configuring when to compact delta-encoded vocabulary snapshots. Defaults to '-' which
+             * disables scheduled compaction.
+             */
+            private String snapshotCompaction = "-";
+
+            /**
+             * CRON expression configuring when to remove file backup contents which are no longer referenced. Defaults
+             * to every day at 2:30.
+             */
+            private String blobGarbageCollection = "0 30 2 * * ?";
+
             public Notification getNotification() {
                 return notification;
             }
@@ -633,6 +785,22 @@ public class Configuration {
                 this.notification = notification;
             }
 
+            public String getSnapshotCompaction() {
+                return snapshotCompaction;
+            }
+
+            public void setSnapshotCompaction(String snapshotCompaction) {
+                this.snapshotCompaction = snapshotCompaction;
+            }
+
+            public String getBlobGarbageCollection() {
+                return blobGarbageCollection;
+            }
+
+            public void setBlobGarbageCollection(String blobGarbageCollection) {
+                this.blobGarbageCollection = blobGarbageCollection;
+            }
+
             public static class Notification {
 
                 /**
@@ -665,4 +833,261 @@ public class Configuration {
             this.sender = sender;
         }
     }
+
+    @org.springframework.context.annotation.Configuration
+    @ConfigurationProperties(prefix = "search")
+    public static class Search {
+
+        private Index index = new Index();
+
+        private LabelIndex labelIndex = new LabelIndex();
+
+        public Index getIndex() {
+            return index;
+        }
+
+        public void setIndex(Index index) {
+            this.index = index;
+        }
+
+        public LabelIndex getLabelIndex() {
+            return labelIndex;
+        }
+
+        public void setLabelIndex(LabelIndex labelIndex) {
+            this.labelIndex = labelIndex;
+        }
+
+        public static class Index {
+            /**
+             * Whether to use the embedded full text index instead of the repository-based full text search.
+             * <p>
+             * Relevant only for repositories without a text index (i.e., when the {@code lucene} profile is not
+             * active).
+             */
+            private boolean enabled = false;
+
+            /**
+             * Directory in which the embedded full text index is stored.
+             */
+            private String directory;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+        }
+
+        public static class LabelIndex {
+            /**
+             * Approximate maximum amount of memory (in bytes) used by the in-memory term label index.
+             * <p>
+             * When exceeded, least recently used vocabularies are evicted from the index.
+             */
+            private long memoryBudget = 32 * 1024 * 1024;
+
+            public long getMemoryBudget() {
+                return memoryBudget;
+            }
+
+            public void setMemoryBudget(long memoryBudget) {
+                this.memoryBudget = memoryBudget;
+            }
+        }
+    }
+
+    @org.springframework.context.annotation.Configuration
+    @ConfigurationProperties(prefix = "snapshot")
+    public static class Snapshot {
+
+        public enum Storage {
+            /**
+             * Every snapshot contains a full copy of the vocabulary content.
+             */
+            FULL,
+            /**
+             * Snapshots contain only statements added or removed relative to the previous snapshot of the same
+             * vocabulary.
+             */
+            DELTA
+        }
+
+        /**
+         * How vocabulary snapshots are stored.
+         */
+        private Storage storage = Storage.FULL;
+
+        /**
+         * Maximum number of consecutive delta snapshots of a vocabulary. When reached, the next snapshot is stored in
+         * full (as a checkpoint).
+         * <p>
+         * Relevant only for {@link Storage#DELTA} storage.
+         */
+        private int checkpointInterval = 10;
+
+        /**
+         * Maximum total weight of entries in the snapshot read cache.
+         * <p>
+         * Weight of an entry roughly corresponds to the number of objects it contains (e.g., a term and its related
+         * terms, items of a list). Zero disables the cache.
+         */
+        private long cacheMaxWeight = 10000;
+
+        /**
+         * Maximum total number of statements of delta snapshots materialized in memory for reading.
+         * <p>
+         * Relevant only for {@link Storage#DELTA} storage.
+         */
+        private long materializedMaxStatements = 1_000_000;
+
+        public Storage getStorage() {
+            return storage;
+        }
+
+        public void setStorage(Storage storage) {
+            this.storage = storage;
+        }
+
+        public int getCheckpointInterval() {
+            return checkpointInterval;
+        }
+
+        public void setCheckpointInterval(int checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+        }
+
+        public long getCacheMaxWeight() {
+            return cacheMaxWeight;
+        }
+
+        public void setCacheMaxWeight(long cacheMaxWeight) {
+            this.cacheMaxWeight = cacheMaxWeight;
+        }
+
+        public long getMaterializedMaxStatements() {
+            return materializedMaxStatements;
+        }
+
+        public void setMaterializedMaxStatements(long materializedMaxStatements) {
+            this.materializedMaxStatements = materializedMaxStatements;
+        }
+    }
+
+    @org.springframework.context.annotation.Configuration
+    @ConfigurationProperties(prefix = "cluster")
+    public static class Cluster {
+
+        /**
+         * Whether cache invalidations should be propagated to other TermIt instances sharing the repository.
+         */
+        private boolean enabled = false;
+
+        /**
+         * IRI of the repository context used as the log of cache invalidations.
+         */
+        private String invalidationContext = "http://onto.fel.cvut.cz/ontologies/application/termit/invalidation-log";
+
+        /**
+         * How often (in milliseconds) the invalidation log is polled for invalidations made by other instances.
+         */
+        private long pollInterval = 2000;
+
+        /**
+         * How far back (in milliseconds) before the previous poll each poll looks.
+         * <p>
+         * Invalidations are recorded when the modifying transaction runs, but become visible only after it commits.
+         * The overlap must therefore exceed the duration of the longest transaction plus the clock skew between the
+         * instances, otherwise invalidations may be missed.
+         */
+        private long overlap = 30000;
+
+        /**
+         * How long (in milliseconds) invalidations are kept in the log.
+         */
+        private long retention = 3600000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getInvalidationContext() {
+            return invalidationContext;
+        }
+
+        public void setInvalidationContext(String invalidationContext) {
+            this.invalidationContext = invalidationContext;
+        }
+
+        public long getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(long pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public long getOverlap() {
+            return overlap;
+        }
+
+        public void setOverlap(long overlap) {
+            this.overlap = overlap;
+        }
+
+        public long getRetention() {
+            return retention;
+        }
+
+        public void setRetention(long retention) {
+            this.retention = retention;
+        }
+    }
+
+    @org.springframework.context.annotation.Configuration
+    @ConfigurationProperties(prefix = "skos-import")
+    public static class SkosImport {
+
+        /**
+         * Maximum number of imported statements kept in memory during SKOS vocabulary import.
+         * <p>
+         * Larger data are moved into a temporary store on disk.
+         */
+        private int inMemoryStatementLimit = 500000;
+
+        /**
+         * Number of statements written into the repository in one transaction during SKOS vocabulary import.
+         */
+        private int batchSize = 50000;
+
+        public int getInMemoryStatementLimit() {
+            return inMemoryStatementLimit;
+        }
+
+        public void setInMemoryStatementLimit(int inMemoryStatementLimit) {
+            this.inMemoryStatementLimit = inMemoryStatementLimit;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package cz.cvut.kbss.termit.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+
+/**
+ * Utilities for working with Spring-managed transactions.
+ */
+public class TransactionUtils {
+
+    private TransactionUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Executes the specified action after the current transaction successfully commits.
+     * <p>
+     * If there is no active transaction, the action is executed immediately. If the transaction is rolled back, the
+     * action is not executed at all.
+     *
+     * @param action Action to execute
+     */
+    public static void afterCommit(Runnable action) {
+        Objects.requireNonNull(action);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Checks whether a transaction which may modify data is active in the current thread.
+     * <p>
+     * Changes made by such a transaction are visible only via its own repository connection until it commits.
+     *
+     * @return {@code true} if a read-write transaction is active, {@code false} otherwise
+     */
+    public static boolean isReadWriteTransactionActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive() &&
+                !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -46,4 +46,15 @@ public interface TypeAwareResource extends Resource {
     default Optional<String> getFileExtension() {
         return Optional.empty();
     }
+
+    /**
+     * Gets hash of the content of this resource (if supported).
+     * <p>
+     * The hash changes whenever the content changes, so it can be used as an entity tag.
+     *
+     * @return Content hash wrapped in {@code Optional}
+     */
+    default Optional<String> getContentHash() {
+        return Optional.empty();
+    }
 }
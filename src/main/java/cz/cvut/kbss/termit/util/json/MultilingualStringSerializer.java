@@ -23,6 +23,20 @@ public class MultilingualStringSerializer extends StdSerializer<MultilingualStri
     @Override
     public void serialize(MultilingualString multilingualString, JsonGenerator jsonGenerator,
                           SerializerProvider serializerProvider) throws IOException {
+        writeLanguageMap(multilingualString, jsonGenerator);
+    }
+
+    /**
+     * Writes the specified multilingual string as an object mapping languages to values.
+     * <p>
+     * Value without language is mapped to an empty string.
+     *
+     * @param multilingualString Value to write
+     * @param jsonGenerator      Generator to write to
+     * @throws IOException When writing fails
+     */
+    static void writeLanguageMap(MultilingualString multilingualString, JsonGenerator jsonGenerator)
+            throws IOException {
         Objects.requireNonNull(multilingualString);
         jsonGenerator.writeStartObject();
         for (Map.Entry<String, String> entry : multilingualString.getValue().entrySet()) {
@@ -0,0 +1,61 @@
+package cz.cvut.kbss.termit.util.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.listing.TermDto;
+
+import java.io.IOException;
+
+import static cz.cvut.kbss.termit.util.json.TermInfoSerializer.*;
+
+/**
+ * Custom Jackson serializer for {@link TermDto} instances.
+ * <p>
+ * Term listings may contain thousands of terms, so they are written directly into the generator instead of using
+ * reflection-based bean serialization. The output contains the same attributes as the bean serializer would produce.
+ */
+public class TermDtoSerializer extends StdSerializer<TermDto> {
+
+    private final TermInfoSerializer termInfoSerializer = new TermInfoSerializer();
+
+    public TermDtoSerializer() {
+        super(TermDto.class);
+    }
+
+    @Override
+    public void serialize(TermDto term, JsonGenerator jsonGenerator,
+                          SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeStartObject();
+        writeUriField("uri", term.getUri(), jsonGenerator);
+        writeMultilingualStringField("label", term.getLabel(), jsonGenerator);
+        writeMultilingualStringField("definition", term.getDefinition(), jsonGenerator);
+        jsonGenerator.writeFieldName("subTerms");
+        if (term.getSubTerms() != null) {
+            jsonGenerator.writeStartArray();
+            for (TermInfo ti : term.getSubTerms()) {
+                termInfoSerializer.serialize(ti, jsonGenerator, serializerProvider);
+            }
+            jsonGenerator.writeEndArray();
+        } else {
+            jsonGenerator.writeNull();
+        }
+        writeUriField("glossary", term.getGlossary(), jsonGenerator);
+        writeUriField("vocabulary", term.getVocabulary(), jsonGenerator);
+        jsonGenerator.writeBooleanField("draft", term.isDraft());
+        writeStringsField("types", term.getTypes(), jsonGenerator);
+        jsonGenerator.writeFieldName("parentTerms");
+        if (term.getParentTerms() != null) {
+            jsonGenerator.writeStartArray();
+            for (TermDto parent : term.getParentTerms()) {
+                serialize(parent, jsonGenerator, serializerProvider);
+            }
+            jsonGenerator.writeEndArray();
+        } else {
+            jsonGenerator.writeNull();
+        }
+        jsonGenerator.writeBooleanField("snapshot", term.isSnapshot());
+        jsonGenerator.writeEndObject();
+    }
+}
@@ -0,0 +1,63 @@
+package cz.cvut.kbss.termit.util.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.dto.TermInfo;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+
+/**
+ * Custom Jackson serializer for {@link TermInfo} instances.
+ * <p>
+ * Writes the same attributes as the default bean serializer, but directly, without reflection. Term info is part of
+ * each item in term listings, so it is worth avoiding the overhead.
+ */
+public class TermInfoSerializer extends StdSerializer<TermInfo> {
+
+    public TermInfoSerializer() {
+        super(TermInfo.class);
+    }
+
+    @Override
+    public void serialize(TermInfo termInfo, JsonGenerator jsonGenerator,
+                          SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeStartObject();
+        writeUriField("uri", termInfo.getUri(), jsonGenerator);
+        writeMultilingualStringField("label", termInfo.getLabel(), jsonGenerator);
+        writeUriField("vocabulary", termInfo.getVocabulary(), jsonGenerator);
+        writeStringsField("types", termInfo.getTypes(), jsonGenerator);
+        jsonGenerator.writeEndObject();
+    }
+
+    static void writeUriField(String name, URI value, JsonGenerator jsonGenerator) throws IOException {
+        jsonGenerator.writeStringField(name, value != null ? value.toString() : null);
+    }
+
+    static void writeMultilingualStringField(String name, MultilingualString value,
+                                             JsonGenerator jsonGenerator) throws IOException {
+        jsonGenerator.writeFieldName(name);
+        if (value != null) {
+            MultilingualStringSerializer.writeLanguageMap(value, jsonGenerator);
+        } else {
+            jsonGenerator.writeNull();
+        }
+    }
+
+    static void writeStringsField(String name, Collection<String> values,
+                                  JsonGenerator jsonGenerator) throws IOException {
+        jsonGenerator.writeFieldName(name);
+        if (values == null) {
+            jsonGenerator.writeNull();
+            return;
+        }
+        jsonGenerator.writeStartArray();
+        for (String v : values) {
+            jsonGenerator.writeString(v);
+        }
+        jsonGenerator.writeEndArray();
+    }
+}
@@ -0,0 +1,235 @@
+package cz.cvut.kbss.termit.util.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.listing.TermDto;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Writes collections of {@link TermDto} and {@link TermInfo} instances as compacted JSON-LD.
+ * <p>
+ * The output is a single JSON-LD document whose {@code @context} is written once and is shared by all the terms in
+ * {@code @graph}. Terms are written directly into the response, which is considerably faster and more compact than
+ * generic JSON-LD serialization using full IRIs for every attribute of every term.
+ * <p>
+ * Only writing is supported. Other types are left to the generic JSON-LD message converter.
+ */
+public class TermListJsonLdMessageConverter extends AbstractGenericHttpMessageConverter<Collection<?>> {
+
+    private static final String CONTEXT = "@context";
+    private static final String GRAPH = "@graph";
+    private static final String LANGUAGE = "@language";
+    private static final String VALUE = "@value";
+
+    private final JsonFactory jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    public TermListJsonLdMessageConverter() {
+        super(MediaType.valueOf(JsonLd.MEDIA_TYPE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        // Element type is not known
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isTermCollection(type) && canWrite(mediaType);
+    }
+
+    private static boolean isTermCollection(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        final ParameterizedType pt = (ParameterizedType) type;
+        if (!(pt.getRawType() instanceof Class) || !Collection.class.isAssignableFrom((Class<?>) pt.getRawType())) {
+            return false;
+        }
+        final Type elementType = pt.getActualTypeArguments()[0];
+        return elementType instanceof Class && (TermDto.class.isAssignableFrom((Class<?>) elementType) ||
+                TermInfo.class.isAssignableFrom((Class<?>) elementType));
+    }
+
+    @Override
+    public Collection<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading term lists is not supported.", inputMessage);
+    }
+
+    @Override
+    protected Collection<?> readInternal(Class<? extends Collection<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading term lists is not supported.", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Collection<?> terms, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        try (final JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(),
+                                                                         JsonEncoding.UTF8)) {
+            new Writer(generator).write(terms);
+        }
+    }
+
+    private static final class Writer {
+
+        private final JsonGenerator generator;
+
+        /**
+         * Terms being written, used to break cycles in the term hierarchy
+         */
+        private final Set<URI> ancestors = new HashSet<>();
+
+        private Writer(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        private void write(Collection<?> terms) throws IOException {
+            generator.writeStartObject();
+            writeContext();
+            generator.writeArrayFieldStart(GRAPH);
+            for (Object t : terms) {
+                if (t instanceof TermDto) {
+                    writeTerm((TermDto) t);
+                } else {
+                    writeTermInfo((TermInfo) t);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        private void writeContext() throws IOException {
+            generator.writeObjectFieldStart(CONTEXT);
+            writeContextTerm("label", SKOS.PREF_LABEL, false);
+            writeContextTerm("definition", SKOS.DEFINITION, false);
+            writeContextTerm("subTerms", SKOS.NARROWER, false);
+            writeContextTerm("parentTerms", SKOS.BROADER, false);
+            writeContextTerm("glossary", SKOS.IN_SCHEME, true);
+            writeContextTerm("vocabulary", Vocabulary.s_p_je_pojmem_ze_slovniku, true);
+            writeContextTerm("draft", Vocabulary.s_p_je_draft, false);
+            generator.writeEndObject();
+        }
+
+        private void writeContextTerm(String term, String iri, boolean iriValued) throws IOException {
+            generator.writeObjectFieldStart(term);
+            generator.writeStringField(JsonLd.ID, iri);
+            if (iriValued) {
+                generator.writeStringField(JsonLd.TYPE, JsonLd.ID);
+            }
+            generator.writeEndObject();
+        }
+
+        private void writeTerm(TermDto term) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField(JsonLd.ID, term.getUri().toString());
+            if (!ancestors.add(term.getUri())) {
+                // Cycle in the hierarchy, reference is sufficient
+                generator.writeEndObject();
+                return;
+            }
+            writeTypes(term.getTypes());
+            writeMultilingualString("label", term.getLabel());
+            writeMultilingualString("definition", term.getDefinition());
+            writeUri("glossary", term.getGlossary());
+            writeUri("vocabulary", term.getVocabulary());
+            generator.writeBooleanField("draft", term.isDraft());
+            if (term.getSubTerms() != null && !term.getSubTerms().isEmpty()) {
+                generator.writeArrayFieldStart("subTerms");
+                for (TermInfo ti : term.getSubTerms()) {
+                    writeTermInfo(ti);
+                }
+                generator.writeEndArray();
+            }
+            if (term.hasParentTerms()) {
+                generator.writeArrayFieldStart("parentTerms");
+                for (TermDto parent : term.getParentTerms()) {
+                    writeTerm(parent);
+                }
+                generator.writeEndArray();
+            }
+            ancestors.remove(term.getUri());
+            generator.writeEndObject();
+        }
+
+        private void writeTermInfo(TermInfo termInfo) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField(JsonLd.ID, termInfo.getUri().toString());
+            writeTypes(termInfo.getTypes());
+            writeMultilingualString("label", termInfo.getLabel());
+            writeUri("vocabulary", termInfo.getVocabulary());
+            generator.writeEndObject();
+        }
+
+        private void writeTypes(Set<String> types) throws IOException {
+            generator.writeArrayFieldStart(JsonLd.TYPE);
+            generator.writeString(SKOS.CONCEPT);
+            if (types != null) {
+                for (String t : types) {
+                    if (!SKOS.CONCEPT.equals(t)) {
+                        generator.writeString(t);
+                    }
+                }
+            }
+            generator.writeEndArray();
+        }
+
+        private void writeUri(String term, URI value) throws IOException {
+            if (value != null) {
+                generator.writeStringField(term, value.toString());
+            }
+        }
+
+        /**
+         * Writes language-tagged values as array of value objects, so that values without language are supported as
+         * well.
+         */
+        private void writeMultilingualString(String term, MultilingualString value) throws IOException {
+            if (value == null || value.getValue().isEmpty()) {
+                return;
+            }
+            generator.writeArrayFieldStart(term);
+            for (Map.Entry<String, String> e : value.getValue().entrySet()) {
+                if (e.getKey() != null) {
+                    generator.writeStartObject();
+                    generator.writeStringField(LANGUAGE, e.getKey());
+                    generator.writeStringField(VALUE, e.getValue());
+                    generator.writeEndObject();
+                } else {
+                    generator.writeString(e.getValue());
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package cz.cvut.kbss.termit.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.config.WebAppConfig;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.listing.TermDto;
+import cz.cvut.kbss.termit.util.json.MultilingualStringSerializer;
+import cz.cvut.kbss.termit.util.json.TermListJsonLdMessageConverter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serialization of term listings using the dedicated term serializers with the generic, reflection-based
+ * serialization.
+ * <p>
+ * Run the {@link #main(String[])} method from the test classpath, e.g., from an IDE. Use {@code -prof gc} JMH
+ * argument (by modifying the options) to compare allocation as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TermListSerializationBenchmark {
+
+    private static final Type TERM_LIST_TYPE = new ParameterizedTypeReference<List<TermDto>>() {
+    }.getType();
+
+    @Param({"100", "5000"})
+    private int termCount;
+
+    private List<TermDto> terms;
+
+    private ObjectMapper jsonMapper;
+
+    private ObjectMapper genericJsonMapper;
+
+    private ObjectMapper jsonLdMapper;
+
+    private TermListJsonLdMessageConverter jsonLdConverter;
+
+    private final CountingOutputStream out = new CountingOutputStream();
+
+    @Setup
+    public void setUp() {
+        this.terms = generateTerms(termCount);
+        this.jsonMapper = WebAppConfig.createJsonObjectMapper();
+        this.genericJsonMapper = createGenericJsonMapper();
+        this.jsonLdMapper = WebAppConfig.createJsonLdObjectMapper();
+        this.jsonLdConverter = new TermListJsonLdMessageConverter();
+    }
+
+    /**
+     * JSON mapper configured as before the introduction of dedicated term serializers.
+     */
+    private static ObjectMapper createGenericJsonMapper() {
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.ALWAYS);
+        final SimpleModule module = new SimpleModule();
+        module.addSerializer(MultilingualString.class, new MultilingualStringSerializer());
+        mapper.registerModule(module);
+        return mapper;
+    }
+
+    private static List<TermDto> generateTerms(int count) {
+        final Random random = new Random(42);
+        final URI vocabulary = URI.create("http://onto.fel.cvut.cz/ontologies/slovnik/benchmark");
+        final List<TermDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final TermDto term = new TermDto();
+            term.setUri(URI.create(vocabulary + "/pojem/term-" + i));
+            term.setLabel(multilingual("Term " + i));
+            term.setDefinition(multilingual("Definition of term " + i + " " + random.nextLong()));
+            term.setVocabulary(vocabulary);
+            term.setGlossary(URI.create(vocabulary + "/glosář"));
+            term.setDraft(random.nextBoolean());
+            if (i > 0) {
+                term.setParentTerms(Collections.singleton(result.get(random.nextInt(i))));
+            }
+            final Set<TermInfo> subTerms = new LinkedHashSet<>();
+            for (int j = 0; j < random.nextInt(4); j++) {
+                final TermInfo ti = new TermInfo(URI.create(vocabulary + "/pojem/sub-term-" + i + "-" + j));
+                ti.setLabel(multilingual("Sub term " + i + "-" + j));
+                ti.setVocabulary(vocabulary);
+                subTerms.add(ti);
+            }
+            term.setSubTerms(subTerms);
+            result.add(term);
+        }
+        return result;
+    }
+
+    private static MultilingualString multilingual(String value) {
+        final MultilingualString result = MultilingualString.create(value, "en");
+        result.set("cs", value);
+        return result;
+    }
+
+    @Benchmark
+    public long jsonDedicatedSerializer() throws IOException {
+        out.reset();
+        jsonMapper.writeValue(out, terms);
+        return out.count;
+    }
+
+    @Benchmark
+    public long jsonGenericSerializer() throws IOException {
+        out.reset();
+        genericJsonMapper.writeValue(out, terms);
+        return out.count;
+    }
+
+    @Benchmark
+    public long jsonLdSharedContext() throws IOException {
+        out.reset();
+        jsonLdConverter.write(terms, TERM_LIST_TYPE, MediaType.valueOf(JsonLd.MEDIA_TYPE), new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return out;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return new HttpHeaders();
+            }
+        });
+        return out.count;
+    }
+
+    @Benchmark
+    public long jsonLdGeneric() throws IOException {
+        out.reset();
+        jsonLdMapper.writeValue(out, terms);
+        return out.count;
+    }
+
+    /**
+     * Discards written data, counting only their size.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        private void reset() {
+            this.count = 0;
+        }
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void close() {
+            // Keep the stream usable, some of the benchmarked writers close it
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TermListSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -25,6 +25,7 @@ import cz.cvut.kbss.termit.model.UserAccount;
 import cz.cvut.kbss.termit.security.model.AuthenticationToken;
 import cz.cvut.kbss.termit.security.model.TermItUserDetails;
 import cz.cvut.kbss.termit.util.Vocabulary;
+import cz.cvut.kbss.termit.util.json.TermListJsonLdMessageConverter;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.rio.RDFFormat;
@@ -134,6 +135,15 @@ public class Environment {
         return converter;
     }
 
+    /**
+     * Creates a message converter writing term listings as JSON-LD.
+     *
+     * @return Term list JSON-LD message converter
+     */
+    public static HttpMessageConverter<?> createTermListJsonLdMessageConverter() {
+        return new TermListJsonLdMessageConverter();
+    }
+
     public static HttpMessageConverter<?> createDefaultMessageConverter() {
         return new MappingJackson2HttpMessageConverter(getObjectMapper());
     }
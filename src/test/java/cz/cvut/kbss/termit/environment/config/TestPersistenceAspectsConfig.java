@@ -1,5 +1,6 @@
 package cz.cvut.kbss.termit.environment.config;
 
+import cz.cvut.kbss.termit.aspect.CacheInvalidationAspect;
 import cz.cvut.kbss.termit.aspect.ChangeTrackingAspect;
 import cz.cvut.kbss.termit.aspect.VocabularyContentModificationAspect;
 import cz.cvut.kbss.termit.service.changetracking.ChangeTracker;
@@ -30,6 +31,11 @@ public class TestPersistenceAspectsConfig {
         return Aspects.aspectOf(VocabularyContentModificationAspect.class);
     }
 
+    @Bean
+    CacheInvalidationAspect cacheInvalidationAspect() {
+        return Aspects.aspectOf(CacheInvalidationAspect.class);
+    }
+
     @Bean
     public ApplicationEventPublisher eventPublisher() {
         return mock(ApplicationEventPublisher.class);
@@ -14,6 +14,7 @@
  */
 package cz.cvut.kbss.termit.environment.config;
 
+import cz.cvut.kbss.termit.aspect.CacheInvalidationAspect;
 import cz.cvut.kbss.termit.aspect.ChangeTrackingAspect;
 import cz.cvut.kbss.termit.aspect.VocabularyContentModificationAspect;
 import cz.cvut.kbss.termit.environment.Environment;
@@ -95,6 +96,11 @@ public class TestServiceConfig {
         return Aspects.aspectOf(VocabularyContentModificationAspect.class);
     }
 
+    @Bean
+    CacheInvalidationAspect cacheInvalidationAspect() {
+        return Aspects.aspectOf(CacheInvalidationAspect.class);
+    }
+
     @Bean
     @Primary
     public ApplicationEventPublisher eventPublisher() {
@@ -108,6 +108,34 @@ class ResourceDaoTest extends BaseDaoTestRunner {
         assertEquals(resources, result);
     }
 
+    @Test
+    void findAllMapsDocumentFilesAndVocabularyDescribingDocument() {
+        enableRdfsInference(em);
+        final Document doc = Generator.generateDocumentWithId();
+        final Vocabulary voc = Generator.generateVocabularyWithId();
+        voc.setDocument(doc);
+        final File file = Generator.generateFileWithId("test.html");
+        transactional(() -> {
+            em.persist(voc, descriptorFactory.vocabularyDescriptor(voc));
+            doc.addFile(file);
+            doc.setVocabulary(voc.getUri());
+            sut.persist(file, voc);
+            sut.update(doc);
+        });
+
+        final List<Resource> result = sut.findAll();
+        assertEquals(1, result.size());
+        assertThat(result.get(0), instanceOf(Document.class));
+        final Document docResult = (Document) result.get(0);
+        assertEquals(doc.getUri(), docResult.getUri());
+        assertEquals(doc.getLabel(), docResult.getLabel());
+        assertEquals(voc.getUri(), docResult.getVocabulary());
+        final Optional<File> fileResult = docResult.getFile(file.getLabel());
+        assertTrue(fileResult.isPresent());
+        assertEquals(file.getUri(), fileResult.get().getUri());
+        assertEquals(docResult, fileResult.get().getDocument());
+    }
+
     @Test
     void persistDocumentWithVocabularyPersistsToVocabularyContext() {
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
@@ -191,4 +191,31 @@ public class TermDaoRelatedTermsTest extends BaseTermDaoTestRunner {
         assertThat(result.get().getRelatedMatch(), hasItems(relatedMatch.stream().map(TermInfo::new)
                                                                         .toArray(TermInfo[]::new)));
     }
+
+    @Test
+    void findLoadsSubTermsAndAllInferredInverseRelationshipsOfTerm() {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        final Term child = Generator.generateTermWithId(vocabulary.getUri());
+        child.addParentTerm(term);
+        final Term inverseRelated = Generator.generateTermWithId(vocabulary.getUri());
+        final Term inverseRelatedMatch = Generator.generateTermWithId(vocabulary.getUri());
+        final Term inverseExactMatch = Generator.generateTermWithId(vocabulary.getUri());
+        transactional(() -> {
+            Arrays.asList(term, child, inverseRelated, inverseRelatedMatch, inverseExactMatch).forEach(t -> {
+                em.persist(t, descriptorFactory.termDescriptor(vocabulary));
+                Generator.addTermInVocabularyRelationship(t, vocabulary.getUri(), em);
+            });
+            generateRelatedRelationships(term, Collections.singleton(inverseRelated), SKOS.RELATED);
+            generateRelatedRelationships(term, Collections.singleton(inverseRelatedMatch), SKOS.RELATED_MATCH);
+            generateRelatedRelationships(term, Collections.singleton(inverseExactMatch), SKOS.EXACT_MATCH);
+        });
+
+        final Optional<Term> result = sut.find(term.getUri());
+        assertTrue(result.isPresent());
+        assertEquals(Collections.singleton(new TermInfo(child)), result.get().getSubTerms());
+        assertEquals(Collections.singleton(new TermInfo(inverseRelated)), result.get().getInverseRelated());
+        assertEquals(Collections.singleton(new TermInfo(inverseRelatedMatch)), result.get().getInverseRelatedMatch());
+        assertEquals(Collections.singleton(new TermInfo(inverseExactMatch)),
+                     result.get().getInverseExactMatchTerms());
+    }
 }
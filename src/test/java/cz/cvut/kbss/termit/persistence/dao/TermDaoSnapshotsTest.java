@@ -136,6 +136,47 @@ public class TermDaoSnapshotsTest extends BaseTermDaoTestRunner {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void findSnapshotsSkipsSnapshotsInContextsMarkedAsIncomplete() {
+        enableRdfsInference(em);
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        transactional(() -> em.persist(term, descriptorFactory.termDescriptor(vocabulary)));
+        final Instant timestamp = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        final Term complete = generateSnapshotStub(term, timestamp.minusSeconds(2));
+        final Vocabulary incomplete = generateVocabularySnapshot(vocabulary);
+        generateSnapshotStub(term, timestamp, incomplete);
+        markIncomplete(incomplete);
+
+        final List<Snapshot> result = sut.findSnapshots(term);
+        assertEquals(1, result.size());
+        assertEquals(complete.getUri(), result.get(0).getUri());
+    }
+
+    private void markIncomplete(Vocabulary vocabularySnapshot) {
+        try (final RepositoryConnection connection = em.unwrap(Repository.class).getConnection()) {
+            final ValueFactory vf = connection.getValueFactory();
+            final IRI context = vf.createIRI(vocabularySnapshot.getUri().toString());
+            connection.add(context, RDF.TYPE, vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_c_rozpracovana_verze),
+                           context);
+        }
+    }
+
+    @Test
+    void findVersionValidAtSkipsSnapshotsInContextsMarkedAsIncomplete() {
+        enableRdfsInference(em);
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        transactional(() -> em.persist(term, descriptorFactory.termDescriptor(term)));
+        final Instant timestamp = Instant.now().truncatedTo(ChronoUnit.SECONDS).minus(2, ChronoUnit.DAYS);
+        final Term expected = generateSnapshotStub(term, timestamp.minus(1, ChronoUnit.DAYS));
+        final Vocabulary incomplete = generateVocabularySnapshot(vocabulary);
+        generateSnapshotStub(term, timestamp, incomplete);
+        markIncomplete(incomplete);
+
+        final Optional<Term> result = sut.findVersionValidAt(term, Instant.now());
+        assertTrue(result.isPresent());
+        assertEquals(expected, result.get());
+    }
+
     @Test
     void findAllFromVocabularyDoesNotIncludeSnapshotsInResult() {
         enableRdfsInference(em);
@@ -267,6 +267,40 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         assertEquals(terms, result);
     }
 
+    @Test
+    void findAllFullLoadsTermAttributesAndParents() {
+        final Term parent = Generator.generateTermWithId();
+        final Term child = Generator.generateTermWithId();
+        child.setAltLabels(Collections.singleton(MultilingualString.create("alternative", Environment.LANGUAGE)));
+        child.setSources(Collections.singleton("https://example.org/source"));
+        child.addParentTerm(parent);
+        addTermsAndSave(Arrays.asList(parent, child), vocabulary);
+
+        final List<Term> result = sut.findAllFull(vocabulary);
+        final Term childResult = result.stream().filter(child::equals).findFirst().orElseThrow();
+        assertEquals(child.getLabel(), childResult.getLabel());
+        assertEquals(child.getAltLabels(), childResult.getAltLabels());
+        assertEquals(child.getSources(), childResult.getSources());
+        assertEquals(vocabulary.getUri(), childResult.getVocabulary());
+        assertEquals(Collections.singleton(parent), childResult.getParentTerms());
+        assertEquals(parent.getLabel(), childResult.getParentTerms().iterator().next().getLabel());
+    }
+
+    @Test
+    void findAllReturnsTermsNotManagedByPersistenceContextWhenTermsAreAlreadyManaged() {
+        final List<Term> terms = generateTerms(3);
+        addTermsAndSave(terms, vocabulary);
+
+        transactional(() -> {
+            final Term managed = em.find(Term.class, terms.get(0).getUri(),
+                                         descriptorFactory.termDescriptor(vocabulary));
+            assertNotNull(managed);
+            final List<TermDto> result = sut.findAll(vocabulary);
+            assertEquals(Environment.termsToDtos(terms), result);
+            result.forEach(t -> assertFalse(em.contains(t)));
+        });
+    }
+
     @Test
     void findAllIncludingImportedReturnsTermsInVocabularyAndImportedVocabularies() {
         final List<Term> terms = generateTerms(10);
@@ -686,6 +720,32 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         assertEquals(parent.getSubTerms(), result.get().getSubTerms());
     }
 
+    @Test
+    void findAllRootsLoadsSubTermsFromVocabulariesImportingVocabularyOfResults() {
+        enableRdfsInference(em);
+        final Vocabulary parentVoc = Generator.generateVocabularyWithId();
+        vocabulary.setImportedVocabularies(Collections.singleton(parentVoc.getUri()));
+        final Term parent = Generator.generateTermWithId();
+        parent.setGlossary(parentVoc.getGlossary().getUri());
+        final Term child = Generator.generateTermWithId();
+        child.setGlossary(vocabulary.getGlossary().getUri());
+        child.setParentTerms(Collections.singleton(parent));
+        transactional(() -> {
+            em.merge(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary));
+            parentVoc.getGlossary().addRootTerm(parent);
+            em.persist(parentVoc, descriptorFactory.vocabularyDescriptor(parentVoc));
+            em.persist(parent, descriptorFactory.termDescriptor(parentVoc));
+            em.persist(child, descriptorFactory.termDescriptor(vocabulary));
+            Generator.addTermInVocabularyRelationship(parent, parentVoc.getUri(), em);
+            Generator.addTermInVocabularyRelationship(child, vocabulary.getUri(), em);
+        });
+
+        final List<TermDto> result = sut.findAllRoots(parentVoc, Constants.DEFAULT_PAGE_SPEC,
+                                                      Collections.emptyList());
+        assertEquals(1, result.size());
+        assertEquals(Collections.singleton(new TermInfo(child)), result.get(0).getSubTerms());
+    }
+
     @Test
     void termSupportsSimpleLiteralSources() {
         final Term term = Generator.generateTermWithId(vocabulary.getUri());
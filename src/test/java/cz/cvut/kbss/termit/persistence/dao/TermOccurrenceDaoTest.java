@@ -27,6 +27,7 @@ import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.assignment.*;
 import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.selector.TextPositionSelector;
 import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.eclipse.rdf4j.model.ValueFactory;
@@ -349,6 +350,72 @@ class TermOccurrenceDaoTest extends BaseDaoTestRunner {
         assertTrue(sut.findAllTargeting(file).isEmpty());
     }
 
+    @Test
+    void findAllTargetingInRegionReturnsFullyLoadedOccurrencesOverlappingRegion() {
+        final Term term = Generator.generateTermWithId();
+        final File file = Generator.generateFileWithId(FILE_LABEL);
+        transactional(() -> {
+            em.persist(term);
+            em.persist(file);
+        });
+        final List<TermOccurrence> occurrences = IntStream.range(0, 5).mapToObj(i -> {
+            final TermOccurrence to = Generator.generateTermOccurrence(term, file, false);
+            to.getTarget().setSelectors(new HashSet<>(Arrays.asList(new TextQuoteSelector("test"),
+                                                                    new TextPositionSelector(i * 10, i * 10 + 5))));
+            return to;
+        }).collect(Collectors.toList());
+        transactional(() -> occurrences.forEach(sut::persist));
+
+        final List<TermOccurrence> result = sut.findAllTargeting(file, 12, 33, null);
+        assertEquals(Arrays.asList(occurrences.get(1).getUri(), occurrences.get(2).getUri(),
+                                   occurrences.get(3).getUri()),
+                     result.stream().map(TermOccurrence::getUri).collect(Collectors.toList()));
+        result.forEach(to -> {
+            assertEquals(term.getUri(), to.getTerm());
+            assertEquals(2, to.getTarget().getSelectors().size());
+        });
+    }
+
+    @Test
+    void removeOrphansRemovesOccurrencesOnlyOfSpecifiedNonExistentSources() {
+        final File removed = Generator.generateFileWithId(FILE_LABEL);
+        final File existing = Generator.generateFileWithId("existing.html");
+        generateOccurrences(true, removed, existing);
+        transactional(() -> em.remove(em.getReference(File.class, removed.getUri())));
+
+        transactional(() -> sut.removeOrphans(Arrays.asList(removed.getUri(), existing.getUri())));
+        assertTrue(sut.findAllTargeting(removed).isEmpty());
+        assertFalse(sut.findAllTargeting(existing).isEmpty());
+    }
+
+    @Test
+    void removeOrphansRemovesCheckRecordsOfSpecifiedSources() {
+        final File removed = Generator.generateFileWithId(FILE_LABEL);
+        final File existing = Generator.generateFileWithId("existing.html");
+        generateOccurrences(true, removed, existing);
+        transactional(() -> {
+            sut.scheduleCheck(removed.getUri());
+            sut.scheduleCheck(existing.getUri());
+        });
+        assertThat(sut.findSourcesToCheck(10), containsInAnyOrder(removed.getUri(), existing.getUri()));
+
+        transactional(() -> sut.removeOrphans(Collections.singleton(removed.getUri())));
+        assertEquals(Collections.singletonList(existing.getUri()), sut.findSourcesToCheck(10));
+    }
+
+    @Test
+    void removeAllInSourcesRemovesOccurrencesInAllSpecifiedSources() {
+        final File fOne = Generator.generateFileWithId("testOne.html");
+        final File fTwo = Generator.generateFileWithId("testTwo.html");
+        final File fThree = Generator.generateFileWithId("testThree.html");
+        generateOccurrences(true, fOne, fTwo, fThree);
+
+        transactional(() -> sut.removeAllInSources(Arrays.asList(fOne.getUri(), fTwo.getUri())));
+        assertTrue(sut.findAllTargeting(fOne).isEmpty());
+        assertTrue(sut.findAllTargeting(fTwo).isEmpty());
+        assertFalse(sut.findAllTargeting(fThree).isEmpty());
+    }
+
     @Test
     void getOccurrenceInfoByTermRetrievesAggregateTermOccurrences() {
         final Term term = Generator.generateTermWithId();
@@ -368,7 +435,7 @@ class TermOccurrenceDaoTest extends BaseDaoTestRunner {
         final List<TermOccurrences> result = sut.getOccurrenceInfo(term);
         assertEquals(2, result.size());
         for (TermOccurrences toi : result) {
-            if (toi.hasType(Vocabulary.s_c_navrzeny_vyskyt_termu)) {
+            if (toi.getTypes().contains(Vocabulary.s_c_navrzeny_vyskyt_termu)) {
                 assertEquals(occurrencesTwo.size(), toi.getCount().intValue());
             } else {
                 assertEquals(occurrencesOne.size(), toi.getCount().intValue());
@@ -494,4 +561,38 @@ class TermOccurrenceDaoTest extends BaseDaoTestRunner {
             }
         }
     }
+
+    @Test
+    void getOccurrenceInfoReflectsOccurrencesApprovedAndRemovedViaDao() {
+        final Term term = Generator.generateTermWithId();
+        final File file = Generator.generateFileWithId("test.html");
+        final Document document = getDocument(file);
+        transactional(() -> {
+            enableRdfsInference(em);
+            em.persist(term);
+            em.persist(file);
+            em.persist(document);
+        });
+        final List<TermOccurrence> suggested = generateTermOccurrences(term, file, true);
+        assertEquals(1, sut.getOccurrenceInfo(term).size());
+
+        transactional(() -> sut.approve(sut.find(suggested.get(0).getUri()).get()));
+        transactional(() -> sut.remove(suggested.get(1)));
+        final List<TermOccurrences> result = sut.getOccurrenceInfo(term);
+        assertEquals(2, result.size());
+        for (TermOccurrences toi : result) {
+            assertEquals(document.getUri(), toi.getResource());
+            if (toi.getTypes().contains(Vocabulary.s_c_navrzeny_vyskyt_termu)) {
+                assertEquals(suggested.size() - 2, toi.getCount().intValue());
+            } else {
+                assertEquals(1, toi.getCount().intValue());
+            }
+        }
+
+        transactional(() -> sut.removeSuggested(file));
+        assertEquals(1, sut.getOccurrenceInfo(term).size());
+        transactional(() -> sut.removeAll(file));
+        assertTrue(sut.getOccurrenceInfo(term).isEmpty());
+        assertFalse(sut.hasOccurrences(term));
+    }
 }
@@ -46,9 +46,11 @@ import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static cz.cvut.kbss.termit.environment.util.ContainsSameEntities.containsSameEntities;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.*;
@@ -87,6 +89,48 @@ class VocabularyDaoTest extends BaseDaoTestRunner {
         }
     }
 
+    @Test
+    void findAllLoadsVocabulariesWithGlossaryModelAndDocumentFiles() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Document doc = Generator.generateDocumentWithId();
+        final File file = Generator.generateFileWithId("test.html");
+        doc.addFile(file);
+        vocabulary.setDocument(doc);
+        final Descriptor docDescriptor = descriptorFactory.documentDescriptor(vocabulary);
+        transactional(() -> {
+            em.persist(file, docDescriptor);
+            em.persist(doc, docDescriptor);
+            em.persist(vocabulary, descriptorFor(vocabulary));
+        });
+
+        final List<Vocabulary> result = sut.findAll();
+        assertEquals(1, result.size());
+        final Vocabulary loaded = result.get(0);
+        assertEquals(vocabulary.getLabel(), loaded.getLabel());
+        assertEquals(vocabulary.getGlossary().getUri(), loaded.getGlossary().getUri());
+        assertEquals(vocabulary.getModel().getUri(), loaded.getModel().getUri());
+        assertEquals(doc.getUri(), loaded.getDocument().getUri());
+        assertEquals(vocabulary.getUri(), loaded.getDocument().getVocabulary());
+        assertEquals(1, loaded.getDocument().getFiles().size());
+        assertEquals(file.getLabel(), loaded.getDocument().getFiles().iterator().next().getLabel());
+    }
+
+    @Test
+    void findAllIncludesVocabulariesImportedByOtherVocabularies() {
+        final Vocabulary subjectVocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary targetVocabulary = Generator.generateVocabularyWithId();
+        subjectVocabulary.setImportedVocabularies(Collections.singleton(targetVocabulary.getUri()));
+        transactional(() -> {
+            em.persist(subjectVocabulary, descriptorFor(subjectVocabulary));
+            em.persist(targetVocabulary, descriptorFor(targetVocabulary));
+        });
+
+        final List<Vocabulary> result = sut.findAll();
+        assertThat(result, containsSameEntities(Arrays.asList(subjectVocabulary, targetVocabulary)));
+        final Vocabulary loadedSubject = result.stream().filter(subjectVocabulary::equals).findFirst().get();
+        assertEquals(subjectVocabulary.getImportedVocabularies(), loadedSubject.getImportedVocabularies());
+    }
+
     @Test
     void persistSavesVocabularyIntoContextGivenByItsIri() {
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
@@ -300,6 +344,23 @@ class VocabularyDaoTest extends BaseDaoTestRunner {
         assertTrue(result.contains(transitiveVocabulary.getUri()));
     }
 
+    @Test
+    void getImportingVocabulariesReturnsVocabulariesDirectlyImportingSpecifiedVocabulary() {
+        final Vocabulary importedVocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary importingVocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary transitivelyImportingVocabulary = Generator.generateVocabularyWithId();
+        importingVocabulary.setImportedVocabularies(Collections.singleton(importedVocabulary.getUri()));
+        transitivelyImportingVocabulary.setImportedVocabularies(Collections.singleton(importingVocabulary.getUri()));
+        transactional(() -> Stream.of(importedVocabulary, importingVocabulary, transitivelyImportingVocabulary)
+                                  .forEach(v -> em.persist(v, descriptorFor(v))));
+
+        final List<Vocabulary> result = sut.getImportingVocabularies(importedVocabulary);
+        assertEquals(1, result.size());
+        assertEquals(importingVocabulary.getUri(), result.get(0).getUri());
+        assertEquals(importingVocabulary.getLabel(), result.get(0).getLabel());
+        assertThat(sut.getImportingVocabularies(transitivelyImportingVocabulary), empty());
+    }
+
     @Test
     void initializesLastModificationTimestampToCurrentDateTimeOnInit() {
         final long result = sut.getLastModified();
@@ -571,6 +632,25 @@ class VocabularyDaoTest extends BaseDaoTestRunner {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void findDoesNotReturnSnapshotUntilItsContextIsComplete() {
+        enableRdfsInference(em);
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        transactional(() -> em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary)));
+        final Vocabulary snapshot = generateSnapshotStub(vocabulary, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        final Repository repo = em.unwrap(Repository.class);
+        try (final RepositoryConnection connection = repo.getConnection()) {
+            final ValueFactory vf = connection.getValueFactory();
+            final IRI context = vf.createIRI(snapshot.getUri().toString());
+            final IRI incomplete = vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_c_rozpracovana_verze);
+            connection.add(context, RDF.TYPE, incomplete, context);
+            assertFalse(sut.find(snapshot.getUri()).isPresent());
+
+            connection.remove(context, RDF.TYPE, incomplete, context);
+        }
+        assertTrue(sut.find(snapshot.getUri()).isPresent());
+    }
+
     @Test
     void findAllDoesNotIncludeSnapshotsInResult() {
         enableRdfsInference(em);
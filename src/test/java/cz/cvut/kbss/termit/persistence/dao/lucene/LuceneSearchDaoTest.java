@@ -30,9 +30,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static cz.cvut.kbss.termit.persistence.dao.lucene.LuceneSearchDao.LUCENE_WILDCARD;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -65,7 +65,7 @@ class LuceneSearchDaoTest {
         when(emMock.createNativeQuery(any(), anyString())).thenReturn(queryMock);
         when(queryMock.setParameter(anyString(), any())).thenReturn(queryMock);
         when(queryMock.setParameter(anyString(), any(), any())).thenReturn(queryMock);
-        when(queryMock.getResultList()).thenReturn(Collections.emptyList());
+        when(queryMock.getResultStream()).thenReturn(Stream.empty());
         when(configMock.getPersistence().getLanguage()).thenReturn("cs");
     }
 
@@ -8,17 +8,23 @@ import cz.cvut.kbss.termit.exception.importing.VocabularyExistsException;
 import cz.cvut.kbss.termit.exception.importing.VocabularyImportException;
 import cz.cvut.kbss.termit.model.Glossary;
 import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.PersistChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
 import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
 import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.SKOS;
 import org.eclipse.rdf4j.repository.Repository;
@@ -32,6 +38,7 @@ import org.springframework.test.annotation.DirtiesContext;
 import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -50,6 +57,7 @@ class SKOSImporterTest extends BaseDaoTestRunner {
     private static final String VOCABULARY_IRI_S = "http://onto.fel.cvut.cz/ontologies/application/termit";
     private static final URI VOCABULARY_IRI = URI.create(VOCABULARY_IRI_S);
     private static final String GLOSSARY_IRI = "http://onto.fel.cvut.cz/ontologies/application/termit/glosář";
+    private static final String TERM_NAMESPACE = "http://onto.fel.cvut.cz/ontologies/application/termit/pojem/";
 
     @Autowired
     private EntityManager em;
@@ -60,6 +68,9 @@ class SKOSImporterTest extends BaseDaoTestRunner {
     @Autowired
     private VocabularyDao vocabularyDao;
 
+    @Autowired
+    private Configuration config;
+
     @Autowired
     private ApplicationContext context;
 
@@ -364,4 +375,159 @@ class SKOSImporterTest extends BaseDaoTestRunner {
         assertNotNull(result);
         assertFalse(result.getRootTerms().isEmpty());
     }
+
+    @Test
+    void reImportOfExistingVocabularyWritesOnlyDifferenceIntoRepository() {
+        importTestGlossary();
+        final IRI ctx = vf.createIRI(VOCABULARY_IRI_S);
+        final IRI user = vf.createIRI(Vocabulary.s_c_uzivatel_termitu);
+        final IRI blockedUser = vf.createIRI(Vocabulary.s_c_zablokovany_uzivatel_termitu);
+        final IRI admin = vf.createIRI(TERM_NAMESPACE + "administrátor-termitu");
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(VOCABULARY_IRI, Constants.MediaType.TURTLE, persister,
+                                 Environment.loadFile("data/test-glossary-modified.ttl"));
+        });
+        transactional(() -> {
+            try (final RepositoryConnection conn = em.unwrap(Repository.class).getConnection()) {
+                assertFalse(conn.hasStatement(user, SKOS.PREF_LABEL, vf.createLiteral("TermIt user", "en"), false,
+                                              ctx));
+                assertTrue(conn.hasStatement(user, SKOS.PREF_LABEL,
+                                             vf.createLiteral("TermIt application user", "en"), false, ctx));
+                assertFalse(conn.hasStatement(blockedUser, null, null, false, ctx));
+                assertFalse(conn.hasStatement(null, null, blockedUser, false, ctx));
+                assertTrue(conn.hasStatement(admin, RDF.TYPE, SKOS.CONCEPT, false, ctx));
+                assertTrue(conn.hasStatement(admin, SKOS.BROADER, user, false, ctx));
+                assertTrue(conn.hasStatement(vf.createIRI(GLOSSARY_IRI), OWL.VERSIONIRI, vf.createIRI(
+                        GLOSSARY_IRI + "/verze/1.1.2"), false, ctx));
+                assertFalse(conn.hasStatement(vf.createIRI(GLOSSARY_IRI), OWL.VERSIONIRI, vf.createIRI(
+                        GLOSSARY_IRI + "/verze/1.1.1"), false, ctx));
+            }
+        });
+    }
+
+    private void importTestGlossary() {
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(VOCABULARY_IRI, Constants.MediaType.TURTLE, persister,
+                                 Environment.loadFile("data/test-glossary.ttl"));
+        });
+    }
+
+    @Test
+    void reImportOfExistingVocabularyPreservesVocabularyMetadata() {
+        final String description = "Vocabulary description";
+        transactional(() -> {
+            final cz.cvut.kbss.termit.model.Vocabulary vocabulary = vocabularyDao.find(VOCABULARY_IRI).get();
+            vocabulary.setDescription(description);
+            vocabularyDao.update(vocabulary);
+        });
+        importTestGlossary();
+
+        final cz.cvut.kbss.termit.model.Vocabulary result = em.find(cz.cvut.kbss.termit.model.Vocabulary.class,
+                                                                    VOCABULARY_IRI);
+        assertEquals(description, result.getDescription());
+        assertEquals("Vocabulary of system TermIt - glossary", result.getLabel());
+    }
+
+    @Test
+    void reImportOfExistingVocabularyPassesChangeRecordsOfAddedAndModifiedTermsToConsumer() {
+        importTestGlossary();
+        final List<AbstractChangeRecord> records = new ArrayList<>();
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(VOCABULARY_IRI, Constants.MediaType.TURTLE, persister,
+                                 (v, changes) -> records.addAll(changes),
+                                 Environment.loadFile("data/test-glossary-modified.ttl"));
+        });
+
+        assertEquals(2, records.size());
+        final Optional<AbstractChangeRecord> persistRecord = records.stream()
+                                                                    .filter(PersistChangeRecord.class::isInstance)
+                                                                    .findAny();
+        assertTrue(persistRecord.isPresent());
+        assertEquals(URI.create(TERM_NAMESPACE + "administrátor-termitu"), persistRecord.get().getChangedEntity());
+        final Optional<AbstractChangeRecord> updateRecord = records.stream()
+                                                                   .filter(UpdateChangeRecord.class::isInstance)
+                                                                   .findAny();
+        assertTrue(updateRecord.isPresent());
+        assertEquals(URI.create(Vocabulary.s_c_uzivatel_termitu), updateRecord.get().getChangedEntity());
+        assertEquals(URI.create(SKOS.PREF_LABEL.stringValue()),
+                     ((UpdateChangeRecord) updateRecord.get()).getChangedAttribute());
+    }
+
+    @Test
+    void reImportOfIdenticalDataDoesNotChangeVocabularyContent() {
+        importTestGlossary();
+        final List<AbstractChangeRecord> records = new ArrayList<>();
+        final AtomicInteger statementCount = new AtomicInteger();
+        transactional(() -> {
+            try (final RepositoryConnection conn = em.unwrap(Repository.class).getConnection()) {
+                statementCount.set(Iterations.asList(
+                        conn.getStatements(null, null, null, false, vf.createIRI(VOCABULARY_IRI_S))).size());
+            }
+        });
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(VOCABULARY_IRI, Constants.MediaType.TURTLE, persister,
+                                 (v, changes) -> records.addAll(changes),
+                                 Environment.loadFile("data/test-glossary.ttl"));
+        });
+
+        assertTrue(records.isEmpty());
+        transactional(() -> {
+            try (final RepositoryConnection conn = em.unwrap(Repository.class).getConnection()) {
+                assertEquals(statementCount.get(), Iterations.asList(
+                        conn.getStatements(null, null, null, false, vf.createIRI(VOCABULARY_IRI_S))).size());
+            }
+        });
+    }
+
+    @Test
+    void importWritesRenamedDataExceedingInMemoryLimitIntoRepositoryInBatches() {
+        config.getSkosImport().setInMemoryStatementLimit(5);
+        config.getSkosImport().setBatchSize(3);
+        final IRI renamedGlossary = vf.createIRI(VOCABULARY_IRI_S + "-0/glosář");
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            final cz.cvut.kbss.termit.model.Vocabulary result =
+                    sut.importVocabulary(true, Constants.MediaType.TURTLE, persister,
+                                         Environment.loadFile("data/test-glossary.ttl"));
+            assertEquals(URI.create(VOCABULARY_IRI_S + "-0"), result.getUri());
+            assertEquals(URI.create(renamedGlossary.stringValue()), result.getGlossary().getUri());
+            assertEquals("Vocabulary of system TermIt - glossary", result.getLabel());
+        });
+        transactional(() -> {
+            try (final RepositoryConnection conn = em.unwrap(Repository.class).getConnection()) {
+                final IRI ctx = vf.createIRI(VOCABULARY_IRI_S + "-0");
+                final IRI user = vf.createIRI(VOCABULARY_IRI_S + "-0/pojem/uživatel-termitu");
+                assertTrue(conn.hasStatement(user, RDF.TYPE, SKOS.CONCEPT, false, ctx));
+                assertTrue(conn.hasStatement(user, SKOS.IN_SCHEME, renamedGlossary, false, ctx));
+                assertTrue(conn.hasStatement(renamedGlossary, SKOS.HAS_TOP_CONCEPT, user, false, ctx));
+                assertTrue(conn.hasStatement(vf.createIRI(VOCABULARY_IRI_S + "-0/pojem/omezený-uživatel-termitu"),
+                                             SKOS.BROADER, user, false, ctx));
+                assertFalse(conn.hasStatement(vf.createIRI(Vocabulary.s_c_uzivatel_termitu), null, null, false,
+                                              ctx));
+            }
+        });
+    }
+
+    @Test
+    void importMovesDataFromStagingContextIntoVocabularyContext() {
+        config.getSkosImport().setBatchSize(3);
+        transactional(() -> {
+            final SKOSImporter sut = context.getBean(SKOSImporter.class);
+            sut.importVocabulary(VOCABULARY_IRI, Constants.MediaType.TURTLE, persister,
+                                 Environment.loadFile("data/test-glossary.ttl"));
+        });
+        transactional(() -> {
+            try (final RepositoryConnection conn = em.unwrap(Repository.class).getConnection()) {
+                final IRI ctx = vf.createIRI(VOCABULARY_IRI_S);
+                final IRI staging = vf.createIRI(VOCABULARY_IRI_S + SKOSImporter.STAGING_CONTEXT_SUFFIX);
+                assertTrue(conn.hasStatement(vf.createIRI(Vocabulary.s_c_uzivatel_termitu), RDF.TYPE, SKOS.CONCEPT,
+                                             false, ctx));
+                assertFalse(conn.hasStatement(null, null, null, false, staging));
+            }
+        });
+    }
 }
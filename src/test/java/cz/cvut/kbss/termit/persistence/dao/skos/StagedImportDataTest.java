@@ -0,0 +1,109 @@
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StagedImportDataTest {
+
+    private static final int LIMIT = 10;
+
+    private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    private final StagedImportData sut = new StagedImportData(LIMIT, Set.of(SKOS.PREF_LABEL.stringValue()));
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    private IRI iri() {
+        return vf.createIRI(Generator.generateUri().toString());
+    }
+
+    @Test
+    void addKeepsDataInMemoryUntilLimitIsExceeded() {
+        for (int i = 0; i < LIMIT; i++) {
+            sut.add(iri(), RDF.TYPE, SKOS.CONCEPT);
+        }
+        assertFalse(sut.isSpilled());
+        assertEquals(LIMIT, sut.asModel().size());
+        sut.add(iri(), RDF.TYPE, SKOS.CONCEPT);
+        assertTrue(sut.isSpilled());
+        assertThrows(IllegalStateException.class, sut::asModel);
+    }
+
+    @Test
+    void forEachPassesAllStatementsAfterDataAreSpilled() {
+        final LinkedHashModel expected = new LinkedHashModel();
+        for (int i = 0; i < LIMIT * 3; i++) {
+            final IRI concept = iri();
+            expected.add(concept, RDF.TYPE, SKOS.CONCEPT);
+            expected.add(concept, SKOS.PREF_LABEL, vf.createLiteral("Concept " + i, "en"));
+        }
+        expected.forEach(sut::handleStatement);
+        assertTrue(sut.isSpilled());
+
+        final List<Statement> result = new ArrayList<>();
+        sut.forEach(result::add);
+        assertEquals(expected, new LinkedHashModel(result));
+    }
+
+    @Test
+    void getStatementsReturnsMatchingStatementsAfterDataAreSpilled() {
+        final IRI glossary = iri();
+        sut.add(glossary, DCTERMS.TITLE, vf.createLiteral("Glossary", "en"));
+        for (int i = 0; i < LIMIT * 2; i++) {
+            sut.add(iri(), RDF.TYPE, SKOS.CONCEPT);
+        }
+        assertTrue(sut.isSpilled());
+
+        final List<Statement> result = sut.getStatements(glossary, DCTERMS.TITLE);
+        assertEquals(1, result.size());
+        assertEquals(vf.createLiteral("Glossary", "en"), result.get(0).getObject());
+    }
+
+    @Test
+    void addIndexesConceptsConceptSchemesAndHierarchy() {
+        final IRI scheme = iri();
+        final IRI parent = iri();
+        final IRI child = iri();
+        final IRI narrower = iri();
+        sut.add(scheme, RDF.TYPE, SKOS.CONCEPT_SCHEME);
+        sut.add(parent, RDF.TYPE, SKOS.CONCEPT);
+        sut.add(child, RDF.TYPE, SKOS.CONCEPT);
+        sut.add(child, SKOS.BROADER, parent);
+        sut.add(parent, SKOS.NARROWER, narrower);
+
+        assertEquals(Collections.singleton(scheme), sut.getConceptSchemes());
+        assertEquals(Set.of(parent, child), sut.getConcepts());
+        assertEquals(Collections.singleton(parent), sut.getBroader(child));
+        assertTrue(sut.getBroader(parent).isEmpty());
+        assertTrue(sut.isNarrower(narrower));
+        assertFalse(sut.isNarrower(child));
+    }
+
+    @Test
+    void hasValueWithoutLanguageTagDetectsMultilingualPropertyValueWithoutLanguage() {
+        sut.add(iri(), SKOS.PREF_LABEL, vf.createLiteral("tagged", "en"));
+        sut.add(iri(), SKOS.NOTE, vf.createLiteral("untagged note"));
+        assertFalse(sut.hasValueWithoutLanguageTag());
+        sut.add(iri(), SKOS.PREF_LABEL, vf.createLiteral("untagged"));
+        assertTrue(sut.hasValueWithoutLanguageTag());
+    }
+}
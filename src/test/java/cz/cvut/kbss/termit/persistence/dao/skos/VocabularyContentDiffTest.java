@@ -0,0 +1,149 @@
+package cz.cvut.kbss.termit.persistence.dao.skos;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.PersistChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VocabularyContentDiffTest {
+
+    private final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    private final IRI glossary = iri();
+
+    private final Model current = new LinkedHashModel();
+
+    private final Model imported = new LinkedHashModel();
+
+    private IRI iri() {
+        return vf.createIRI(Generator.generateUri().toString());
+    }
+
+    private IRI term(Model model, String label) {
+        final IRI term = iri();
+        model.add(term, RDF.TYPE, SKOS.CONCEPT);
+        model.add(term, SKOS.IN_SCHEME, glossary);
+        model.add(term, SKOS.PREF_LABEL, vf.createLiteral(label, "en"));
+        return term;
+    }
+
+    private static void copyTerm(IRI term, Model from, Model to) {
+        from.filter(term, null, null).forEach(to::add);
+    }
+
+    @Test
+    void diffOfIdenticalDataIsEmpty() {
+        final IRI term = term(current, "test");
+        copyTerm(term, current, imported);
+        current.add(glossary, SKOS.HAS_TOP_CONCEPT, term);
+        imported.add(glossary, SKOS.HAS_TOP_CONCEPT, term);
+
+        final VocabularyContentDiff sut = new VocabularyContentDiff(current, imported, glossary);
+        assertTrue(sut.isEmpty());
+        assertTrue(sut.createChangeRecords().isEmpty());
+    }
+
+    @Test
+    void diffRemovesAllStatementsOfTermsMissingInImportedData() {
+        final IRI kept = term(current, "kept");
+        copyTerm(kept, current, imported);
+        final IRI removed = term(current, "removed");
+        current.add(glossary, SKOS.HAS_TOP_CONCEPT, removed);
+
+        final VocabularyContentDiff sut = new VocabularyContentDiff(current, imported, glossary);
+        assertEquals(current.filter(removed, null, null).size() + 1, sut.getStatementsToRemove().size());
+        assertTrue(sut.getStatementsToRemove().contains(glossary, SKOS.HAS_TOP_CONCEPT, removed));
+        assertTrue(sut.getStatementsToAdd().isEmpty());
+        assertEquals(Collections.singleton(removed), sut.getRemovedTerms());
+        assertTrue(sut.getChangedTerms().isEmpty());
+    }
+
+    @Test
+    void diffReplacesChangedValuesOfExistingTerm() {
+        final IRI term = term(current, "original");
+        imported.add(term, RDF.TYPE, SKOS.CONCEPT);
+        imported.add(term, SKOS.IN_SCHEME, glossary);
+        imported.add(term, SKOS.PREF_LABEL, vf.createLiteral("updated", "en"));
+
+        final VocabularyContentDiff sut = new VocabularyContentDiff(current, imported, glossary);
+        assertEquals(1, sut.getStatementsToRemove().size());
+        assertTrue(sut.getStatementsToRemove().contains(term, SKOS.PREF_LABEL, vf.createLiteral("original", "en")));
+        assertEquals(1, sut.getStatementsToAdd().size());
+        assertTrue(sut.getStatementsToAdd().contains(term, SKOS.PREF_LABEL, vf.createLiteral("updated", "en")));
+        assertEquals(Collections.singleton(term), sut.getChangedTerms());
+    }
+
+    @Test
+    void diffPreservesGlossaryStatementsWithPropertiesNotUsedInImportedData() {
+        final IRI term = term(current, "test");
+        copyTerm(term, current, imported);
+        current.add(glossary, RDF.TYPE, SKOS.CONCEPT_SCHEME);
+        current.add(glossary, DCTERMS.DESCRIPTION, vf.createLiteral("Managed in TermIt"));
+        current.add(glossary, DCTERMS.TITLE, vf.createLiteral("Original", "en"));
+        imported.add(glossary, RDF.TYPE, SKOS.CONCEPT_SCHEME);
+        imported.add(glossary, DCTERMS.TITLE, vf.createLiteral("Updated", "en"));
+
+        final VocabularyContentDiff sut = new VocabularyContentDiff(current, imported, glossary);
+        assertEquals(1, sut.getStatementsToRemove().size());
+        assertTrue(sut.getStatementsToRemove().contains(glossary, DCTERMS.TITLE, vf.createLiteral("Original", "en")));
+        assertEquals(1, sut.getStatementsToAdd().size());
+        assertTrue(sut.getStatementsToAdd().contains(glossary, DCTERMS.TITLE, vf.createLiteral("Updated", "en")));
+        assertTrue(sut.getChangedTerms().isEmpty());
+    }
+
+    private static URI uri(IRI iri) {
+        return URI.create(iri.stringValue());
+    }
+
+    @Test
+    void createChangeRecordsCreatesPersistRecordForAddedTermAndUpdateRecordForEachChangedProperty() {
+        final IRI changed = term(current, "original");
+        current.add(changed, SKOS.PREF_LABEL, vf.createLiteral("originál", "cs"));
+        imported.add(changed, RDF.TYPE, SKOS.CONCEPT);
+        imported.add(changed, SKOS.IN_SCHEME, glossary);
+        imported.add(changed, SKOS.PREF_LABEL, vf.createLiteral("updated", "en"));
+        imported.add(changed, SKOS.PREF_LABEL, vf.createLiteral("originál", "cs"));
+        final IRI related = iri();
+        imported.add(changed, SKOS.RELATED, related);
+        final IRI added = term(imported, "added");
+
+        final List<AbstractChangeRecord> result = new VocabularyContentDiff(current, imported, glossary)
+                .createChangeRecords();
+        assertEquals(3, result.size());
+        assertTrue(result.stream().anyMatch(r -> r instanceof PersistChangeRecord &&
+                uri(added).equals(r.getChangedEntity())));
+        final UpdateChangeRecord labelChange = findUpdate(result, SKOS.PREF_LABEL);
+        assertEquals(uri(changed), labelChange.getChangedEntity());
+        final MultilingualString originalLabel = MultilingualString.create("original", "en");
+        originalLabel.set("cs", "originál");
+        assertEquals(Collections.singleton(originalLabel), labelChange.getOriginalValue());
+        final MultilingualString newLabel = MultilingualString.create("updated", "en");
+        newLabel.set("cs", "originál");
+        assertEquals(Collections.singleton(newLabel), labelChange.getNewValue());
+        final UpdateChangeRecord relatedChange = findUpdate(result, SKOS.RELATED);
+        assertNull(relatedChange.getOriginalValue());
+        assertEquals(Collections.singleton(uri(related)), relatedChange.getNewValue());
+    }
+
+    private static UpdateChangeRecord findUpdate(List<AbstractChangeRecord> records, IRI property) {
+        return records.stream().filter(UpdateChangeRecord.class::isInstance).map(UpdateChangeRecord.class::cast)
+                      .filter(r -> uri(property).equals(r.getChangedAttribute())).findAny()
+                      .orElseThrow(AssertionError::new);
+    }
+}
@@ -0,0 +1,89 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadOnlyQueryExecutorTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ReadOnlyQueryExecutor sut;
+
+    @Test
+    void getResultListMapsIrisAndLanguageTaggedStrings() {
+        final Term term = Generator.generateTermWithId();
+        transactional(() -> em.persist(term));
+
+        final List<Object[]> result = sut.createQuery("SELECT ?type ?label WHERE { " +
+                                                              "?term a ?type ; ?hasLabel ?label . }")
+                                         .setParameter("term", term.getUri())
+                                         .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                                         .getResultList(rows -> rows.stream().map(Object[].class::cast)
+                                                                    .collect(Collectors.toList()));
+        assertEquals(1, result.size());
+        assertEquals(URI.create(SKOS.CONCEPT), result.get(0)[0]);
+        final LangString label = (LangString) result.get(0)[1];
+        assertEquals(term.getLabel().get(Environment.LANGUAGE), label.getValue());
+        assertEquals(Environment.LANGUAGE, label.getLanguage().orElse(null));
+    }
+
+    @Test
+    void getResultListSupportsCollectionParametersInFilters() {
+        final List<Term> terms = Arrays.asList(Generator.generateTermWithId(), Generator.generateTermWithId(),
+                                               Generator.generateTermWithId());
+        transactional(() -> terms.forEach(em::persist));
+        final List<URI> expected = Arrays.asList(terms.get(0).getUri(), terms.get(2).getUri());
+
+        final List<URI> result = sut.createQuery("SELECT ?term WHERE { ?term a ?type . FILTER (?term IN (?terms)) }")
+                                    .setParameter("type", URI.create(SKOS.CONCEPT))
+                                    .setParameter("terms", expected)
+                                    .getResultList(rows -> rows.stream().map(r -> (URI) ((Object[]) r)[0])
+                                                               .collect(Collectors.toList()));
+        assertEquals(Set.copyOf(expected), Set.copyOf(result));
+    }
+
+    @Test
+    void getResultListBindsLanguageTaggedStringParameters() {
+        final Term term = Generator.generateTermWithId();
+        transactional(() -> em.persist(term));
+
+        final List<Object> result = sut.createQuery("SELECT ?term WHERE { ?term ?hasLabel ?label . }")
+                                       .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                                       .setParameter("label", term.getLabel().get(Environment.LANGUAGE),
+                                                     Environment.LANGUAGE)
+                                       .getResultList(rows -> rows.stream().map(r -> ((Object[]) r)[0])
+                                                                  .collect(Collectors.toList()));
+        assertEquals(List.of(term.getUri()), result);
+    }
+
+    @Test
+    void getResultListSeesUncommittedChangesOfCurrentReadWriteTransaction() {
+        final Term term = Generator.generateTermWithId();
+
+        transactional(() -> {
+            em.persist(term);
+            final List<Object> result = sut.createQuery("SELECT ?term WHERE { ?term a ?type . }")
+                                           .setParameter("type", URI.create(SKOS.CONCEPT))
+                                           .getResultList(rows -> rows.stream().map(r -> ((Object[]) r)[0])
+                                                                      .collect(Collectors.toList()));
+            assertEquals(List.of(term.getUri()), result);
+        });
+    }
+}
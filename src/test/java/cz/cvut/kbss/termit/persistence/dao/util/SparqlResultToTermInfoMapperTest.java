@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 
 import java.net.URI;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -72,4 +73,27 @@ class SparqlResultToTermInfoMapperTest {
         assertEquals(tTwoUri, result.get(1).getUri());
         assertEquals(vocUri, result.get(1).getVocabulary());
     }
+
+    @Test
+    void mapsOptionalTypeColumnToTermInfoTypes() {
+        final URI tUri = Generator.generateUri();
+        final URI vocUri = Generator.generateUri();
+        final String type = Generator.generateUri().toString();
+        final List<Object[]> toMap = Arrays.asList(new Object[]{
+                tUri,
+                new LangString("Test one", Environment.LANGUAGE),
+                vocUri,
+                URI.create(type)
+        }, new Object[]{
+                tUri,
+                new LangString("Test jedna", "cs"),
+                vocUri,
+                URI.create(type)
+        });
+
+        final List<TermInfo> result = sut.map(toMap);
+        assertEquals(1, result.size());
+        assertEquals(Collections.singleton(type), result.get(0).getTypes());
+        assertEquals("Test jedna", result.get(0).getLabel().get("cs"));
+    }
 }
@@ -0,0 +1,114 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.vocabulary.RDF;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparqlResultToTermMapperTest {
+
+    private final SparqlResultToTermMapper sut = new SparqlResultToTermMapper(Environment.LANGUAGE);
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    private void statement(URI term, URI subject, String property, Object value) {
+        rows.add(new Object[]{term, subject, URI.create(property), value});
+    }
+
+    private void concept(URI term, URI subject, String label, URI vocabulary) {
+        statement(term, subject, RDF.TYPE, URI.create(SKOS.CONCEPT));
+        statement(term, subject, SKOS.PREF_LABEL, new LangString(label, Environment.LANGUAGE));
+        statement(term, subject, Vocabulary.s_p_je_pojmem_ze_slovniku, vocabulary);
+    }
+
+    @Test
+    void mapsTermAttributesAndGroupsAltLabelsByLanguage() {
+        final URI term = Generator.generateUri();
+        final URI vocabulary = Generator.generateUri();
+        concept(term, term, "Building", vocabulary);
+        statement(term, term, SKOS.PREF_LABEL, new LangString("Budova", "cs"));
+        statement(term, term, SKOS.ALT_LABEL, new LangString("House", Environment.LANGUAGE));
+        statement(term, term, SKOS.ALT_LABEL, new LangString("Edifice", Environment.LANGUAGE));
+        statement(term, term, SKOS.ALT_LABEL, new LangString("Dům", "cs"));
+        statement(term, term, SKOS.NOTATION, "B1");
+        statement(term, term, Vocabulary.s_p_je_draft, true);
+
+        final List<Term> result = sut.map(rows);
+        assertEquals(1, result.size());
+        final Term t = result.get(0);
+        assertEquals(term, t.getUri());
+        assertEquals("Building", t.getLabel().get(Environment.LANGUAGE));
+        assertEquals("Budova", t.getLabel().get("cs"));
+        assertEquals(vocabulary, t.getVocabulary());
+        assertEquals(2, t.getAltLabels().size());
+        assertTrue(t.getAltLabels().stream().anyMatch(ms -> ms.contains("cs")));
+        assertEquals(Collections.singleton("B1"), t.getNotations());
+        assertTrue(t.isDraft());
+        assertNull(t.getTypes());
+        assertNull(t.getProperties());
+    }
+
+    @Test
+    void mapsParentTermsAndRelatedTermsFromStatementsOfSameResult() {
+        final URI term = Generator.generateUri();
+        final URI parent = Generator.generateUri();
+        final URI related = Generator.generateUri();
+        final URI vocabulary = Generator.generateUri();
+        concept(term, term, "Child", vocabulary);
+        statement(term, term, SKOS.BROADER, parent);
+        statement(term, term, SKOS.RELATED, related);
+        concept(term, parent, "Parent", vocabulary);
+        concept(term, related, "Related", vocabulary);
+
+        final List<Term> result = sut.map(rows);
+        assertEquals(1, result.size());
+        final Term t = result.get(0);
+        assertEquals(1, t.getParentTerms().size());
+        final Term parentResult = t.getParentTerms().iterator().next();
+        assertEquals(parent, parentResult.getUri());
+        assertEquals("Parent", parentResult.getLabel().get(Environment.LANGUAGE));
+        assertEquals(Collections.singleton(new TermInfo(related)), t.getRelated());
+        assertEquals("Related", t.getRelated().iterator().next().getLabel().get(Environment.LANGUAGE));
+        assertEquals(vocabulary, t.getRelated().iterator().next().getVocabulary());
+    }
+
+    @Test
+    void mapsUnmappedPropertiesToTermProperties() {
+        final URI term = Generator.generateUri();
+        concept(term, term, "Building", Generator.generateUri());
+        final String property = Generator.generateUri().toString();
+        statement(term, term, property, "value");
+
+        final List<Term> result = sut.map(rows);
+        assertEquals(Collections.singletonMap(property, Collections.singleton("value")),
+                     result.get(0).getProperties());
+    }
+
+    @Test
+    void mapDoesNotReuseStatementsOrTermsMappedByPreviousInvocation() {
+        final URI term = Generator.generateUri();
+        concept(term, term, "Building", Generator.generateUri());
+        final Term first = sut.map(rows).get(0);
+        rows.clear();
+        statement(term, term, RDF.TYPE, URI.create(SKOS.CONCEPT));
+        statement(term, term, SKOS.PREF_LABEL, new LangString("House", Environment.LANGUAGE));
+
+        final Term second = sut.map(rows).get(0);
+        assertNotSame(first, second);
+        assertEquals("House", second.getLabel().get(Environment.LANGUAGE));
+        assertEquals(1, second.getLabel().getValue().size());
+        assertNull(second.getVocabulary());
+    }
+}
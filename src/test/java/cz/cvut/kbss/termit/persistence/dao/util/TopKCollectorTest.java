@@ -0,0 +1,56 @@
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import cz.cvut.kbss.termit.util.Constants;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopKCollectorTest {
+
+    @Test
+    void toPageReturnsRequestedPageOfBestItemsInOrder() {
+        final TopKCollector<Integer> sut = new TopKCollector<>(Comparator.reverseOrder(), PageRequest.of(1, 3));
+        Arrays.asList(5, 12, 3, 9, 1, 11, 7, 10, 2, 8).forEach(sut);
+
+        final Page<Integer> result = sut.toPage();
+        assertEquals(Arrays.asList(9, 8, 7), result.getContent());
+        assertEquals(10, result.getTotalElements());
+    }
+
+    @Test
+    void toPageRetainsConsumptionOrderOfEqualItems() {
+        final TopKCollector<String> sut = new TopKCollector<>(Comparator.comparing(String::length),
+                                                              PageRequest.of(0, 3));
+        Arrays.asList("bbb", "a", "c", "dd", "e").forEach(sut);
+
+        assertEquals(Arrays.asList("a", "c", "e"), sut.toPage().getContent());
+    }
+
+    @Test
+    void toPageReturnsEmptyContentWhenOffsetExceedsNumberOfItems() {
+        final TopKCollector<Integer> sut = new TopKCollector<>(Comparator.naturalOrder(), PageRequest.of(5, 10));
+        IntStream.range(0, 20).boxed().forEach(sut);
+
+        final Page<Integer> result = sut.toPage();
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(20, result.getTotalElements());
+    }
+
+    @Test
+    void toPageWithDefaultPageSpecReturnsAllItemsInOrder() {
+        final TopKCollector<Integer> sut = new TopKCollector<>(Comparator.naturalOrder(), Constants.DEFAULT_PAGE_SPEC);
+        final List<Integer> items = IntStream.range(0, 100).map(i -> 99 - i).boxed().collect(Collectors.toList());
+        items.forEach(sut);
+
+        assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), sut.toPage().getContent());
+    }
+}
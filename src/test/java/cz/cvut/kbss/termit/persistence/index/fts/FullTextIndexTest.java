@@ -0,0 +1,185 @@
+package cz.cvut.kbss.termit.persistence.index.fts;
+
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FullTextIndexTest {
+
+    private static final String LANG = "cs";
+
+    @TempDir
+    Path indexDir;
+
+    private final URI vocabulary = Generator.generateUri();
+
+    private FullTextIndex sut;
+
+    @BeforeEach
+    void setUp() {
+        final Configuration config = new Configuration();
+        config.getPersistence().setLanguage(LANG);
+        config.getSearch().getIndex().setEnabled(true);
+        config.getSearch().getIndex().setDirectory(indexDir.toString());
+        this.sut = new FullTextIndex(config);
+        sut.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    private IndexedAsset term(String label) {
+        final IndexedAsset asset = new IndexedAsset(Generator.generateUri(), SKOS.CONCEPT, vocabulary);
+        asset.addLabel(LANG, label);
+        return asset;
+    }
+
+    private IndexedAsset vocabularyAsset(String label) {
+        final IndexedAsset asset = new IndexedAsset(vocabulary, Vocabulary.s_c_slovnik, vocabulary);
+        asset.addLabel(LANG, label);
+        return asset;
+    }
+
+    private List<FullTextSearchResult> search(String searchString, boolean includeSnapshots) {
+        return sut.search(searchString, includeSnapshots, Constants.DEFAULT_PAGE_SPEC).getContent();
+    }
+
+    @Test
+    void searchFindsAssetsByLabelIgnoringCaseAndDiacritics() {
+        final IndexedAsset match = term("Území obce");
+        sut.replaceVocabulary(vocabulary, Arrays.asList(vocabularyAsset("Slovník"), match, term("Budova")));
+
+        final List<FullTextSearchResult> result = search("uzemi", false);
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getUri(), equalTo(match.getUri()));
+        assertThat(result.get(0).getVocabulary(), equalTo(vocabulary));
+        assertThat(result.get(0).getSnippetText(), containsString("<em>Území</em>"));
+    }
+
+    @Test
+    void searchTreatsLastTokenAsPrefix() {
+        final IndexedAsset match = term("Stavební objekt");
+        sut.replaceVocabulary(vocabulary, Arrays.asList(match, term("Stavba")));
+
+        final List<FullTextSearchResult> result = search("stavebni obj", false);
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getUri(), equalTo(match.getUri()));
+    }
+
+    @Test
+    void searchRanksLabelMatchesHigherThanDefinitionMatches() {
+        final IndexedAsset labelMatch = term("Budova");
+        final IndexedAsset definitionMatch = term("Stavba");
+        definitionMatch.addDefinition(LANG, "Stavba, jejíž součástí je budova.");
+        sut.replaceVocabulary(vocabulary, Arrays.asList(definitionMatch, labelMatch));
+
+        final List<FullTextSearchResult> result = search("budova", false);
+        assertThat(result.stream().map(FullTextSearchResult::getUri).collect(Collectors.toList()),
+                   contains(labelMatch.getUri(), definitionMatch.getUri()));
+    }
+
+    @Test
+    void searchReturnsRequestedPageOfResultsWithTotalCount() {
+        final List<IndexedAsset> terms = IntStream.range(0, 10).mapToObj(i -> term("Budova " + i))
+                                                  .collect(Collectors.toList());
+        sut.replaceVocabulary(vocabulary, terms);
+
+        final List<FullTextSearchResult> all = search("budova", false);
+        final Page<FullTextSearchResult> result = sut.search("budova", false, PageRequest.of(1, 3));
+        assertEquals(10, result.getTotalElements());
+        assertEquals(all.subList(3, 6).stream().map(FullTextSearchResult::getUri).collect(Collectors.toList()),
+                     result.getContent().stream().map(FullTextSearchResult::getUri).collect(Collectors.toList()));
+    }
+
+    @Test
+    void searchSkipsAssetsWithoutLabelInPersistenceLanguage() {
+        final IndexedAsset match = term("Budova");
+        final IndexedAsset other = new IndexedAsset(Generator.generateUri(), SKOS.CONCEPT, vocabulary);
+        other.addLabel("en", "Budova");
+        sut.replaceVocabulary(vocabulary, Arrays.asList(match, other));
+
+        final Page<FullTextSearchResult> result = sut.search("budova", false, Constants.DEFAULT_PAGE_SPEC);
+        assertEquals(1, result.getTotalElements());
+        assertEquals(match.getUri(), result.getContent().get(0).getUri());
+    }
+
+    @Test
+    void searchExcludesSnapshotsWhenNotRequested() {
+        final IndexedAsset snapshot = term("Budova");
+        snapshot.setSnapshot(true);
+        sut.replaceVocabulary(vocabulary, Collections.singletonList(snapshot));
+
+        assertThat(search("budova", false), empty());
+        assertThat(search("budova", true), hasSize(1));
+    }
+
+    @Test
+    void replaceVocabularyReplacesPreviouslyIndexedContent() {
+        sut.replaceVocabulary(vocabulary, Collections.singletonList(term("Budova")));
+        sut.replaceVocabulary(vocabulary, Collections.singletonList(term("Stavba")));
+
+        assertThat(search("budova", false), empty());
+        assertThat(search("stavba", false), hasSize(1));
+    }
+
+    @Test
+    void removeVocabularyRemovesVocabularyContent() {
+        sut.replaceVocabulary(vocabulary, Arrays.asList(vocabularyAsset("Slovník"), term("Budova")));
+        assertTrue(sut.containsVocabulary(vocabulary));
+
+        sut.removeVocabulary(vocabulary);
+        assertFalse(sut.containsVocabulary(vocabulary));
+        assertTrue(sut.isEmpty());
+    }
+
+    @Test
+    void rebuildReplacesWholeIndexContent() {
+        sut.replaceVocabulary(vocabulary, Collections.singletonList(term("Budova")));
+        final URI another = Generator.generateUri();
+        final IndexedAsset anotherTerm = new IndexedAsset(Generator.generateUri(), SKOS.CONCEPT, another);
+        anotherTerm.addLabel(LANG, "Stavba");
+
+        sut.rebuild(Collections.singletonList(another), v -> Collections.singletonList(anotherTerm));
+        assertFalse(sut.containsVocabulary(vocabulary));
+        assertThat(search("stavba", false), hasSize(1));
+    }
+
+    @Test
+    void rebuildFailureKeepsOriginalContentSearchableAndIndexWritable() {
+        sut.replaceVocabulary(vocabulary, Collections.singletonList(term("Budova")));
+
+        assertThrows(PersistenceException.class, () -> sut.rebuild(Collections.singletonList(vocabulary), v -> {
+            throw new IllegalStateException();
+        }));
+        assertThat(search("budova", false), hasSize(1));
+        sut.replaceVocabulary(vocabulary, Arrays.asList(term("Budova"), term("Stavba")));
+        assertThat(search("stavba", false), hasSize(1));
+    }
+}
@@ -0,0 +1,118 @@
+package cz.cvut.kbss.termit.persistence.index.hierarchy;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.ref.Reference;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures subterm lookup in the compact term hierarchy ({@link VocabularyHierarchy}) used by {@link
+ * TermHierarchyIndex} on a synthetic thesaurus.
+ * <p>
+ * Run the {@link #main(String[])} method from the test classpath, e.g., from an IDE. Before running the benchmarks, it
+ * prints an estimate of heap occupied by the hierarchy of a thesaurus with 50 000 terms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TermHierarchyBenchmark {
+
+    private static final URI VOCABULARY = URI.create("http://onto.fel.cvut.cz/ontologies/slovnik/benchmark");
+
+    private static final int MAX_CHILDREN = 8;
+
+    @Param({"50000"})
+    private int termCount;
+
+    private TermIds ids;
+
+    private VocabularyHierarchy hierarchy;
+
+    private URI[] sample;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.ids = new TermIds();
+        this.hierarchy = buildHierarchy(ids, termCount);
+        final Random random = new Random(42);
+        this.sample = new URI[1024];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = termUri(random.nextInt(termCount));
+        }
+    }
+
+    private static URI termUri(int i) {
+        return URI.create(VOCABULARY + "/pojem/term-" + i);
+    }
+
+    private static MultilingualString label(int i) {
+        final MultilingualString result = MultilingualString.create("Term " + i, "en");
+        result.set("cs", "Pojem " + i);
+        return result;
+    }
+
+    /**
+     * Parent of a term in a tree where each term has at most {@link #MAX_CHILDREN} children.
+     */
+    private static int parent(int i) {
+        return (i - 1) / MAX_CHILDREN;
+    }
+
+    private static VocabularyHierarchy buildHierarchy(TermIds ids, int termCount) {
+        final VocabularyHierarchy.Builder builder = VocabularyHierarchy.builder(VOCABULARY);
+        for (int i = 0; i < termCount; i++) {
+            final int id = ids.intern(termUri(i));
+            final int[] broader = i > 0 ? new int[]{ids.intern(termUri(parent(i)))} : new int[0];
+            builder.setTerm(id, label(i), Collections.emptySet(), broader);
+        }
+        return builder.build();
+    }
+
+    private URI nextTerm() {
+        next = (next + 1) % sample.length;
+        return sample[next];
+    }
+
+    @Benchmark
+    public int subTerms() {
+        final List<TermInfo> result = new ArrayList<>(MAX_CHILDREN);
+        TermHierarchyIndex.collectSubTerms(hierarchy, ids, ids.find(nextTerm()), result);
+        return result.size();
+    }
+
+    /**
+     * Estimates heap occupied by the object created by the specified supplier.
+     */
+    private static long measureHeap(Supplier<Object> supplier) {
+        final Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        final long before = runtime.totalMemory() - runtime.freeMemory();
+        final Object result = supplier.get();
+        System.gc();
+        final long after = runtime.totalMemory() - runtime.freeMemory();
+        Reference.reachabilityFence(result);
+        return after - before;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final int termCount = 50_000;
+        System.out.printf("Hierarchy of %d terms: ~%d KB%n", termCount, measureHeap(() -> {
+            final TermIds termIds = new TermIds();
+            return Arrays.asList(termIds, buildHierarchy(termIds, termCount));
+        }) / 1024);
+        new Runner(new OptionsBuilder().include(TermHierarchyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package cz.cvut.kbss.termit.persistence.index.hierarchy;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.DataModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TermHierarchyIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DescriptorFactory descriptorFactory;
+
+    @Autowired
+    private TermHierarchyIndex sut;
+
+    private Vocabulary vocabulary;
+
+    private Set<URI> scope;
+
+    @BeforeEach
+    void setUp() {
+        this.vocabulary = Generator.generateVocabularyWithId();
+        this.scope = Collections.singleton(vocabulary.getUri());
+        transactional(() -> em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary)));
+    }
+
+    private Term generateTerm(Term... parents) {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        if (parents.length > 0) {
+            term.setParentTerms(Set.of(parents));
+        }
+        return term;
+    }
+
+    private void persist(Term... terms) {
+        transactional(() -> Arrays.stream(terms)
+                                  .forEach(t -> em.persist(t, descriptorFactory.termDescriptor(vocabulary))));
+    }
+
+    @Test
+    void getSubTermsReturnsNarrowerTermsWithLabelAndVocabulary() {
+        final Term parent = generateTerm();
+        final Term childOne = generateTerm(parent);
+        final Term childTwo = generateTerm(parent);
+        persist(parent, childOne, childTwo);
+
+        final Set<TermInfo> result = sut.getSubTerms(parent.getUri(), scope);
+        assertThat(result, containsInAnyOrder(new TermInfo(childOne), new TermInfo(childTwo)));
+        result.forEach(ti -> {
+            assertEquals(vocabulary.getUri(), ti.getVocabulary());
+            assertThat(ti.getLabel(), notNullValue());
+        });
+        final TermInfo childOneResult = result.stream().filter(ti -> ti.getUri().equals(childOne.getUri()))
+                                              .findFirst().orElseThrow();
+        assertEquals(childOne.getLabel(), childOneResult.getLabel());
+    }
+
+    @Test
+    void termUpdatedAddsTermToLoadedHierarchy() {
+        final Term parent = generateTerm();
+        persist(parent);
+        assertThat(sut.getSubTerms(parent.getUri(), scope), empty());
+
+        final Term child = generateTerm(parent);
+        sut.termUpdated(vocabulary.getUri(), child);
+        assertThat(sut.getSubTerms(parent.getUri(), scope), contains(new TermInfo(child)));
+    }
+
+    @Test
+    void termUpdatedMovesTermToNewParent() {
+        final Term parentOne = generateTerm();
+        final Term parentTwo = generateTerm();
+        final Term child = generateTerm(parentOne);
+        persist(parentOne, parentTwo, child);
+        assertThat(sut.getSubTerms(parentOne.getUri(), scope), contains(new TermInfo(child)));
+
+        child.setParentTerms(Collections.singleton(parentTwo));
+        sut.termUpdated(vocabulary.getUri(), child);
+        assertThat(sut.getSubTerms(parentOne.getUri(), scope), empty());
+        assertThat(sut.getSubTerms(parentTwo.getUri(), scope), contains(new TermInfo(child)));
+    }
+
+    @Test
+    void termRemovedRemovesTermFromLoadedHierarchy() {
+        final Term parent = generateTerm();
+        final Term child = generateTerm(parent);
+        persist(parent, child);
+        assertThat(sut.getSubTerms(parent.getUri(), scope), contains(new TermInfo(child)));
+
+        sut.termRemoved(vocabulary.getUri(), child.getUri());
+        assertThat(sut.getSubTerms(parent.getUri(), scope), empty());
+    }
+
+    @Test
+    void onVocabularyModifiedReloadsHierarchyOfVocabulary() {
+        final Term parent = generateTerm();
+        persist(parent);
+        assertThat(sut.getSubTerms(parent.getUri(), scope), empty());
+        final Term child = generateTerm(parent);
+        persist(child);
+
+        sut.onVocabularyModified(new VocabularyModified(this, vocabulary.getUri()));
+        assertThat(sut.getSubTerms(parent.getUri(), scope), contains(new TermInfo(child)));
+    }
+
+    @Test
+    void evictAllReleasesInternedTermIdentifiers() {
+        final Term parent = generateTerm();
+        final Term child = generateTerm(parent);
+        persist(parent, child);
+        assertThat(sut.getSubTerms(parent.getUri(), scope), contains(new TermInfo(child)));
+        assertEquals(2, sut.getInternedCount());
+
+        sut.evictAll();
+        assertEquals(0, sut.getInternedCount());
+        assertThat(sut.getSubTerms(parent.getUri(), scope), contains(new TermInfo(child)));
+    }
+
+    @Test
+    void onDataModifiedEvictsIndexWhenTermsWereModified() {
+        final Term parent = generateTerm();
+        persist(parent);
+        assertThat(sut.getSubTerms(parent.getUri(), scope), empty());
+        final Term child = generateTerm(parent);
+        persist(child);
+
+        sut.onDataModified(new DataModifiedEvent(this, TermDao.class.getName()));
+        assertThat(sut.getSubTerms(parent.getUri(), scope), contains(new TermInfo(child)));
+    }
+}
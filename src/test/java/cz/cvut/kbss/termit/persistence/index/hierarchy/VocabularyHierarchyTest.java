@@ -0,0 +1,95 @@
+package cz.cvut.kbss.termit.persistence.index.hierarchy;
+
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.environment.Generator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VocabularyHierarchyTest {
+
+    private static List<Integer> collectNarrower(VocabularyHierarchy sut, int term) {
+        final List<Integer> result = new ArrayList<>();
+        sut.forEachNarrower(term, result::add);
+        return result;
+    }
+
+    private static List<Integer> collectBroader(VocabularyHierarchy sut, int term) {
+        final List<Integer> result = new ArrayList<>();
+        sut.forEachBroader(term, result::add);
+        return result;
+    }
+
+    @Test
+    void buildCreatesBroaderAndNarrowerAdjacency() {
+        final VocabularyHierarchy sut = VocabularyHierarchy.builder(Generator.generateUri())
+                                                           .addTerm(0)
+                                                           .addBroader(1, 0)
+                                                           .addBroader(2, 0)
+                                                           .addBroader(3, 1)
+                                                           .addBroader(3, 2)
+                                                           .build();
+
+        assertEquals(4, sut.size());
+        assertThat(collectNarrower(sut, 0), containsInAnyOrder(1, 2));
+        assertThat(collectNarrower(sut, 1), contains(3));
+        assertThat(collectNarrower(sut, 3), empty());
+        assertThat(collectBroader(sut, 3), containsInAnyOrder(1, 2));
+        assertThat(collectBroader(sut, 0), empty());
+    }
+
+    @Test
+    void buildIndexesNarrowerTermsOfParentsFromOtherVocabularies() {
+        final int externalParent = 10;
+        final VocabularyHierarchy sut = VocabularyHierarchy.builder(Generator.generateUri())
+                                                           .addBroader(1, externalParent)
+                                                           .addBroader(2, 1)
+                                                           .build();
+
+        assertFalse(sut.contains(externalParent));
+        assertThat(collectNarrower(sut, externalParent), contains(1));
+    }
+
+    @Test
+    void buildStoresLabelsAndTypesOfTerms() {
+        final VocabularyHierarchy sut = VocabularyHierarchy.builder(Generator.generateUri())
+                                                           .addLabel(0, "Building", "en")
+                                                           .addLabel(0, "Budova", "cs")
+                                                           .addType(0, Generator.generateUri().toString())
+                                                           .addTerm(1)
+                                                           .build();
+
+        assertEquals("Building", sut.getLabel(0).get("en"));
+        assertEquals("Budova", sut.getLabel(0).get("cs"));
+        assertEquals(1, sut.getTypes(0).length);
+        assertNull(sut.getLabel(1));
+        assertEquals(0, sut.getTypes(1).length);
+        assertNull(sut.getLabel(5));
+    }
+
+    @Test
+    void toBuilderCreatesModifiableCopyLeavingOriginalIntact() {
+        final VocabularyHierarchy original = VocabularyHierarchy.builder(Generator.generateUri())
+                                                                .addLabel(0, "Parent", "en")
+                                                                .addBroader(1, 0)
+                                                                .build();
+
+        final VocabularyHierarchy sut = original.toBuilder()
+                                                .setTerm(2, MultilingualString.create("Child", "en"),
+                                                         Collections.emptySet(), new int[]{0})
+                                                .removeTerm(1)
+                                                .build();
+
+        assertThat(collectNarrower(sut, 0), contains(2));
+        assertFalse(sut.contains(1));
+        assertEquals("Parent", sut.getLabel(0).get("en"));
+        assertThat(collectNarrower(original, 0), contains(1));
+        assertFalse(original.contains(2));
+    }
+}
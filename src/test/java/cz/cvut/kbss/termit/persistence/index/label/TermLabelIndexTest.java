@@ -0,0 +1,120 @@
+package cz.cvut.kbss.termit.persistence.index.label;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TermLabelIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DescriptorFactory descriptorFactory;
+
+    @Autowired
+    private TermLabelIndex sut;
+
+    private Vocabulary vocabulary;
+
+    @BeforeEach
+    void setUp() {
+        this.vocabulary = Generator.generateVocabularyWithId();
+        transactional(() -> em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary)));
+    }
+
+    private Term persistTerm(String label) {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        term.setPrimaryLabel(label);
+        transactional(() -> {
+            term.setGlossary(vocabulary.getGlossary().getUri());
+            em.persist(term, descriptorFactory.termDescriptor(vocabulary));
+            Generator.addTermInVocabularyRelationship(term, vocabulary.getUri(), em);
+        });
+        return term;
+    }
+
+    @Test
+    void existsPreferredLabelLoadsVocabularyLabelsAndComparesThemIgnoringCase() {
+        persistTerm("Building");
+
+        assertTrue(sut.existsPreferredLabel(vocabulary.getUri(), Environment.LANGUAGE, "building"));
+        assertFalse(sut.existsPreferredLabel(vocabulary.getUri(), Environment.LANGUAGE, "build"));
+        assertFalse(sut.existsPreferredLabel(vocabulary.getUri(), "cs", "building"));
+    }
+
+    @Test
+    void findByLabelContainingSearchesAlternativeLabelsWhenRequested() {
+        final Term building = persistTerm("Building");
+        final Term construction = Generator.generateTermWithId(vocabulary.getUri());
+        construction.setPrimaryLabel("Construction");
+        construction.setAltLabels(Collections.singleton(MultilingualString.create("Built object",
+                                                                                   Environment.LANGUAGE)));
+        transactional(() -> {
+            construction.setGlossary(vocabulary.getGlossary().getUri());
+            em.persist(construction, descriptorFactory.termDescriptor(vocabulary));
+            Generator.addTermInVocabularyRelationship(construction, vocabulary.getUri(), em);
+        });
+
+        assertThat(sut.findByLabelContaining(vocabulary.getUri(), Environment.LANGUAGE, "buil", false),
+                   contains(building.getUri()));
+        assertThat(sut.findByLabelContaining(vocabulary.getUri(), Environment.LANGUAGE, "buil", true),
+                   containsInAnyOrder(building.getUri(), construction.getUri()));
+    }
+
+    @Test
+    void findByLabelContainingReturnsTermsWhoseLabelContainsSpecifiedString() {
+        final Term plan = persistTerm("Metropolitan plan");
+        persistTerm("Building");
+
+        assertThat(sut.findByLabelContaining(vocabulary.getUri(), Environment.LANGUAGE, "PLAN", false),
+                   contains(plan.getUri()));
+    }
+
+    @Test
+    void findByLabelContainingReturnsAllMatchingTerms() {
+        final Term first = persistTerm("Airport plan");
+        final Term second = persistTerm("Building plan");
+        final Term third = persistTerm("City plan");
+
+        assertThat(sut.findByLabelContaining(vocabulary.getUri(), Environment.LANGUAGE, "plan", false),
+                   containsInAnyOrder(first.getUri(), second.getUri(), third.getUri()));
+    }
+
+    @Test
+    void termUpdatedReplacesLabelsOfTermInLoadedVocabulary() {
+        final Term term = persistTerm("Building");
+        assertTrue(sut.existsPreferredLabel(vocabulary.getUri(), Environment.LANGUAGE, "Building"));
+
+        term.setPrimaryLabel("Construction");
+        sut.termUpdated(vocabulary.getUri(), term);
+        assertFalse(sut.existsPreferredLabel(vocabulary.getUri(), Environment.LANGUAGE, "Building"));
+        assertTrue(sut.existsPreferredLabel(vocabulary.getUri(), Environment.LANGUAGE, "Construction"));
+    }
+
+    @Test
+    void termRemovedRemovesTermFromLoadedVocabulary() {
+        final Term term = persistTerm("Building");
+        assertThat(sut.findByLabelContaining(vocabulary.getUri(), Environment.LANGUAGE, "b", false), hasSize(1));
+
+        sut.termRemoved(term.getUri());
+        assertThat(sut.findByLabelContaining(vocabulary.getUri(), Environment.LANGUAGE, "b", false), empty());
+    }
+}
@@ -0,0 +1,125 @@
+package cz.cvut.kbss.termit.persistence.index.occurrence;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TermOccurrenceIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TermOccurrenceIndex sut;
+
+    private Term term;
+
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        this.term = Generator.generateTermWithId();
+        this.file = Generator.generateFileWithId("test.html");
+        transactional(() -> {
+            enableRdfsInference(em);
+            em.persist(term);
+            em.persist(file);
+        });
+    }
+
+    private void persistOccurrences(int count, boolean suggested) {
+        transactional(() -> {
+            for (int i = 0; i < count; i++) {
+                final TermOccurrence occurrence = Generator.generateTermOccurrence(term, file, suggested);
+                em.persist(occurrence);
+                em.persist(occurrence.getTarget());
+            }
+        });
+    }
+
+    @Test
+    void getOccurrencesLoadsOccurrenceCountsFromRepository() {
+        persistOccurrences(2, true);
+        persistOccurrences(3, false);
+
+        final Map<URI, OccurrenceCounts> result = sut.getOccurrences(term.getUri());
+        assertEquals(Collections.singletonMap(file.getUri(), new OccurrenceCounts(2, 3)), result);
+        assertTrue(sut.hasOccurrences(term.getUri()));
+        assertFalse(sut.hasOccurrences(file.getUri()));
+    }
+
+    @Test
+    void occurrencePersistedUpdatesLoadedIndexAfterTransactionCommits() {
+        assertFalse(sut.hasOccurrences(term.getUri()));
+
+        transactional(() -> {
+            sut.occurrencePersisted(term.getUri(), file.getUri(), true);
+            sut.occurrencePersisted(term.getUri(), file.getUri(), false);
+            assertFalse(sut.hasOccurrences(term.getUri()));
+        });
+        assertEquals(new OccurrenceCounts(1, 1), sut.getOccurrences(term.getUri()).get(file.getUri()));
+    }
+
+    @Test
+    void occurrenceApprovedMovesOccurrenceFromSuggestedToApproved() {
+        persistOccurrences(2, true);
+        sut.getOccurrences(term.getUri());
+
+        transactional(() -> sut.occurrenceApproved(term.getUri(), file.getUri()));
+        assertEquals(new OccurrenceCounts(1, 1), sut.getOccurrences(term.getUri()).get(file.getUri()));
+    }
+
+    @Test
+    void occurrenceRemovedRemovesSourceWhenLastOccurrenceIsRemoved() {
+        persistOccurrences(1, false);
+        sut.getOccurrences(term.getUri());
+
+        transactional(() -> sut.occurrenceRemoved(term.getUri(), file.getUri(), false));
+        assertFalse(sut.hasOccurrences(term.getUri()));
+    }
+
+    @Test
+    void suggestedOccurrencesRemovedKeepsApprovedOccurrencesInSource() {
+        persistOccurrences(2, true);
+        persistOccurrences(1, false);
+        sut.getOccurrences(term.getUri());
+
+        transactional(() -> sut.suggestedOccurrencesRemoved(file.getUri()));
+        assertEquals(new OccurrenceCounts(0, 1), sut.getOccurrences(term.getUri()).get(file.getUri()));
+    }
+
+    @Test
+    void allOccurrencesRemovedRemovesSourceFromIndex() {
+        persistOccurrences(2, true);
+        persistOccurrences(1, false);
+        sut.getOccurrences(term.getUri());
+
+        transactional(() -> sut.allOccurrencesRemoved(file.getUri()));
+        assertFalse(sut.hasOccurrences(term.getUri()));
+    }
+
+    @Test
+    void rebuildReloadsIndexFromRepository() {
+        assertFalse(sut.hasOccurrences(term.getUri()));
+        // Bypasses the index
+        persistOccurrences(2, false);
+        assertFalse(sut.hasOccurrences(term.getUri()));
+
+        sut.rebuild();
+        assertEquals(new OccurrenceCounts(0, 2), sut.getOccurrences(term.getUri()).get(file.getUri()));
+    }
+}
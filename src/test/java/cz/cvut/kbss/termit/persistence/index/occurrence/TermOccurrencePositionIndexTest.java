@@ -0,0 +1,93 @@
+package cz.cvut.kbss.termit.persistence.index.occurrence;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.selector.TextPositionSelector;
+import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TermOccurrencePositionIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TermOccurrencePositionIndex sut;
+
+    private Term term;
+
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        this.term = Generator.generateTermWithId();
+        this.file = Generator.generateFileWithId("test.html");
+        transactional(() -> {
+            em.persist(term);
+            em.persist(file);
+        });
+    }
+
+    private TermOccurrence persistOccurrence(Term term, int start, int end) {
+        final TermOccurrence occurrence = Generator.generateTermOccurrence(term, file, false);
+        occurrence.getTarget().setSelectors(new HashSet<>(Arrays.asList(new TextQuoteSelector("test"),
+                                                                        new TextPositionSelector(start, end))));
+        transactional(() -> {
+            em.persist(occurrence);
+            em.persist(occurrence.getTarget());
+        });
+        return occurrence;
+    }
+
+    @Test
+    void findOccurrencesReturnsOccurrencesOverlappingRegionOrderedByStart() {
+        final TermOccurrence later = persistOccurrence(term, 100, 110);
+        final TermOccurrence overlappingStart = persistOccurrence(term, 40, 55);
+        persistOccurrence(term, 10, 20);
+        persistOccurrence(term, 200, 210);
+        final TermOccurrence inside = persistOccurrence(term, 60, 70);
+
+        final List<URI> result = sut.findOccurrences(file.getUri(), 50, 105, null);
+        assertEquals(Arrays.asList(overlappingStart.getUri(), inside.getUri(), later.getUri()), result);
+    }
+
+    @Test
+    void findOccurrencesReturnsOnlyOccurrencesOfSpecifiedTerm() {
+        final Term otherTerm = Generator.generateTermWithId();
+        transactional(() -> em.persist(otherTerm));
+        final TermOccurrence expected = persistOccurrence(term, 10, 20);
+        persistOccurrence(otherTerm, 12, 18);
+
+        final List<URI> result = sut.findOccurrences(file.getUri(), 0, 100, term.getUri());
+        assertEquals(Collections.singletonList(expected.getUri()), result);
+    }
+
+    @Test
+    void sourceModifiedEvictsSourceSoThatNewOccurrencesAreFound() {
+        persistOccurrence(term, 10, 20);
+        assertEquals(1, sut.findOccurrences(file.getUri(), 0, 100, null).size());
+        // Bypasses the DAO
+        final TermOccurrence added = persistOccurrence(term, 30, 40);
+        assertEquals(1, sut.findOccurrences(file.getUri(), 0, 100, null).size());
+
+        sut.sourceModified(file.getUri());
+        assertTrue(sut.findOccurrences(file.getUri(), 0, 100, null).contains(added.getUri()));
+    }
+}
@@ -0,0 +1,43 @@
+package cz.cvut.kbss.termit.persistence.index.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+class LabelCollatorTest {
+
+    @Test
+    void sortOrdersCzechLabelsByCzechAlphabet() {
+        final LabelCollator sut = new LabelCollator("cs");
+        final List<String> labels = new ArrayList<>(Arrays.asList("chata", "ihned", "hrad", "čára", "cesta", "řeka",
+                                                                  "rys", "žába", "zámek"));
+
+        sut.sort(labels, Function.identity());
+        assertThat(labels, contains("cesta", "čára", "hrad", "chata", "ihned", "rys", "řeka", "zámek", "žába"));
+    }
+
+    @Test
+    void getKeyOrdersDigraphChAfterH() {
+        final LabelCollator sut = new LabelCollator("cs");
+
+        assertThat(sut.getKey("chrám").compareTo(sut.getKey("hvězda")), greaterThan(0));
+        assertThat(sut.getKey("chrám").compareTo(sut.getKey("ihned")), lessThan(0));
+    }
+
+    @Test
+    void sortOrdersMultiWordLabelsWordByWordAndPlacesLabelsWithoutValueLast() {
+        final LabelCollator sut = new LabelCollator("cs");
+        final List<String> labels = new ArrayList<>(Arrays.asList(null, "plán města", "plánovač", "Plán"));
+
+        sut.sort(labels, Function.identity());
+        assertThat(labels, contains("Plán", "plán města", "plánovač", null));
+    }
+}
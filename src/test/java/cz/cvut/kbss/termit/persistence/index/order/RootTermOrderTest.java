@@ -0,0 +1,66 @@
+package cz.cvut.kbss.termit.persistence.index.order;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RootTermOrderTest {
+
+    private final LabelCollator collator = new LabelCollator("cs");
+
+    private final Map<URI, String> labels = new HashMap<>();
+
+    private RootTermOrder create(String... termLabels) {
+        final Map<URI, String> map = new HashMap<>();
+        for (String label : termLabels) {
+            final URI uri = Generator.generateUri();
+            map.put(uri, label);
+            labels.put(uri, label);
+        }
+        return RootTermOrder.create(map, collator);
+    }
+
+    private List<String> toLabels(List<URI> terms) {
+        return terms.stream().map(labels::get).collect(Collectors.toList());
+    }
+
+    @Test
+    void pageOrdersTermsUsingLanguageSpecificCollation() {
+        final RootTermOrder sut = create("Německo", "Čína", "Španělsko", "Sýrie", "chata", "hora");
+
+        assertEquals(Arrays.asList("Čína", "hora", "chata", "Německo", "Sýrie", "Španělsko"),
+                     toLabels(sut.page(0, Integer.MAX_VALUE, Collections.emptySet())));
+    }
+
+    @Test
+    void pageDoesNotIgnoreSpacesAndHyphens() {
+        final RootTermOrder sut = create("Term1", "Term-5", "Term-12", "Term 3", "Term10");
+
+        assertEquals(Arrays.asList("Term 3", "Term-12", "Term-5", "Term1", "Term10"),
+                     toLabels(sut.page(0, Integer.MAX_VALUE, Collections.emptySet())));
+    }
+
+    @Test
+    void pageSkipsExcludedTermsWhenSeekingToOffset() {
+        final RootTermOrder sut = create("a", "b", "c", "d", "e", "f", "g");
+        final List<URI> all = sut.page(0, Integer.MAX_VALUE, Collections.emptySet());
+        final Set<URI> excluded = new HashSet<>(Arrays.asList(all.get(0), all.get(3)));
+
+        assertEquals(Arrays.asList("e", "f"), toLabels(sut.page(2, 2, excluded)));
+    }
+
+    @Test
+    void mergedPageInterleavesTermsFromMultipleOrders() {
+        final RootTermOrder first = create("a", "c", "e");
+        final RootTermOrder second = create("b", "d", "f");
+
+        assertEquals(Arrays.asList("c", "d", "e"),
+                     toLabels(RootTermOrder.mergedPage(Arrays.asList(first, second), 2, 3,
+                                                       Collections.emptySet())));
+    }
+}
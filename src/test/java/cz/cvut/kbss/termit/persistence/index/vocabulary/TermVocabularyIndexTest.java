@@ -0,0 +1,90 @@
+package cz.cvut.kbss.termit.persistence.index.vocabulary;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.net.URI;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TermVocabularyIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TermVocabularyIndex sut;
+
+    private Term persistTerm(URI vocabulary) {
+        final Term term = Generator.generateTermWithId(vocabulary);
+        transactional(() -> {
+            em.persist(term);
+            Generator.addTermInVocabularyRelationship(term, vocabulary, em);
+        });
+        return term;
+    }
+
+    @Test
+    void loadIndexesVocabulariesOfAllTerms() {
+        final URI vocabularyOne = Generator.generateUri();
+        final URI vocabularyTwo = Generator.generateUri();
+        final Term termOne = persistTerm(vocabularyOne);
+        final Term termTwo = persistTerm(vocabularyTwo);
+
+        sut.load();
+        assertEquals(Optional.of(vocabularyOne), sut.find(termOne.getUri()));
+        assertEquals(Optional.of(vocabularyTwo), sut.find(termTwo.getUri()));
+    }
+
+    @Test
+    void loadInternsVocabularyIdentifiers() {
+        final URI vocabulary = Generator.generateUri();
+        final Term termOne = persistTerm(vocabulary);
+        final Term termTwo = persistTerm(vocabulary);
+
+        sut.load();
+        assertSame(sut.find(termOne.getUri()).orElseThrow(), sut.find(termTwo.getUri()).orElseThrow());
+    }
+
+    @Test
+    void termPersistedAndTermRemovedUpdateIndex() {
+        final URI term = Generator.generateUri();
+        final URI vocabulary = Generator.generateUri();
+        sut.termPersisted(term, vocabulary);
+        assertEquals(Optional.of(vocabulary), sut.find(term));
+
+        sut.termRemoved(term);
+        assertFalse(sut.find(term).isPresent());
+    }
+
+    @Test
+    void putDoesNotStoreVocabularyWhenIndexWasModifiedConcurrently() {
+        final URI term = Generator.generateUri();
+        final long count = sut.getModificationCount();
+        sut.termRemoved(Generator.generateUri());
+
+        sut.put(term, Generator.generateUri(), count);
+        assertFalse(sut.find(term).isPresent());
+    }
+
+    @Test
+    void onVocabularyModifiedRescansTermsOfVocabulary() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Term stale = Generator.generateTermWithId(vocabulary.getUri());
+        sut.termPersisted(stale.getUri(), vocabulary.getUri());
+        final Term term = persistTerm(vocabulary.getUri());
+
+        sut.onVocabularyModified(new VocabularyModified(this, vocabulary.getUri()));
+        assertEquals(Optional.of(vocabulary.getUri()), sut.find(term.getUri()));
+        assertFalse(sut.find(stale.getUri()).isPresent());
+    }
+}
@@ -0,0 +1,121 @@
+package cz.cvut.kbss.termit.persistence.index.vocabulary;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class VocabularyImportGraphTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DescriptorFactory descriptorFactory;
+
+    @Autowired
+    private VocabularyImportGraph sut;
+
+    private void persist(Vocabulary... vocabularies) {
+        transactional(() -> Arrays.stream(vocabularies)
+                                  .forEach(v -> em.persist(v, descriptorFactory.vocabularyDescriptor(v))));
+    }
+
+    @Test
+    void getTransitiveImportsReturnsAllTransitivelyImportedVocabularies() {
+        final Vocabulary subject = Generator.generateVocabularyWithId();
+        final Vocabulary importedOne = Generator.generateVocabularyWithId();
+        final Vocabulary importedTwo = Generator.generateVocabularyWithId();
+        final Vocabulary transitive = Generator.generateVocabularyWithId();
+        subject.setImportedVocabularies(new HashSet<>(Arrays.asList(importedOne.getUri(), importedTwo.getUri())));
+        importedOne.setImportedVocabularies(Collections.singleton(transitive.getUri()));
+        persist(subject, importedOne, importedTwo, transitive);
+
+        assertThat(sut.getTransitiveImports(subject.getUri()),
+                   containsInAnyOrder(importedOne.getUri(), importedTwo.getUri(), transitive.getUri()));
+        assertThat(sut.getTransitiveImports(transitive.getUri()), empty());
+    }
+
+    @Test
+    void getTransitiveImportsHandlesImportCycles() {
+        final Vocabulary one = Generator.generateVocabularyWithId();
+        final Vocabulary two = Generator.generateVocabularyWithId();
+        one.setImportedVocabularies(Collections.singleton(two.getUri()));
+        two.setImportedVocabularies(Collections.singleton(one.getUri()));
+        persist(one, two);
+
+        assertThat(sut.getTransitiveImports(one.getUri()), containsInAnyOrder(one.getUri(), two.getUri()));
+    }
+
+    @Test
+    void getImportingVocabulariesReturnsDirectlyImportingVocabularies() {
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        final Vocabulary importing = Generator.generateVocabularyWithId();
+        importing.setImportedVocabularies(Collections.singleton(imported.getUri()));
+        persist(imported, importing);
+
+        assertEquals(Collections.singleton(importing.getUri()), sut.getImportingVocabularies(imported.getUri()));
+        assertThat(sut.getImportingVocabularies(importing.getUri()), empty());
+    }
+
+    @Test
+    void getTransitivelyImportingVocabulariesReturnsAllTransitivelyImportingVocabularies() {
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        final Vocabulary importing = Generator.generateVocabularyWithId();
+        final Vocabulary transitive = Generator.generateVocabularyWithId();
+        importing.setImportedVocabularies(Collections.singleton(imported.getUri()));
+        transitive.setImportedVocabularies(Collections.singleton(importing.getUri()));
+        persist(imported, importing, transitive);
+
+        assertThat(sut.getTransitivelyImportingVocabularies(imported.getUri()),
+                   containsInAnyOrder(importing.getUri(), transitive.getUri()));
+        assertThat(sut.getTransitivelyImportingVocabularies(transitive.getUri()), empty());
+    }
+
+    @Test
+    void getTransitiveImportsReflectsReplacedImportAfterVocabularyModification() {
+        final Vocabulary subject = Generator.generateVocabularyWithId();
+        final Vocabulary importedOne = Generator.generateVocabularyWithId();
+        final Vocabulary importedTwo = Generator.generateVocabularyWithId();
+        subject.setImportedVocabularies(Collections.singleton(importedOne.getUri()));
+        persist(subject, importedOne, importedTwo);
+        assertThat(sut.getTransitiveImports(subject.getUri()), contains(importedOne.getUri()));
+
+        // Number of import statements remains the same
+        subject.setImportedVocabularies(Collections.singleton(importedTwo.getUri()));
+        transactional(() -> em.merge(subject, descriptorFactory.vocabularyDescriptor(subject)));
+        sut.onVocabularyModified(new VocabularyModified(this, subject.getUri()));
+
+        assertThat(sut.getTransitiveImports(subject.getUri()), contains(importedTwo.getUri()));
+        assertThat(sut.getImportingVocabularies(importedOne.getUri()), empty());
+    }
+
+    @Test
+    void getTransitiveImportsReflectsVocabularyCreatedAfterGraphWasLoaded() {
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        persist(imported);
+        final Vocabulary created = Generator.generateVocabularyWithId();
+        created.setImportedVocabularies(Collections.singleton(imported.getUri()));
+        assertThat(sut.getTransitiveImports(created.getUri()), empty());
+
+        persist(created);
+        sut.evictAll();
+
+        assertThat(sut.getTransitiveImports(created.getUri()), contains(imported.getUri()));
+        assertThat(sut.getImportingVocabularies(imported.getUri()), contains(created.getUri()));
+    }
+}
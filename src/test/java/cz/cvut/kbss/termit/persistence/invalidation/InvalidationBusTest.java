@@ -0,0 +1,251 @@
+package cz.cvut.kbss.termit.persistence.invalidation;
+
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.UserAccountModified;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.index.label.TermLabelIndex;
+import cz.cvut.kbss.termit.persistence.snapshot.DeltaSnapshotStore;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InvalidationBusTest {
+
+    @Mock
+    private InvalidationLog log;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory emf;
+
+    @Mock
+    private ObjectProvider<CacheManager> cacheManagerProvider;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache vocabulariesCache;
+
+    private Configuration config;
+
+    private InvalidationBus sut;
+
+    @BeforeEach
+    void setUp() {
+        this.config = new Configuration();
+        config.getCluster().setEnabled(true);
+        when(cacheManagerProvider.getIfAvailable()).thenReturn(cacheManager);
+        when(cacheManager.getCache("vocabularies")).thenReturn(vocabulariesCache);
+        this.sut = new InvalidationBus(log, config, eventPublisher, emf, cacheManagerProvider);
+    }
+
+    private InvalidationRecord record(InvalidationType type, String key, String origin) {
+        return new InvalidationRecord(Generator.generateUri(), new Invalidation(type, key), origin,
+                                      System.currentTimeMillis());
+    }
+
+    @Test
+    void recordWritesInvalidationToLogWhenThereIsNoTransaction() {
+        sut.record(InvalidationType.ALL, null);
+        verify(log).record(Collections.singleton(new Invalidation(InvalidationType.ALL, null)), sut.getInstanceId());
+    }
+
+    @Test
+    void recordDoesNothingWhenPropagationIsDisabled() {
+        config.getCluster().setEnabled(false);
+        sut.record(InvalidationType.ALL, null);
+        sut.poll();
+        verifyNoInteractions(log);
+    }
+
+    @Test
+    void pollReplaysInvalidationsRecordedByOtherInstances() {
+        final URI vocabulary = Generator.generateUri();
+        when(log.findSince(anyLong())).thenReturn(Collections.singletonList(
+                record(InvalidationType.VOCABULARY_CONTENT, vocabulary.toString(), "other")));
+
+        sut.poll();
+        final ArgumentCaptor<ApplicationEvent> captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue(), instanceOf(VocabularyContentModified.class));
+        assertEquals(vocabulary, ((VocabularyContentModified) captor.getValue()).getVocabularyIri());
+        verify(emf.getCache()).evictAll();
+        verify(vocabulariesCache).clear();
+        assertEquals(1, sut.getReplayedCount());
+    }
+
+    @Test
+    void pollReplaysUserAccountInvalidation() {
+        final URI user = Generator.generateUri();
+        when(log.findSince(anyLong())).thenReturn(Collections.singletonList(
+                record(InvalidationType.USER_ACCOUNT, user.toString(), "other")));
+
+        sut.poll();
+        final ArgumentCaptor<ApplicationEvent> captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue(), instanceOf(UserAccountModified.class));
+        assertEquals(user, ((UserAccountModified) captor.getValue()).getUserUri());
+    }
+
+    @Test
+    void pollSkipsInvalidationsRecordedByThisInstance() {
+        when(log.findSince(anyLong())).thenReturn(
+                Collections.singletonList(record(InvalidationType.ALL, null, sut.getInstanceId())));
+
+        sut.poll();
+        verify(eventPublisher, never()).publishEvent(any(ApplicationEvent.class));
+        verify(emf, never()).getCache();
+    }
+
+    @Test
+    void pollReplaysEachInvalidationOnlyOnceWhenPollsOverlap() {
+        final List<InvalidationRecord> records =
+                Collections.singletonList(record(InvalidationType.ALL, null, "other"));
+        when(log.findSince(anyLong())).thenReturn(records);
+
+        sut.poll();
+        sut.poll();
+        verify(eventPublisher).publishEvent(any(EvictCacheEvent.class));
+        assertEquals(1, sut.getReplayedCount());
+    }
+
+    @Test
+    void replayedEventsArePublishedInReplayMode() {
+        when(log.findSince(anyLong())).thenReturn(
+                Collections.singletonList(record(InvalidationType.ALL, null, "other")));
+        final AtomicBoolean replaying = new AtomicBoolean();
+        doAnswer(inv -> {
+            replaying.set(sut.isReplaying());
+            return null;
+        }).when(eventPublisher).publishEvent(any(ApplicationEvent.class));
+
+        sut.poll();
+        assertTrue(replaying.get());
+        assertFalse(sut.isReplaying());
+    }
+
+    @Test
+    void recordIgnoresInvalidationsCausedByReplay() {
+        when(log.findSince(anyLong())).thenReturn(
+                Collections.singletonList(record(InvalidationType.ALL, null, "other")));
+        doAnswer(inv -> {
+            sut.onEvictCache(inv.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(ApplicationEvent.class));
+
+        sut.poll();
+        verify(log, never()).record(any(), any());
+    }
+
+    @Test
+    void pollEvictsAllCachesWhenLogWasNotPolledForLongerThanOverlap() throws Exception {
+        config.getCluster().setOverlap(0);
+        when(log.findSince(anyLong())).thenReturn(Collections.emptyList());
+        Thread.sleep(5);
+
+        sut.poll();
+        verify(eventPublisher).publishEvent(any(EvictCacheEvent.class));
+    }
+
+    @Test
+    void pollRecordsFailureWhenLogCannotBeRead() {
+        when(log.findSince(anyLong())).thenThrow(new IllegalStateException("Repository unavailable"));
+
+        sut.poll();
+        assertEquals(1, sut.getPollFailureCount());
+        verify(eventPublisher, never()).publishEvent(any(ApplicationEvent.class));
+    }
+
+    @Test
+    void replayedVocabularyContentInvalidationRefreshesLabelIndexOfVocabulary() {
+        final URI vocabulary = Generator.generateUri();
+        final Repository repository = new SailRepository(new MemoryStore());
+        final DeltaSnapshotStore deltaStore = mock(DeltaSnapshotStore.class);
+        when(deltaStore.query(any(), any())).thenAnswer(inv -> {
+            try (final RepositoryConnection con = repository.getConnection()) {
+                return inv.<Function<RepositoryConnection, ?>>getArgument(1).apply(con);
+            }
+        });
+        final VocabularyContextMapper contextMapper = mock(VocabularyContextMapper.class);
+        when(contextMapper.getVocabularyContext(vocabulary)).thenReturn(vocabulary);
+        // Replayed events are dispatched by the application context, so that listener conditions are evaluated
+        final GenericApplicationContext context = new GenericApplicationContext();
+        AnnotationConfigUtils.registerAnnotationConfigProcessors(context);
+        context.registerBean("invalidationBus", InvalidationBus.class,
+                             () -> new InvalidationBus(log, config, context, emf, cacheManagerProvider));
+        context.registerBean(TermLabelIndex.class, () -> new TermLabelIndex(deltaStore, contextMapper, config));
+        context.refresh();
+        try {
+            final TermLabelIndex index = context.getBean(TermLabelIndex.class);
+            addTerm(repository, vocabulary, "Building");
+            assertTrue(index.existsPreferredLabel(vocabulary, Environment.LANGUAGE, "building"));
+            // Term persisted by another instance
+            addTerm(repository, vocabulary, "Construction");
+            assertFalse(index.existsPreferredLabel(vocabulary, Environment.LANGUAGE, "construction"));
+            when(log.findSince(anyLong())).thenReturn(Collections.singletonList(
+                    record(InvalidationType.VOCABULARY_CONTENT, vocabulary.toString(), "other")));
+
+            context.getBean(InvalidationBus.class).poll();
+            assertTrue(index.existsPreferredLabel(vocabulary, Environment.LANGUAGE, "construction"));
+        } finally {
+            context.close();
+            repository.shutDown();
+        }
+    }
+
+    private static void addTerm(Repository repository, URI vocabulary, String label) {
+        try (final RepositoryConnection con = repository.getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            final IRI term = vf.createIRI(Generator.generateUri().toString());
+            final IRI context = vf.createIRI(vocabulary.toString());
+            con.add(term, RDF.TYPE, vf.createIRI(SKOS.CONCEPT), context);
+            con.add(term, vf.createIRI(SKOS.PREF_LABEL), vf.createLiteral(label, Environment.LANGUAGE), context);
+            con.add(term, vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku),
+                    vf.createIRI(vocabulary.toString()));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package cz.cvut.kbss.termit.persistence.invalidation;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InvalidationLogTest extends BaseDaoTestRunner {
+
+    private static final String ORIGIN = "instance";
+
+    @Autowired
+    private InvalidationLog sut;
+
+    @Test
+    void recordStoresInvalidationsWhichCanBeFoundLater() {
+        final long before = System.currentTimeMillis() - 1;
+        final Invalidation content =
+                new Invalidation(InvalidationType.VOCABULARY_CONTENT, Generator.generateUri().toString());
+        final Invalidation all = new Invalidation(InvalidationType.ALL, null);
+        transactional(() -> sut.record(Arrays.asList(content, all), ORIGIN));
+
+        final List<InvalidationRecord> result = sut.findSince(before);
+        assertThat(result.stream().map(InvalidationRecord::getInvalidation).collect(Collectors.toList()),
+                   containsInAnyOrder(content, all));
+        result.forEach(r -> assertEquals(ORIGIN, r.getOrigin()));
+        assertNull(result.stream().filter(r -> r.getInvalidation().equals(all)).findFirst().get().getInvalidation()
+                         .getKey());
+    }
+
+    @Test
+    void findSinceDoesNotReturnInvalidationsRecordedBeforeSpecifiedTime() throws Exception {
+        sut.record(Collections.singleton(new Invalidation(InvalidationType.ALL, null)), ORIGIN);
+        Thread.sleep(10);
+        final long since = System.currentTimeMillis();
+        Thread.sleep(10);
+        final Invalidation later = new Invalidation(InvalidationType.VOCABULARY, Generator.generateUri().toString());
+        sut.record(Collections.singleton(later), ORIGIN);
+
+        final List<InvalidationRecord> result = sut.findSince(since);
+        assertEquals(1, result.size());
+        assertEquals(later, result.get(0).getInvalidation());
+    }
+
+    @Test
+    void recordDoesNotStoreInvalidationsWhenSurroundingTransactionRollsBack() {
+        final long before = System.currentTimeMillis() - 1;
+        assertThrows(IllegalStateException.class, () -> transactional(() -> {
+            sut.record(Collections.singleton(new Invalidation(InvalidationType.ALL, null)), ORIGIN);
+            throw new IllegalStateException("Rollback");
+        }));
+        assertThat(sut.findSince(before), empty());
+    }
+
+    @Test
+    void removeBeforeRemovesOldInvalidations() throws Exception {
+        final long before = System.currentTimeMillis() - 1;
+        sut.record(Collections.singleton(new Invalidation(InvalidationType.ALL, null)), ORIGIN);
+        Thread.sleep(10);
+
+        sut.removeBefore(System.currentTimeMillis());
+        assertThat(sut.findSince(before), empty());
+    }
+}
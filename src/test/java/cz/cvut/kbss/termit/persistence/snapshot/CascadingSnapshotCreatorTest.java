@@ -21,8 +21,12 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,6 +41,9 @@ class CascadingSnapshotCreatorTest extends BaseDaoTestRunner {
     @Autowired
     private CascadingSnapshotCreator sut;
 
+    @Autowired
+    private SnapshotJobManager jobManager;
+
     private User author;
 
     private final Map<Vocabulary, Term> vocabularyTerms = new HashMap<>();
@@ -228,4 +235,43 @@ class CascadingSnapshotCreatorTest extends BaseDaoTestRunner {
         final Vocabulary importedSnapshot = findRequiredSnapshot(imported, Vocabulary.class);
         assertThat(snapshot.getImportedVocabularies(), hasItem(importedSnapshot.getUri()));
     }
+
+    @Test
+    void createSnapshotRecordsCompletedJobWithProgressOfAllIncludedVocabularies() {
+        final Vocabulary root = generateVocabularyWithTerm(true);
+        final Vocabulary related = generateVocabularyWithTerm(false);
+        addSkosRelationship(vocabularyTerms.get(root), vocabularyTerms.get(related));
+
+        transactional(() -> sut.createSnapshot(root));
+        final Optional<SnapshotJob> result = jobManager.findLatestJob(root.getUri());
+        assertTrue(result.isPresent());
+        assertEquals(findRequiredSnapshot(root, Vocabulary.class).getUri(), result.get().getSnapshot());
+        assertEquals(SnapshotJob.Status.COMPLETED, result.get().getStatus());
+        assertEquals(2, result.get().getVocabularyCount());
+        assertEquals(2, result.get().getProcessedVocabularies());
+        assertThat(result.get().getCopiedStatements(), greaterThan(0L));
+        assertNotNull(result.get().getFinished());
+    }
+
+    @Test
+    void startSnapshotRegistersJobBeforeVocabulariesAreCopied() {
+        final Vocabulary vocabulary = generateVocabularyWithTerm(false);
+
+        final AtomicReference<CompletableFuture<Snapshot>> result = new AtomicReference<>();
+        transactional(() -> result.set(sut.startSnapshot(vocabulary)));
+        assertTrue(jobManager.findLatestJob(vocabulary.getUri()).isPresent());
+        final Snapshot snapshot = result.get().join();
+        assertEquals(snapshot.getUri(), jobManager.findLatestJob(vocabulary.getUri()).get().getSnapshot());
+    }
+
+    @Test
+    void createSnapshotRemovesIncompleteMarkFromSnapshotContexts() {
+        final Vocabulary vocabulary = generateVocabularyWithTerm(false);
+
+        transactional(() -> sut.createSnapshot(vocabulary));
+        assertFalse(em.createNativeQuery("ASK { ?snapshot ?incompleteUntil ?until . }", Boolean.class)
+                      .setParameter("incompleteUntil",
+                                    URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_rozpracovano_do))
+                      .getSingleResult());
+    }
 }
@@ -0,0 +1,242 @@
+package cz.cvut.kbss.termit.persistence.snapshot;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.common.iteration.Iterations;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaSnapshotStoreTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DescriptorFactory descriptorFactory;
+
+    @Autowired
+    private VocabularyContextMapper contextMapper;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private DeltaSnapshotStore sut;
+
+    private Repository repository;
+
+    private Vocabulary vocabulary;
+
+    private Term term;
+
+    @BeforeEach
+    void setUp() {
+        config.getSnapshot().setStorage(Configuration.Snapshot.Storage.DELTA);
+        final User author = Generator.generateUserWithId();
+        transactional(() -> em.persist(author));
+        Environment.setCurrentUser(author);
+        this.repository = em.unwrap(Repository.class);
+        this.vocabulary = Generator.generateVocabularyWithId();
+        this.term = Generator.generateTermWithId(vocabulary.getUri());
+        transactional(() -> {
+            vocabulary.getGlossary().addRootTerm(term);
+            em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary));
+            term.setGlossary(vocabulary.getGlossary().getUri());
+            em.persist(term, descriptorFactory.termDescriptor(term));
+            Generator.addTermInVocabularyRelationship(term, vocabulary.getUri(), em);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        config.getSnapshot().setStorage(Configuration.Snapshot.Storage.FULL);
+        config.getSnapshot().setCheckpointInterval(10);
+        sut.evictAll();
+    }
+
+    private VocabularySnapshotCopier copier(int version) {
+        return new VocabularySnapshotCopier(repository, "/verze/" + version,
+                                            Instant.now().minus(10 - version, ChronoUnit.SECONDS),
+                                            VocabularySnapshotCopier.DEFAULT_BATCH_SIZE);
+    }
+
+    private VocabularySnapshotCopier createSnapshot(int version) {
+        final VocabularySnapshotCopier copier = copier(version);
+        sut.copy(copier, vocabulary.getUri(), contextMapper.getVocabularyContext(vocabulary.getUri()), () -> false,
+                 count -> {
+                 });
+        return copier;
+    }
+
+    private void updateTermDefinition() {
+        term.setDefinition(MultilingualString.create("Updated definition", Environment.LANGUAGE));
+        transactional(() -> em.merge(term, descriptorFactory.termDescriptorForSave(term)));
+    }
+
+    private List<Statement> contextStatements(IRI context) {
+        try (final RepositoryConnection con = repository.getConnection()) {
+            return Iterations.asList(con.getStatements(null, null, null, false, context));
+        }
+    }
+
+    private static Set<Statement> withoutContext(Iterable<Statement> statements, ValueFactory vf) {
+        final Set<Statement> result = new HashSet<>();
+        statements.forEach(s -> result.add(vf.createStatement(s.getSubject(), s.getPredicate(), s.getObject())));
+        return result;
+    }
+
+    /**
+     * Gets statements of a full snapshot produced by the specified copier, without writing them.
+     */
+    private Set<Statement> fullContent(VocabularySnapshotCopier copier) {
+        final Set<Statement> result = new HashSet<>();
+        final ValueFactory vf = repository.getValueFactory();
+        copier.copy(vocabulary.getUri(), contextMapper.getVocabularyContext(vocabulary.getUri()), s -> {
+            result.add(vf.createStatement(s.getSubject(), s.getPredicate(), s.getObject()));
+            return false;
+        }, () -> false, count -> {
+        });
+        return result;
+    }
+
+    private boolean isDelta(IRI snapshot) {
+        return contextStatements(snapshot).stream().anyMatch(
+                s -> s.getSubject().equals(snapshot) && s.getPredicate().equals(RDF.TYPE) &&
+                        s.getObject().stringValue().equals(cz.cvut.kbss.termit.util.Vocabulary.s_c_rozdilova_verze));
+    }
+
+    @Test
+    void copyStoresFirstSnapshotInFull() {
+        final VocabularySnapshotCopier copier = createSnapshot(1);
+        final IRI snapshot = copier.snapshotOf(vocabulary.getUri());
+
+        assertFalse(isDelta(snapshot));
+        assertEquals(fullContent(copier), withoutContext(contextStatements(snapshot), repository.getValueFactory()));
+    }
+
+    @Test
+    void copyStoresSubsequentSnapshotAsDeltaWithChangedAndRemovedStatements() {
+        final VocabularySnapshotCopier first = createSnapshot(1);
+        final MultilingualString originalDefinition = term.getDefinition();
+        updateTermDefinition();
+        final VocabularySnapshotCopier second = createSnapshot(2);
+        final IRI snapshot = second.snapshotOf(vocabulary.getUri());
+
+        assertTrue(isDelta(snapshot));
+        final List<Statement> stored = contextStatements(snapshot);
+        assertThat(stored.size(), lessThan(fullContent(second).size()));
+        assertTrue(stored.stream().anyMatch(s -> s.getPredicate().stringValue()
+                                                  .equals(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_predchozi_verzi) &&
+                s.getObject().equals(first.snapshotOf(vocabulary.getUri()))));
+        assertTrue(stored.stream().anyMatch(s -> s.getPredicate().equals(RDF.OBJECT) &&
+                s.getObject().stringValue().equals(originalDefinition.get(Environment.LANGUAGE))));
+        assertTrue(stored.stream().anyMatch(s -> s.getObject().stringValue().equals("Updated definition")));
+    }
+
+    @Test
+    void queryEvaluatesQueryOverReplayedDeltaSnapshotWithoutModifyingRepository() {
+        createSnapshot(1);
+        updateTermDefinition();
+        final VocabularySnapshotCopier second = createSnapshot(2);
+        final IRI snapshot = second.snapshotOf(vocabulary.getUri());
+        final List<Statement> stored = contextStatements(snapshot);
+
+        final ValueFactory vf = repository.getValueFactory();
+        final Set<Statement> result = sut.query(Collections.singleton(URI.create(snapshot.stringValue())),
+                                                con -> withoutContext(Iterations.asList(
+                                                        con.getStatements(null, null, null, false, snapshot)), vf));
+        assertEquals(fullContent(second), result);
+        assertTrue(isDelta(snapshot));
+        assertEquals(new HashSet<>(stored), new HashSet<>(contextStatements(snapshot)));
+    }
+
+    @Test
+    void readLoadsEntitiesFromReplayedDeltaSnapshot() {
+        createSnapshot(1);
+        updateTermDefinition();
+        final VocabularySnapshotCopier second = createSnapshot(2);
+        final URI snapshot = URI.create(second.snapshotOf(vocabulary.getUri()).stringValue());
+        final URI termSnapshot = URI.create(second.snapshotOf(term.getUri()).stringValue());
+
+        final Term result = sut.read(snapshot, snapshotEm -> snapshotEm.find(Term.class, termSnapshot));
+        assertNotNull(result);
+        assertEquals("Updated definition", result.getDefinition().get(Environment.LANGUAGE));
+        assertEquals(term.getLabel(), result.getLabel());
+        assertTrue(isDelta(second.snapshotOf(vocabulary.getUri())));
+    }
+
+    @Test
+    void materializeDependentsMaterializesSnapshotsBasedOnSpecifiedSnapshot() {
+        final VocabularySnapshotCopier first = createSnapshot(1);
+        updateTermDefinition();
+        final VocabularySnapshotCopier second = createSnapshot(2);
+        final IRI snapshot = second.snapshotOf(vocabulary.getUri());
+        assertTrue(isDelta(snapshot));
+
+        sut.materializeDependents(URI.create(first.snapshotOf(vocabulary.getUri()).stringValue()));
+        assertFalse(isDelta(snapshot));
+    }
+
+    @Test
+    void copyStoresSnapshotInFullWhenCheckpointIntervalIsReached() {
+        config.getSnapshot().setCheckpointInterval(2);
+        createSnapshot(1);
+        updateTermDefinition();
+        final VocabularySnapshotCopier second = createSnapshot(2);
+        term.setDefinition(MultilingualString.create("Another definition", Environment.LANGUAGE));
+        transactional(() -> em.merge(term, descriptorFactory.termDescriptorForSave(term)));
+        final VocabularySnapshotCopier third = createSnapshot(3);
+
+        assertTrue(isDelta(second.snapshotOf(vocabulary.getUri())));
+        assertFalse(isDelta(third.snapshotOf(vocabulary.getUri())));
+    }
+
+    @Test
+    void compactMaterializesLatestDeltaSnapshotOfVocabulary() {
+        createSnapshot(1);
+        updateTermDefinition();
+        final VocabularySnapshotCopier second = createSnapshot(2);
+
+        sut.compact();
+        assertFalse(isDelta(second.snapshotOf(vocabulary.getUri())));
+        assertEquals(fullContent(second), withoutContext(contextStatements(second.snapshotOf(vocabulary.getUri())),
+                                                         repository.getValueFactory()));
+        final List<Statement> removals = contextStatements(second.snapshotOf(vocabulary.getUri())).stream()
+                .filter(s -> s.getPredicate().equals(RDF.SUBJECT))
+                .collect(Collectors.toList());
+        assertTrue(removals.isEmpty());
+    }
+}
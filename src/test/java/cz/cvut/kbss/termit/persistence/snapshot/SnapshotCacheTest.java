@@ -0,0 +1,125 @@
+package cz.cvut.kbss.termit.persistence.snapshot;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SnapshotCacheTest {
+
+    private Configuration config;
+
+    private SnapshotCache sut;
+
+    @BeforeEach
+    void setUp() {
+        this.config = new Configuration();
+        this.sut = new SnapshotCache(config);
+    }
+
+    private static Term generateSnapshot() {
+        final Term term = Generator.generateTermWithId();
+        term.addType(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu);
+        return term;
+    }
+
+    private static <T> Supplier<T> counting(T value, AtomicInteger counter) {
+        return () -> {
+            counter.incrementAndGet();
+            return value;
+        };
+    }
+
+    @Test
+    void getAssetLoadsSnapshotOnlyOnce() {
+        final Term snapshot = generateSnapshot();
+        final AtomicInteger loads = new AtomicInteger();
+
+        final Optional<Term> first = sut.getAsset(snapshot.getUri(), counting(Optional.of(snapshot), loads),
+                                                  Term::isSnapshot);
+        final Optional<Term> second = sut.getAsset(snapshot.getUri(), counting(Optional.of(snapshot), loads),
+                                                   Term::isSnapshot);
+        assertEquals(1, loads.get());
+        assertSame(first.get(), second.get());
+    }
+
+    @Test
+    void getAssetDoesNotCacheAssetsWhichAreNotSnapshots() {
+        final Term term = Generator.generateTermWithId();
+        final AtomicInteger loads = new AtomicInteger();
+
+        sut.getAsset(term.getUri(), counting(Optional.of(term), loads), Term::isSnapshot);
+        sut.getAsset(term.getUri(), counting(Optional.of(term), loads), Term::isSnapshot);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getOrLoadEvictsLeastRecentlyUsedEntriesWhenMaxWeightIsExceeded() {
+        config.getSnapshot().setCacheMaxWeight(4);
+        this.sut = new SnapshotCache(config);
+        final Term asset = generateSnapshot();
+        final AtomicInteger loads = new AtomicInteger();
+        final List<Integer> snapshots = Arrays.asList(1, 2, 3);
+
+        // Weight 4
+        sut.getSnapshots(asset.getUri(), counting(snapshots, loads));
+        // Weight 1, makes the total weight exceed the limit
+        sut.getAsset(asset.getUri(), counting(Optional.of(asset), loads), Term::isSnapshot);
+        assertEquals(1, sut.getWeight());
+        sut.getSnapshots(asset.getUri(), counting(snapshots, loads));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evictVersionLookupsEvictsSnapshotListingsAndVersionsButKeepsAssets() {
+        final Term snapshot = generateSnapshot();
+        final AtomicInteger loads = new AtomicInteger();
+        final Instant at = Instant.now();
+        sut.getAsset(snapshot.getUri(), counting(Optional.of(snapshot), loads), Term::isSnapshot);
+        sut.getSnapshots(snapshot.getUri(), counting(Collections.emptyList(), loads));
+        sut.getVersionValidAt(snapshot.getUri(), at, counting(Optional.of(snapshot), loads));
+        assertEquals(3, loads.get());
+
+        sut.evictVersionLookups();
+        sut.getAsset(snapshot.getUri(), counting(Optional.of(snapshot), loads), Term::isSnapshot);
+        sut.getSnapshots(snapshot.getUri(), counting(Collections.emptyList(), loads));
+        sut.getVersionValidAt(snapshot.getUri(), at, counting(Optional.of(snapshot), loads));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void snapshotRemovedEvictsWholeCache() {
+        final Term snapshot = generateSnapshot();
+        final AtomicInteger loads = new AtomicInteger();
+        sut.getAsset(snapshot.getUri(), counting(Optional.of(snapshot), loads), Term::isSnapshot);
+
+        sut.snapshotRemoved();
+        assertEquals(0, sut.getWeight());
+        sut.getAsset(snapshot.getUri(), counting(Optional.of(snapshot), loads), Term::isSnapshot);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getOrLoadDoesNotCacheValuesWhenCacheIsDisabled() {
+        config.getSnapshot().setCacheMaxWeight(0);
+        this.sut = new SnapshotCache(config);
+        final Term snapshot = generateSnapshot();
+        final AtomicInteger loads = new AtomicInteger();
+
+        sut.getAsset(snapshot.getUri(), counting(Optional.of(snapshot), loads), Term::isSnapshot);
+        sut.getAsset(snapshot.getUri(), counting(Optional.of(snapshot), loads), Term::isSnapshot);
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,80 @@
+package cz.cvut.kbss.termit.persistence.snapshot;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotJobManagerTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private SnapshotJobManager sut;
+
+    private Repository repository;
+
+    private VocabularySnapshotCopier copier;
+
+    @BeforeEach
+    void setUp() {
+        this.repository = em.unwrap(Repository.class);
+        this.copier = new VocabularySnapshotCopier(repository, "/version/" + Generator.randomInt(), Instant.now(),
+                                                   VocabularySnapshotCopier.DEFAULT_BATCH_SIZE);
+    }
+
+    private IRI generateSnapshotContext() {
+        final IRI context = copier.snapshotOf(Generator.generateUri());
+        try (final RepositoryConnection con = repository.getConnection()) {
+            con.add(context, RDFS.LABEL, con.getValueFactory().createLiteral("Snapshot"), context);
+        }
+        return context;
+    }
+
+    private boolean isEmpty(IRI context) {
+        try (final RepositoryConnection con = repository.getConnection()) {
+            return !con.hasStatement(null, null, null, false, context);
+        }
+    }
+
+    @Test
+    void removeIncompleteSnapshotsRemovesSnapshotContextsWhoseIncompleteMarkExpired() {
+        final IRI context = generateSnapshotContext();
+        copier.markIncomplete(Collections.singleton(context), Instant.now().minusSeconds(60));
+
+        sut.removeIncompleteSnapshots();
+        assertTrue(isEmpty(context));
+    }
+
+    @Test
+    void removeIncompleteSnapshotsKeepsSnapshotContextsWhoseIncompleteMarkIsStillValid() {
+        final IRI context = generateSnapshotContext();
+        copier.markIncomplete(Collections.singleton(context), Instant.now().plus(SnapshotJobManager.INCOMPLETE_LEASE));
+
+        sut.removeIncompleteSnapshots();
+        assertFalse(isEmpty(context));
+    }
+
+    @Test
+    void removeIncompleteSnapshotsKeepsCompletedSnapshotContexts() {
+        final IRI context = generateSnapshotContext();
+        copier.markIncomplete(Collections.singleton(context), Instant.now().minusSeconds(60));
+        copier.markComplete(Collections.singleton(context));
+
+        sut.removeIncompleteSnapshots();
+        assertFalse(isEmpty(context));
+    }
+}
@@ -0,0 +1,97 @@
+package cz.cvut.kbss.termit.persistence.version;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionCountersTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private VersionCounters sut;
+
+    @Test
+    void getReturnsZeroForCounterWhichWasNeverIncremented() {
+        assertEquals(0L, sut.get("unknown"));
+    }
+
+    @Test
+    void incrementStoresCounterValueInMetadataContext() {
+        final long before = System.currentTimeMillis();
+        final long value = sut.increment("stored");
+        assertThat(value, greaterThanOrEqualTo(before));
+        assertEquals(value, sut.get("stored"));
+
+        final boolean stored = em.createNativeQuery("ASK { GRAPH ?g { ?counter a ?type ; ?hasValue ?value . } }",
+                                                    Boolean.class)
+                                 .setParameter("g", URI.create(config.getPersistence().getMetadataContext()))
+                                 .setParameter("type", URI.create(Vocabulary.s_c_citac_verzi))
+                                 .setParameter("hasValue", URI.create(Vocabulary.s_p_ma_hodnotu_citace))
+                                 .setParameter("value", value).getSingleResult();
+        assertTrue(stored);
+    }
+
+    @Test
+    void incrementAlwaysIncreasesCounterValue() {
+        final long first = sut.increment("monotonic");
+        final long second = sut.increment("monotonic");
+        assertThat(second, greaterThan(first));
+    }
+
+    @Test
+    void incrementInTransactionUpdatesLocalValueAfterCommit() {
+        final long before = sut.getOrInitialize("tx");
+        transactional(() -> sut.increment("tx"));
+        assertThat(sut.get("tx"), greaterThan(before));
+    }
+
+    @Test
+    void incrementIsRolledBackWithSurroundingTransaction() {
+        final long before = sut.getOrInitialize("rollback");
+        assertThrows(IllegalStateException.class, () -> transactional(() -> {
+            sut.increment("rollback");
+            throw new IllegalStateException("Rollback");
+        }));
+        assertEquals(before, sut.get("rollback"));
+    }
+
+    @Test
+    void getLoadsMultipleCountersAtOnce() {
+        final long one = sut.increment("one");
+        final long two = sut.increment("two");
+
+        final Map<String, Long> result = sut.get(Arrays.asList("one", "two", "three"));
+        assertEquals(one, result.get("one"));
+        assertEquals(two, result.get("two"));
+        assertEquals(0L, result.get("three"));
+    }
+
+    @Test
+    void getReturnsValueStoredByAnotherInstanceAfterLocalCacheIsEvicted() {
+        sut.getOrInitialize("shared");
+        final VersionCounters otherNode = new VersionCounters(em, txManager, config);
+        final long updated = otherNode.increment("shared");
+
+        sut.evictAll();
+        assertEquals(updated, sut.get("shared"));
+    }
+}
@@ -0,0 +1,110 @@
+package cz.cvut.kbss.termit.persistence.version;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.VocabularyContentModified;
+import cz.cvut.kbss.termit.event.VocabularyModified;
+import cz.cvut.kbss.termit.persistence.index.vocabulary.VocabularyImportGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.URI;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VocabularyContentVersionsTest {
+
+    @Mock
+    private VocabularyImportGraph importGraph;
+
+    @Mock
+    private VersionCounters counters;
+
+    private final Map<String, Long> counterValues = new HashMap<>();
+
+    private VocabularyContentVersions sut;
+
+    private final URI vocabulary = Generator.generateUri();
+
+    @BeforeEach
+    void setUp() {
+        when(importGraph.getTransitiveImports(any())).thenReturn(Collections.emptySet());
+        when(importGraph.getTransitivelyImportingVocabularies(any())).thenReturn(Collections.emptySet());
+        lenient().when(counters.get(anyString()))
+                 .thenAnswer(inv -> counterValues.getOrDefault(inv.getArgument(0), 0L));
+        lenient().when(counters.get(anyCollection())).thenAnswer(inv -> {
+            final Map<String, Long> result = new HashMap<>();
+            inv.<Collection<String>>getArgument(0).forEach(k -> result.put(k, counterValues.getOrDefault(k, 0L)));
+            return result;
+        });
+        lenient().when(counters.increment(anyString()))
+                 .thenAnswer(inv -> counterValues.merge(inv.getArgument(0), 1L, Long::sum));
+        lenient().doAnswer(inv -> {
+            inv.<Collection<String>>getArgument(0).forEach(k -> counterValues.merge(k, 1L, Long::sum));
+            return null;
+        }).when(counters).increment(anyCollection());
+        this.sut = new VocabularyContentVersions(importGraph, counters);
+    }
+
+    @Test
+    void getTagReturnsSameTagWhenVocabularyContentDidNotChange() {
+        assertEquals(sut.getTag(vocabulary), sut.getTag(vocabulary));
+    }
+
+    @Test
+    void vocabularyContentModificationChangesTag() {
+        final String original = sut.getTag(vocabulary);
+        sut.onVocabularyContentModified(new VocabularyContentModified(this, vocabulary));
+        assertNotEquals(original, sut.getTag(vocabulary));
+        assertEquals(1, sut.getVersion(vocabulary));
+    }
+
+    @Test
+    void modificationOfUnrelatedVocabularyDoesNotChangeTag() {
+        final String original = sut.getTag(vocabulary);
+        sut.onVocabularyModified(new VocabularyModified(this, Generator.generateUri()));
+        assertEquals(original, sut.getTag(vocabulary));
+    }
+
+    @Test
+    void modificationOfImportedVocabularyChangesTag() {
+        final URI imported = Generator.generateUri();
+        when(importGraph.getTransitiveImports(vocabulary)).thenReturn(Collections.singleton(imported));
+        final String original = sut.getTag(vocabulary);
+        sut.onVocabularyContentModified(new VocabularyContentModified(this, imported));
+        assertNotEquals(original, sut.getTag(vocabulary));
+    }
+
+    @Test
+    void modificationOfImportingVocabularyChangesTag() {
+        final URI importing = Generator.generateUri();
+        when(importGraph.getTransitivelyImportingVocabularies(vocabulary)).thenReturn(Collections.singleton(importing));
+        final String original = sut.getTag(vocabulary);
+        sut.vocabulariesChanged(Collections.singleton(importing));
+        assertNotEquals(original, sut.getTag(vocabulary));
+    }
+
+    @Test
+    void modificationOfUnknownVocabularyChangesTagsOfAllVocabularies() {
+        final String original = sut.getTag(vocabulary);
+        sut.onVocabularyContentModified(new VocabularyContentModified(this));
+        assertNotEquals(original, sut.getTag(vocabulary));
+    }
+
+    @Test
+    void evictAllChangesTagsOfAllVocabularies() {
+        final String original = sut.getTag(vocabulary);
+        sut.evictAll();
+        assertNotEquals(original, sut.getTag(vocabulary));
+    }
+}
@@ -10,6 +10,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,4 +32,16 @@ class AdminControllerTest extends BaseControllerTestRunner {
         mockMvc.perform(delete("/admin/cache")).andExpect(status().isNoContent());
         verify(adminBean).invalidateCaches();
     }
+
+    @Test
+    void rebuildIndexesInvokesIndexRebuildOnService() throws Exception {
+        mockMvc.perform(put("/admin/indexes")).andExpect(status().isNoContent());
+        verify(adminBean).rebuildIndexes();
+    }
+
+    @Test
+    void cleanupOrphanedOccurrencesInvokesOrphanedOccurrencesCleanupOnService() throws Exception {
+        mockMvc.perform(delete("/admin/occurrences/orphans")).andExpect(status().isNoContent());
+        verify(adminBean).cleanupOrphanedOccurrences();
+    }
 }
@@ -45,7 +45,8 @@ public class BaseControllerTestRunner {
 
     public void setUp(Object controller) {
         this.mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new RestExceptionHandler())
-                                      .setMessageConverters(createJsonLdMessageConverter(),
+                                      .setMessageConverters(createTermListJsonLdMessageConverter(),
+                                              createJsonLdMessageConverter(),
                                               createDefaultMessageConverter(), createStringEncodingMessageConverter(),
                                               createResourceMessageConverter())
                                       .setUseSuffixPatternMatch(false)
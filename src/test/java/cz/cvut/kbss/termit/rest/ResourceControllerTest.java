@@ -27,6 +27,7 @@ import cz.cvut.kbss.termit.service.business.ResourceService;
 import cz.cvut.kbss.termit.service.document.util.TypeAwareFileSystemResource;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
+import cz.cvut.kbss.termit.util.TypeAwareResource;
 import cz.cvut.kbss.termit.util.Utils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,8 +40,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.io.InputStream;
 import java.net.URI;
@@ -48,6 +51,7 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -56,6 +60,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
@@ -144,6 +150,90 @@ class ResourceControllerTest extends BaseControllerTestRunner {
         assertEquals(MediaType.TEXT_HTML_VALUE, mvcResult.getResponse().getHeader(HttpHeaders.CONTENT_TYPE));
     }
 
+    @Test
+    void getContentReturnsNotModifiedWhenRequestETagMatchesContentHash() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(any(), eq(FILE_NAME))).thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final java.io.File content = createTemporaryHtmlFile();
+        when(resourceServiceMock.getContent(file))
+                .thenReturn(new TypeAwareFileSystemResource(content, MediaType.TEXT_HTML_VALUE, "12345"));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + FILE_NAME + "/content"))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals("\"12345\"", mvcResult.getResponse().getHeader(HttpHeaders.ETAG));
+
+        mockMvc.perform(get(PATH + "/" + FILE_NAME + "/content").header(HttpHeaders.IF_NONE_MATCH, "\"12345\""))
+               .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getContentReturnsCompressedContentWhenClientAcceptsGzip() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(any(), eq(FILE_NAME))).thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final java.io.File content = createTemporaryHtmlFile();
+        when(resourceServiceMock.getCompressedContent(file))
+                .thenReturn(Optional.of(new TypeAwareFileSystemResource(content, MediaType.TEXT_HTML_VALUE)));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + FILE_NAME + "/content")
+                                                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals("gzip", mvcResult.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(MediaType.TEXT_HTML_VALUE, mvcResult.getResponse().getHeader(HttpHeaders.CONTENT_TYPE));
+        verify(resourceServiceMock, never()).getContent(any());
+    }
+
+    @Test
+    void getContentReturnsRequestedRangeOfContent() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(any(), eq(FILE_NAME))).thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final java.io.File content = createTemporaryHtmlFile();
+        when(resourceServiceMock.getContent(file))
+                .thenReturn(new TypeAwareFileSystemResource(content, MediaType.TEXT_HTML_VALUE));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + FILE_NAME + "/content")
+                                                            .header(HttpHeaders.RANGE, "bytes=0-5")
+                                                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                                           .andExpect(status().isPartialContent()).andReturn();
+        assertEquals(HTML_CONTENT.substring(0, 6), mvcResult.getResponse().getContentAsString());
+        verify(resourceServiceMock, never()).getCompressedContent(any());
+    }
+
+    @Test
+    void getContentLetsServletContainerSendFileWhenContainerSupportsIt() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(any(), eq(FILE_NAME))).thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final java.io.File content = createTemporaryHtmlFile();
+        when(resourceServiceMock.getContent(file))
+                .thenReturn(new TypeAwareFileSystemResource(content, MediaType.TEXT_HTML_VALUE));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + FILE_NAME + "/content")
+                                                            .requestAttr(ResourceController.SENDFILE_SUPPORT_ATTRIBUTE,
+                                                                         Boolean.TRUE))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals(content.getCanonicalPath(),
+                     mvcResult.getRequest().getAttribute(ResourceController.SENDFILE_FILENAME_ATTRIBUTE));
+        assertEquals((long) HTML_CONTENT.length(),
+                     mvcResult.getRequest().getAttribute(ResourceController.SENDFILE_END_ATTRIBUTE));
+        assertEquals(HTML_CONTENT.length(), mvcResult.getResponse().getContentLength());
+        assertEquals("bytes", mvcResult.getResponse().getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertTrue(mvcResult.getResponse().getContentAsString().isEmpty());
+    }
+
+    @Test
+    void getContentDoesNotLetServletContainerSendFileForHeadRequest() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(any(), eq(FILE_NAME))).thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        final java.io.File content = createTemporaryHtmlFile();
+        final TypeAwareResource resource = new TypeAwareFileSystemResource(content, MediaType.TEXT_HTML_VALUE);
+        final MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.HEAD.name(), "/content");
+        request.setAttribute(ResourceController.SENDFILE_SUPPORT_ATTRIBUTE, Boolean.TRUE);
+        when(resourceServiceMock.getContent(file)).thenReturn(resource);
+
+        sut.getContent(FILE_NAME, Optional.empty(), false, new ServletWebRequest(request));
+        assertNull(request.getAttribute(ResourceController.SENDFILE_FILENAME_ATTRIBUTE));
+    }
+
     private static java.io.File createTemporaryHtmlFile() throws Exception {
         final java.io.File file = Files.createTempFile("document", ".html").toFile();
         file.deleteOnExit();
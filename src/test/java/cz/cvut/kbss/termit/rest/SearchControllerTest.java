@@ -18,6 +18,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.service.business.SearchService;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.net.URI;
@@ -55,12 +59,12 @@ class SearchControllerTest extends BaseControllerTestRunner {
     }
 
     @Test
-    void fullTextSearchExecutesSearchOnService() throws Exception {
+    void fullTextSearchExecutesSearchOnServiceWithDefaultPageSpecification() throws Exception {
         final List<FullTextSearchResult> expected = Collections
                 .singletonList(
                         new FullTextSearchResult(Generator.generateUri(), "test", null, null, Vocabulary.s_c_term,
                                                  "test", "test", 1.0));
-        when(searchServiceMock.fullTextSearch(any())).thenReturn(expected);
+        when(searchServiceMock.fullTextSearch(any(), any())).thenReturn(new PageImpl<>(expected));
         final String searchString = "test";
         final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts").param("searchString", searchString))
                                            .andExpect(status().isOk()).andReturn();
@@ -70,7 +74,26 @@ class SearchControllerTest extends BaseControllerTestRunner {
         assertEquals(expected.get(0).getUri(), result.get(0).getUri());
         assertEquals(expected.get(0).getLabel(), result.get(0).getLabel());
         assertEquals(expected.get(0).getTypes(), result.get(0).getTypes());
-        verify(searchServiceMock).fullTextSearch(searchString);
+        verify(searchServiceMock).fullTextSearch(searchString, PageRequest.of(
+                Integer.parseInt(SearchController.DEFAULT_PAGE),
+                Integer.parseInt(SearchController.DEFAULT_PAGE_SIZE)));
+    }
+
+    @Test
+    void fullTextSearchPassesPageSpecificationToServiceAndReturnsTotalCountHeader() throws Exception {
+        final List<FullTextSearchResult> expected = Collections
+                .singletonList(
+                        new FullTextSearchResult(Generator.generateUri(), "test", null, null, Vocabulary.s_c_term,
+                                                 "test", "test", 1.0));
+        final Pageable pageSpec = PageRequest.of(2, 10);
+        when(searchServiceMock.fullTextSearch(any(), any())).thenReturn(new PageImpl<>(expected, pageSpec, 117));
+        final String searchString = "test";
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts").param("searchString", searchString)
+                                                                      .param(Constants.QueryParams.PAGE, "2")
+                                                                      .param(Constants.QueryParams.PAGE_SIZE, "10"))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals("117", mvcResult.getResponse().getHeader(Constants.X_TOTAL_COUNT_HEADER));
+        verify(searchServiceMock).fullTextSearch(searchString, pageSpec);
     }
 
     @Test
@@ -150,6 +150,72 @@ class TermControllerTest extends BaseControllerTestRunner {
         assertEquals(term, result);
     }
 
+    @Test
+    void getByIdAtStandaloneEndpointReturnsSnapshotWithStrongETagAndImmutableCacheControl() throws Exception {
+        final URI termUri = URI.create(NAMESPACE + TERM_NAME);
+        when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
+        final Term term = Generator.generateTerm();
+        term.setUri(termUri);
+        term.addType(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu);
+        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        final MvcResult mvcResult = mockMvc.perform(get("/terms/" + TERM_NAME).param(QueryParams.NAMESPACE, NAMESPACE))
+                                           .andExpect(status().isOk()).andReturn();
+        final String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        assertFalse(eTag.startsWith("W/"));
+        assertThat(mvcResult.getResponse().getHeader(HttpHeaders.CACHE_CONTROL), containsString("immutable"));
+    }
+
+    @Test
+    void getByIdAtStandaloneEndpointReturnsNotModifiedForSnapshotWithMatchingETag() throws Exception {
+        final URI termUri = URI.create(NAMESPACE + TERM_NAME);
+        when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
+        final Term term = Generator.generateTerm();
+        term.setUri(termUri);
+        term.addType(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu);
+        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        final MvcResult mvcResult = mockMvc.perform(get("/terms/" + TERM_NAME).param(QueryParams.NAMESPACE, NAMESPACE))
+                                           .andExpect(status().isOk()).andReturn();
+        final String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/terms/" + TERM_NAME).param(QueryParams.NAMESPACE, NAMESPACE)
+                                                  .header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getByIdReturnsTermWithWeakETagBasedOnVocabularyContentVersion() throws Exception {
+        final URI termUri = initTermUriResolution();
+        final Term term = Generator.generateTerm();
+        term.setUri(termUri);
+        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        when(termServiceMock.getContentVersion(URI.create(VOCABULARY_URI))).thenReturn("1");
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/" + TERM_NAME))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals("W/\"1\"", mvcResult.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getByIdMarksSnapshotAsImmutable() throws Exception {
+        final URI termUri = initTermUriResolution();
+        final Term term = Generator.generateTerm();
+        term.setUri(termUri);
+        term.addType(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu);
+        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/" + TERM_NAME))
+                                           .andExpect(status().isOk()).andReturn();
+        assertThat(mvcResult.getResponse().getHeader(HttpHeaders.CACHE_CONTROL), containsString("immutable"));
+    }
+
+    @Test
+    void getByIdReturnsNotModifiedWithoutLoadingTermWhenVocabularyContentVersionMatches() throws Exception {
+        when(idResolverMock.resolveIdentifier(config.getNamespace().getVocabulary(), VOCABULARY_NAME))
+                .thenReturn(URI.create(VOCABULARY_URI));
+        when(termServiceMock.getContentVersion(URI.create(VOCABULARY_URI))).thenReturn("1");
+        mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/" + TERM_NAME).header(HttpHeaders.IF_NONE_MATCH, "W/\"1\""))
+               .andExpect(status().isNotModified());
+        verify(termServiceMock, never()).findRequired(any());
+    }
+
     @Test
     void updateUpdatesTerm() throws Exception {
         final URI termUri = initTermUriResolution();
@@ -287,6 +353,27 @@ class TermControllerTest extends BaseControllerTestRunner {
         verify(termServiceMock).findAll(searchString, vocabulary);
     }
 
+    @Test
+    void getAllWritesTermsAsJsonLdDocumentWithSharedContextWhenJsonLdIsAccepted() throws Exception {
+        when(idResolverMock.resolveIdentifier(Environment.BASE_URI, VOCABULARY_NAME))
+                .thenReturn(URI.create(VOCABULARY_URI));
+        final List<TermDto> terms = termsToDtos(Generator.generateTermsWithIds(5));
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(termServiceMock.findAll(eq(vocabulary))).thenReturn(terms);
+
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms")
+                                                            .param(QueryParams.NAMESPACE, Environment.BASE_URI)
+                                                            .accept(JsonLd.MEDIA_TYPE))
+                                           .andExpect(status().isOk()).andReturn();
+        assertThat(mvcResult.getResponse().getContentType(), containsString(JsonLd.MEDIA_TYPE));
+        final Map<?, ?> document = (Map<?, ?>) JsonUtils.fromString(mvcResult.getResponse().getContentAsString());
+        assertTrue(document.containsKey("@context"));
+        final List<?> graph = (List<?>) document.get("@graph");
+        assertEquals(terms.size(), graph.size());
+        assertEquals(terms.stream().map(t -> t.getUri().toString()).collect(Collectors.toSet()),
+                     graph.stream().map(n -> ((Map<?, ?>) n).get(JsonLd.ID)).collect(Collectors.toSet()));
+    }
+
     @Test
     void getSubTermsFindsSubTermsOfTermWithSpecifiedId() throws Exception {
         when(idResolverMock.resolveIdentifier(config.getNamespace().getVocabulary(), VOCABULARY_NAME))
@@ -410,6 +497,31 @@ class TermControllerTest extends BaseControllerTestRunner {
         assertEquals(PageRequest.of(5, 100), captor.getValue());
     }
 
+    @Test
+    void getAllRootsReturnsNotModifiedWhenVocabularyContentVersionMatches() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        when(termServiceMock.getContentVersion(URI.create(VOCABULARY_URI))).thenReturn("1");
+        mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots").header(HttpHeaders.IF_NONE_MATCH, "W/\"1\""))
+               .andExpect(status().isNotModified());
+        verify(termServiceMock, never()).findAllRoots(any(), any(Pageable.class), anyCollection());
+    }
+
+    @Test
+    void getAllRootsReturnsRootsWhenVocabularyContentVersionChanged() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        when(termServiceMock.getContentVersion(URI.create(VOCABULARY_URI))).thenReturn("2");
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        final List<TermDto> terms = termsToDtos(Generator.generateTermsWithIds(5));
+        when(termServiceMock.findAllRoots(eq(vocabulary), any(Pageable.class), anyCollection())).thenReturn(terms);
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots")
+                                                            .header(HttpHeaders.IF_NONE_MATCH, "W/\"1\""))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals("W/\"2\"", mvcResult.getResponse().getHeader(HttpHeaders.ETAG));
+        final List<TermDto> result = readValue(mvcResult, new TypeReference<List<TermDto>>() {
+        });
+        assertEquals(terms.size(), result.size());
+    }
+
     @Test
     void getAllRootsCreatesDefaultPageRequestWhenPagingInfoIsNotSpecified() throws Exception {
         initNamespaceAndIdentifierResolution();
@@ -11,6 +11,7 @@ import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.validation.ValidationResult;
+import cz.cvut.kbss.termit.persistence.snapshot.SnapshotJob;
 import cz.cvut.kbss.termit.rest.handler.ErrorInfo;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.VocabularyService;
@@ -35,6 +36,7 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -128,6 +130,28 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
         verify(serviceMock, never()).findAll();
     }
 
+    @Test
+    void getAllReturnsNotModifiedWhenETagMatchesLastModificationVersion() throws Exception {
+        final long lastModified = System.currentTimeMillis();
+        when(serviceMock.getLastModified()).thenReturn(lastModified);
+
+        mockMvc.perform(get(PATH).header(HttpHeaders.IF_NONE_MATCH, "W/\"" + lastModified + "\""))
+               .andExpect(status().isNotModified());
+        verify(serviceMock, never()).findAll();
+    }
+
+    @Test
+    void getAllReturnsVocabulariesWhenLastModificationVersionChangedWithinSameSecond() throws Exception {
+        final long lastModified = (System.currentTimeMillis() / 1000) * 1000;
+        when(serviceMock.getLastModified()).thenReturn(lastModified + 1);
+        when(serviceMock.findAll()).thenReturn(Collections.singletonList(generateVocabulary()));
+
+        final MvcResult mvcResult = mockMvc.perform(get(PATH).header(HttpHeaders.IF_NONE_MATCH,
+                                                                     "W/\"" + lastModified + "\""))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals("W/\"" + (lastModified + 1) + "\"", mvcResult.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
     @Test
     void createVocabularyPersistsSpecifiedVocabulary() throws Exception {
         final Vocabulary vocabulary = Generator.generateVocabulary();
@@ -349,7 +373,7 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
     void runTextAnalysisOnAllTermsInvokesTextAnalysisOnAllTermsFromService() throws Exception {
         final Vocabulary vocabulary = generateVocabulary();
         vocabulary.setUri(VOCABULARY_URI);
-        when(sut.getById(FRAGMENT, Optional.of(NAMESPACE))).thenReturn(vocabulary);
+        when(serviceMock.findRequired(any())).thenReturn(vocabulary);
         mockMvc.perform(put(PATH + "/" + FRAGMENT + "/terms/text-analysis")).andExpect(status().isAccepted());
         verify(serviceMock).runTextAnalysisOnAllTerms(vocabulary);
     }
@@ -432,24 +456,44 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
     }
 
     @Test
-    void createSnapshotCreatesSnapshotOfVocabularyWithSpecifiedIdentification() throws Exception {
+    void createSnapshotStartsSnapshotOfVocabularyWithSpecifiedIdentification() throws Exception {
         final Vocabulary vocabulary = generateVocabularyAndInitReferenceResolution();
-        final Snapshot snapshot = Generator.generateSnapshot(vocabulary);
-        when(serviceMock.createSnapshot(any())).thenReturn(snapshot);
+        when(serviceMock.createSnapshot(any())).thenReturn(new CompletableFuture<>());
         mockMvc.perform(post(PATH + "/" + FRAGMENT + "/versions"))
-               .andExpect(status().isCreated());
+               .andExpect(status().isAccepted());
         verify(serviceMock).createSnapshot(vocabulary);
     }
 
     @Test
-    void createSnapshotReturnsLocationHeaderWithSnapshotApiPath() throws Exception {
-        final Vocabulary vocabulary = generateVocabularyAndInitReferenceResolution();
-        final Snapshot snapshot = Generator.generateSnapshot(vocabulary);
-        when(serviceMock.createSnapshot(any())).thenReturn(snapshot);
+    void createSnapshotReturnsLocationHeaderWithSnapshotJobApiPath() throws Exception {
+        generateVocabularyAndInitReferenceResolution();
+        when(serviceMock.createSnapshot(any())).thenReturn(new CompletableFuture<>());
         final MvcResult mvcResult = mockMvc.perform(post(PATH + "/" + FRAGMENT + "/versions"))
-                                           .andExpect(status().isCreated())
+                                           .andExpect(status().isAccepted())
                                            .andReturn();
-        verifyLocationEquals(PATH + "/" + IdentifierResolver.extractIdentifierFragment(snapshot.getUri()), mvcResult);
+        verifyLocationEquals(PATH + "/" + FRAGMENT + "/versions/job", mvcResult);
+    }
+
+    @Test
+    void getLatestSnapshotJobReturnsSnapshotJobOfVocabulary() throws Exception {
+        final Vocabulary vocabulary = generateVocabularyAndInitReferenceResolution();
+        final SnapshotJob job = new SnapshotJob(vocabulary.getUri(), Generator.generateUri(), 1);
+        when(serviceMock.findLatestSnapshotJob(vocabulary)).thenReturn(Optional.of(job));
+
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + FRAGMENT + "/versions/job"))
+                                           .andExpect(status().isOk()).andReturn();
+        final Map<String, Object> result = readValue(mvcResult, new TypeReference<Map<String, Object>>() {
+        });
+        assertEquals(job.getSnapshot().toString(), result.get("snapshot"));
+        assertEquals(SnapshotJob.Status.RUNNING.toString(), result.get("status"));
+    }
+
+    @Test
+    void getLatestSnapshotJobReturnsNotFoundWhenVocabularyHasNoSnapshotJob() throws Exception {
+        final Vocabulary vocabulary = generateVocabularyAndInitReferenceResolution();
+        when(serviceMock.findLatestSnapshotJob(vocabulary)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get(PATH + "/" + FRAGMENT + "/versions/job")).andExpect(status().isNotFound());
     }
 
     @Test
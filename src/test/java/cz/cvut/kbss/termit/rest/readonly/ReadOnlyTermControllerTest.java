@@ -26,6 +26,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.net.URI;
@@ -46,6 +47,7 @@ import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -173,6 +175,17 @@ class ReadOnlyTermControllerTest extends BaseControllerTestRunner {
         assertEquals(PageRequest.of(5, 100), captor.getValue());
     }
 
+    @Test
+    void getAllRootsReturnsNotModifiedWhenVocabularyContentVersionMatches() throws Exception {
+        when(idResolver.resolveIdentifier(config.getNamespace()
+                                                .getVocabulary(), VOCABULARY_NAME)).thenReturn(
+                URI.create(VOCABULARY_URI));
+        when(termService.getContentVersion(URI.create(VOCABULARY_URI))).thenReturn("1");
+        mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms/roots").header(HttpHeaders.IF_NONE_MATCH, "W/\"1\""))
+               .andExpect(status().isNotModified());
+        verify(termService, never()).findAllRoots(any(), any(Pageable.class));
+    }
+
     @Test
     void getAllRootsCreatesDefaultPageRequestWhenPagingInfoIsNotSpecified() throws Exception {
         when(idResolver.resolveIdentifier(config.getNamespace()
@@ -109,7 +109,7 @@ class JwtAuthorizationFilterTest {
 
     @Test
     void doFilterInternalExtractsUserInfoFromJwtAndSetsUpSecurityContext() throws Exception {
-        when(detailsServiceMock.loadUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
+        when(detailsServiceMock.loadCachedUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
         generateJwtIntoRequest();
 
         sut.doFilterInternal(mockRequest, mockResponse, chainMock);
@@ -132,7 +132,7 @@ class JwtAuthorizationFilterTest {
 
     @Test
     void doFilterInternalInvokesFilterChainAfterSuccessfulExtractionOfUserInfo() throws Exception {
-        when(detailsServiceMock.loadUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
+        when(detailsServiceMock.loadCachedUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
         generateJwtIntoRequest();
         sut.doFilterInternal(mockRequest, mockResponse, chainMock);
         verify(chainMock).doFilter(mockRequest, mockResponse);
@@ -159,13 +159,28 @@ class JwtAuthorizationFilterTest {
 
     @Test
     void doFilterInternalRefreshesUserTokenOnSuccessfulAuthorization() throws Exception {
-        when(detailsServiceMock.loadUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
+        when(detailsServiceMock.loadCachedUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
         generateJwtIntoRequest();
         sut.doFilterInternal(mockRequest, mockResponse, chainMock);
         assertTrue(mockResponse.containsHeader(HttpHeaders.AUTHORIZATION));
         assertNotEquals(mockRequest.getHeader(HttpHeaders.AUTHORIZATION),
                         mockResponse.getHeader(HttpHeaders.AUTHORIZATION));
-        verify(jwtUtilsSpy).refreshToken(any());
+        verify(jwtUtilsSpy).refreshTokenIfExpiring(any());
+    }
+
+    @Test
+    void doFilterInternalDoesNotRefreshTokenWhichDoesNotExpireWithinRefreshWindow() throws Exception {
+        when(detailsServiceMock.loadCachedUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
+        final String token = Jwts.builder().setSubject(user.getUsername())
+                                 .setId(user.getUri().toString())
+                                 .setIssuedAt(Date.from(tokenIssued))
+                                 .setExpiration(Date.from(tokenIssued.plusMillis(
+                                         config.getJwt().getRefreshWindow() + 60000L)))
+                                 .signWith(signingKey, JwtUtils.SIGNATURE_ALGORITHM).compact();
+        mockRequest.addHeader(HttpHeaders.AUTHORIZATION, SecurityConstants.JWT_TOKEN_PREFIX + token);
+        sut.doFilterInternal(mockRequest, mockResponse, chainMock);
+        verify(chainMock).doFilter(mockRequest, mockResponse);
+        assertFalse(mockResponse.containsHeader(HttpHeaders.AUTHORIZATION));
     }
 
     @Test
@@ -185,7 +200,7 @@ class JwtAuthorizationFilterTest {
 
     @Test
     void doFilterInternalReturnsUnauthorizedWhenUserAccountIsLocked() throws Exception {
-        when(detailsServiceMock.loadUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
+        when(detailsServiceMock.loadCachedUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
         generateJwtIntoRequest();
         user.lock();
         sut.doFilterInternal(mockRequest, mockResponse, chainMock);
@@ -197,7 +212,7 @@ class JwtAuthorizationFilterTest {
 
     @Test
     void doFilterInternalReturnsUnauthorizedWhenUserAccountIsDisabled() throws Exception {
-        when(detailsServiceMock.loadUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
+        when(detailsServiceMock.loadCachedUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
         generateJwtIntoRequest();
         user.disable();
         sut.doFilterInternal(mockRequest, mockResponse, chainMock);
@@ -244,7 +259,7 @@ class JwtAuthorizationFilterTest {
                                  .setIssuedAt(new Date())
                                  .setExpiration(new Date(System.currentTimeMillis() + 10000))
                                  .signWith(signingKey, JwtUtils.SIGNATURE_ALGORITHM).compact();
-        when(detailsServiceMock.loadUserByUsername(anyString())).thenThrow(UsernameNotFoundException.class);
+        when(detailsServiceMock.loadCachedUserByUsername(anyString())).thenThrow(UsernameNotFoundException.class);
         mockRequest.addHeader(HttpHeaders.AUTHORIZATION, SecurityConstants.JWT_TOKEN_PREFIX + token);
         sut.doFilterInternal(mockRequest, mockResponse, chainMock);
         assertEquals(HttpStatus.UNAUTHORIZED.value(), mockResponse.getStatus());
@@ -228,6 +228,36 @@ class JwtUtilsTest {
         assertTrue(claims.getExpiration().after(oldExpiration));
     }
 
+    @Test
+    void refreshTokenIfExpiringRefreshesTokenExpiringWithinRefreshWindow() {
+        final Date oldIssueDate = new Date();
+        final Date oldExpiration = new Date(oldIssueDate.getTime() + 10000);
+        final String token = Jwts.builder().setSubject(user.getUsername())
+                                 .setId(user.getUri().toString())
+                                 .setIssuedAt(oldIssueDate)
+                                 .setExpiration(oldExpiration)
+                                 .signWith(key, JwtUtils.SIGNATURE_ALGORITHM).compact();
+
+        final Optional<String> result = sut.refreshTokenIfExpiring(token);
+        assertTrue(result.isPresent());
+        final Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(result.get())
+                                  .getBody();
+        assertTrue(claims.getExpiration().after(oldExpiration));
+    }
+
+    @Test
+    void refreshTokenIfExpiringReturnsEmptyOptionalForTokenNotExpiringWithinRefreshWindow() {
+        final Date issueDate = new Date();
+        final String token = Jwts.builder().setSubject(user.getUsername())
+                                 .setId(user.getUri().toString())
+                                 .setIssuedAt(issueDate)
+                                 .setExpiration(new Date(issueDate.getTime() + config.getJwt()
+                                                                                      .getRefreshWindow() + 60000))
+                                 .signWith(key, JwtUtils.SIGNATURE_ALGORITHM).compact();
+
+        assertFalse(sut.refreshTokenIfExpiring(token).isPresent());
+    }
+
     @Test
     void extractUserInfoThrowsJwtExceptionWhenTokenIsSignedWithInvalidSecret() {
         final String token = Jwts.builder().setSubject(user.getUsername())
@@ -4,6 +4,7 @@ import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.dao.skos.SKOSImporter;
+import cz.cvut.kbss.termit.service.changetracking.ChangeTracker;
 import cz.cvut.kbss.termit.service.repository.VocabularyRepositoryService;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
@@ -21,6 +22,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -40,6 +42,9 @@ class VocabularyRepositoryServiceImportTest {
     @Mock
     private Configuration configuration;
 
+    @Mock
+    private ChangeTracker changeTracker;
+
     @InjectMocks
     private VocabularyRepositoryService sut;
 
@@ -54,11 +59,12 @@ class VocabularyRepositoryServiceImportTest {
                                                           Constants.MediaType.TURTLE,
                                                           Environment.loadFile("data/test-vocabulary.ttl"));
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
-        when(importer.importVocabulary(any(URI.class), any(), any(), any())).thenReturn(vocabulary);
+        when(importer.importVocabulary(any(URI.class), any(), any(), any(BiConsumer.class), any()))
+                .thenReturn(vocabulary);
         final Vocabulary result = sut.importVocabulary(vocabulary.getUri(), input);
         final ArgumentCaptor<InputStream> captor = ArgumentCaptor.forClass(InputStream.class);
         verify(importer).importVocabulary(eq(vocabulary.getUri()), eq(Constants.MediaType.TURTLE), any(),
-                                          captor.capture());
+                                          any(BiConsumer.class), captor.capture());
         assertNotNull(captor.getValue());
         assertEquals(vocabulary, result);
     }
@@ -15,6 +15,7 @@ import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.event.DocumentRenameEvent;
 import cz.cvut.kbss.termit.event.FileRenameEvent;
 import cz.cvut.kbss.termit.exception.AssetRemovalException;
+import cz.cvut.kbss.termit.exception.InvalidParameterException;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.exception.UnsupportedAssetOperationException;
@@ -62,6 +63,9 @@ class ResourceServiceTest {
     @Mock
     private ChangeRecordService changeRecordService;
 
+    @Mock
+    private TermOccurrenceService termOccurrenceService;
+
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
@@ -117,6 +121,15 @@ class ResourceServiceTest {
         verify(documentManager).getAsResource(file);
     }
 
+    @Test
+    void getCompressedContentLoadsCompressedContentOfFileFromDocumentManager() {
+        final File file = new File();
+        file.setLabel("Test");
+        file.setUri(Generator.generateUri());
+        sut.getCompressedContent(file);
+        verify(documentManager).getAsCompressedResource(file);
+    }
+
     @Test
     void getContentThrowsUnsupportedAssetOperationWhenResourceIsNotFile() {
         final Resource resource = Generator.generateResourceWithId();
@@ -476,4 +489,19 @@ class ResourceServiceTest {
         assertThrows(AssetRemovalException.class, () -> sut.remove(document));
         verify(resourceRepositoryService, never()).remove(any());
     }
+
+    @Test
+    void getOccurrencesRetrievesOccurrencesInRegionOfFileViaTermOccurrenceService() {
+        final File file = Generator.generateFileWithId("test.html");
+        final URI term = Generator.generateUri();
+        sut.getOccurrences(file, 100, 200, term);
+        verify(termOccurrenceService).findAllInRegion(file, 100, 200, term);
+    }
+
+    @Test
+    void getOccurrencesThrowsInvalidParameterExceptionForInvalidRegion() {
+        final File file = Generator.generateFileWithId("test.html");
+        assertThrows(InvalidParameterException.class, () -> sut.getOccurrences(file, 200, 100, null));
+        verify(termOccurrenceService, never()).findAllInRegion(any(), anyInt(), anyInt(), any());
+    }
 }
@@ -74,10 +74,14 @@ class ChangeTrackerTest extends BaseServiceTestRunner {
     }
 
     private List<AbstractChangeRecord> findRecords(HasIdentifier entity) {
+        return findRecords(entity.getUri());
+    }
+
+    private List<AbstractChangeRecord> findRecords(URI entityUri) {
         return em.createNativeQuery("SELECT ?x WHERE { ?x a ?changeRecord ; ?concerns ?entity . }", AbstractChangeRecord.class)
                  .setParameter("changeRecord", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_zmena))
                  .setParameter("concerns", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_zmenenou_entitu))
-                 .setParameter("entity", entity.getUri())
+                 .setParameter("entity", entityUri)
                  .getResultList();
     }
 
@@ -134,4 +138,27 @@ class ChangeTrackerTest extends BaseServiceTestRunner {
                     equalTo(DC.Terms.SOURCE)));
         });
     }
+
+    @Test
+    void recordVocabularyContentChangesStoresRecordsWithAuthorAndTimestamp() {
+        enableRdfsInference(em);
+        final PersistChangeRecord added = new PersistChangeRecord();
+        added.setChangedEntity(Generator.generateUri());
+        final UpdateChangeRecord updated = new UpdateChangeRecord();
+        updated.setChangedEntity(Generator.generateUri());
+        updated.setChangedAttribute(URI.create(SKOS.PREF_LABEL));
+        updated.setNewValue(Collections.singleton(MultilingualString.create("updated", Environment.LANGUAGE)));
+        transactional(() -> sut.recordVocabularyContentChanges(vocabulary, List.of(added, updated)));
+
+        final List<AbstractChangeRecord> addedResult = findRecords(added.getChangedEntity());
+        assertEquals(1, addedResult.size());
+        assertThat(addedResult.get(0), instanceOf(PersistChangeRecord.class));
+        assertEquals(author, addedResult.get(0).getAuthor());
+        assertNotNull(addedResult.get(0).getTimestamp());
+        final List<AbstractChangeRecord> updatedResult = findRecords(updated.getChangedEntity());
+        assertEquals(1, updatedResult.size());
+        assertThat(updatedResult.get(0), instanceOf(UpdateChangeRecord.class));
+        assertEquals(URI.create(SKOS.PREF_LABEL), ((UpdateChangeRecord) updatedResult.get(0)).getChangedAttribute());
+        assertEquals(author, updatedResult.get(0).getAuthor());
+    }
 }
@@ -15,8 +15,10 @@ import static cz.cvut.kbss.termit.environment.Environment.loadFile;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -36,10 +38,16 @@ import cz.cvut.kbss.termit.util.TypeAwareResource;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,6 +64,9 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
     @Autowired
     private Configuration configuration;
 
+    @Autowired
+    private BlobStore blobStore;
+
     @Autowired
     private DefaultDocumentManager sut;
 
@@ -163,6 +174,70 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
         assertEquals(MediaType.TEXT_HTML_VALUE, result.getMediaType().get());
     }
 
+    @Test
+    void getAsResourceReturnsResourceWithHashChangingWithContent() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final Optional<String> original = sut.getAsResource(file).getContentHash();
+        assertTrue(original.isPresent());
+        assertEquals(original, sut.getAsResource(file).getContentHash());
+
+        sut.saveFileContent(file, loadFile("data/rdfa-simple.html"));
+        final Optional<String> result = sut.getAsResource(file).getContentHash();
+        assertTrue(result.isPresent());
+        assertNotEquals(original.get(), result.get());
+    }
+
+    @Test
+    void getAsCompressedResourceReturnsGzipCompressedContentOfHtmlFile() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final Optional<TypeAwareResource> result = sut.getAsCompressedResource(file);
+        assertTrue(result.isPresent());
+        assertEquals(Optional.of(MediaType.TEXT_HTML_VALUE), result.get().getMediaType());
+        assertNotEquals(sut.getAsResource(file).getContentHash(), result.get().getContentHash());
+        assertCompressedContent(physicalFile, result.get());
+    }
+
+    private static void assertCompressedContent(java.io.File physicalFile, TypeAwareResource compressed)
+            throws Exception {
+        try (final InputStream in = new GZIPInputStream(compressed.getInputStream())) {
+            assertArrayEquals(Files.readAllBytes(physicalFile.toPath()), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void getAsCompressedResourceRecreatesCompressedContentWhenFileContentChanges() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.getAsCompressedResource(file);
+
+        sut.saveFileContent(file, loadFile("data/rdfa-simple.html"));
+        final Optional<TypeAwareResource> result = sut.getAsCompressedResource(file);
+        assertTrue(result.isPresent());
+        assertCompressedContent(physicalFile, result.get());
+    }
+
+    @Test
+    void getAsCompressedResourceReturnsEmptyOptionalForFileNotSupportingCompression() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile("test", ".png", "");
+        Files.write(physicalFile.toPath(), new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        assertFalse(sut.getAsCompressedResource(file).isPresent());
+    }
+
     @Test
     void saveFileContentCreatesNewFileWhenNoneExists() throws Exception {
         final InputStream content = loadFile("data/rdfa-simple.html");
@@ -194,7 +269,7 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
     }
 
     @Test
-    void createBackupCreatesBackupFileWithIdenticalContent() throws Exception {
+    void createBackupStoresContentInBlobStoreAndRecordsItInBackupManifest() throws Exception {
         final File file = new File();
         final java.io.File physicalFile = generateFile();
         file.setLabel(physicalFile.getName());
@@ -204,10 +279,18 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
         assertNotNull(docDir.listFiles());
         assertEquals(1, docDir.listFiles().length);
         sut.createBackup(file);
-        assertEquals(2, docDir.listFiles().length);
-        for (java.io.File f : docDir.listFiles()) {
-            f.deleteOnExit();
-            assertEquals(CONTENT, String.join("\n", Files.readAllLines(f.toPath())));
+        final java.io.File manifest =
+                new java.io.File(docDir, physicalFile.getName() + DefaultDocumentManager.BACKUP_MANIFEST_SUFFIX);
+        manifest.deleteOnExit();
+        assertTrue(manifest.exists());
+        final List<String> backups = sut.getBackups(file);
+        assertEquals(1, backups.size());
+        assertBackupContent(physicalFile, backups.get(0));
+    }
+
+    private void assertBackupContent(java.io.File physicalFile, String key) throws Exception {
+        try (final InputStream in = blobStore.open(key)) {
+            assertArrayEquals(Files.readAllBytes(physicalFile.toPath()), in.readAllBytes());
         }
     }
 
@@ -229,8 +312,132 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
         assertEquals(2, files.length);
         for (java.io.File f : files) {
             f.deleteOnExit();
-            assertEquals(CONTENT, String.join("\n", Files.readAllLines(f.toPath())));
         }
+        final List<String> backups = sut.getBackups(file);
+        assertEquals(1, backups.size());
+        assertBackupContent(withoutExtension, backups.get(0));
+    }
+
+    @Test
+    void createBackupDoesNotRecordNewBackupWhenContentDidNotChange() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+
+        sut.createBackup(file);
+        sut.createBackup(file);
+        assertEquals(1, sut.getBackups(file).size());
+        Files.write(physicalFile.toPath(), Collections.singletonList("Updated content"));
+        sut.createBackup(file);
+        final List<String> backups = sut.getBackups(file);
+        assertEquals(2, backups.size());
+        assertBackupContent(physicalFile, backups.get(1));
+    }
+
+    @Test
+    void createBackupDiscardsOldestBackupsWhenMaxBackupsIsExceeded() throws Exception {
+        final int originalMax = configuration.getFile().getMaxBackups();
+        configuration.getFile().setMaxBackups(2);
+        try {
+            final File file = new File();
+            final java.io.File physicalFile = generateFile();
+            file.setLabel(physicalFile.getName());
+            document.addFile(file);
+            file.setDocument(document);
+
+            for (int i = 0; i < 3; i++) {
+                Files.write(physicalFile.toPath(), Collections.singletonList("Content " + i));
+                sut.createBackup(file);
+            }
+            final List<String> backups = sut.getBackups(file);
+            assertEquals(2, backups.size());
+            assertBackupContent(physicalFile, backups.get(1));
+        } finally {
+            configuration.getFile().setMaxBackups(originalMax);
+        }
+    }
+
+    @Test
+    void collectBackupGarbageRemovesOnlyUnreferencedBackupContents() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.createBackup(file);
+        final String referenced = sut.getBackups(file).get(0);
+        final java.io.File unreferencedContent = new java.io.File(physicalFile.getParentFile(), "unreferenced");
+        Files.write(unreferencedContent.toPath(), Collections.singletonList("Unreferenced content"));
+        final String unreferenced = blobStore.store(unreferencedContent.toPath());
+        final FileTime old =
+                FileTime.fromMillis(System.currentTimeMillis() - 2 * BlobStore.GARBAGE_COLLECTION_GRACE_PERIOD);
+        try (final Stream<Path> blobs = Files.walk(Paths.get(configuration.getFile().getStorage(),
+                                                             BlobStore.BLOB_DIRECTORY))) {
+            for (Path blob : blobs.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                Files.setLastModifiedTime(blob, old);
+            }
+        }
+
+        sut.collectBackupGarbage();
+        assertTrue(blobStore.exists(referenced));
+        assertFalse(blobStore.exists(unreferenced));
+    }
+
+    @Test
+    void collectBackupGarbageImportsLegacyBackupsIntoBlobStoreBeforeExistingBackups() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.createBackup(file);
+        final java.io.File older = new java.io.File(physicalFile.getParentFile(),
+                                                    physicalFile.getName() + "~2019-01-01_120000_1");
+        Files.write(older.toPath(), Collections.singletonList("Older content"));
+        final java.io.File newer = new java.io.File(physicalFile.getParentFile(),
+                                                    physicalFile.getName() + "~2019-02-01_120000_1");
+        Files.write(newer.toPath(), Collections.singletonList("Newer content"));
+        final byte[] olderContent = Files.readAllBytes(older.toPath());
+        final byte[] newerContent = Files.readAllBytes(newer.toPath());
+
+        sut.collectBackupGarbage();
+        final List<String> backups = sut.getBackups(file);
+        assertEquals(3, backups.size());
+        try (final InputStream in = blobStore.open(backups.get(0))) {
+            assertArrayEquals(olderContent, in.readAllBytes());
+        }
+        try (final InputStream in = blobStore.open(backups.get(1))) {
+            assertArrayEquals(newerContent, in.readAllBytes());
+        }
+        assertBackupContent(physicalFile, backups.get(2));
+        assertFalse(older.exists());
+        assertFalse(newer.exists());
+    }
+
+    @Test
+    void removeRemovesBackupManifestAndCompressedVariantButNotOtherFilesStartingWithFileName() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.createBackup(file);
+        assertTrue(sut.getAsCompressedResource(file).isPresent());
+        final java.io.File docDir = physicalFile.getParentFile();
+        final java.io.File other = new java.io.File(docDir, physicalFile.getName() + "~notes.txt");
+        Files.write(other.toPath(), Collections.singletonList("Notes"));
+        other.deleteOnExit();
+
+        sut.remove(file);
+        assertFalse(physicalFile.exists());
+        assertFalse(new java.io.File(docDir, physicalFile.getName() + DefaultDocumentManager.BACKUP_MANIFEST_SUFFIX)
+                            .exists());
+        assertFalse(
+                new java.io.File(docDir, physicalFile.getName() + DefaultDocumentManager.COMPRESSED_VARIANT_SUFFIX)
+                        .exists());
+        assertTrue(other.exists());
     }
 
     @Test
@@ -366,6 +573,20 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
         assertTrue(docDir.exists());
     }
 
+    @Test
+    void removeRemovesAlsoCompressedContentOfFile() throws Exception {
+        final File file = new File();
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final java.io.File compressed = sut.getAsCompressedResource(file).orElseThrow().getFile();
+        assertTrue(compressed.exists());
+
+        sut.remove(file);
+        assertFalse(compressed.exists());
+    }
+
     @Test
     void removeRemovesPhysicalFileForStandaloneFile() throws Exception {
         final File file = new File();
@@ -14,6 +14,7 @@
  */
 package cz.cvut.kbss.termit.service.jmx;
 
+import cz.cvut.kbss.termit.event.CleanupOrphanedOccurrencesEvent;
 import cz.cvut.kbss.termit.event.EvictCacheEvent;
 import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
 import cz.cvut.kbss.termit.event.VocabularyContentModified;
@@ -27,6 +28,7 @@ import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.verify;
 
@@ -62,4 +64,10 @@ class AppAdminBeanTest {
         verify(eventPublisherMock, atLeastOnce()).publishEvent(captor.capture());
         assertTrue(captor.getAllValues().stream().anyMatch(VocabularyContentModified.class::isInstance));
     }
+
+    @Test
+    void cleanupOrphanedOccurrencesPublishesCleanupOrphanedOccurrencesEvent() {
+        sut.cleanupOrphanedOccurrences();
+        verify(eventPublisherMock).publishEvent(any(CleanupOrphanedOccurrencesEvent.class));
+    }
 }
@@ -81,12 +81,12 @@ class ResourceRepositoryServiceTest {
     }
 
     @Test
-    void removeDeletesOccurrenceTargetsAndTermOccurrencesAssociatedWithResource() {
+    void removeSchedulesCheckOfTermOccurrencesAssociatedWithResource() {
         final File file = Generator.generateFileWithId("test.txt");
 
         sut.remove(file);
         verify(resourceDao).remove(file);
-        verify(occurrenceDao).removeAll(file);
+        verify(occurrenceDao).scheduleCheck(file.getUri());
     }
 
     @Test
@@ -24,8 +24,10 @@ import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.assignment.FileOccurrenceTarget;
 import cz.cvut.kbss.termit.model.assignment.TermDefinitionSource;
+import cz.cvut.kbss.termit.model.assignment.TermFileOccurrence;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,8 +36,7 @@ import org.springframework.test.annotation.DirtiesContext;
 
 import java.util.Collections;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class TermOccurrenceRepositoryServiceTest extends BaseServiceTestRunner {
@@ -43,6 +44,9 @@ class TermOccurrenceRepositoryServiceTest extends BaseServiceTestRunner {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private TermOccurrenceDao termOccurrenceDao;
+
     @Autowired
     private TermOccurrenceRepositoryService sut;
 
@@ -73,4 +77,32 @@ class TermOccurrenceRepositoryServiceTest extends BaseServiceTestRunner {
         assertEquals(term.getUri(), result.getTerm());
         assertEquals(resource.getUri(), result.getTarget().getSource());
     }
+
+    @Test
+    void cleanupOrphansRemovesOccurrencesInRemovedSourcesScheduledForCheck() {
+        final Term term = Generator.generateTermWithId();
+        transactional(() -> em.persist(term));
+        final File removed = persistFileWithOccurrence(term, "removed.html");
+        final File other = persistFileWithOccurrence(term, "other.html");
+        transactional(() -> {
+            em.remove(em.getReference(File.class, removed.getUri()));
+            termOccurrenceDao.scheduleCheck(removed.getUri());
+        });
+
+        sut.cleanupOrphans();
+        assertTrue(termOccurrenceDao.findAllTargeting(removed).isEmpty());
+        assertFalse(termOccurrenceDao.findAllTargeting(other).isEmpty());
+        assertTrue(termOccurrenceDao.findSourcesToCheck(TermOccurrenceRepositoryService.CLEANUP_BATCH_SIZE).isEmpty());
+    }
+
+    private File persistFileWithOccurrence(Term term, String label) {
+        final File file = Generator.generateFileWithId(label);
+        final TermFileOccurrence occurrence = new TermFileOccurrence(term.getUri(), new FileOccurrenceTarget(file));
+        occurrence.getTarget().setSelectors(Collections.singleton(new TextQuoteSelector("test")));
+        transactional(() -> {
+            em.persist(file);
+            sut.persist(occurrence);
+        });
+        return file;
+    }
 }
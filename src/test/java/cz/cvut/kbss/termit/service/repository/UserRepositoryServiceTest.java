@@ -15,6 +15,7 @@
 package cz.cvut.kbss.termit.service.repository;
 
 import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.event.UserAccountModified;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.exception.ValidationException;
 import cz.cvut.kbss.termit.model.UserAccount;
@@ -22,6 +23,7 @@ import cz.cvut.kbss.termit.persistence.dao.UserAccountDao;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -29,6 +31,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -60,9 +63,17 @@ class UserRepositoryServiceTest {
     @Spy
     private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserRepositoryService sut;
 
+    @BeforeEach
+    void setUp() {
+        sut.setApplicationEventPublisher(eventPublisher);
+    }
+
     @Test
     void existsByUsernameReturnsTrueForExistingUsername() {
         final UserAccount user = Generator.generateUserAccountWithPassword();
@@ -158,4 +169,16 @@ class UserRepositoryServiceTest {
         verify(userAccountDao).persist(captor.capture());
         assertEquals(originalUri, captor.getValue().getUri());
     }
+
+    @Test
+    void updatePublishesUserAccountModifiedEvent() {
+        final UserAccount user = Generator.generateUserAccountWithPassword();
+        when(userAccountDao.find(user.getUri())).thenReturn(Optional.of(user));
+        doAnswer(arg -> arg.getArgument(0)).when(userAccountDao).update(any());
+
+        sut.update(user);
+        final ArgumentCaptor<UserAccountModified> captor = ArgumentCaptor.forClass(UserAccountModified.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(user.getUri(), captor.getValue().getUserUri());
+    }
 }
@@ -386,7 +386,7 @@ class VocabularyRepositoryServiceTest extends BaseServiceTestRunner {
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
         transactional(() -> em.persist(vocabulary, descriptorFor(vocabulary)));
 
-        final Snapshot snapshot = sut.createSnapshot(vocabulary);
+        final Snapshot snapshot = sut.createSnapshot(vocabulary).join();
         assertNotNull(snapshot);
         assertEquals(vocabulary.getUri(), snapshot.getVersionOf());
         final Vocabulary result = em.find(Vocabulary.class, snapshot.getUri());
@@ -398,7 +398,7 @@ class VocabularyRepositoryServiceTest extends BaseServiceTestRunner {
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
         transactional(() -> em.persist(vocabulary, descriptorFor(vocabulary)));
 
-        sut.createSnapshot(vocabulary);
+        sut.createSnapshot(vocabulary).join();
         final ArgumentCaptor<VocabularyCreatedEvent> captor = ArgumentCaptor.forClass(VocabularyCreatedEvent.class);
         verify(eventPublisher).publishEvent(captor.capture());
         assertNotNull(captor.getValue());
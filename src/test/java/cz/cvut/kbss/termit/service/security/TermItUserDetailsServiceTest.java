@@ -19,6 +19,7 @@ package cz.cvut.kbss.termit.service.security;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.UserAccountModified;
 import cz.cvut.kbss.termit.model.UserAccount;
 import cz.cvut.kbss.termit.security.model.TermItUserDetails;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
@@ -53,4 +54,51 @@ class TermItUserDetailsServiceTest extends BaseServiceTestRunner {
                 assertThrows(UsernameNotFoundException.class, () -> sut.loadUserByUsername(username));
         assertEquals("User with username " + username + " not found.", ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadCachedUserByUsernameReturnsCachedAccountUntilItIsModified() {
+        final UserAccount user = Generator.generateUserAccountWithPassword();
+        transactional(() -> em.persist(user));
+        assertEquals(user.getLastName(), sut.loadCachedUserByUsername(user.getUsername()).getUser().getLastName());
+
+        final String newLastName = "Updated";
+        transactional(() -> {
+            final UserAccount toUpdate = em.find(UserAccount.class, user.getUri());
+            toUpdate.setLastName(newLastName);
+        });
+        assertEquals(user.getLastName(), sut.loadCachedUserByUsername(user.getUsername()).getUser().getLastName());
+
+        sut.onUserAccountModified(new UserAccountModified(this, user.getUri()));
+        assertEquals(newLastName, sut.loadCachedUserByUsername(user.getUsername()).getUser().getLastName());
+    }
+
+    @Test
+    void onUserAccountModifiedEvictsAccountCachedDuringModifyingTransactionAfterCommit() {
+        final UserAccount user = Generator.generateUserAccountWithPassword();
+        transactional(() -> em.persist(user));
+
+        transactional(() -> {
+            sut.onUserAccountModified(new UserAccountModified(this, user.getUri()));
+            // Simulates a concurrent request caching the account before the modification is committed
+            sut.loadCachedUserByUsername(user.getUsername());
+        });
+        final String newLastName = "Updated";
+        transactional(() -> {
+            final UserAccount toUpdate = em.find(UserAccount.class, user.getUri());
+            toUpdate.setLastName(newLastName);
+        });
+        assertEquals(newLastName, sut.loadCachedUserByUsername(user.getUsername()).getUser().getLastName());
+    }
+
+    @Test
+    void loadCachedUserByUsernameReturnsCopyOfCachedAccount() {
+        final UserAccount user = Generator.generateUserAccountWithPassword();
+        transactional(() -> em.persist(user));
+        final TermItUserDetails first = sut.loadCachedUserByUsername(user.getUsername());
+        first.getUser().lock();
+
+        final TermItUserDetails second = sut.loadCachedUserByUsername(user.getUsername());
+        assertNotSame(first.getUser(), second.getUser());
+        assertFalse(second.getUser().isLocked());
+    }
+}
@@ -0,0 +1,38 @@
+package cz.cvut.kbss.termit.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionUtilsTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void afterCommitExecutesActionImmediatelyWhenNoTransactionIsActive() {
+        final AtomicInteger counter = new AtomicInteger();
+        TransactionUtils.afterCommit(counter::incrementAndGet);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void afterCommitExecutesActionOnlyAfterTransactionCommits() {
+        final AtomicInteger counter = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionUtils.afterCommit(counter::incrementAndGet);
+        assertEquals(0, counter.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, counter.get());
+    }
+}
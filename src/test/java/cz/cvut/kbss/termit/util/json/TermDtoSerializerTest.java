@@ -0,0 +1,77 @@
+package cz.cvut.kbss.termit.util.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.config.WebAppConfig;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.listing.TermDto;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TermDtoSerializerTest {
+
+    private final ObjectMapper sut = WebAppConfig.createJsonObjectMapper();
+
+    /**
+     * Mapper using the default bean serialization of terms
+     */
+    private final ObjectMapper beanMapper = createBeanMapper();
+
+    private static ObjectMapper createBeanMapper() {
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.ALWAYS);
+        final SimpleModule module = new SimpleModule();
+        module.addSerializer(MultilingualString.class, new MultilingualStringSerializer());
+        mapper.registerModule(module);
+        return mapper;
+    }
+
+    @Test
+    void serializeProducesSameJsonAsBeanSerialization() throws Exception {
+        final Term parent = Generator.generateTermWithId(Generator.generateUri());
+        final Term term = Generator.generateMultiLingualTerm("en", "cs");
+        term.setVocabulary(parent.getVocabulary());
+        term.setGlossary(Generator.generateUri());
+        term.setParentTerms(Collections.singleton(parent));
+        term.setTypes(Collections.singleton(Generator.generateUri().toString()));
+        term.setDraft(false);
+        final TermInfo child = Generator.generateTermInfoWithId();
+        child.setVocabulary(term.getVocabulary());
+        term.setSubTerms(new LinkedHashSet<>(Collections.singletonList(child)));
+        final List<TermDto> terms = Arrays.asList(new TermDto(term), new TermDto(parent));
+
+        assertEquals(beanMapper.readTree(beanMapper.writeValueAsString(terms)),
+                     sut.readTree(sut.writeValueAsString(terms)));
+    }
+
+    @Test
+    void serializeWritesNullAttributesLikeBeanSerialization() throws Exception {
+        final TermDto term = new TermDto();
+        term.setUri(Generator.generateUri());
+        term.setLabel(MultilingualString.create("test", null));
+
+        assertEquals(beanMapper.readTree(beanMapper.writeValueAsString(term)),
+                     sut.readTree(sut.writeValueAsString(term)));
+    }
+
+    @Test
+    void serializeProducesTermInfoDeserializableAsBefore() throws Exception {
+        final TermInfo termInfo = Generator.generateTermInfoWithId();
+        termInfo.setTypes(Collections.singleton(Generator.generateUri().toString()));
+
+        final TermInfo result = sut.readValue(sut.writeValueAsString(termInfo), TermInfo.class);
+        assertEquals(termInfo.getUri(), result.getUri());
+        assertEquals(termInfo.getLabel(), result.getLabel());
+        assertEquals(termInfo.getTypes(), result.getTypes());
+    }
+}
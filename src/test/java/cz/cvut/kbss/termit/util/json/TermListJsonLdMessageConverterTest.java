@@ -0,0 +1,134 @@
+package cz.cvut.kbss.termit.util.json;
+
+import com.github.jsonldjava.core.JsonLdProcessor;
+import com.github.jsonldjava.utils.JsonUtils;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.listing.TermDto;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermListJsonLdMessageConverterTest {
+
+    private static final MediaType JSON_LD = MediaType.valueOf(JsonLd.MEDIA_TYPE);
+
+    private static final Type TERM_DTO_LIST = new ParameterizedTypeReference<List<TermDto>>() {
+    }.getType();
+
+    private final TermListJsonLdMessageConverter sut = new TermListJsonLdMessageConverter();
+
+    @Test
+    void canWriteSupportsOnlyCollectionsOfTerms() {
+        assertTrue(sut.canWrite(TERM_DTO_LIST, List.class, JSON_LD));
+        assertTrue(sut.canWrite(new ParameterizedTypeReference<Set<TermInfo>>() {
+        }.getType(), Set.class, JSON_LD));
+        assertFalse(sut.canWrite(new ParameterizedTypeReference<List<Term>>() {
+        }.getType(), List.class, JSON_LD));
+        assertFalse(sut.canWrite(TermDto.class, TermDto.class, JSON_LD));
+        assertFalse(sut.canWrite(TERM_DTO_LIST, List.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void writeWritesTermsIntoGraphWithSharedContext() throws Exception {
+        final List<TermDto> terms = Arrays.asList(new TermDto(Generator.generateTermWithId()),
+                                                  new TermDto(Generator.generateTermWithId()));
+        final Map<?, ?> document = (Map<?, ?>) JsonUtils.fromString(write(terms));
+
+        assertTrue(document.containsKey("@context"));
+        final List<?> graph = (List<?>) document.get("@graph");
+        assertEquals(terms.size(), graph.size());
+        graph.forEach(node -> assertFalse(((Map<?, ?>) node).containsKey("@context")));
+    }
+
+    private String write(Collection<?> terms) throws Exception {
+        final MockHttpOutputMessage message = new MockHttpOutputMessage();
+        sut.write(terms, TERM_DTO_LIST, JSON_LD, message);
+        return message.getBodyAsString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void writeProducesJsonLdExpandingToTermAttributes() throws Exception {
+        final Term parent = Generator.generateTermWithId(Generator.generateUri());
+        final Term term = Generator.generateMultiLingualTerm("en", "cs");
+        term.setVocabulary(parent.getVocabulary());
+        term.setGlossary(Generator.generateUri());
+        term.setParentTerms(Collections.singleton(parent));
+        final TermInfo child = Generator.generateTermInfoWithId();
+        term.setSubTerms(Collections.singleton(child));
+        final String type = Generator.generateUri().toString();
+        term.setTypes(Collections.singleton(type));
+
+        final Map<?, ?> node = expandSingle(write(Collections.singletonList(new TermDto(term))));
+        assertEquals(term.getUri().toString(), node.get(JsonLd.ID));
+        assertEquals(new HashSet<>(Arrays.asList(SKOS.CONCEPT, type)),
+                     new HashSet<>((List<?>) node.get(JsonLd.TYPE)));
+        assertEquals(term.getLabel(), toMultilingualString(node.get(SKOS.PREF_LABEL)));
+        assertEquals(term.getDefinition(), toMultilingualString(node.get(SKOS.DEFINITION)));
+        assertEquals(term.getGlossary().toString(), idOf(node.get(SKOS.IN_SCHEME)));
+        assertEquals(term.getVocabulary().toString(), idOf(node.get(Vocabulary.s_p_je_pojmem_ze_slovniku)));
+        assertEquals(child.getUri().toString(), idOf(node.get(SKOS.NARROWER)));
+        final Map<?, ?> parentNode = (Map<?, ?>) ((List<?>) node.get(SKOS.BROADER)).get(0);
+        assertEquals(parent.getUri().toString(), parentNode.get(JsonLd.ID));
+        assertEquals(parent.getLabel(), toMultilingualString(parentNode.get(SKOS.PREF_LABEL)));
+    }
+
+    private static Map<?, ?> expandSingle(String jsonLd) throws Exception {
+        final List<Object> expanded = JsonLdProcessor.expand(JsonUtils.fromString(jsonLd));
+        assertEquals(1, expanded.size());
+        return (Map<?, ?>) expanded.get(0);
+    }
+
+    private static MultilingualString toMultilingualString(Object expanded) {
+        final MultilingualString result = new MultilingualString();
+        ((List<?>) expanded).forEach(v -> {
+            final Map<?, ?> value = (Map<?, ?>) v;
+            result.set((String) value.get("@language"), (String) value.get("@value"));
+        });
+        return result;
+    }
+
+    private static String idOf(Object expanded) {
+        return (String) ((Map<?, ?>) ((List<?>) expanded).get(0)).get(JsonLd.ID);
+    }
+
+    @Test
+    void writeSupportsValuesWithoutLanguage() throws Exception {
+        final TermDto term = new TermDto(Generator.generateTermWithId());
+        term.getLabel().set("no language");
+
+        final Map<?, ?> node = expandSingle(write(Collections.singletonList(term)));
+        assertEquals(term.getLabel(), toMultilingualString(node.get(SKOS.PREF_LABEL)));
+    }
+
+    @Test
+    void writeBreaksCyclesInTermHierarchy() throws Exception {
+        final TermDto term = new TermDto(Generator.generateTermWithId());
+        final TermDto parent = new TermDto(Generator.generateTermWithId());
+        term.setParentTerms(Collections.singleton(parent));
+        parent.setParentTerms(Collections.singleton(term));
+
+        final Map<?, ?> node = expandSingle(write(Collections.singletonList(term)));
+        final Map<?, ?> parentNode = (Map<?, ?>) ((List<?>) node.get(SKOS.BROADER)).get(0);
+        final List<?> grandParents = (List<?>) parentNode.get(SKOS.BROADER);
+        assertTrue(grandParents.contains(Collections.singletonMap(JsonLd.ID, term.getUri().toString())));
+    }
+
+    @Test
+    void writeWritesEmptyGraphForEmptyCollection() throws Exception {
+        final Map<?, ?> document = (Map<?, ?>) JsonUtils.fromString(write(Collections.emptyList()));
+        assertEquals(Collections.emptyList(), document.get("@graph"));
+    }
+}